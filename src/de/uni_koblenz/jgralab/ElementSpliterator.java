@@ -0,0 +1,123 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab;
+
+import java.util.Iterator;
+
+/**
+ * An {@link ElementSpliterator} iterates over graph elements like the
+ * iterators of {@link Graph#vertices()}, {@link Graph#edges()} and
+ * {@link Vertex#incidences()}, but it can also be split into disjoint parts
+ * which may be traversed by different threads. It is created by
+ * {@link Graph#vertexSpliterator(de.uni_koblenz.jgralab.schema.VertexClass)},
+ * {@link Graph#edgeSpliterator(de.uni_koblenz.jgralab.schema.EdgeClass)} and
+ * {@link Vertex#incidenceSpliterator(de.uni_koblenz.jgralab.schema.EdgeClass, EdgeDirection)}
+ * .<br/>
+ * <br/>
+ * 
+ * Vertices and edges are visited in id order, not in the order of vSeq or
+ * eSeq. The {@link TraversalContext} of the creating thread is captured on
+ * creation and respected by all parts, no matter which thread traverses them.
+ * Like the other iterators, a spliterator fails with a
+ * {@link java.util.ConcurrentModificationException} if the underlying element
+ * sequence is modified during the traversal.
+ * 
+ * <pre>
+ * final AtomicLong sum = new AtomicLong();
+ * graph.vertexSpliterator(vc).forEachParallel(
+ * 		new ElementSpliterator.Action&lt;Vertex&gt;() {
+ * 			public void apply(Vertex v) {
+ * 				sum.addAndGet(v.getDegree());
+ * 			}
+ * 		});
+ * </pre>
+ * 
+ * @author ist@uni-koblenz.de
+ * 
+ * @param <E>
+ *            the element type
+ */
+public interface ElementSpliterator<E extends GraphElement<?, ?>> extends
+		Iterator<E> {
+
+	/**
+	 * An action applied to each element by {@link #forEachRemaining(Action)}
+	 * and {@link #forEachParallel(Action)}.
+	 */
+	public interface Action<E> {
+		public void apply(E element);
+	}
+
+	/**
+	 * Splits off a part of the remaining elements. Afterwards, this
+	 * spliterator covers only the elements not covered by the returned one.
+	 * 
+	 * @return a new {@link ElementSpliterator} covering a part of the
+	 *         remaining elements, or null if the remaining elements are too
+	 *         few to be split
+	 */
+	public ElementSpliterator<E> trySplit();
+
+	/**
+	 * @return an upper bound of the number of remaining elements
+	 */
+	public int estimateSize();
+
+	/**
+	 * Applies <code>action</code> to all remaining elements in the current
+	 * thread.
+	 */
+	public void forEachRemaining(Action<? super E> action);
+
+	/**
+	 * Splits this spliterator into parts and applies <code>action</code> to
+	 * all remaining elements using one thread per available processor. The
+	 * method returns after all elements have been processed. If the graph is
+	 * in concurrent access mode, the calling thread holds the read lock
+	 * meanwhile. Therefore, <code>action</code> must neither acquire the read
+	 * or write lock of the graph nor modify it: the worker would wait forever
+	 * for a writer that waits for the calling thread. This is checked by
+	 * assertions. <code>action</code> is called concurrently and has to be
+	 * thread safe. Exceptions thrown by <code>action</code> are rethrown in
+	 * the calling thread.
+	 */
+	public void forEachParallel(Action<? super E> action);
+
+	/**
+	 * Like {@link #forEachParallel(Action)}, but using the given number of
+	 * <code>threads</code>.
+	 */
+	public void forEachParallel(Action<? super E> action, int threads);
+}
@@ -38,7 +38,9 @@ package de.uni_koblenz.jgralab;
 import java.io.OutputStream;
 import java.util.Comparator;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
+import de.uni_koblenz.jgralab.exception.GraphException;
 import de.uni_koblenz.jgralab.exception.GraphIOException;
 import de.uni_koblenz.jgralab.schema.EdgeClass;
 import de.uni_koblenz.jgralab.schema.EnumDomain;
@@ -363,6 +365,32 @@ public interface Graph extends AttributedElement<GraphClass, Graph> {
 	public Iterable<Vertex> vertices(VertexClass vertexclass,
 			VertexFilter<Vertex> filter);
 
+	/**
+	 * Returns an {@link ElementSpliterator} over all vertices of this
+	 * {@link Graph} which have the specified {@link VertexClass} (including
+	 * subclasses) in id order. The spliterator can be split into parts which
+	 * are traversed in parallel.
+	 * 
+	 * @param vertexclass
+	 *            a {@link VertexClass}, or null for all vertices
+	 * @return an {@link ElementSpliterator} for all vertices of the specified
+	 *         {@link VertexClass}
+	 */
+	public ElementSpliterator<Vertex> vertexSpliterator(VertexClass vertexclass);
+
+	/**
+	 * Returns an {@link ElementSpliterator} over all edges of this
+	 * {@link Graph} which have the specified {@link EdgeClass} (including
+	 * subclasses) in id order. The spliterator can be split into parts which
+	 * are traversed in parallel.
+	 * 
+	 * @param edgeClass
+	 *            an {@link EdgeClass}, or null for all edges
+	 * @return an {@link ElementSpliterator} for all edges of the specified
+	 *         {@link EdgeClass}
+	 */
+	public ElementSpliterator<Edge> edgeSpliterator(EdgeClass edgeClass);
+
 	/**
 	 * @return true if there are {@link TemporaryVertex} or
 	 *         {@link TemporaryEdge} elements in this {@link Graph}
@@ -422,6 +450,32 @@ public interface Graph extends AttributedElement<GraphClass, Graph> {
 	 */
 	public int getGraphStructureChangedListenerCount();
 
+	/**
+	 * Starts a batch of structural changes. Until the matching call of
+	 * {@link #endBatch()}, the ids of added and deleted vertices and edges are
+	 * collected, and registered {@link GraphStructureChangedBatchListener}s
+	 * are not notified per element but once at the end of the batch. All
+	 * other <code>GraphStructureChangedListener</code>s are notified per
+	 * element as usual. The ids of deleted elements are not reused during the
+	 * batch. Batches can be nested, only the outermost batch notifies the
+	 * listeners. The graph can't be defragmented during a batch.<br/>
+	 * <br/>
+	 *
+	 * Every call has to be matched by a call of {@link #endBatch()}, e.g. in
+	 * a <code>finally</code> block.
+	 */
+	public void beginBatch();
+
+	/**
+	 * Completes a batch of structural changes started by
+	 * {@link #beginBatch()}. If it is the outermost batch, the collected
+	 * changes are passed to all registered
+	 * {@link GraphStructureChangedBatchListener}s in one
+	 * {@link GraphStructureChangeBatch}, if any vertices or edges have been
+	 * added or deleted.
+	 */
+	public void endBatch();
+
 	public void addGraphChangeListener(GraphChangeListener l);
 
 	public void removeGraphChangeListener(GraphChangeListener l);
@@ -502,6 +556,100 @@ public interface Graph extends AttributedElement<GraphClass, Graph> {
 	public void save(OutputStream out, ProgressFunction pf)
 			throws GraphIOException;
 
+	/**
+	 * Creates a read-only snapshot of this {@link Graph}. The snapshot packs
+	 * the vertex, edge and incidence sequences as well as all attribute values
+	 * into primitive arrays and hands out lightweight {@link Vertex} and
+	 * {@link Edge} objects on demand, so it needs only a fraction of the
+	 * memory of a modifiable graph. Element ids and the order of all sequences
+	 * are retained. Any attempt to modify the snapshot throws an
+	 * {@link UnsupportedOperationException}. Calling this method on a snapshot
+	 * returns the snapshot itself.
+	 * 
+	 * A {@link TraversalContext} set on this graph is ignored, the snapshot
+	 * always contains the complete graph.
+	 * 
+	 * @return a frozen copy of this {@link Graph}
+	 * @throws GraphException
+	 *             if this graph contains temporary elements
+	 */
+	public Graph freeze();
+
+	/**
+	 * Returns a read-only snapshot of this {@link Graph} pinned at the current
+	 * graph version (see {@link #getGraphVersion()}). The snapshot is a frozen
+	 * copy (see {@link #freeze()}) which is shared by all callers as long as
+	 * this graph isn't modified, i.e., a new copy is only made by the first
+	 * call after a modification. Iterating a snapshot never throws a
+	 * {@link java.util.ConcurrentModificationException}, and once a snapshot
+	 * has been taken, reading it never blocks writers of this graph. Snapshots
+	 * of old versions are reclaimed by the garbage collector as soon as they
+	 * are no longer referenced.
+	 * 
+	 * Snapshots are not versioned copy-on-write: making a new copy takes
+	 * O(|V|+|E|) time and memory, and the read lock is held while the copy is
+	 * made, so writers are blocked for that duration. The copy is consistent
+	 * because all modifications, including attribute changes, acquire the
+	 * write lock. Therefore, concurrent access has to be enabled (see
+	 * {@link #setConcurrentAccess(boolean)}) before calling this method, and
+	 * snapshots pay off only if they are taken much less often than they are
+	 * read. Calling this method on a snapshot returns the snapshot itself.
+	 * 
+	 * @return a read-only snapshot of the current version of this
+	 *         {@link Graph}
+	 * @throws GraphException
+	 *             if concurrent access is not enabled or if this graph
+	 *             contains temporary elements
+	 */
+	public Graph snapshot();
+
+	/**
+	 * Enables or disables concurrent access to this {@link Graph}. In
+	 * concurrent mode, all modifications (creation, deletion and reordering of
+	 * vertices, edges and incidences, changing alpha or omega of edges, and
+	 * setting attribute values) acquire the write lock of a
+	 * {@link java.util.concurrent.locks.ReentrantReadWriteLock}. Threads that
+	 * traverse the graph while other threads modify it have to hold the read
+	 * lock (see {@link #getReadLock()}) for the duration of the traversal.
+	 * Several modifications can be grouped into one batch by holding the write
+	 * lock (see {@link #getWriteLock()}) around them, then readers are blocked
+	 * only once for the complete batch.
+	 * 
+	 * Note that a thread holding the read lock can't acquire the write lock,
+	 * i.e., a reader must not modify the graph.
+	 * 
+	 * Concurrent access is disabled by default. This method must not be
+	 * called while other threads access the graph.
+	 * 
+	 * @param concurrent
+	 *            true to enable concurrent access, false to disable it
+	 */
+	public void setConcurrentAccess(boolean concurrent);
+
+	/**
+	 * @return true iff concurrent access is enabled for this {@link Graph}
+	 * @see #setConcurrentAccess(boolean)
+	 */
+	public boolean isConcurrentAccess();
+
+	/**
+	 * Returns the read lock of this {@link Graph}. If concurrent access is
+	 * disabled, a lock without any effect is returned.
+	 * 
+	 * @return the read lock of this {@link Graph}
+	 * @see #setConcurrentAccess(boolean)
+	 */
+	public Lock getReadLock();
+
+	/**
+	 * Returns the write lock of this {@link Graph}. If concurrent access is
+	 * disabled, a lock without any effect is returned.
+	 * 
+	 * @return the write lock of this {@link Graph}
+	 * @see #setConcurrentAccess(boolean)
+	 */
+	public Lock getWriteLock();
+
 	/**
 	 * @return the {@link GraphClass} of this {@link Graph}
 	 */
@@ -0,0 +1,260 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab;
+
+import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.Schema;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+
+/**
+ * GraphBuilder creates large graphs in bulk. Like {@link GraphIO} when loading
+ * a graph, it creates all vertices and edges while the graph is in loading
+ * mode, so that no change events are fired, no listeners are notified and the
+ * element and incidence list versions are not incremented. The incidences are
+ * recorded in primitive arrays and linked to the incidence lists in one step
+ * by {@link #build()}. The vertex and edge arrays of the graph are pre-sized
+ * with the expected counts and only expanded if these are exceeded.<br/>
+ * <br/>
+ * 
+ * Vertices and edges get consecutive ids in creation order, and the incidence
+ * list of each vertex is ordered by edge creation, exactly as if the graph was
+ * built by {@link Graph#createVertex(VertexClass)} and
+ * {@link Graph#createEdge(EdgeClass, Vertex, Vertex)}. Until {@link #build()}
+ * has been called, the graph must not be traversed or modified except for
+ * setting attribute values of the created elements and of the graph itself.
+ * 
+ * <pre>
+ * GraphBuilder builder = new GraphBuilder(schema, ImplementationType.STANDARD,
+ * 		null, vCount, eCount);
+ * Vertex v = builder.createVertex(vc);
+ * Vertex w = builder.createVertex(vc);
+ * builder.createEdge(ec, v, w);
+ * Graph graph = builder.build();
+ * </pre>
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class GraphBuilder {
+
+	private final GraphFactory graphFactory;
+
+	private final InternalGraph graph;
+
+	private int vCount;
+
+	private int eCount;
+
+	/**
+	 * first and last incidence of each vertex, index = vertex id
+	 */
+	private int[] firstIncidence;
+	private int[] lastIncidence;
+
+	/**
+	 * next incidence, index = eMax + signed incidence id (negative for the
+	 * reversed edge)
+	 */
+	private int[] nextIncidence;
+
+	private int eMax;
+
+	/**
+	 * Creates a builder for a new graph of <code>schema</code>.
+	 * 
+	 * @param schema
+	 *            the schema of the graph
+	 * @param implementationType
+	 *            the implementation type of the graph
+	 * @param id
+	 *            the id of the graph, or null to generate an id
+	 * @param vCount
+	 *            the expected number of vertices
+	 * @param eCount
+	 *            the expected number of edges
+	 */
+	public GraphBuilder(Schema schema, ImplementationType implementationType,
+			String id, int vCount, int eCount) {
+		this(schema.createDefaultGraphFactory(implementationType), id, vCount,
+				eCount);
+	}
+
+	/**
+	 * Creates a builder for a new graph created by <code>graphFactory</code>.
+	 * 
+	 * @param graphFactory
+	 *            the factory creating the graph and its elements
+	 * @param id
+	 *            the id of the graph, or null to generate an id
+	 * @param vCount
+	 *            the expected number of vertices
+	 * @param eCount
+	 *            the expected number of edges
+	 */
+	public GraphBuilder(GraphFactory graphFactory, String id, int vCount,
+			int eCount) {
+		this.graphFactory = graphFactory;
+		graph = graphFactory.createGraph(graphFactory.getSchema()
+				.getGraphClass(), id, Math.max(vCount, 1), Math.max(eCount, 1));
+		graph.setLoading(true);
+		eMax = graph.getMaxECount();
+		firstIncidence = new int[graph.getMaxVCount() + 1];
+		lastIncidence = new int[graph.getMaxVCount() + 1];
+		nextIncidence = new int[(2 * eMax) + 1];
+	}
+
+	/**
+	 * Returns the graph under construction, e.g. to set its attributes. It
+	 * must not be traversed or modified otherwise until {@link #build()} has
+	 * been called.
+	 * 
+	 * @return the graph under construction
+	 */
+	public Graph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Creates a vertex of class <code>vc</code> with the next vertex id.
+	 * 
+	 * @param vc
+	 *            the class of the new vertex
+	 * @return the new vertex
+	 */
+	public <T extends Vertex> T createVertex(VertexClass vc) {
+		assertNotBuilt();
+		if (vc.equals(graph.getGraphClass().getTemporaryVertexClass())) {
+			throw new GraphException(
+					"GraphBuilder can't create temporary vertices");
+		}
+		if (vCount == graph.getMaxVCount()) {
+			expandVertices();
+		}
+		T v = graphFactory.<T> createVertex(vc, vCount + 1, graph);
+		++vCount;
+		return v;
+	}
+
+	/**
+	 * Creates an edge of class <code>ec</code> from <code>alpha</code> to
+	 * <code>omega</code> with the next edge id. The new incidences are
+	 * appended to the incidence lists of <code>alpha</code> and
+	 * <code>omega</code> by {@link #build()}.
+	 * 
+	 * @param ec
+	 *            the class of the new edge
+	 * @param alpha
+	 *            the start vertex, created by this builder
+	 * @param omega
+	 *            the end vertex, created by this builder
+	 * @return the new edge
+	 */
+	public <T extends Edge> T createEdge(EdgeClass ec, Vertex alpha,
+			Vertex omega) {
+		assertNotBuilt();
+		if ((alpha.getGraph() != graph) || (omega.getGraph() != graph)) {
+			throw new GraphException(
+					"alpha and omega must have been created by this GraphBuilder");
+		}
+		if (ec.equals(graph.getGraphClass().getTemporaryEdgeClass())) {
+			throw new GraphException("GraphBuilder can't create temporary edges");
+		}
+		if (eCount == eMax) {
+			expandEdges();
+		}
+		int eId = eCount + 1;
+		T e = graphFactory.<T> createEdge(ec, eId, graph, alpha, omega);
+		++eCount;
+		appendIncidence(alpha.getId(), eId);
+		appendIncidence(omega.getId(), -eId);
+		return e;
+	}
+
+	/**
+	 * Links the incidence lists of all vertices and completes the graph. The
+	 * builder can't be used afterwards.
+	 * 
+	 * @return the complete graph
+	 */
+	@SuppressWarnings("unchecked")
+	public <G extends Graph> G build() {
+		assertNotBuilt();
+		graph.internalLoadingCompleted(firstIncidence, nextIncidence);
+		firstIncidence = null;
+		lastIncidence = null;
+		nextIncidence = null;
+		graph.setLoading(false);
+		graph.loadingCompleted();
+		return (G) graph;
+	}
+
+	private void assertNotBuilt() {
+		if (nextIncidence == null) {
+			throw new GraphException("The graph has already been built");
+		}
+	}
+
+	private void appendIncidence(int vId, int i) {
+		int last = lastIncidence[vId];
+		if (last == 0) {
+			firstIncidence[vId] = i;
+		} else {
+			nextIncidence[eMax + last] = i;
+		}
+		lastIncidence[vId] = i;
+	}
+
+	private void expandVertices() {
+		graph.expandVertexArray(graph.getExpandedVertexCount());
+		int n = graph.getMaxVCount() + 1;
+		int[] newFirst = new int[n];
+		System.arraycopy(firstIncidence, 0, newFirst, 0, firstIncidence.length);
+		firstIncidence = newFirst;
+		int[] newLast = new int[n];
+		System.arraycopy(lastIncidence, 0, newLast, 0, lastIncidence.length);
+		lastIncidence = newLast;
+	}
+
+	private void expandEdges() {
+		graph.expandEdgeArray(graph.getExpandedEdgeCount());
+		int newEMax = graph.getMaxECount();
+		int[] newNext = new int[(2 * newEMax) + 1];
+		System.arraycopy(nextIncidence, 0, newNext, newEMax - eMax,
+				nextIncidence.length);
+		nextIncidence = newNext;
+		eMax = newEMax;
+	}
+}
@@ -35,6 +35,7 @@
 
 package de.uni_koblenz.jgralab;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
@@ -45,9 +46,12 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -59,15 +63,26 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import de.uni_koblenz.jgralab.exception.GraphException;
 import de.uni_koblenz.jgralab.exception.GraphIOException;
 import de.uni_koblenz.jgralab.graphmarker.AbstractBooleanGraphMarker;
+import de.uni_koblenz.jgralab.impl.BlockGZIPInputStream;
+import de.uni_koblenz.jgralab.impl.BlockGZIPOutputStream;
 import de.uni_koblenz.jgralab.impl.GraphBaseImpl;
 import de.uni_koblenz.jgralab.impl.InternalAttributedElement;
 import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.impl.LazyAttributes;
+import de.uni_koblenz.jgralab.impl.TgBinaryLexer;
+import de.uni_koblenz.jgralab.impl.TgBinaryWriter;
 import de.uni_koblenz.jgralab.impl.TgLexer;
 import de.uni_koblenz.jgralab.impl.TgLexer.Token;
 import de.uni_koblenz.jgralab.schema.AggregationKind;
@@ -111,6 +126,7 @@ public final class GraphIO {
 			.toString();
 	public static final String TGRAPH_FILE_EXTENSION = ".tg";
 	public static final String TGRAPH_COMPRESSED_FILE_EXTENSION = ".tg.gz";
+	public static final String TGRAPH_BINARY_FILE_EXTENSION = ".tgb";
 	private static final int WRITE_BUFFER_SIZE = 65536;
 
 	/**
@@ -140,7 +156,7 @@ public final class GraphIO {
 		 */
 		@Override
 		public boolean accept(File dir, String name) {
-			if (name.matches(".+\\.[Tt][Gg](\\.[Gg][Zz])?$")) {
+			if (name.matches(".+\\.[Tt][Gg]([Bb]|\\.[Gg][Zz])?$")) {
 				return true;
 			}
 			return false;
@@ -176,6 +192,10 @@ public final class GraphIO {
 	private TgLexer lexer;
 	private Token lookAhead; // parser lookAhead token
 
+	// binary TG format (TGB), see TgBinaryWriter
+	private TgBinaryLexer binaryLexer;
+	private TgBinaryWriter binaryOut;
+
 	// arrays to keep incidence information
 	private Vertex[] edgeIn; // omega vertices, index = edge id
 	private Vertex[] edgeOut; // alpha vertices, index = edge id
@@ -185,6 +205,11 @@ public final class GraphIO {
 	// middle of nextIncidence array to care or negative incidence ids
 	private int edgeOffset;
 
+	// true iff the attribute values of vertices and edges are decoded lazily
+	private boolean lazy;
+	// the pending attribute values of the loaded graph, if lazy is true
+	private LazyAttributes lazyAttributes;
+
 	public static enum Unset {
 		UNSET
 	};
@@ -529,10 +554,41 @@ public final class GraphIO {
 	 */
 	public static void saveGraphToFile(Graph graph, String filename,
 			ProgressFunction pf) throws GraphIOException {
+		saveGraphToFile(graph, filename, pf, 1);
+	}
+
+	/**
+	 * Saves the specified <code>graph</code> to the file named
+	 * <code>filename</code> like {@link #saveGraphToFile(Graph, String,
+	 * ProgressFunction)}. If the file is GZIP compressed and
+	 * <code>threads</code> is greater than 1, the output is split into blocks
+	 * which are compressed by that many threads (see
+	 * {@link BlockGZIPOutputStream}). The file can be read by any GZIP reader,
+	 * and the loading methods with a <code>threads</code> parameter inflate
+	 * it in parallel.
+	 * 
+	 * @param graph
+	 *            a graph
+	 * @param filename
+	 *            the name of the TG file to be written
+	 * @param pf
+	 *            a {@link ProgressFunction}, may be <code>null</code>
+	 * @param threads
+	 *            number of compressing threads, values &lt;= 1 select the
+	 *            sequential GZIP compression
+	 * @throws GraphIOException
+	 *             if an IOException occurs
+	 */
+	public static void saveGraphToFile(Graph graph, String filename,
+			ProgressFunction pf, int threads) throws GraphIOException {
 		OutputStream out = null;
 		try {
-			out = outputStreamForFilename(filename);
-			saveGraphToStream(graph, out, pf);
+			out = outputStreamForFilename(filename, threads);
+			if (isBinaryFilename(filename)) {
+				saveBinaryGraphToStream(graph, out, pf);
+			} else {
+				saveGraphToStream(graph, out, pf);
+			}
 		} catch (IOException ex) {
 			throw new GraphIOException("Exception while saving graph to "
 					+ filename, ex);
@@ -561,7 +617,11 @@ public final class GraphIO {
 		OutputStream out = null;
 		try {
 			out = outputStreamForFilename(filename);
-			saveGraphToStream(subGraph, out, pf);
+			if (isBinaryFilename(filename)) {
+				saveBinaryGraphToStream(subGraph, out, pf);
+			} else {
+				saveGraphToStream(subGraph, out, pf);
+			}
 		} catch (IOException e) {
 			throw new GraphIOException("Exception while saving graph to "
 					+ filename, e);
@@ -636,6 +696,75 @@ public final class GraphIO {
 		}
 	}
 
+	/**
+	 * Saves the specified <code>graph</code> to the stream <code>out</code>
+	 * using the binary TG format (TGB). A {@link ProgressFunction}
+	 * <code>pf</code> can be used to monitor progress. The stream is
+	 * <em>not</em> closed.
+	 * 
+	 * @param graph
+	 *            a graph
+	 * @param out
+	 *            an OutputStream
+	 * @param pf
+	 *            a {@link ProgressFunction}, may be <code>null</code>
+	 * @throws GraphIOException
+	 *             if an IOException occurs
+	 */
+	public static void saveBinaryGraphToStream(Graph graph, OutputStream out,
+			ProgressFunction pf) throws GraphIOException {
+		try {
+			if (hasTemporaryElements(graph)) {
+				throw new GraphIOException("Saving graph " + graph
+						+ " is not possible. "
+						+ "It contains temporary graph elements.");
+			}
+			GraphIO io = new GraphIO();
+			io.TGOut = out;
+			io.saveBinaryGraph((InternalGraph) graph, pf, null);
+		} catch (IOException e) {
+			throw new GraphIOException("Exception while saving graph", e);
+		}
+	}
+
+	/**
+	 * Saves the marked <code>subGraph</code> to the stream <code>out</code>
+	 * using the binary TG format (TGB). A {@link ProgressFunction}
+	 * <code>pf</code> can be used to monitor progress. The stream is
+	 * <em>not</em> closed. This method does <i>not</i> check if the subgraph
+	 * marker is complete.
+	 * 
+	 * @param subGraph
+	 *            a BooleanGraphMarker denoting the subgraph to be saved
+	 * @param out
+	 *            an OutputStream
+	 * @param pf
+	 *            a {@link ProgressFunction}, may be <code>null</code>
+	 * @throws GraphIOException
+	 *             if an IOException occurs
+	 */
+	public static void saveBinaryGraphToStream(
+			AbstractBooleanGraphMarker subGraph, OutputStream out,
+			ProgressFunction pf) throws GraphIOException {
+		try {
+			if (hasTemporaryElements(subGraph, subGraph.getGraph())) {
+				throw new GraphIOException("Saving subgraph " + subGraph
+						+ " of " + subGraph.getGraph() + " is not possible. "
+						+ "It contains temporary graph elements.");
+			}
+			GraphIO io = new GraphIO();
+			io.TGOut = out;
+			io.saveBinaryGraph((InternalGraph) subGraph.getGraph(), pf,
+					subGraph);
+		} catch (IOException e) {
+			throw new GraphIOException("Exception while saving graph", e);
+		}
+	}
+
+	private static boolean isBinaryFilename(String filename) {
+		return filename.toLowerCase().endsWith(TGRAPH_BINARY_FILE_EXTENSION);
+	}
+
 	private static boolean hasTemporaryElements(Graph g) {
 		if (g.vertices(g.getGraphClass().getTemporaryVertexClass()).iterator()
 				.hasNext()) {
@@ -811,6 +940,130 @@ public final class GraphIO {
 		}
 	}
 
+	private void saveBinaryGraph(InternalGraph graph, ProgressFunction pf,
+			AbstractBooleanGraphMarker subGraph) throws IOException,
+			GraphIOException {
+		TraversalContext tc = graph.setTraversalContext(null);
+		OutputStream out = TGOut;
+		TgBinaryWriter w = new TgBinaryWriter(out);
+		try {
+			// header and schema are stored in TG syntax
+			TGOut = w;
+			w.beginSection(TgBinaryWriter.SCHEMA);
+			saveHeader();
+			schema = graph.getSchema();
+			saveSchema(schema);
+			binaryOut = w;
+
+			long graphElements = 0, currentCount = 0, interval = 1;
+			if (pf != null) {
+				if (subGraph != null) {
+					pf.init(subGraph.size());
+				} else {
+					pf.init(graph.getVCount() + graph.getECount());
+				}
+				interval = pf.getUpdateInterval();
+			}
+
+			int vCount = graph.getVCount();
+			int eCount = graph.getECount();
+			if (subGraph != null) {
+				vCount = 0;
+				eCount = 0;
+				for (AttributedElement<?, ?> ae : subGraph.getMarkedElements()) {
+					if (ae instanceof Vertex) {
+						vCount++;
+					} else if (ae instanceof Edge) {
+						eCount++;
+					}
+				}
+			}
+			w.beginSection(TgBinaryWriter.GRAPH);
+			w.writeStringRef(graph.getId());
+			w.writeSignedVarLong(graph.getGraphVersion());
+			w.writeStringRef(graph.getAttributedElementClass()
+					.getQualifiedName());
+			w.writeVarInt(graph.getMaxVCount());
+			w.writeVarInt(graph.getMaxECount());
+			w.writeVarInt(vCount);
+			w.writeVarInt(eCount);
+			graph.writeAttributeValues(this);
+			w.writeToken(Token.SEMICOLON);
+
+			w.beginSection(TgBinaryWriter.VERTICES);
+			for (Vertex v = graph.getFirstVertex(); v != null; v = v
+					.getNextVertex()) {
+				if ((subGraph != null) && !subGraph.isMarked(v)) {
+					continue;
+				}
+				w.writeVarInt(v.getId());
+				w.writeStringRef(v.getAttributedElementClass()
+						.getQualifiedName());
+				int degree = 0;
+				if (subGraph == null) {
+					degree = v.getDegree();
+				} else {
+					for (Edge i = v.getFirstIncidence(); i != null; i = i
+							.getNextIncidence()) {
+						if (subGraph.isMarked(i)) {
+							++degree;
+						}
+					}
+				}
+				w.writeVarInt(degree);
+				for (Edge i = v.getFirstIncidence(); i != null; i = i
+						.getNextIncidence()) {
+					if ((subGraph == null) || subGraph.isMarked(i)) {
+						w.writeSignedVarLong(i.getId());
+					}
+				}
+				((InternalAttributedElement) v).writeAttributeValues(this);
+				w.writeToken(Token.SEMICOLON);
+
+				// update progress bar
+				if (pf != null) {
+					graphElements++;
+					currentCount++;
+					if (currentCount == interval) {
+						pf.progress(graphElements);
+						currentCount = 0;
+					}
+				}
+			}
+
+			w.beginSection(TgBinaryWriter.EDGES);
+			for (Edge e = graph.getFirstEdge(); e != null; e = e.getNextEdge()) {
+				if ((subGraph != null) && !subGraph.isMarked(e)) {
+					continue;
+				}
+				w.writeVarInt(e.getId());
+				w.writeStringRef(e.getAttributedElementClass()
+						.getQualifiedName());
+				((InternalAttributedElement) e).writeAttributeValues(this);
+				w.writeToken(Token.SEMICOLON);
+
+				// update progress bar
+				if (pf != null) {
+					graphElements++;
+					currentCount++;
+					if (currentCount == interval) {
+						pf.progress(graphElements);
+						currentCount = 0;
+					}
+				}
+			}
+			w.finish();
+			// finish progress bar
+			if (pf != null) {
+				pf.finished();
+			}
+		} finally {
+			binaryOut = null;
+			TGOut = out;
+			graph.setTraversalContext(tc);
+		}
+	}
+
 	private void saveHeader() throws IOException {
 		write(JGraLab.getVersionInfo(true));
 		write("TGraph");
@@ -858,6 +1111,10 @@ public final class GraphIO {
 	private boolean compact = true;
 
 	public final void write(String s) throws IOException {
+		if (binaryOut != null) {
+			binaryOut.writeText(s);
+			return;
+		}
 		int len = s.length();
 		if (len > 0) {
 			int ch = s.charAt(0);
@@ -889,19 +1146,35 @@ public final class GraphIO {
 	}
 
 	public final void writeInteger(int i) throws IOException {
-		write(Integer.toString(i));
+		if (binaryOut != null) {
+			binaryOut.writeLong(i);
+		} else {
+			write(Integer.toString(i));
+		}
 	}
 
 	public final void writeLong(long l) throws IOException {
-		write(Long.toString(l));
+		if (binaryOut != null) {
+			binaryOut.writeLong(l);
+		} else {
+			write(Long.toString(l));
+		}
 	}
 
 	public final void writeDouble(double d) throws IOException {
-		write(Double.toString(d));
+		if (binaryOut != null) {
+			binaryOut.writeDouble(d);
+		} else {
+			write(Double.toString(d));
+		}
 	}
 
 	public final void writeUtfString(String s) throws IOException {
-		write(s == null ? NULL_LITERAL : toUtfString(s));
+		if (binaryOut != null) {
+			binaryOut.writeString(s);
+		} else {
+			write(s == null ? NULL_LITERAL : toUtfString(s));
+		}
 	}
 
 	public final void writeIdentifier(String s) throws IOException {
@@ -946,15 +1219,30 @@ public final class GraphIO {
 	public static Graph loadGraphFromFile(String filename,
 			ImplementationType implementationType, ProgressFunction pf)
 			throws GraphIOException {
+		return loadGraphFromFile(filename, implementationType, pf, 1);
+	}
+
+	/**
+	 * Loads a graph from the file <code>filename</code> using
+	 * <code>threads</code> parser threads. Values &lt;= 1 select the
+	 * sequential loader. TGB files are always loaded sequentially.
+	 */
+	public static Graph loadGraphFromFile(String filename,
+			ImplementationType implementationType, ProgressFunction pf,
+			int threads) throws GraphIOException {
 		if (implementationType == null) {
 			throw new IllegalArgumentException(
 					"ImplementationType must be != null");
 		}
+		if (isBinaryFilename(filename)) {
+			return loadBinaryGraphFromFile(filename, null, null,
+					implementationType, pf, false);
+		}
 		InputStream in = null;
 		try {
-			in = inputStreamForFilename(filename);
+			in = inputStreamForFilename(filename, threads);
 			return loadGraphFromStream(in, filename, null, null,
-					implementationType, pf);
+					implementationType, pf, threads);
 		} catch (IOException ex) {
 			throw new GraphIOException(
 					"Exception while loading graph from file " + filename, ex);
@@ -963,6 +1251,20 @@ public final class GraphIO {
 		}
 	}
 
+	/**
+	 * Loads the graph from the base file <code>filename</code> and applies
+	 * the changes recorded in the journal <code>journalFilename</code>. If the
+	 * journal doesn't exist, only the base file is loaded.
+	 * 
+	 * @see GraphJournal
+	 */
+	public static Graph loadGraphWithJournal(String filename,
+			String journalFilename, ImplementationType implementationType,
+			ProgressFunction pf) throws GraphIOException {
+		return GraphJournal.load(filename, journalFilename,
+				implementationType, pf);
+	}
+
 	public static <G extends Graph> G loadGraphFromFile(String filename,
 			Schema schema, ImplementationType implementationType,
 			ProgressFunction pf) throws GraphIOException {
@@ -980,15 +1282,32 @@ public final class GraphIO {
 
 	public static <G extends Graph> G loadGraphFromFile(String filename,
 			GraphFactory factory, ProgressFunction pf) throws GraphIOException {
+		return GraphIO.<G> loadGraphFromFile(filename, factory, pf, 1);
+	}
+
+	/**
+	 * Loads a graph from the file <code>filename</code> with the given
+	 * <code>factory</code> using <code>threads</code> parser threads. Values
+	 * &lt;= 1 select the sequential loader. TGB files are always loaded
+	 * sequentially.
+	 */
+	public static <G extends Graph> G loadGraphFromFile(String filename,
+			GraphFactory factory, ProgressFunction pf, int threads)
+			throws GraphIOException {
 		if (factory == null) {
 			throw new IllegalArgumentException("GraphFactory must be != null");
 		}
+		if (isBinaryFilename(filename)) {
+			return GraphIO.<G> loadBinaryGraphFromFile(filename,
+					factory.getSchema(), factory,
+					factory.getImplementationType(), pf, false);
+		}
 		InputStream in = null;
 		try {
-			in = inputStreamForFilename(filename);
+			in = inputStreamForFilename(filename, threads);
 			return GraphIO.<G> loadGraphFromStream(in, filename,
 					factory.getSchema(), factory,
-					factory.getImplementationType(), pf);
+					factory.getImplementationType(), pf, threads);
 		} catch (IOException ex) {
 			throw new GraphIOException(
 					"Exception while loading graph from file " + filename, ex);
@@ -997,10 +1316,98 @@ public final class GraphIO {
 		}
 	}
 
+	/**
+	 * Loads a graph from the TG or TGB file <code>filename</code> with lazy
+	 * attribute decoding. The attribute values of vertices and edges are not
+	 * decoded while loading, but on the first access to any attribute of the
+	 * respective element. For TG files, the undecoded values are kept in a
+	 * compact copy of their text, for TGB files only their offsets into the
+	 * mapped file are kept. Graph attributes are decoded immediately.
+	 * 
+	 * Loading is considerably faster and the memory needed for attribute
+	 * values only grows with the elements whose attributes are actually
+	 * accessed. Decoding doesn't fire change events and doesn't increase the
+	 * graph version.
+	 */
+	public static Graph loadGraphFromFileLazily(String filename,
+			ImplementationType implementationType, ProgressFunction pf)
+			throws GraphIOException {
+		if (implementationType == null) {
+			throw new IllegalArgumentException(
+					"ImplementationType must be != null");
+		}
+		return loadGraphFromFileLazily(filename, null, null,
+				implementationType, pf);
+	}
+
+	/**
+	 * Loads a graph from the TG or TGB file <code>filename</code> with the
+	 * given <code>factory</code> and lazy attribute decoding.
+	 * 
+	 * @see #loadGraphFromFileLazily(String, ImplementationType,
+	 *      ProgressFunction)
+	 */
+	public static <G extends Graph> G loadGraphFromFileLazily(
+			String filename, GraphFactory factory, ProgressFunction pf)
+			throws GraphIOException {
+		if (factory == null) {
+			throw new IllegalArgumentException("GraphFactory must be != null");
+		}
+		return GraphIO.<G> loadGraphFromFileLazily(filename,
+				factory.getSchema(), factory, factory.getImplementationType(),
+				pf);
+	}
+
+	private static <G extends Graph> G loadGraphFromFileLazily(
+			String filename, Schema schema, GraphFactory factory,
+			ImplementationType implementationType, ProgressFunction pf)
+			throws GraphIOException {
+		if (isBinaryFilename(filename)) {
+			return GraphIO.<G> loadBinaryGraphFromFile(filename, schema,
+					factory, implementationType, pf, true);
+		}
+		InputStream in = null;
+		try {
+			in = inputStreamForFilename(filename);
+			GraphIO io = new GraphIO();
+			io.lexer = new TgLexer(in, filename);
+			io.schema = schema;
+			io.lazy = true;
+			io.tgfile();
+			io.prepareGraphFactory(factory, implementationType);
+			@SuppressWarnings("unchecked")
+			G loadedGraph = (G) io.graph(pf, 1);
+			return loadedGraph;
+		} catch (GraphIOException e1) {
+			throw e1;
+		} catch (Exception e2) {
+			throw new GraphIOException(
+					"Exception while loading graph from file " + filename, e2);
+		} finally {
+			close(in);
+		}
+	}
+
 	private static InputStream inputStreamForFilename(String filename)
 			throws IOException {
+		return inputStreamForFilename(filename, 1);
+	}
+
+	/**
+	 * Opens the file <code>filename</code>. GZIP compressed files written by
+	 * a {@link BlockGZIPOutputStream} are inflated by <code>threads</code>
+	 * threads if <code>threads</code> is greater than 1.
+	 */
+	private static InputStream inputStreamForFilename(String filename,
+			int threads) throws IOException {
 		InputStream in = new FileInputStream(filename);
 		if (filename.toLowerCase().endsWith(".gz")) {
+			if (threads > 1) {
+				in = new BufferedInputStream(in, WRITE_BUFFER_SIZE);
+				if (BlockGZIPInputStream.isBlockCompressed(in)) {
+					return new BlockGZIPInputStream(in, threads);
+				}
+			}
 			in = new GZIPInputStream(in);
 		}
 		return in;
@@ -1008,10 +1415,21 @@ public final class GraphIO {
 
 	private static OutputStream outputStreamForFilename(String filename)
 			throws IOException {
+		return outputStreamForFilename(filename, 1);
+	}
+
+	/**
+	 * Creates the file <code>filename</code>. If <code>filename</code> ends
+	 * with <code>.gz</code> and <code>threads</code> is greater than 1, the
+	 * output is compressed by a {@link BlockGZIPOutputStream} with that many
+	 * threads.
+	 */
+	private static OutputStream outputStreamForFilename(String filename,
+			int threads) throws IOException {
 		OutputStream out = new FileOutputStream(filename);
 		if (filename.toLowerCase().endsWith(".gz")) {
-			out = new BufferedOutputStream(new GZIPOutputStream(out),
-					WRITE_BUFFER_SIZE);
+			out = new BufferedOutputStream(threads > 1 ? new BlockGZIPOutputStream(
+					out, threads) : new GZIPOutputStream(out), WRITE_BUFFER_SIZE);
 		} else {
 			out = new BufferedOutputStream(out, WRITE_BUFFER_SIZE);
 		}
@@ -1032,60 +1450,33 @@ public final class GraphIO {
 			String filename, Schema schema, GraphFactory graphFactory,
 			ImplementationType implementationType, ProgressFunction pf)
 			throws GraphIOException {
+		return GraphIO.<G> loadGraphFromStream(in, filename, schema,
+				graphFactory, implementationType, pf, 1);
+	}
+
+	/**
+	 * Loads a graph from the TG stream <code>in</code>. When
+	 * <code>threads</code> is greater than 1, the vertex and edge records are
+	 * parsed by that many worker threads. The loaded graph is the same as the
+	 * one loaded sequentially.
+	 * 
+	 * @param threads
+	 *            number of parser threads, values &lt;= 1 select the
+	 *            sequential loader
+	 */
+	public static <G extends Graph> G loadGraphFromStream(InputStream in,
+			String filename, Schema schema, GraphFactory graphFactory,
+			ImplementationType implementationType, ProgressFunction pf,
+			int threads) throws GraphIOException {
 		try {
 			GraphIO io = new GraphIO();
 			io.lexer = new TgLexer(in, filename);
 			io.schema = schema;
 			io.tgfile();
-			if (implementationType != ImplementationType.GENERIC) {
-				// we have replace the schema by an instance of the compiled
-				// schema, try to load the schema class
-				String schemaQName = io.schema.getQualifiedName();
-				Class<?> schemaClass = null;
-				try {
-					schemaClass = Class.forName(schemaQName, true,
-							SchemaClassManager.instance(schemaQName));
-				} catch (ClassNotFoundException e) {
-					// schema class not found, try compile schema in-memory
-					io.schema.finish();
-					io.schema.compile(CodeGeneratorConfiguration.MINIMAL);
-					try {
-						schemaClass = Class.forName(schemaQName, true,
-								SchemaClassManager.instance(schemaQName));
-					} catch (ClassNotFoundException e1) {
-						throw new GraphIOException(
-								"Unable to load a graph which belongs to the schema because the Java-classes for this schema can not be created.",
-								e1);
-					}
-				}
-				// create an instance of the compiled schema class
-				Method instanceMethod = schemaClass.getMethod("instance",
-						(Class<?>[]) null);
-				io.schema = (Schema) instanceMethod.invoke(null, new Object[0]);
-			}
-			io.schema.finish();
-			if (graphFactory == null) {
-				graphFactory = io.schema
-						.createDefaultGraphFactory(implementationType);
-			}
-			if (graphFactory.getSchema() != io.schema) {
-				throw new GraphIOException(
-						"Incompatible in graph factory: Expected '"
-								+ io.schema.getQualifiedName() + "', found '"
-								+ graphFactory.getSchema().getQualifiedName()
-								+ "'.");
-			}
-			if ((implementationType != null)
-					&& (graphFactory.getImplementationType() != implementationType)) {
-				throw new GraphIOException(
-						"Graph factory has wrong implementation type: Expected '"
-								+ implementationType + "', found '"
-								+ graphFactory.getImplementationType() + "'.");
-			}
-			io.graphFactory = graphFactory;
+			io.prepareGraphFactory(graphFactory, implementationType);
 
 			@SuppressWarnings("unchecked")
-			G loadedGraph = (G) io.graph(pf);
+			G loadedGraph = (G) io.graph(pf, threads);
 			return loadedGraph;
 		} catch (GraphIOException e1) {
 			throw e1;
@@ -1094,9 +1485,106 @@ public final class GraphIO {
 		}
 	}
 
-	private void tgfile() throws GraphIOException {
-		match();
-		header();
+	/**
+	 * Replaces the parsed schema by the compiled schema class (unless a
+	 * {@link ImplementationType#GENERIC} graph is loaded), and checks the
+	 * given or creates the default graph factory.
+	 */
+	private void prepareGraphFactory(GraphFactory graphFactory,
+			ImplementationType implementationType) throws GraphIOException,
+			NoSuchMethodException, IllegalAccessException,
+			InvocationTargetException {
+		if (implementationType != ImplementationType.GENERIC) {
+			// we have replace the schema by an instance of the compiled
+			// schema, try to load the schema class
+			String schemaQName = schema.getQualifiedName();
+			Class<?> schemaClass = null;
+			try {
+				schemaClass = Class.forName(schemaQName, true,
+						SchemaClassManager.instance(schemaQName));
+			} catch (ClassNotFoundException e) {
+				// schema class not found, try compile schema in-memory
+				schema.finish();
+				schema.compile(CodeGeneratorConfiguration.MINIMAL);
+				try {
+					schemaClass = Class.forName(schemaQName, true,
+							SchemaClassManager.instance(schemaQName));
+				} catch (ClassNotFoundException e1) {
+					throw new GraphIOException(
+							"Unable to load a graph which belongs to the schema because the Java-classes for this schema can not be created.",
+							e1);
+				}
+			}
+			// create an instance of the compiled schema class
+			Method instanceMethod = schemaClass.getMethod("instance",
+					(Class<?>[]) null);
+			schema = (Schema) instanceMethod.invoke(null, new Object[0]);
+		}
+		schema.finish();
+		if (graphFactory == null) {
+			graphFactory = schema.createDefaultGraphFactory(implementationType);
+		}
+		if (graphFactory.getSchema() != schema) {
+			throw new GraphIOException(
+					"Incompatible in graph factory: Expected '"
+							+ schema.getQualifiedName() + "', found '"
+							+ graphFactory.getSchema().getQualifiedName() + "'.");
+		}
+		if ((implementationType != null)
+				&& (graphFactory.getImplementationType() != implementationType)) {
+			throw new GraphIOException(
+					"Graph factory has wrong implementation type: Expected '"
+							+ implementationType + "', found '"
+							+ graphFactory.getImplementationType() + "'.");
+		}
+		this.graphFactory = graphFactory;
+	}
+
+	/**
+	 * Loads a graph from the binary TG file (TGB) <code>filename</code>. The
+	 * sections of the file are mapped into memory by means of
+	 * {@link FileChannel#map}, see {@link TgBinaryLexer}.
+	 */
+	private static <G extends Graph> G loadBinaryGraphFromFile(
+			String filename, Schema schema, GraphFactory graphFactory,
+			ImplementationType implementationType, ProgressFunction pf,
+			boolean lazy) throws GraphIOException {
+		try {
+			TgBinaryLexer in = mapFile(filename);
+			GraphIO io = new GraphIO();
+			io.lazy = lazy;
+			io.lexer = new TgLexer(in.sectionStream(TgBinaryWriter.SCHEMA),
+					filename);
+			io.schema = schema;
+			io.tgfile();
+			io.prepareGraphFactory(graphFactory, implementationType);
+			io.lexer = null;
+			in.readStrings();
+			io.binaryLexer = in;
+			@SuppressWarnings("unchecked")
+			G loadedGraph = (G) io.binaryGraph(pf);
+			return loadedGraph;
+		} catch (GraphIOException e1) {
+			throw e1;
+		} catch (Exception e2) {
+			throw new GraphIOException("Exception while loading graph from "
+					+ filename, e2);
+		}
+	}
+
+	private static TgBinaryLexer mapFile(String filename) throws IOException,
+			GraphIOException {
+		FileInputStream in = new FileInputStream(filename);
+		try {
+			return new TgBinaryLexer(in.getChannel(), filename);
+		} finally {
+			in.close();
+		}
+	}
+
+	private void tgfile() throws GraphIOException {
+		match();
+		header();
 		schema();
 		if ((lookAhead == Token.EOF) || (lookAhead == Token.GRAPH)) {
 			return;
@@ -1612,13 +2100,13 @@ public final class GraphIO {
 			match();
 			return null;
 		}
-		String c = lexer.getText();
+		String c = tokenText();
 		if (schema.isValidEnumConstant(c)) {
 			match();
 			return c;
 		}
-		throw new GraphIOException(lexer.getLocation()
-				+ "Invalid enumeration constant '" + lexer.getText() + "'");
+		throw new GraphIOException(location()
+				+ "Invalid enumeration constant '" + c + "'");
 	}
 
 	/**
@@ -1961,41 +2449,66 @@ public final class GraphIO {
 	}
 
 	public final void match() throws GraphIOException {
-		lookAhead = lexer.nextToken();
+		lookAhead = nextToken();
 	}
 
 	public final void match(Token t) throws GraphIOException {
 		if (lookAhead == t) {
-			lookAhead = lexer.nextToken();
+			lookAhead = nextToken();
 		} else {
-			throw new GraphIOException(lexer.getLocation() + "Expected " + t
-					+ " but found '" + lexer.getText() + "'");
+			throw new GraphIOException(location() + "Expected " + t
+					+ " but found '" + tokenText() + "'");
 		}
 	}
 
 	public final String matchGetText(Token t) throws GraphIOException {
 		if (lookAhead == t) {
-			String text = lexer.getText();
-			lookAhead = lexer.nextToken();
+			String text = tokenText();
+			lookAhead = nextToken();
 			return text;
 		} else {
-			throw new GraphIOException(lexer.getLocation() + "Expected " + t
-					+ " but found " + lexer.getText() + "'");
+			throw new GraphIOException(location() + "Expected " + t
+					+ " but found " + tokenText() + "'");
 		}
 	}
 
 	public final int matchInteger() throws GraphIOException {
-		int result = lookAhead == Token.INT ? lexer.getInt() : 0;
+		int result = 0;
+		if (lookAhead == Token.INT) {
+			result = binaryLexer != null ? binaryLexer.getInt() : lexer
+					.getInt();
+		}
 		match(Token.INT);
 		return result;
 	}
 
 	public final long matchLong() throws GraphIOException {
-		long result = lookAhead == Token.INT ? lexer.getLong() : 0;
+		long result = 0;
+		if (lookAhead == Token.INT) {
+			result = binaryLexer != null ? binaryLexer.getLong() : lexer
+					.getLong();
+		}
 		match(Token.INT);
 		return result;
 	}
 
+	// the token source is the binary lexer while attribute blocks of a TGB
+	// file are read, and the TG lexer otherwise
+
+	private Token nextToken() throws GraphIOException {
+		return binaryLexer != null ? binaryLexer.nextToken() : lexer
+				.nextToken();
+	}
+
+	private String tokenText() {
+		return binaryLexer != null ? binaryLexer.getText() : lexer.getText();
+	}
+
+	private String location() {
+		return binaryLexer != null ? binaryLexer.getLocation() : lexer
+				.getLocation();
+	}
+
 	/**
 	 * Parses an identifier, checks it for validity and returns it.
 	 * 
@@ -2028,6 +2541,23 @@ public final class GraphIO {
 	public final String matchQualifiedName(boolean packageNameAllowed)
 			throws GraphIOException {
 		String qn = lexer.getText();
+		String result = qualifiedName(qn, packageNameAllowed);
+		if (result == null) {
+			throw new GraphIOException(lexer.getLocation()
+					+ "Invalid qualified name '" + qn + "'");
+		}
+		match();
+		return result;
+	}
+
+	/**
+	 * Checks <code>qn</code> for validity and qualifies it with the current
+	 * package name, if necessary.
+	 * 
+	 * @return the qualified name, or <code>null</code> if <code>qn</code> is
+	 *         invalid
+	 */
+	private String qualifiedName(String qn, boolean packageNameAllowed) {
 		int l = qn.length();
 		String result = null;
 		if ((l > 0) && (qn.charAt(l - 1) != '.')) {
@@ -2067,11 +2597,6 @@ public final class GraphIO {
 				}
 			}
 		}
-		if (result == null) {
-			throw new GraphIOException(lexer.getLocation()
-					+ "Invalid qualified name '" + qn + "'");
-		}
-		match();
 		return result;
 	}
 
@@ -2125,7 +2650,7 @@ public final class GraphIO {
 			match();
 			return null;
 		}
-		String result = (lookAhead == Token.STRING) ? lexer.getText() : null;
+		String result = (lookAhead == Token.STRING) ? tokenText() : null;
 		match(Token.STRING);
 		String s = stringPool.get(result);
 		if (s == null) {
@@ -2139,16 +2664,17 @@ public final class GraphIO {
 	public final boolean matchBoolean() throws GraphIOException {
 		if ((lookAhead != Token.TRUE_LITERAL)
 				&& (lookAhead != Token.FALSE_LITERAL)) {
-			throw new GraphIOException(lexer.getLocation()
+			throw new GraphIOException(location()
 					+ "Expected a boolean constant ('f' or 't') but found '"
-					+ lexer.getText() + "'");
+					+ tokenText() + "'");
 		}
 		boolean result = lookAhead == Token.TRUE_LITERAL;
 		match();
 		return result;
 	}
 
-	private GraphBaseImpl graph(ProgressFunction pf) throws GraphIOException {
+	private GraphBaseImpl graph(ProgressFunction pf, int threads)
+			throws GraphIOException {
 		currentPackageName = "";
 		match(Token.GRAPH);
 		String graphId = matchUtfString();
@@ -2195,6 +2721,20 @@ public final class GraphIO {
 				graphId, maxV, maxE);
 		graph.setLoading(true);
 		graph.readAttributeValues(this);
+		if (lazy) {
+			lazyAttributes = new TextLazyAttributes(maxV, maxE, schema,
+					lexer.getFilename());
+		}
+		if (threads > 1) {
+			// the look-ahead must not proceed into the vertex records
+			if (lookAhead != Token.SEMICOLON) {
+				match(Token.SEMICOLON);
+			}
+			new ParallelGraphReader(graph, vCount, eCount, pf, threads).read(
+					lexer.getRemainingInput(), lexer.getLine());
+			lexer = null;
+			return graphLoaded(graph, graphVersion, pf);
+		}
 		match(Token.SEMICOLON);
 
 		int vNo = 1;
@@ -2234,8 +2774,21 @@ public final class GraphIO {
 				++eNo;
 			}
 		}
+		return graphLoaded(graph, graphVersion, pf);
+	}
 
+	private GraphBaseImpl graphLoaded(GraphBaseImpl graph, long graphVersion,
+			ProgressFunction pf) throws GraphIOException {
 		graph.setGraphVersion(graphVersion);
+		if (lazyAttributes != null) {
+			if (lazyAttributes instanceof TextLazyAttributes) {
+				((TextLazyAttributes) lazyAttributes).loadingCompleted();
+			}
+			if (lazyAttributes.getPendingCount() > 0) {
+				graph.internalSetLazyAttributes(lazyAttributes);
+			}
+			lazyAttributes = null;
+		}
 		graph.internalLoadingCompleted(firstIncidence, nextIncidence);
 		firstIncidence = null;
 		nextIncidence = null;
@@ -2247,14 +2800,191 @@ public final class GraphIO {
 		return graph;
 	}
 
+	private GraphBaseImpl binaryGraph(ProgressFunction pf)
+			throws GraphIOException {
+		TgBinaryLexer in = binaryLexer;
+		in.section(TgBinaryWriter.GRAPH);
+		String graphId = in.getString(in.readStringRef());
+		long graphVersion = in.readSignedVarLong();
+		gcName = in.getString(in.readStringRef());
+		if (!schema.getGraphClass().getQualifiedName().equals(gcName)) {
+			throw new GraphIOException(in.getLocation() + "Graph Class "
+					+ gcName + "does not exist in " + schema.getQualifiedName());
+		}
+		int maxV = in.readVarInt();
+		int maxE = in.readVarInt();
+		int vCount = in.readVarInt();
+		int eCount = in.readVarInt();
+		if (vCount > maxV) {
+			throw new GraphIOException(in.getLocation()
+					+ "Number of vertices in graph (" + vCount
+					+ ") exceeds maximum number of vertices (" + maxV + ")");
+		}
+		if (eCount > maxE) {
+			throw new GraphIOException(in.getLocation()
+					+ "Number of edges in graph (" + eCount
+					+ ") exceeds maximum number of edges (" + maxE + ")");
+		}
+
+		edgeIn = new Vertex[maxE + 1];
+		edgeOut = new Vertex[maxE + 1];
+		firstIncidence = new int[maxV + 1];
+		nextIncidence = new int[(2 * maxE) + 1];
+		edgeOffset = maxE;
+
+		long graphElements = 0, currentCount = 0, interval = 1;
+		if (pf != null) {
+			pf.init(vCount + eCount);
+			interval = pf.getUpdateInterval();
+		}
+		GraphBaseImpl graph = graphFactory.createGraph(schema.getGraphClass(),
+				graphId, maxV, maxE);
+		graph.setLoading(true);
+		readBinaryAttributeValues(graph);
+		if (lazy) {
+			lazyAttributes = new BinaryLazyAttributes(maxV, maxE, schema, in);
+		}
+
+		// classes by string table index
+		AttributedElementClass<?, ?>[] classes = new AttributedElementClass<?, ?>[in
+				.getStringCount()];
+
+		in.section(TgBinaryWriter.VERTICES);
+		for (int vNo = 1; vNo <= vCount; ++vNo) {
+			int vId = in.readVarInt();
+			if ((vId <= 0) || (vId > maxV)) {
+				throw new GraphIOException(in.getLocation()
+						+ "Invalid vertex id " + vId + ".");
+			}
+			AttributedElementClass<?, ?> vc = binaryClass(classes,
+					in.readStringRef());
+			if (!(vc instanceof VertexClass)) {
+				throw new GraphIOException(in.getLocation() + vc
+						+ " is not a VertexClass");
+			}
+			Vertex vertex = graphFactory.createVertex((VertexClass) vc, vId,
+					graph);
+			int degree = in.readVarInt();
+			int eId = 0;
+			for (int i = 0; i < degree; ++i) {
+				int prevId = eId;
+				long id = in.readSignedVarLong();
+				if ((id == 0) || (Math.abs(id) > maxE)) {
+					throw new GraphIOException(in.getLocation()
+							+ "Invalid edge id " + id + ".");
+				}
+				eId = (int) id;
+				if (i == 0) {
+					firstIncidence[vId] = eId;
+				} else {
+					nextIncidence[edgeOffset + prevId] = eId;
+				}
+				if (eId < 0) {
+					edgeIn[-eId] = vertex;
+				} else {
+					edgeOut[eId] = vertex;
+				}
+			}
+			readBinaryAttributeValues(vertex);
+			// update progress bar
+			if (pf != null) {
+				graphElements++;
+				currentCount++;
+				if (currentCount == interval) {
+					pf.progress(graphElements);
+					currentCount = 0;
+				}
+			}
+		}
+
+		in.section(TgBinaryWriter.EDGES);
+		for (int eNo = 1; eNo <= eCount; ++eNo) {
+			int eId = in.readVarInt();
+			if ((eId <= 0) || (eId > maxE)) {
+				throw new GraphIOException(in.getLocation()
+						+ "Invalid edge id " + eId + ".");
+			}
+			AttributedElementClass<?, ?> ec = binaryClass(classes,
+					in.readStringRef());
+			if (!(ec instanceof EdgeClass)) {
+				throw new GraphIOException(in.getLocation() + ec
+						+ " is not an EdgeClass");
+			}
+			Edge edge = graphFactory.createEdge((EdgeClass) ec, eId, graph,
+					edgeOut[eId], edgeIn[eId]);
+			readBinaryAttributeValues(edge);
+			// update progress bar
+			if (pf != null) {
+				graphElements++;
+				currentCount++;
+				if (currentCount == interval) {
+					pf.progress(graphElements);
+					currentCount = 0;
+				}
+			}
+		}
+		return graphLoaded(graph, graphVersion, pf);
+	}
+
+	private AttributedElementClass<?, ?> binaryClass(
+			AttributedElementClass<?, ?>[] classes, int idx)
+			throws GraphIOException {
+		AttributedElementClass<?, ?> aec = classes[idx];
+		if (aec == null) {
+			String qn = binaryLexer.getString(idx);
+			aec = schema.getAttributedElementClass(qn);
+			if (aec == null) {
+				throw new GraphIOException(binaryLexer.getLocation()
+						+ "Class " + qn + " does not exist in "
+						+ schema.getQualifiedName());
+			}
+			classes[idx] = aec;
+		}
+		return aec;
+	}
+
+	/**
+	 * Reads the typed attribute block of element <code>e</code>, or only
+	 * skips it when loading with lazy attribute decoding.
+	 */
+	private void readBinaryAttributeValues(GraphElement<?, ?> e)
+			throws GraphIOException {
+		if ((lazyAttributes == null)
+				|| !e.getAttributedElementClass().hasAttributes()) {
+			readBinaryAttributeValues((InternalAttributedElement) e);
+			return;
+		}
+		int offset = binaryLexer.position();
+		while (binaryLexer.nextToken() != Token.SEMICOLON) {
+			// skip the attribute block
+		}
+		lookAhead = Token.SEMICOLON;
+		lazyAttributes.put(e, offset);
+	}
+
+	/**
+	 * Reads a typed attribute block which is terminated by a semicolon token.
+	 */
+	private void readBinaryAttributeValues(InternalAttributedElement ae)
+			throws GraphIOException {
+		match();
+		ae.readAttributeValues(this);
+		if (lookAhead != Token.SEMICOLON) {
+			throw new GraphIOException(binaryLexer.getLocation()
+					+ "Expected " + Token.SEMICOLON + " but found '"
+					+ binaryLexer.getText() + "'");
+		}
+	}
+
 	public final double matchDouble() throws GraphIOException {
 		try {
-			double result = Double.parseDouble(lexer.getText());
+			double result = binaryLexer != null ? binaryLexer.getDouble()
+					: Double.parseDouble(lexer.getText());
 			match();
 			return result;
 		} catch (NumberFormatException e) {
-			throw new GraphIOException(lexer.getLocation()
-					+ "Expected double value but found '" + lexer.getText()
+			throw new GraphIOException(location()
+					+ "Expected double value but found '" + tokenText()
 					+ "'", e);
 		}
 	}
@@ -2265,7 +2995,7 @@ public final class GraphIO {
 		VertexClass vc = (VertexClass) schema.getAttributedElementClass(vcName);
 		Vertex vertex = graphFactory.createVertex(vc, vId, graph);
 		parseIncidentEdges(vertex);
-		((InternalAttributedElement) vertex).readAttributeValues(this);
+		readAttributeValues(vertex);
 		match(Token.SEMICOLON);
 	}
 
@@ -2275,10 +3005,37 @@ public final class GraphIO {
 		EdgeClass ec = (EdgeClass) schema.getAttributedElementClass(ecName);
 		Edge edge = graphFactory.createEdge(ec, eId, graph, edgeOut[eId],
 				edgeIn[eId]);
-		((InternalAttributedElement) edge).readAttributeValues(this);
+		readAttributeValues(edge);
 		match(Token.SEMICOLON);
 	}
 
+	/**
+	 * Reads the attribute values of element <code>e</code> up to the
+	 * terminating semicolon, or only records their text when loading with
+	 * lazy attribute decoding.
+	 */
+	private void readAttributeValues(GraphElement<?, ?> e)
+			throws GraphIOException {
+		if ((lazyAttributes == null)
+				|| !e.getAttributedElementClass().hasAttributes()) {
+			((InternalAttributedElement) e).readAttributeValues(this);
+			return;
+		}
+		// the current token is the first one of the attribute values
+		lexer.startRecording(lookAhead == Token.STRING ? toUtfString(lexer
+				.getText()) : lexer.getText());
+		while (lookAhead != Token.SEMICOLON) {
+			if (lookAhead == Token.EOF) {
+				throw new GraphIOException(lexer.getLocation()
+						+ "Unexpected end of file in attribute values of " + e);
+			}
+			match();
+		}
+		int length = lexer.stopRecording();
+		lazyAttributes.put(e, ((TextLazyAttributes) lazyAttributes).append(
+				lexer.getRecording(), length));
+	}
+
 	private int eId() throws GraphIOException {
 		int eId = matchInteger();
 		if (eId == 0) {
@@ -2613,6 +3370,575 @@ public final class GraphIO {
 	 * EnumDomainData contains the parsed data of an EnumDomain. This data is
 	 * used to create an EnumDomain.
 	 */
+	/**
+	 * Pending attribute values of a graph loaded from a TG file. The raw
+	 * attribute text of all elements is appended to one byte array.
+	 */
+	private static final class TextLazyAttributes extends LazyAttributes {
+		private static final int INITIAL_SIZE = 65536;
+
+		private final GraphIO io;
+		private final String filename;
+		private byte[] data;
+		private int size;
+
+		TextLazyAttributes(int maxV, int maxE, Schema schema, String filename) {
+			super(maxV, maxE);
+			io = new GraphIO();
+			io.schema = schema;
+			this.filename = filename;
+			data = new byte[INITIAL_SIZE];
+		}
+
+		/**
+		 * Appends the first <code>length</code> bytes of <code>b</code>.
+		 * 
+		 * @return the offset of the appended bytes
+		 */
+		int append(byte[] b, int length) throws GraphIOException {
+			if (size + length > data.length) {
+				long newSize = Math.max(2L * data.length, (long) size + length);
+				if (newSize > Integer.MAX_VALUE) {
+					throw new GraphIOException(filename
+							+ ": Too many attribute values for lazy decoding");
+				}
+				data = Arrays.copyOf(data, (int) newSize);
+			}
+			int offset = size;
+			System.arraycopy(b, 0, data, size, length);
+			size += length;
+			return offset;
+		}
+
+		void loadingCompleted() throws GraphIOException {
+			data = Arrays.copyOf(data, size);
+			io.lexer = new TgLexer(data, filename, 1);
+		}
+
+		@Override
+		protected void decode(InternalAttributedElement e, int offset)
+				throws GraphIOException {
+			io.lexer.seek(offset);
+			io.match();
+			e.readAttributeValues(io);
+			if (io.lookAhead != Token.SEMICOLON) {
+				throw new GraphIOException(io.lexer.getLocation() + "Expected "
+						+ Token.SEMICOLON + " but found '"
+						+ io.lexer.getText() + "'");
+			}
+		}
+	}
+
+	/**
+	 * Pending attribute values of a graph loaded from a TGB file, which are
+	 * read from the mapped file.
+	 */
+	private static final class BinaryLazyAttributes extends LazyAttributes {
+		private final GraphIO io;
+
+		BinaryLazyAttributes(int maxV, int maxE, Schema schema,
+				TgBinaryLexer in) {
+			super(maxV, maxE);
+			io = new GraphIO();
+			io.schema = schema;
+			io.binaryLexer = in;
+		}
+
+		@Override
+		protected void decode(InternalAttributedElement e, int offset)
+				throws GraphIOException {
+			io.binaryLexer.position(e instanceof Vertex ? TgBinaryWriter.VERTICES
+					: TgBinaryWriter.EDGES, offset);
+			io.readBinaryAttributeValues(e);
+		}
+	}
+
+	/**
+	 * The vertex and edge records of a chunk of TG input, see
+	 * {@link ParallelGraphReader}.
+	 */
+	private static final class RecordChunk {
+		static final byte PACKAGE = 0;
+		static final byte VERTEX = 1;
+		static final byte EDGE = 2;
+
+		final byte[] data;
+		final int line; // line number of the first byte in data
+		int size;
+		byte[] kinds;
+		int[] ids;
+		String[] names; // class names, or package names of PACKAGE records
+		int[] incidenceEnd; // end index in incidences (exclusive)
+		int[] incidences;
+		int incidenceCount;
+		boolean hasAttributeValues;
+		InternalAttributedElement[] elements;
+
+		RecordChunk(byte[] data, int line) {
+			this.data = data;
+			this.line = line;
+			int n = Math.max(16, data.length / 32);
+			kinds = new byte[n];
+			ids = new int[n];
+			names = new String[n];
+			incidenceEnd = new int[n];
+			incidences = new int[n];
+		}
+
+		void add(byte kind, int id, String name) {
+			if (size == kinds.length) {
+				int n = 2 * size;
+				kinds = Arrays.copyOf(kinds, n);
+				ids = Arrays.copyOf(ids, n);
+				names = Arrays.copyOf(names, n);
+				incidenceEnd = Arrays.copyOf(incidenceEnd, n);
+			}
+			kinds[size] = kind;
+			ids[size] = id;
+			names[size] = name;
+			incidenceEnd[size] = incidenceCount;
+			++size;
+		}
+
+		void addIncidence(int eId) {
+			if (incidenceCount == incidences.length) {
+				incidences = Arrays.copyOf(incidences, 2 * incidenceCount);
+			}
+			incidences[incidenceCount++] = eId;
+			incidenceEnd[size - 1] = incidenceCount;
+		}
+
+		String getLocation(String filename) {
+			return (filename == null ? "" : filename + " ") + "line " + line
+					+ "ff.: ";
+		}
+	}
+
+	/**
+	 * Reads the vertex and edge records of a TG file with several threads.
+	 * 
+	 * The calling thread splits the input at record boundaries into
+	 * {@link RecordChunk}s. Worker threads tokenize the records of each
+	 * chunk. A single builder thread creates vertices and edges strictly in
+	 * file order, so ids, vertex/edge sequences and incidences are the same as
+	 * with the sequential loader. Finally, the attribute values of each chunk
+	 * are decoded by a worker thread into the elements created by the
+	 * builder.
+	 */
+	private final class ParallelGraphReader {
+		private static final int CHUNK_SIZE = 1 << 20;
+		private static final int CHUNKS_PER_THREAD = 4;
+
+		// states of the record splitter
+		private static final int NORMAL = 0;
+		private static final int SLASH = 1;
+		private static final int COMMENT = 2;
+		private static final int STRING = 3;
+		private static final int ESCAPE = 4;
+
+		private final GraphBaseImpl graph;
+		private final int vCount;
+		private final int eCount;
+		private final ProgressFunction pf;
+		private final int threads;
+		private final String filename;
+
+		private ExecutorService workers;
+		private ExecutorService builder;
+		private Semaphore inFlight; // limits the number of buffered chunks
+		private volatile boolean failed;
+
+		// state of the builder thread
+		private int vNo = 1;
+		private int eNo = 1;
+		private long graphElements, currentCount, interval = 1;
+		private final Map<String, AttributedElementClass<?, ?>> classes;
+
+		ParallelGraphReader(GraphBaseImpl graph, int vCount, int eCount,
+				ProgressFunction pf, int threads) {
+			this.graph = graph;
+			this.vCount = vCount;
+			this.eCount = eCount;
+			this.pf = pf;
+			this.threads = threads;
+			filename = lexer.getFilename();
+			classes = new HashMap<String, AttributedElementClass<?, ?>>();
+			if (pf != null) {
+				interval = pf.getUpdateInterval();
+			}
+		}
+
+		/**
+		 * Reads all vertex and edge records from <code>in</code>, the first
+		 * byte of which is on line <code>line</code>.
+		 */
+		void read(InputStream in, int line) throws GraphIOException {
+			workers = Executors.newFixedThreadPool(threads);
+			builder = Executors.newSingleThreadExecutor();
+			inFlight = new Semaphore(CHUNKS_PER_THREAD * threads);
+			List<Future<Future<?>>> built = new ArrayList<Future<Future<?>>>();
+			try {
+				byte[] buf = new byte[CHUNK_SIZE];
+				int len = 0; // number of bytes in buf
+				int scan = 0; // scan position
+				int boundary = 0; // end of last complete record
+				int lines = 0; // newlines in buf[0, scan)
+				int boundaryLines = 0; // newlines in buf[0, boundary)
+				int state = NORMAL;
+				boolean eof = false;
+				while (!eof && !failed) {
+					if (len == buf.length) {
+						// a single record exceeds the buffer
+						buf = Arrays.copyOf(buf, 2 * buf.length);
+					}
+					while (len < buf.length) {
+						int n = in.read(buf, len, buf.length - len);
+						if (n < 0) {
+							eof = true;
+							break;
+						}
+						len += n;
+					}
+					for (; scan < len; ++scan) {
+						int ch = buf[scan];
+						switch (state) {
+						case STRING:
+							if (ch == '\\') {
+								state = ESCAPE;
+							} else if (ch == '"') {
+								state = NORMAL;
+							}
+							break;
+						case ESCAPE:
+							state = STRING;
+							break;
+						case COMMENT:
+							if (ch == '\n') {
+								state = NORMAL;
+							}
+							break;
+						default:
+							if ((state == SLASH) && (ch == '/')) {
+								state = COMMENT;
+								break;
+							}
+							state = NORMAL;
+							if (ch == ';') {
+								boundary = scan + 1;
+								boundaryLines = lines;
+							} else if (ch == '"') {
+								state = STRING;
+							} else if (ch == '/') {
+								state = SLASH;
+							}
+						}
+						if (ch == '\n') {
+							++lines;
+						}
+					}
+					if (eof) {
+						boundary = len;
+						boundaryLines = lines;
+					}
+					if (boundary > 0) {
+						built.add(submit(Arrays.copyOf(buf, boundary), line));
+						line += boundaryLines;
+						len -= boundary;
+						System.arraycopy(buf, boundary, buf, 0, len);
+						scan -= boundary;
+						lines -= boundaryLines;
+						boundary = 0;
+						boundaryLines = 0;
+					}
+				}
+				for (Future<Future<?>> b : built) {
+					Future<?> decoded = get(b);
+					if (decoded != null) {
+						get(decoded);
+					}
+				}
+			} catch (IOException e) {
+				throw new GraphIOException("Exception while reading graph", e);
+			} finally {
+				workers.shutdownNow();
+				builder.shutdownNow();
+			}
+			if (vNo <= vCount) {
+				throw new GraphIOException("Unexpected end of input, read "
+						+ (vNo - 1) + " of " + vCount + " vertices");
+			}
+			if (eNo <= eCount) {
+				throw new GraphIOException("Unexpected end of input, read "
+						+ (eNo - 1) + " of " + eCount + " edges");
+			}
+		}
+
+		private Future<Future<?>> submit(byte[] data, int line)
+				throws GraphIOException {
+			try {
+				inFlight.acquire();
+			} catch (InterruptedException e) {
+				throw new GraphIOException("Interrupted while reading graph",
+						e);
+			}
+			final RecordChunk chunk = new RecordChunk(data, line);
+			final Future<?> scanned = workers.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					scan(chunk);
+					return null;
+				}
+			});
+			return builder.submit(new Callable<Future<?>>() {
+				@Override
+				public Future<?> call() throws Exception {
+					return build(chunk, scanned);
+				}
+			});
+		}
+
+		private <T> T get(Future<T> f) throws GraphIOException {
+			try {
+				return f.get();
+			} catch (InterruptedException e) {
+				throw new GraphIOException("Interrupted while reading graph",
+						e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof GraphIOException) {
+					throw (GraphIOException) e.getCause();
+				}
+				throw new GraphIOException("Exception while reading graph",
+						e.getCause());
+			}
+		}
+
+		private GraphIO createWorkerIO(RecordChunk chunk)
+				throws GraphIOException {
+			GraphIO io = new GraphIO();
+			io.schema = schema;
+			io.lexer = new TgLexer(chunk.data, filename, chunk.line);
+			io.match();
+			return io;
+		}
+
+		/**
+		 * Tokenizes the records of <code>chunk</code> (worker thread).
+		 */
+		private void scan(RecordChunk chunk) throws GraphIOException {
+			GraphIO io = createWorkerIO(chunk);
+			while (io.lookAhead != Token.EOF) {
+				if (io.lookAhead == Token.PACKAGE) {
+					io.match();
+					chunk.add(RecordChunk.PACKAGE, 0,
+							io.lookAhead == Token.SEMICOLON ? "" : io
+									.matchPackageName() + ".");
+				} else {
+					int id = io.matchInteger();
+					String name = io.lexer.getText();
+					io.match();
+					if (io.lookAhead == Token.LT) {
+						io.match();
+						chunk.add(RecordChunk.VERTEX, id, name);
+						while (io.lookAhead != Token.GT) {
+							chunk.addIncidence(io.matchInteger());
+						}
+						io.match();
+					} else {
+						chunk.add(RecordChunk.EDGE, id, name);
+					}
+					while ((io.lookAhead != Token.SEMICOLON)
+							&& (io.lookAhead != Token.EOF)) {
+						chunk.hasAttributeValues = true;
+						io.match();
+					}
+				}
+				io.match(Token.SEMICOLON);
+			}
+		}
+
+		/**
+		 * Creates the vertices and edges of <code>chunk</code> in file order
+		 * (builder thread) and submits the decoding of attribute values.
+		 */
+		private Future<?> build(final RecordChunk chunk, Future<?> scanned)
+				throws Exception {
+			boolean decoding = false;
+			try {
+				if (failed || ((vNo > vCount) && (eNo > eCount))) {
+					// records after the last edge are ignored
+					return null;
+				}
+				get(scanned);
+				boolean hasAttributes = chunk.hasAttributeValues;
+				chunk.elements = new InternalAttributedElement[chunk.size];
+				for (int i = 0; (i < chunk.size)
+						&& ((vNo <= vCount) || (eNo <= eCount)); ++i) {
+					if (chunk.kinds[i] == RecordChunk.PACKAGE) {
+						currentPackageName = chunk.names[i];
+						classes.clear();
+						continue;
+					}
+					AttributedElementClass<?, ?> aec = elementClass(chunk, i);
+					hasAttributes |= aec.getAttributeCount() > 0;
+					if (vNo <= vCount) {
+						chunk.elements[i] = createVertex(chunk, i, aec);
+						++vNo;
+					} else {
+						chunk.elements[i] = createEdge(chunk, i, aec);
+						++eNo;
+					}
+					// update progress bar
+					if (pf != null) {
+						graphElements++;
+						currentCount++;
+						if (currentCount == interval) {
+							pf.progress(graphElements);
+							currentCount = 0;
+						}
+					}
+				}
+				if (!hasAttributes) {
+					return null;
+				}
+				Future<?> decoded = workers.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						try {
+							decode(chunk);
+						} catch (Exception e) {
+							failed = true;
+							throw e;
+						} finally {
+							inFlight.release();
+						}
+						return null;
+					}
+				});
+				decoding = true;
+				return decoded;
+			} catch (Exception e) {
+				failed = true;
+				throw e;
+			} finally {
+				if (!decoding) {
+					inFlight.release();
+				}
+			}
+		}
+
+		private AttributedElementClass<?, ?> elementClass(RecordChunk chunk,
+				int i) throws GraphIOException {
+			String name = chunk.names[i];
+			AttributedElementClass<?, ?> aec = classes.get(name);
+			if (aec == null) {
+				String qn = qualifiedName(name, false);
+				if (qn == null) {
+					throw new GraphIOException(chunk.getLocation(filename)
+							+ "Invalid qualified name '" + name + "'");
+				}
+				aec = schema.getAttributedElementClass(qn);
+				if (aec == null) {
+					throw new GraphIOException(chunk.getLocation(filename)
+							+ "Class " + qn + " does not exist in "
+							+ schema.getQualifiedName());
+				}
+				classes.put(name, aec);
+			}
+			return aec;
+		}
+
+		private InternalAttributedElement createVertex(RecordChunk chunk,
+				int i, AttributedElementClass<?, ?> aec)
+				throws GraphIOException {
+			int vId = chunk.ids[i];
+			if (chunk.kinds[i] != RecordChunk.VERTEX) {
+				throw new GraphIOException(chunk.getLocation(filename)
+						+ "Expected incidences of vertex " + vId);
+			}
+			if (vId <= 0) {
+				throw new GraphIOException(chunk.getLocation(filename)
+						+ "Invalid vertex id " + vId + ".");
+			}
+			if (!(aec instanceof VertexClass)) {
+				throw new GraphIOException(chunk.getLocation(filename) + aec
+						+ " is not a VertexClass");
+			}
+			Vertex v = graphFactory.createVertex((VertexClass) aec, vId, graph);
+			int eId = 0;
+			int first = i == 0 ? 0 : chunk.incidenceEnd[i - 1];
+			for (int j = first; j < chunk.incidenceEnd[i]; ++j) {
+				int prevId = eId;
+				eId = chunk.incidences[j];
+				if (eId == 0) {
+					throw new GraphIOException(chunk.getLocation(filename)
+							+ "Invalid edge id " + eId + ".");
+				}
+				if (prevId == 0) {
+					firstIncidence[vId] = eId;
+				} else {
+					nextIncidence[edgeOffset + prevId] = eId;
+				}
+				if (eId < 0) {
+					edgeIn[-eId] = v;
+				} else {
+					edgeOut[eId] = v;
+				}
+			}
+			return (InternalAttributedElement) v;
+		}
+
+		private InternalAttributedElement createEdge(RecordChunk chunk, int i,
+				AttributedElementClass<?, ?> aec) throws GraphIOException {
+			int eId = chunk.ids[i];
+			if (chunk.kinds[i] != RecordChunk.EDGE) {
+				throw new GraphIOException(chunk.getLocation(filename)
+						+ "Unexpected incidences in edge " + eId);
+			}
+			if (eId == 0) {
+				throw new GraphIOException(chunk.getLocation(filename)
+						+ "Invalid edge id " + eId + ".");
+			}
+			if (!(aec instanceof EdgeClass)) {
+				throw new GraphIOException(chunk.getLocation(filename) + aec
+						+ " is not an EdgeClass");
+			}
+			return (InternalAttributedElement) graphFactory.createEdge(
+					(EdgeClass) aec, eId, graph, edgeOut[eId], edgeIn[eId]);
+		}
+
+		/**
+		 * Reads the attribute values of the elements of <code>chunk</code>
+		 * (worker thread).
+		 */
+		private void decode(RecordChunk chunk) throws GraphIOException {
+			GraphIO io = createWorkerIO(chunk);
+			for (int i = 0; i < chunk.size; ++i) {
+				if (chunk.kinds[i] == RecordChunk.PACKAGE) {
+					while (io.lookAhead != Token.SEMICOLON) {
+						io.match();
+					}
+				} else {
+					// skip id and class name
+					io.match();
+					io.match();
+					if (chunk.kinds[i] == RecordChunk.VERTEX) {
+						while (io.lookAhead != Token.GT) {
+							io.match();
+						}
+						io.match();
+					}
+					InternalAttributedElement ae = chunk.elements[i];
+					if (ae == null) {
+						// records after the last edge are ignored
+						return;
+					}
+					ae.readAttributeValues(io);
+				}
+				io.match(Token.SEMICOLON);
+			}
+		}
+	}
+
 	private static class EnumDomainData {
 		String simpleName;
 		String packageName;
@@ -0,0 +1,934 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.impl.InternalAttributedElement;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.impl.TgLexer.Token;
+import de.uni_koblenz.jgralab.schema.AttributedElementClass;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.GraphClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+
+/**
+ * A {@link GraphJournal} records all changes of a graph in a journal file, so
+ * that a saved graph (the base file) and the journal can be loaded into the
+ * changed graph without saving the complete graph again.<br/>
+ * <br/>
+ * 
+ * The journal is a {@link GraphChangeListener} and records the events fired
+ * by the graph: creation and deletion of vertices and edges, attribute
+ * changes, alpha and omega changes, and incidence reordering. Additionally,
+ * it listens for the renumbering of vertices and edges by
+ * {@link InternalGraph#defragment()} and records the new ids, so that they
+ * are assigned again when replaying. Changes of the vertex and edge sequences
+ * (e.g. by sorting), the shortening of the vertex and edge arrays by
+ * defragmentation, and temporary elements are not recorded. The journal has
+ * to be opened directly after the base file has been saved or loaded:
+ * 
+ * <pre>
+ * GraphIO.saveGraphToFile(graph, &quot;g.tg&quot;, null);
+ * GraphJournal journal = GraphJournal.open(graph, &quot;g.tgj&quot;);
+ * // ... modify graph
+ * journal.close();
+ * 
+ * Graph g = GraphIO.loadGraphWithJournal(&quot;g.tg&quot;, &quot;g.tgj&quot;,
+ * 		ImplementationType.STANDARD, null);
+ * </pre>
+ * 
+ * The journal is keyed by graph version: the header contains the id of the
+ * graph and the version of the base file, and each record contains the graph
+ * version after the change. When loading, the base file has to have the
+ * version in the header, and after each replayed record the graph version is
+ * set to the recorded one. So a graph loaded with journal has the same
+ * version as the recorded graph, and recording can be continued by opening
+ * the same journal again. {@link #compact(String, String, ImplementationType,
+ * ProgressFunction)} folds the journal into a new base file.<br/>
+ * <br/>
+ * 
+ * File format, all numbers are unsigned varints unless noted otherwise:
+ * 
+ * <pre>
+ * journal ::= MAGIC string(graphId) version(base) segment*
+ * segment ::= SEGMENT version(start) record*
+ * record  ::= op(byte) payload delta(version)
+ * </pre>
+ * 
+ * Each opening of the journal appends a new segment. Class and attribute
+ * names are written once per segment and referred to by index afterwards.
+ * Ids of incidences are zig-zag encoded, since reversed edges have negative
+ * ids. A renumbering record holds the number of moved elements followed by
+ * pairs of old and new ids. Closing the journal appends a record without
+ * payload if the graph version has changed since the last record, which
+ * happens after defragmentation. A truncated last record, e.g. after a
+ * crash, is ignored.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class GraphJournal extends GraphChangeAdapter {
+	private static final byte[] MAGIC = { 'T', 'G', 'J', 1 };
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int SEGMENT = 0;
+	private static final int CREATE_VERTEX = 1;
+	private static final int CREATE_EDGE = 2;
+	private static final int DELETE_VERTEX = 3;
+	private static final int DELETE_EDGE = 4;
+	private static final int SET_GRAPH_ATTRIBUTE = 5;
+	private static final int SET_VERTEX_ATTRIBUTE = 6;
+	private static final int SET_EDGE_ATTRIBUTE = 7;
+	private static final int CHANGE_ALPHA = 8;
+	private static final int CHANGE_OMEGA = 9;
+	private static final int PUT_INCIDENCE_BEFORE = 10;
+	private static final int PUT_INCIDENCE_AFTER = 11;
+	private static final int RENUMBER_VERTICES = 12;
+	private static final int RENUMBER_EDGES = 13;
+	private static final int VERSION = 14;
+
+	private final String filename;
+	private OutputStream out;
+	private final Map<String, Integer> names;
+	private long version;
+	private IOException failure;
+
+	// number of elements being created, their attribute initialization is
+	// not recorded
+	private int creating;
+
+	// ids of the elements being deleted, the after-delete events don't carry
+	// the element
+	private int[] deleted;
+	private int deletedCount;
+
+	// defragmentation is only reported to GraphStructureChangedListeners
+	private final GraphStructureChangedListener renumbering = new GraphStructureChangedAdapter() {
+		@Override
+		public void verticesRenumbered(int[] oldIds, int[] newIds) {
+			recordRenumbering(RENUMBER_VERTICES, oldIds, newIds);
+		}
+
+		@Override
+		public void edgesRenumbered(int[] oldIds, int[] newIds) {
+			recordRenumbering(RENUMBER_EDGES, oldIds, newIds);
+		}
+	};
+
+	private GraphJournal(Graph graph, String filename, OutputStream out) {
+		super(graph);
+		this.filename = filename;
+		this.out = out;
+		names = new HashMap<String, Integer>();
+		deleted = new int[4];
+		version = graph.getGraphVersion();
+	}
+
+	/**
+	 * Starts recording the changes of <code>graph</code> into the journal
+	 * <code>filename</code>. If the journal doesn't exist, it is created for
+	 * the current version of <code>graph</code>, which therefore has to be
+	 * the version of the base file. Otherwise, the new changes are appended,
+	 * and the graph must have the version of the last recorded change, i.e.,
+	 * it has been loaded with
+	 * {@link GraphIO#loadGraphWithJournal(String, String, ImplementationType, ProgressFunction)}
+	 * or not been modified since the journal was closed.
+	 * 
+	 * @return the {@link GraphJournal}, which is registered as
+	 *         {@link GraphChangeListener} of <code>graph</code>
+	 * @throws GraphIOException
+	 *             if the journal can't be written, or belongs to a different
+	 *             graph or version
+	 */
+	public static GraphJournal open(Graph graph, String filename)
+			throws GraphIOException {
+		File file = new File(filename);
+		boolean exists = file.exists() && (file.length() > 0);
+		if (exists) {
+			JournalReader r = new JournalReader(filename);
+			if (!r.graphId.equals(graph.getId())) {
+				throw new GraphIOException("Journal " + filename
+						+ " belongs to graph " + r.graphId + ", not "
+						+ graph.getId());
+			}
+			long last = r.lastVersion();
+			if (last != graph.getGraphVersion()) {
+				throw new GraphIOException("Journal " + filename
+						+ " ends at graph version " + last
+						+ ", but the graph has version "
+						+ graph.getGraphVersion());
+			}
+			truncate(file, r.validLength);
+		}
+		GraphJournal journal;
+		try {
+			journal = new GraphJournal(graph, filename,
+					new BufferedOutputStream(new FileOutputStream(file,
+							exists)));
+			if (!exists) {
+				journal.out.write(MAGIC);
+				journal.writeString(graph.getId());
+				journal.writeVarLong(graph.getGraphVersion());
+			}
+			journal.out.write(SEGMENT);
+			journal.writeVarLong(graph.getGraphVersion());
+		} catch (IOException e) {
+			throw new GraphIOException("Can't open journal " + filename, e);
+		}
+		graph.addGraphChangeListener(journal);
+		graph.addGraphStructureChangedListener(journal.renumbering);
+		return journal;
+	}
+
+	private static void truncate(File file, long length)
+			throws GraphIOException {
+		if (file.length() == length) {
+			return;
+		}
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				raf.setLength(length);
+			} finally {
+				raf.close();
+			}
+		} catch (IOException e) {
+			throw new GraphIOException("Can't truncate journal " + file, e);
+		}
+	}
+
+	/**
+	 * @return the name of the journal file
+	 */
+	public String getFilename() {
+		return filename;
+	}
+
+	/**
+	 * Writes all buffered records to the journal file.
+	 * 
+	 * @throws GraphIOException
+	 *             if writing any record since the last flush failed
+	 */
+	public void flush() throws GraphIOException {
+		checkFailure();
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new GraphIOException("Can't write journal " + filename, e);
+		}
+	}
+
+	/**
+	 * Stops recording and closes the journal file.
+	 * 
+	 * @throws GraphIOException
+	 *             if writing any record since the last flush failed
+	 */
+	public void close() throws GraphIOException {
+		if (out == null) {
+			return;
+		}
+		graph.removeGraphChangeListener(this);
+		graph.removeGraphStructureChangedListener(renumbering);
+		if (graph.getGraphVersion() != version) {
+			// e.g. defragmentation increases the version after renumbering
+			record(VERSION);
+			endRecord();
+		}
+		try {
+			flush();
+		} finally {
+			try {
+				out.close();
+			} catch (IOException e) {
+				throw new GraphIOException("Can't close journal " + filename,
+						e);
+			} finally {
+				out = null;
+			}
+		}
+	}
+
+	private void checkFailure() throws GraphIOException {
+		if (failure != null) {
+			IOException e = failure;
+			failure = null;
+			throw new GraphIOException("Can't write journal " + filename, e);
+		}
+	}
+
+	/**
+	 * Loads the graph in <code>filename</code> and applies the changes
+	 * recorded in <code>journalFilename</code>.
+	 * 
+	 * @see GraphIO#loadGraphWithJournal(String, String, ImplementationType,
+	 *      ProgressFunction)
+	 */
+	static Graph load(String filename, String journalFilename,
+			ImplementationType implementationType, ProgressFunction pf)
+			throws GraphIOException {
+		Graph graph = GraphIO.loadGraphFromFile(filename, implementationType,
+				pf);
+		if (!new File(journalFilename).exists()) {
+			return graph;
+		}
+		JournalReader r = new JournalReader(journalFilename);
+		if (!r.graphId.equals(graph.getId())) {
+			throw new GraphIOException("Journal " + journalFilename
+					+ " belongs to graph " + r.graphId + ", not "
+					+ graph.getId());
+		}
+		if (r.baseVersion != graph.getGraphVersion()) {
+			if (r.lastVersion() == graph.getGraphVersion()) {
+				// the journal has already been folded into the base file
+				return graph;
+			}
+			throw new GraphIOException("Journal " + journalFilename
+					+ " belongs to graph version " + r.baseVersion
+					+ ", but " + filename + " has version "
+					+ graph.getGraphVersion());
+		}
+		r.replay((InternalGraph) graph);
+		return graph;
+	}
+
+	/**
+	 * Folds the journal <code>journalFilename</code> into the base file
+	 * <code>filename</code>. The graph is loaded with the journal and saved
+	 * to a temporary file, which then replaces the base file. Afterwards, the
+	 * journal is empty, and matches the new base file.
+	 * 
+	 * @return the loaded graph
+	 * @throws GraphIOException
+	 *             if loading or saving fails
+	 */
+	public static Graph compact(String filename, String journalFilename,
+			ImplementationType implementationType, ProgressFunction pf)
+			throws GraphIOException {
+		Graph graph = load(filename, journalFilename, implementationType, pf);
+		File base = new File(filename);
+		File tmp = new File(base.getAbsoluteFile().getParentFile(), "~"
+				+ base.getName());
+		GraphIO.saveGraphToFile(graph, tmp.getPath(), pf);
+		if (!tmp.renameTo(base)) {
+			// renameTo doesn't replace existing files on all platforms
+			if (!base.delete() || !tmp.renameTo(base)) {
+				throw new GraphIOException("Can't replace " + filename
+						+ " with " + tmp);
+			}
+		}
+		// the base file is complete, so a crash until the new journal is
+		// written is detected by load() as already folded journal
+		File journal = new File(journalFilename);
+		if (journal.exists() && !journal.delete()) {
+			throw new GraphIOException("Can't delete journal "
+					+ journalFilename);
+		}
+		return graph;
+	}
+
+	// ------------------------------------------------------------------------
+	// recording
+
+	private void record(int op) {
+		try {
+			out.write(op);
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	private void endRecord() {
+		long v = graph.getGraphVersion();
+		try {
+			writeVarLong(v - version);
+		} catch (IOException e) {
+			fail(e);
+		}
+		version = v;
+	}
+
+	private void fail(IOException e) {
+		if (failure == null) {
+			failure = e;
+		}
+	}
+
+	private void writeVarLong(long v) throws IOException {
+		assert v >= 0;
+		while ((v & ~0x7fL) != 0) {
+			out.write((int) ((v & 0x7f) | 0x80));
+			v >>>= 7;
+		}
+		out.write((int) v);
+	}
+
+	private void writeSignedVarInt(int v) throws IOException {
+		writeVarLong(((v << 1) ^ (v >> 31)) & 0xffffffffL);
+	}
+
+	private void writeString(String s) throws IOException {
+		byte[] b = s.getBytes(UTF8);
+		writeVarLong(b.length);
+		out.write(b);
+	}
+
+	private void writeName(String s) throws IOException {
+		Integer idx = names.get(s);
+		if (idx == null) {
+			names.put(s, names.size());
+			out.write(0);
+			writeString(s);
+		} else {
+			writeVarLong(idx + 1);
+		}
+	}
+
+	private void writeIds(int... ids) {
+		try {
+			for (int id : ids) {
+				writeVarLong(id);
+			}
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void beforeCreateVertex(VertexClass vc) {
+		++creating;
+	}
+
+	@Override
+	public void afterCreateVertex(Vertex v) {
+		--creating;
+		if (v.isTemporary()) {
+			return;
+		}
+		record(CREATE_VERTEX);
+		writeIds(v.getId());
+		try {
+			writeName(v.getAttributedElementClass().getQualifiedName());
+		} catch (IOException e) {
+			fail(e);
+		}
+		endRecord();
+	}
+
+	@Override
+	public void beforeCreateEdge(EdgeClass ec, Vertex alpha, Vertex omega) {
+		++creating;
+	}
+
+	@Override
+	public void afterCreateEdge(Edge e) {
+		--creating;
+		if (e.isTemporary()) {
+			return;
+		}
+		record(CREATE_EDGE);
+		writeIds(e.getId());
+		try {
+			writeName(e.getAttributedElementClass().getQualifiedName());
+		} catch (IOException ex) {
+			fail(ex);
+		}
+		writeIds(e.getAlpha().getId(), e.getOmega().getId());
+		endRecord();
+	}
+
+	private void pushDeleted(int id) {
+		if (deletedCount == deleted.length) {
+			int[] d = new int[2 * deleted.length];
+			System.arraycopy(deleted, 0, d, 0, deletedCount);
+			deleted = d;
+		}
+		deleted[deletedCount++] = id;
+	}
+
+	@Override
+	public void beforeDeleteVertex(Vertex v) {
+		pushDeleted(v.isTemporary() ? 0 : v.getId());
+	}
+
+	@Override
+	public void afterDeleteVertex(VertexClass vc, boolean finalDelete) {
+		int id = deleted[--deletedCount];
+		if (id != 0) {
+			record(DELETE_VERTEX);
+			writeIds(id);
+			endRecord();
+		}
+	}
+
+	@Override
+	public void beforeDeleteEdge(Edge e) {
+		pushDeleted(e.isTemporary() ? 0 : e.getId());
+	}
+
+	@Override
+	public void afterDeleteEdge(EdgeClass ec, Vertex oldAlpha,
+			Vertex oldOmega) {
+		int id = deleted[--deletedCount];
+		if (id != 0) {
+			record(DELETE_EDGE);
+			writeIds(id);
+			endRecord();
+		}
+	}
+
+	@Override
+	public void afterChangeAlpha(Edge e, Vertex oldVertex, Vertex newVertex) {
+		record(CHANGE_ALPHA);
+		writeIds(e.getNormalEdge().getId(), newVertex.getId());
+		endRecord();
+	}
+
+	@Override
+	public void afterChangeOmega(Edge e, Vertex oldVertex, Vertex newVertex) {
+		record(CHANGE_OMEGA);
+		writeIds(e.getNormalEdge().getId(), newVertex.getId());
+		endRecord();
+	}
+
+	private void recordIncidences(int op, Edge inc, Edge other) {
+		record(op);
+		try {
+			writeSignedVarInt(inc.getId());
+			writeSignedVarInt(other.getId());
+		} catch (IOException e) {
+			fail(e);
+		}
+		endRecord();
+	}
+
+	@Override
+	public void afterPutIncidenceBefore(Edge inc, Edge other) {
+		recordIncidences(PUT_INCIDENCE_BEFORE, inc, other);
+	}
+
+	@Override
+	public void afterPutIncidenceAfter(Edge inc, Edge other) {
+		recordIncidences(PUT_INCIDENCE_AFTER, inc, other);
+	}
+
+	private void recordRenumbering(int op, int[] oldIds, int[] newIds) {
+		if (oldIds.length == 0) {
+			return;
+		}
+		record(op);
+		try {
+			writeVarLong(oldIds.length);
+			for (int i = 0; i < oldIds.length; ++i) {
+				writeVarLong(oldIds[i]);
+				writeVarLong(newIds[i]);
+			}
+		} catch (IOException e) {
+			fail(e);
+		}
+		endRecord();
+	}
+
+	@Override
+	public <AEC extends AttributedElementClass<AEC, ?>> void afterChangeAttribute(
+			AttributedElement<AEC, ?> element, String attributeName,
+			Object oldValue, Object newValue) {
+		if (creating > 0) {
+			// default values of a new element, set again when replaying the
+			// creation
+			return;
+		}
+		int op;
+		int id = 0;
+		if (element instanceof Graph) {
+			op = SET_GRAPH_ATTRIBUTE;
+		} else if (element instanceof Vertex) {
+			op = SET_VERTEX_ATTRIBUTE;
+			id = ((Vertex) element).getId();
+		} else {
+			op = SET_EDGE_ATTRIBUTE;
+			id = ((Edge) element).getNormalEdge().getId();
+		}
+		if ((op != SET_GRAPH_ATTRIBUTE)
+				&& ((id == 0) || ((GraphElement<?, ?>) element).isTemporary())) {
+			// not (or no longer) contained in the graph
+			return;
+		}
+		record(op);
+		try {
+			if (op != SET_GRAPH_ATTRIBUTE) {
+				writeVarLong(id);
+			}
+			writeName(attributeName);
+			writeString(((InternalAttributedElement) element)
+					.writeAttributeValueToString(attributeName));
+		} catch (IOException e) {
+			fail(e);
+		} catch (GraphIOException e) {
+			fail(new IOException(e));
+		}
+		endRecord();
+	}
+
+	// ------------------------------------------------------------------------
+	// reading
+
+	private static final class JournalReader {
+		private final String filename;
+		private final ByteBuffer buf;
+		final String graphId;
+		final long baseVersion;
+		private final int headerLength;
+		long validLength;
+		private final List<String> names;
+
+		JournalReader(String filename) throws GraphIOException {
+			this.filename = filename;
+			names = new ArrayList<String>();
+			try {
+				FileInputStream in = new FileInputStream(filename);
+				try {
+					FileChannel ch = in.getChannel();
+					buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+				} finally {
+					in.close();
+				}
+			} catch (IOException e) {
+				throw new GraphIOException("Can't read journal " + filename, e);
+			}
+			try {
+				for (byte b : MAGIC) {
+					if (buf.get() != b) {
+						throw new GraphIOException(filename
+								+ " is not a graph journal");
+					}
+				}
+				graphId = readString();
+				baseVersion = readVarLong();
+			} catch (BufferUnderflowException e) {
+				throw new GraphIOException(filename
+						+ " is not a graph journal", e);
+			}
+			headerLength = buf.position();
+			validLength = headerLength;
+		}
+
+		private GraphIOException corrupt(String msg) {
+			return new GraphIOException("Journal " + filename + " offset "
+					+ buf.position() + ": " + msg);
+		}
+
+		private long readVarLong() throws GraphIOException {
+			long v = 0;
+			int shift = 0;
+			byte b;
+			do {
+				if (shift > 63) {
+					throw corrupt("Malformed varint");
+				}
+				b = buf.get();
+				v |= (long) (b & 0x7f) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return v;
+		}
+
+		private int readId() throws GraphIOException {
+			long v = readVarLong();
+			if (v > Integer.MAX_VALUE) {
+				throw corrupt("Invalid id " + v);
+			}
+			return (int) v;
+		}
+
+		private int readSignedId() throws GraphIOException {
+			long v = readVarLong();
+			return (int) ((v >>> 1) ^ -(v & 1));
+		}
+
+		private String readString() throws GraphIOException {
+			long len = readVarLong();
+			if (len > buf.remaining()) {
+				throw new BufferUnderflowException();
+			}
+			byte[] b = new byte[(int) len];
+			buf.get(b);
+			return new String(b, UTF8);
+		}
+
+		private String readName() throws GraphIOException {
+			long idx = readVarLong();
+			if (idx == 0) {
+				String s = readString();
+				names.add(s);
+				return s;
+			}
+			if (idx > names.size()) {
+				throw corrupt("Invalid name reference " + idx);
+			}
+			return names.get((int) idx - 1);
+		}
+
+		/**
+		 * @return the graph version after the last complete record
+		 */
+		long lastVersion() throws GraphIOException {
+			return replay(null);
+		}
+
+		/**
+		 * Reads all complete records and applies them to <code>graph</code>
+		 * if it is not null.
+		 * 
+		 * @return the graph version after the last complete record
+		 */
+		long replay(InternalGraph graph) throws GraphIOException {
+			buf.position(headerLength);
+			validLength = headerLength;
+			names.clear();
+			long version = baseVersion;
+			GraphClass gc = graph == null ? null : graph.getGraphClass();
+			try {
+				while (buf.hasRemaining()) {
+					int op = buf.get();
+					if (op == SEGMENT) {
+						names.clear();
+						version = readVarLong();
+						validLength = buf.position();
+						continue;
+					}
+					int id = 0, alpha = 0, omega = 0;
+					String name = null, value = null;
+					int[] oldIds = null, newIds = null;
+					switch (op) {
+					case CREATE_VERTEX:
+						id = readId();
+						name = readName();
+						break;
+					case CREATE_EDGE:
+						id = readId();
+						name = readName();
+						alpha = readId();
+						omega = readId();
+						break;
+					case DELETE_VERTEX:
+					case DELETE_EDGE:
+						id = readId();
+						break;
+					case SET_VERTEX_ATTRIBUTE:
+					case SET_EDGE_ATTRIBUTE:
+						id = readId();
+						// fall through
+					case SET_GRAPH_ATTRIBUTE:
+						name = readName();
+						value = readString();
+						break;
+					case CHANGE_ALPHA:
+					case CHANGE_OMEGA:
+						id = readId();
+						alpha = readId();
+						break;
+					case PUT_INCIDENCE_BEFORE:
+					case PUT_INCIDENCE_AFTER:
+						id = readSignedId();
+						alpha = readSignedId();
+						break;
+					case RENUMBER_VERTICES:
+					case RENUMBER_EDGES: {
+						long n = readVarLong();
+						if (n > buf.remaining()) {
+							throw new BufferUnderflowException();
+						}
+						oldIds = new int[(int) n];
+						newIds = new int[(int) n];
+						for (int i = 0; i < n; ++i) {
+							oldIds[i] = readId();
+							newIds[i] = readId();
+						}
+						break;
+					}
+					case VERSION:
+						break;
+					default:
+						throw corrupt("Invalid record type " + op);
+					}
+					long v = version + readVarLong();
+					if (graph != null) {
+						apply(graph, gc, op, id, name, value, alpha, omega,
+								oldIds, newIds);
+						graph.setGraphVersion(v);
+					}
+					version = v;
+					validLength = buf.position();
+				}
+			} catch (BufferUnderflowException e) {
+				// truncated last record, ignored
+			}
+			return version;
+		}
+
+		private void apply(InternalGraph graph, GraphClass gc, int op,
+				int id, String name, String value, int alpha, int omega,
+				int[] oldIds, int[] newIds) throws GraphIOException {
+			switch (op) {
+			case CREATE_VERTEX: {
+				VertexClass vc = gc.getVertexClass(name);
+				if (vc == null) {
+					throw corrupt("Unknown vertex class " + name);
+				}
+				Vertex v = graph.createVertex(vc);
+				if (v.getId() != id) {
+					throw corrupt("Replayed vertex " + id + " got id "
+							+ v.getId());
+				}
+				break;
+			}
+			case CREATE_EDGE: {
+				EdgeClass ec = gc.getEdgeClass(name);
+				if (ec == null) {
+					throw corrupt("Unknown edge class " + name);
+				}
+				Edge e = graph.createEdge(ec, vertex(graph, alpha),
+						vertex(graph, omega));
+				if (e.getId() != id) {
+					throw corrupt("Replayed edge " + id + " got id "
+							+ e.getId());
+				}
+				break;
+			}
+			case DELETE_VERTEX: {
+				// may already be deleted as part of a cascading delete
+				Vertex v = graph.getVertex(id);
+				if (v != null) {
+					v.delete();
+				}
+				break;
+			}
+			case DELETE_EDGE: {
+				// may already be deleted along with its alpha or omega
+				Edge e = graph.getEdge(id);
+				if (e != null) {
+					e.delete();
+				}
+				break;
+			}
+			case SET_GRAPH_ATTRIBUTE:
+				setAttribute(graph, name, value);
+				break;
+			case SET_VERTEX_ATTRIBUTE:
+				setAttribute(vertex(graph, id), name, value);
+				break;
+			case SET_EDGE_ATTRIBUTE:
+				setAttribute(edge(graph, id), name, value);
+				break;
+			case CHANGE_ALPHA:
+				edge(graph, id).setAlpha(vertex(graph, alpha));
+				break;
+			case CHANGE_OMEGA:
+				edge(graph, id).setOmega(vertex(graph, alpha));
+				break;
+			case PUT_INCIDENCE_BEFORE:
+				edge(graph, id).putIncidenceBefore(edge(graph, alpha));
+				break;
+			case PUT_INCIDENCE_AFTER:
+				edge(graph, id).putIncidenceAfter(edge(graph, alpha));
+				break;
+			case RENUMBER_VERTICES:
+				try {
+					graph.renumberVertices(oldIds, newIds);
+				} catch (GraphException e) {
+					throw corrupt(e.getMessage());
+				}
+				break;
+			case RENUMBER_EDGES:
+				try {
+					graph.renumberEdges(oldIds, newIds);
+				} catch (GraphException e) {
+					throw corrupt(e.getMessage());
+				}
+				break;
+			case VERSION:
+				break;
+			default:
+				throw corrupt("Invalid record type " + op);
+			}
+		}
+
+		private Vertex vertex(Graph graph, int id) throws GraphIOException {
+			Vertex v = id > 0 ? graph.getVertex(id) : null;
+			if (v == null) {
+				throw corrupt("No vertex with id " + id);
+			}
+			return v;
+		}
+
+		private Edge edge(Graph graph, int id) throws GraphIOException {
+			Edge e = id != 0 ? graph.getEdge(id) : null;
+			if (e == null) {
+				throw corrupt("No edge with id " + id);
+			}
+			return e;
+		}
+
+		private void setAttribute(AttributedElement<?, ?> element,
+				String name, String value) throws GraphIOException {
+			InternalAttributedElement ie = (InternalAttributedElement) element;
+			ie.readAttributeValueFromString(name, value);
+			if (!value.trim().equals(Token.UNSET.toString())) {
+				// the generic implementation doesn't mark read values as set
+				ie.internalMarkAttributeAsSet(element
+						.getAttributedElementClass().getAttributeIndex(name),
+						true);
+			}
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab;
+
+/**
+ * The ids of the vertices and edges added and deleted during a batch of
+ * changes, see {@link Graph#beginBatch()}. The ids are recorded in the order
+ * of the changes, edge ids are the ids of the normal edges. Ids of deleted
+ * elements are not reused before the batch is completed, so every id
+ * denotes at most one element. An element which was created and deleted
+ * within the same batch is contained in both the added and the deleted ids.<br/>
+ * <br/>
+ * 
+ * The arrays returned by the getters are shared by all listeners and must not
+ * be modified.
+ * 
+ * @author ist@uni-koblenz.de
+ * 
+ */
+public final class GraphStructureChangeBatch {
+
+	private final Graph graph;
+	private final int[] addedVertexIds;
+	private final int[] deletedVertexIds;
+	private final int[] addedEdgeIds;
+	private final int[] deletedEdgeIds;
+
+	public GraphStructureChangeBatch(Graph graph, int[] addedVertexIds,
+			int[] deletedVertexIds, int[] addedEdgeIds, int[] deletedEdgeIds) {
+		this.graph = graph;
+		this.addedVertexIds = addedVertexIds;
+		this.deletedVertexIds = deletedVertexIds;
+		this.addedEdgeIds = addedEdgeIds;
+		this.deletedEdgeIds = deletedEdgeIds;
+	}
+
+	/**
+	 * @return the graph which has been changed
+	 */
+	public Graph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * @return the ids of the vertices added during the batch
+	 */
+	public int[] getAddedVertexIds() {
+		return addedVertexIds;
+	}
+
+	/**
+	 * @return the ids of the vertices deleted during the batch
+	 */
+	public int[] getDeletedVertexIds() {
+		return deletedVertexIds;
+	}
+
+	/**
+	 * @return the ids of the edges added during the batch
+	 */
+	public int[] getAddedEdgeIds() {
+		return addedEdgeIds;
+	}
+
+	/**
+	 * @return the ids of the edges deleted during the batch
+	 */
+	public int[] getDeletedEdgeIds() {
+		return deletedEdgeIds;
+	}
+
+	/**
+	 * @return true if no vertices and edges have been added or deleted
+	 */
+	public boolean isEmpty() {
+		return (addedVertexIds.length == 0) && (deletedVertexIds.length == 0)
+				&& (addedEdgeIds.length == 0) && (deletedEdgeIds.length == 0);
+	}
+}
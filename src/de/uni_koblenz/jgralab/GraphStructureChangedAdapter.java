@@ -68,4 +68,12 @@ public abstract class GraphStructureChangedAdapter implements
 	public void vertexDeleted(Vertex v) {
 	}
 
+	@Override
+	public void verticesRenumbered(int[] oldIds, int[] newIds) {
+	}
+
+	@Override
+	public void edgesRenumbered(int[] oldIds, int[] newIds) {
+	}
+
 }
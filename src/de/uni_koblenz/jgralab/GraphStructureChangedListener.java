@@ -103,4 +103,31 @@ public interface GraphStructureChangedListener {
 	 *            the new value of <code>maxECount</code>.
 	 */
 	public void maxEdgeCountIncreased(int newValue);
+
+	/**
+	 * This method is called after a batch of vertices has been renumbered by
+	 * defragmentation. The vertex formerly identified by
+	 * <code>oldIds[i]</code> is identified by <code>newIds[i]</code> now. The
+	 * new ids have been unused before, and the pairs have to be applied in
+	 * order.
+	 * 
+	 * @param oldIds
+	 *            the former ids of the renumbered vertices
+	 * @param newIds
+	 *            the new ids of the renumbered vertices
+	 */
+	public void verticesRenumbered(int[] oldIds, int[] newIds);
+
+	/**
+	 * This method is called after a batch of edges has been renumbered by
+	 * defragmentation. The edge formerly identified by <code>oldIds[i]</code>
+	 * is identified by <code>newIds[i]</code> now. The new ids have been
+	 * unused before, and the pairs have to be applied in order.
+	 * 
+	 * @param oldIds
+	 *            the former ids of the renumbered edges
+	 * @param newIds
+	 *            the new ids of the renumbered edges
+	 */
+	public void edgesRenumbered(int[] oldIds, int[] newIds);
 }
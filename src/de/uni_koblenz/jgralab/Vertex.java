@@ -263,6 +263,21 @@ public interface Vertex extends GraphElement<VertexClass, Vertex> {
 	 */
 	public Iterable<Edge> incidences(EdgeClass eclass);
 
+	/**
+	 * Returns an {@link ElementSpliterator} over the incident edges of this
+	 * vertex, which can be split into parts traversed in parallel.
+	 * 
+	 * @param eclass
+	 *            the EdgeClass of the edges which should be iterated, or null
+	 *            for all edges
+	 * @param dir
+	 *            the direction of the edges which should be iterated, either
+	 *            EdgeDirection.IN, EdgeDirection.OUT or EdgeDirection.INOUT
+	 * @return an {@link ElementSpliterator} over the incident edges
+	 */
+	public ElementSpliterator<Edge> incidenceSpliterator(EdgeClass eclass,
+			EdgeDirection dir);
+
 	/**
 	 * Sorts the incidence sequence according to the given comparator in
 	 * ascending order.
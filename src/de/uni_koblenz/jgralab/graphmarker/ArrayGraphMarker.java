@@ -37,6 +37,7 @@ package de.uni_koblenz.jgralab.graphmarker;
 import java.util.Iterator;
 
 import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphStructureChangedBatchListener;
 import de.uni_koblenz.jgralab.GraphElement;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.algolib.functions.Function;
@@ -50,7 +51,8 @@ import de.uni_koblenz.jgralab.algolib.functions.entries.FunctionEntry;
  * @param <T>
  */
 public abstract class ArrayGraphMarker<T extends GraphElement<?, ?>, O> extends
-		AbstractGraphMarker<T> implements Function<T, O> {
+		AbstractGraphMarker<T> implements Function<T, O>,
+		GraphStructureChangedBatchListener {
 
 	/**
 	 * The array of temporary attributes.
@@ -148,6 +150,40 @@ public abstract class ArrayGraphMarker<T extends GraphElement<?, ?>, O> extends
 		temporaryAttributes = newTemporaryAttributes;
 	}
 
+	/**
+	 * Moves the marks of renumbered elements from their former ids to their
+	 * new ids.
+	 * 
+	 * @param oldIds
+	 *            the former ids of the renumbered elements
+	 * @param newIds
+	 *            the new ids of the renumbered elements
+	 */
+	protected void moveMarks(int[] oldIds, int[] newIds) {
+		for (int i = 0; i < oldIds.length; i++) {
+			temporaryAttributes[newIds[i]] = temporaryAttributes[oldIds[i]];
+			temporaryAttributes[oldIds[i]] = null;
+		}
+		version++;
+	}
+
+	/**
+	 * Removes the marks of the elements with the given ids, which have been
+	 * deleted.
+	 * 
+	 * @param ids
+	 *            the ids of deleted elements
+	 */
+	protected void removeMarks(int[] ids) {
+		for (int id : ids) {
+			if (temporaryAttributes[id] != null) {
+				temporaryAttributes[id] = null;
+				marked -= 1;
+			}
+		}
+		version++;
+	}
+
 	public int maxSize() {
 		return temporaryAttributes.length - 1;
 	}
@@ -40,6 +40,7 @@ import java.util.NoSuchElementException;
 
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphStructureChangeBatch;
 import de.uni_koblenz.jgralab.Vertex;
 
 public class BitSetEdgeMarker extends BitSetGraphMarker<Edge> {
@@ -73,6 +74,16 @@ public class BitSetEdgeMarker extends BitSetGraphMarker<Edge> {
 		return super.isMarked(edge.getNormalEdge());
 	}
 
+	@Override
+	public void edgesRenumbered(int[] oldIds, int[] newIds) {
+		moveMarks(oldIds, newIds);
+	}
+
+	@Override
+	public void structureChanged(GraphStructureChangeBatch batch) {
+		removeMarks(batch.getDeletedEdgeIds());
+	}
+
 	@Override
 	public Iterable<Edge> getMarkedElements() {
 		return new Iterable<Edge>() {
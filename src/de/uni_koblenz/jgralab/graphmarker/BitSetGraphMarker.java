@@ -38,6 +38,7 @@ import java.util.BitSet;
 import java.util.Iterator;
 
 import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphStructureChangedBatchListener;
 import de.uni_koblenz.jgralab.GraphElement;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.algolib.functions.BooleanFunction;
@@ -54,7 +55,8 @@ import de.uni_koblenz.jgralab.algolib.functions.entries.BooleanFunctionEntry;
  *            <code>BitSetGraphMarker</code>
  */
 public abstract class BitSetGraphMarker<T extends GraphElement<?, ?>> extends
-		AbstractGraphMarker<T> implements BooleanFunction<T> {
+		AbstractGraphMarker<T> implements BooleanFunction<T>,
+		GraphStructureChangedBatchListener {
 	protected final BitSet marks;
 	protected long version;
 
@@ -97,6 +99,37 @@ public abstract class BitSetGraphMarker<T extends GraphElement<?, ?>> extends
 		return out;
 	}
 
+	/**
+	 * Moves the marks of renumbered elements from their former ids to their
+	 * new ids.
+	 * 
+	 * @param oldIds
+	 *            the former ids of the renumbered elements
+	 * @param newIds
+	 *            the new ids of the renumbered elements
+	 */
+	protected void moveMarks(int[] oldIds, int[] newIds) {
+		for (int i = 0; i < oldIds.length; i++) {
+			marks.set(newIds[i], marks.get(oldIds[i]));
+			marks.clear(oldIds[i]);
+		}
+		version++;
+	}
+
+	/**
+	 * Removes the marks of the elements with the given ids, which have been
+	 * deleted.
+	 * 
+	 * @param ids
+	 *            the ids of deleted elements
+	 */
+	protected void removeMarks(int[] ids) {
+		for (int id : ids) {
+			marks.clear(id);
+		}
+		version++;
+	}
+
 	@Override
 	public int size() {
 		return marks.cardinality();
@@ -37,13 +37,15 @@ package de.uni_koblenz.jgralab.graphmarker;
 import java.util.Iterator;
 
 import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphStructureChangedBatchListener;
 import de.uni_koblenz.jgralab.GraphElement;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.algolib.functions.DoubleFunction;
 import de.uni_koblenz.jgralab.algolib.functions.entries.DoubleFunctionEntry;
 
 public abstract class DoubleGraphMarker<T extends GraphElement<?, ?>> extends
-		AbstractGraphMarker<T> implements DoubleFunction<T> {
+		AbstractGraphMarker<T> implements DoubleFunction<T>,
+		GraphStructureChangedBatchListener {
 
 	protected double[] temporaryAttributes;
 	protected int marked;
@@ -144,6 +146,40 @@ public abstract class DoubleGraphMarker<T extends GraphElement<?, ?>> extends
 		temporaryAttributes = newTemporaryAttributes;
 	}
 
+	/**
+	 * Moves the marks of renumbered elements from their former ids to their
+	 * new ids.
+	 * 
+	 * @param oldIds
+	 *            the former ids of the renumbered elements
+	 * @param newIds
+	 *            the new ids of the renumbered elements
+	 */
+	protected void moveMarks(int[] oldIds, int[] newIds) {
+		for (int i = 0; i < oldIds.length; i++) {
+			temporaryAttributes[newIds[i]] = temporaryAttributes[oldIds[i]];
+			temporaryAttributes[oldIds[i]] = Double.NaN;
+		}
+		version++;
+	}
+
+	/**
+	 * Removes the marks of the elements with the given ids, which have been
+	 * deleted.
+	 * 
+	 * @param ids
+	 *            the ids of deleted elements
+	 */
+	protected void removeMarks(int[] ids) {
+		for (int id : ids) {
+			if (!Double.isNaN(temporaryAttributes[id])) {
+				temporaryAttributes[id] = Double.NaN;
+				marked -= 1;
+			}
+		}
+		version++;
+	}
+
 	@Override
 	public double get(T parameter) {
 		return getMark(parameter);
@@ -40,6 +40,7 @@ import java.util.NoSuchElementException;
 
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphStructureChangeBatch;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.impl.InternalGraph;
 
@@ -72,6 +73,16 @@ public class DoubleVertexMarker extends DoubleGraphMarker<Vertex> {
 		removeMark(v);
 	}
 
+	@Override
+	public void verticesRenumbered(int[] oldIds, int[] newIds) {
+		moveMarks(oldIds, newIds);
+	}
+
+	@Override
+	public void structureChanged(GraphStructureChangeBatch batch) {
+		removeMarks(batch.getDeletedVertexIds());
+	}
+
 	@Override
 	public Iterable<Vertex> getMarkedElements() {
 		return new Iterable<Vertex>() {
@@ -37,13 +37,15 @@ package de.uni_koblenz.jgralab.graphmarker;
 import java.util.Iterator;
 
 import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphStructureChangedBatchListener;
 import de.uni_koblenz.jgralab.GraphElement;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.algolib.functions.LongFunction;
 import de.uni_koblenz.jgralab.algolib.functions.entries.LongFunctionEntry;
 
 public abstract class LongGraphMarker<T extends GraphElement<?, ?>> extends
-		AbstractGraphMarker<T> implements LongFunction<T> {
+		AbstractGraphMarker<T> implements LongFunction<T>,
+		GraphStructureChangedBatchListener {
 
 	private static final long DEFAULT_UNMARKED_VALUE = Long.MIN_VALUE;
 
@@ -148,6 +150,40 @@ public abstract class LongGraphMarker<T extends GraphElement<?, ?>> extends
 		temporaryAttributes = newTemporaryAttributes;
 	}
 
+	/**
+	 * Moves the marks of renumbered elements from their former ids to their
+	 * new ids.
+	 * 
+	 * @param oldIds
+	 *            the former ids of the renumbered elements
+	 * @param newIds
+	 *            the new ids of the renumbered elements
+	 */
+	protected void moveMarks(int[] oldIds, int[] newIds) {
+		for (int i = 0; i < oldIds.length; i++) {
+			temporaryAttributes[newIds[i]] = temporaryAttributes[oldIds[i]];
+			temporaryAttributes[oldIds[i]] = unmarkedValue;
+		}
+		version++;
+	}
+
+	/**
+	 * Removes the marks of the elements with the given ids, which have been
+	 * deleted.
+	 * 
+	 * @param ids
+	 *            the ids of deleted elements
+	 */
+	protected void removeMarks(int[] ids) {
+		for (int id : ids) {
+			if (temporaryAttributes[id] != unmarkedValue) {
+				temporaryAttributes[id] = unmarkedValue;
+				marked -= 1;
+			}
+		}
+		version++;
+	}
+
 	public long getUnmarkedValue() {
 		return unmarkedValue;
 	}
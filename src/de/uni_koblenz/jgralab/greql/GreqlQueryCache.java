@@ -34,44 +34,319 @@
  */
 package de.uni_koblenz.jgralab.greql;
 
-import java.lang.ref.SoftReference;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+import de.uni_koblenz.jgralab.greql.exception.GreqlException;
 import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizer;
 import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizerInfo;
+import de.uni_koblenz.jgralab.greql.optimizer.NullOptimizer;
 import de.uni_koblenz.jgralab.greql.optimizer.Optimizer;
 
+/**
+ * A bounded cache of parsed and optimized {@link GreqlQuery} objects. Queries
+ * are keyed on their text and the {@link Optimizer} used to optimize them, so
+ * the same text optimized differently results in different entries.
+ * 
+ * The cache is split into independently locked segments, each of which evicts
+ * its least recently used query when it is full. Concurrent requests for the
+ * same missing query wait for a single thread that parses and optimizes it.
+ * 
+ * @author ist@uni-koblenz.de
+ */
 public class GreqlQueryCache {
 
-	private final HashMap<String, SoftReference<GreqlQuery>> cache = new HashMap<String, SoftReference<GreqlQuery>>();
+	/**
+	 * Default maximum number of cached queries.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+	private static final int MAX_SEGMENTS = 16;
+
+	private static final int MIN_SEGMENT_SIZE = 16;
+
+	private final Segment[] segments;
+
+	private final Optimizer optimizer;
+
+	private final int maximumSize;
 
-	private Optimizer optimizer;
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final AtomicLong loadTime = new AtomicLong();
 
 	public GreqlQueryCache() {
 		this(new DefaultOptimizer(new DefaultOptimizerInfo()));
 	}
 
 	public GreqlQueryCache(Optimizer optimizer) {
+		this(optimizer, DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Creates a cache which holds at most <code>maximumSize</code> queries.
+	 * 
+	 * @param optimizer
+	 *            the {@link Optimizer} used by {@link #getQuery(String)}, may
+	 *            be <code>null</code> for unoptimized queries
+	 * @param maximumSize
+	 *            the maximum number of cached queries, must be positive
+	 */
+	public GreqlQueryCache(Optimizer optimizer, int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException(
+					"The maximum size of a GreqlQueryCache must be positive, but was "
+							+ maximumSize);
+		}
 		this.optimizer = optimizer;
+		this.maximumSize = maximumSize;
+		// keep segments large enough for LRU eviction to be meaningful
+		int count = 1;
+		while ((count < MAX_SEGMENTS)
+				&& ((maximumSize / (count * 2)) >= MIN_SEGMENT_SIZE)) {
+			count *= 2;
+		}
+		segments = new Segment[count];
+		for (int i = 0; i < count; ++i) {
+			segments[i] = new Segment((maximumSize + count - 1 - i) / count);
+		}
+	}
+
+	public void clear() {
+		for (Segment s : segments) {
+			s.lock();
+			try {
+				s.entries.clear();
+			} finally {
+				s.unlock();
+			}
+		}
+	}
+
+	public GreqlQuery getQuery(String queryText) {
+		return getQuery(queryText, optimizer);
+	}
+
+	/**
+	 * Returns the cached query for <code>queryText</code> optimized by
+	 * <code>optimizer</code>, or parses, optimizes and caches it if there is
+	 * none.
+	 * 
+	 * @param queryText
+	 *            the text of the query
+	 * @param optimizer
+	 *            the {@link Optimizer} to use, may be <code>null</code> for
+	 *            unoptimized queries
+	 * @return the (possibly shared) query
+	 */
+	public GreqlQuery getQuery(final String queryText,
+			final Optimizer optimizer) {
+		Key key = new Key(queryText, optimizer == null ? NullOptimizer
+				.instance() : optimizer);
+		Segment segment = segments[(spread(key.hashCode()) & 0x7fffffff)
+				% segments.length];
+		FutureTask<GreqlQuery> task;
+		boolean load = false;
+		segment.lock();
+		try {
+			task = segment.entries.get(key);
+			if (task == null) {
+				task = new FutureTask<GreqlQuery>(new Callable<GreqlQuery>() {
+					@Override
+					public GreqlQuery call() throws Exception {
+						return GreqlQuery.createQuery(queryText, optimizer);
+					}
+				});
+				segment.entries.put(key, task);
+				load = true;
+			}
+		} finally {
+			segment.unlock();
+		}
+		if (load) {
+			missCount.incrementAndGet();
+			long start = System.nanoTime();
+			task.run();
+			loadTime.addAndGet(System.nanoTime() - start);
+		} else {
+			hitCount.incrementAndGet();
+		}
+		try {
+			return getUninterruptibly(task);
+		} catch (ExecutionException e) {
+			// don't cache failures, the next request should see them again
+			segment.lock();
+			try {
+				if (segment.entries.get(key) == task) {
+					segment.entries.remove(key);
+				}
+			} finally {
+				segment.unlock();
+			}
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new GreqlException("Creation of query failed.", cause);
+		}
+	}
+
+	/**
+	 * @return the number of currently cached queries
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment s : segments) {
+			s.lock();
+			try {
+				size += s.entries.size();
+			} finally {
+				s.unlock();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the maximum number of cached queries
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return the number of {@link #getQuery(String)} calls which found their
+	 *         query in the cache (or being created by another thread)
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of {@link #getQuery(String)} calls which had to
+	 *         create their query
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the number of queries evicted from this cache because it was
+	 *         full
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @return the total time in nanoseconds spent parsing and optimizing
+	 *         queries on cache misses
+	 */
+	public long getTotalLoadTime() {
+		return loadTime.get();
 	}
 
-	public synchronized void clear() {
-		cache.clear();
+	private static GreqlQuery getUninterruptibly(FutureTask<GreqlQuery> task)
+			throws ExecutionException {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
 
-	public synchronized GreqlQuery getQuery(String queryText) {
-		String key = queryText;
-		SoftReference<GreqlQuery> ref = cache.get(key);
-		if (ref != null) {
-			GreqlQuery e = ref.get();
-			if (e != null) {
-				return e;
-			} else {
-				cache.remove(key);
+	private static int spread(int h) {
+		h ^= (h >>> 20) ^ (h >>> 12);
+		return h ^ (h >>> 7) ^ (h >>> 4);
+	}
+
+	private final class Segment extends ReentrantLock {
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		private final LinkedHashMap<Key, FutureTask<GreqlQuery>> entries;
+
+		Segment(int capacity) {
+			this.capacity = capacity;
+			entries = new LinkedHashMap<Key, FutureTask<GreqlQuery>>(16,
+					0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Entry<Key, FutureTask<GreqlQuery>> eldest) {
+					if (size() <= Segment.this.capacity) {
+						return false;
+					}
+					// never evict queries still being created
+					Iterator<Entry<Key, FutureTask<GreqlQuery>>> it = entrySet()
+							.iterator();
+					while (it.hasNext()) {
+						if (it.next().getValue().isDone()) {
+							it.remove();
+							evictionCount.incrementAndGet();
+							return false;
+						}
+					}
+					return false;
+				}
+			};
+		}
+	}
+
+	private static final class Key {
+		private final String queryText;
+		private final Optimizer optimizer;
+		private final int hashCode;
+
+		Key(String queryText, Optimizer optimizer) {
+			this.queryText = queryText;
+			this.optimizer = optimizer;
+			hashCode = (31 * queryText.hashCode())
+					+ optimizer.getClass().getName().hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
 			}
+			Key other = (Key) obj;
+			return (hashCode == other.hashCode)
+					&& queryText.equals(other.queryText)
+					&& ((optimizer == other.optimizer) || (optimizer
+							.isEquivalent(other.optimizer) && other.optimizer
+							.isEquivalent(optimizer)));
 		}
-		GreqlQuery query = GreqlQuery.createQuery(queryText, optimizer);
-		cache.put(key, new SoftReference<GreqlQuery>(query));
-		return query;
 	}
 }
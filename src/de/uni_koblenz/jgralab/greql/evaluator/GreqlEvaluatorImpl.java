@@ -35,8 +35,16 @@
 
 package de.uni_koblenz.jgralab.greql.evaluator;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.ProgressFunction;
@@ -58,6 +66,11 @@ import de.uni_koblenz.jgralab.schema.Schema;
  * graph. The result is a JValue-object, it can be accessed using the method
  * <code>JValue getEvaluationResult()</code>.<br>
  * 
+ * A GreqlEvaluatorImpl holds all state of one evaluation and must only be used
+ * by one thread at a time. The {@link GreqlQuery} itself is not modified by
+ * evaluations, so one query can be evaluated by several evaluators, i.e.
+ * threads, at once.
+ * 
  * @author ist@uni-koblenz.de
  * 
  */
@@ -68,6 +81,23 @@ public class GreqlEvaluatorImpl implements InternalGreqlEvaluator {
 	 */
 	public static boolean DEBUG_DECLARATION_ITERATIONS = false;
 
+	/**
+	 * The number of threads which evaluate comprehensions the optimizer marked
+	 * as parallelizable. Values &lt;= 1 disable the parallel evaluation.
+	 */
+	public static int PARALLEL_COMPREHENSION_THREADS = Runtime.getRuntime()
+			.availableProcessors();
+
+	/**
+	 * The minimum number of values of the outermost variable a thread iterates
+	 * over when evaluating a part of a parallelizable comprehension.
+	 * Comprehensions whose outermost variable has fewer than twice as many
+	 * values are evaluated sequentially.
+	 */
+	public static int PARALLEL_COMPREHENSION_MIN_PART_SIZE = 256;
+
+	private static ThreadPoolExecutor comprehensionExecutor;
+
 	/**
 	 * toggles the maximal size of the vertex index for each graph with respect
 	 * to graph size. For instance, a value of 50 (fifty) here will allow the
@@ -116,6 +146,8 @@ public class GreqlEvaluatorImpl implements InternalGreqlEvaluator {
 
 	private int cnt = 0;
 
+	private boolean forked;
+
 	/**
 	 * should be called by every vertex evaluator to indicate a progress. The
 	 * given value should be the ownEvaluationCosts of that VertexEvaluator.
@@ -187,6 +219,75 @@ public class GreqlEvaluatorImpl implements InternalGreqlEvaluator {
 				query.getRootExpression(), schema, typeName);
 	}
 
+	/**
+	 * @return the executor whose {@link #PARALLEL_COMPREHENSION_THREADS}
+	 *         threads evaluate the parts of parallelizable comprehensions
+	 */
+	public static synchronized ExecutorService getComprehensionExecutor() {
+		int threads = Math.max(PARALLEL_COMPREHENSION_THREADS, 1);
+		if ((comprehensionExecutor == null)
+				|| (comprehensionExecutor.getMaximumPoolSize() != threads)) {
+			// A previous executor is not shut down, since other evaluations
+			// may still submit to it. Its idle threads terminate by themselves.
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads,
+					threads, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r,
+									"GReQL parallel comprehension");
+							t.setDaemon(true);
+							return t;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			comprehensionExecutor = executor;
+		}
+		return comprehensionExecutor;
+	}
+
+	/**
+	 * Creates an evaluator which continues the current evaluation of
+	 * <code>parent</code> in another thread. It shares query, datagraph and
+	 * environment with <code>parent</code> and starts with its local
+	 * evaluation results, except for those of the vertices in
+	 * <code>reevaluated</code>.
+	 */
+	private GreqlEvaluatorImpl(GreqlEvaluatorImpl parent,
+			Collection<? extends GreqlVertex> reevaluated) {
+		query = parent.query;
+		graph = parent.graph;
+		schema = parent.schema;
+		environment = parent.environment;
+		localEvaluationResults = parent.localEvaluationResults.clone();
+		for (GreqlVertex v : reevaluated) {
+			localEvaluationResults[v.getId()] = null;
+		}
+		localAutomatons = new HashMap<GreqlVertex, FiniteAutomaton>();
+		forked = true;
+	}
+
+	/**
+	 * Creates an evaluator for evaluating a part of a parallelizable
+	 * comprehension in another thread. The returned evaluator knows the values
+	 * of all variables and expressions this evaluator has computed so far,
+	 * except for the vertices in <code>reevaluated</code>, which are the
+	 * vertices of the comprehension. This evaluator must not be modified until
+	 * the returned evaluator has been created.
+	 */
+	public GreqlEvaluatorImpl fork(Collection<? extends GreqlVertex> reevaluated) {
+		return new GreqlEvaluatorImpl(this, reevaluated);
+	}
+
+	/**
+	 * @return true if this evaluator was created by
+	 *         {@link #fork(Collection)}, i.e. it evaluates a part of a
+	 *         parallelizable comprehension
+	 */
+	public boolean isForked() {
+		return forked;
+	}
+
 	/**
 	 * Creates a new GreqlEvaluator for the given Query and Datagraph
 	 * 
@@ -247,7 +348,11 @@ public class GreqlEvaluatorImpl implements InternalGreqlEvaluator {
 	}
 
 	public Object evaluate() {
-		query.resetVertexEvaluators(this);
+		// start with fresh per-evaluation state
+		Arrays.fill(localEvaluationResults, null);
+		localAutomatons.clear();
+		progressStepsPassed = 0;
+		cnt = 0;
 
 		if (query.getQueryGraph().getVCount() <= 1) {
 			// Graph contains only root vertex
@@ -266,7 +371,19 @@ public class GreqlEvaluatorImpl implements InternalGreqlEvaluator {
 			progressFunction.init(estimatedInterpretationSteps);
 		}
 		
-		result = greql2ExpEval.getResult(this);
+		// hold the read lock of the datagraph, so that the evaluation sees a
+		// consistent graph if it is modified concurrently
+		Lock readLock = graph == null ? null : graph.getReadLock();
+		if (readLock != null) {
+			readLock.lock();
+		}
+		try {
+			result = greql2ExpEval.getResult(this);
+		} finally {
+			if (readLock != null) {
+				readLock.unlock();
+			}
+		}
 		
 		// last, remove all added tempAttributes, currently, this are only
 		// subgraphAttributes
@@ -75,8 +75,8 @@ public class GreqlQueryImpl extends GreqlQuery implements
 		GraphStructureChangedListener {
 	private final String queryText;
 	private GreqlGraph queryGraph;
-	private PSet<String> usedVariables;
-	private PSet<String> storedVariables;
+	private volatile PSet<String> usedVariables;
+	private volatile PSet<String> storedVariables;
 	private final Optimizer optimizer;
 	private GreqlExpression rootExpression;
 
@@ -249,52 +249,37 @@ public class GreqlQueryImpl extends GreqlQuery implements
 		}
 	}
 
-	/**
-	 * clears the tempresults that are stored in the GreqlEvaluators-Objects at
-	 * the syntaxgraph nodes
-	 * 
-	 * @param optimizer
-	 */
-	void resetVertexEvaluators(InternalGreqlEvaluator evaluator) {
-		GreqlGraph queryGraph = getQueryGraph();
-		GreqlVertex currentVertex = (GreqlVertex) queryGraph.getFirstVertex();
-		while (currentVertex != null) {
-			VertexEvaluator<?> vertexEval = vertexEvaluators
-					.getMark(currentVertex);
-			if (vertexEval != null) {
-				vertexEval.resetToInitialState(evaluator);
-			}
-			currentVertex = (GreqlVertex) currentVertex.getNextVertex();
-		}
-	}
-
 	@Override
 	public Set<String> getUsedVariables() {
-		if (usedVariables == null) {
-			usedVariables = JGraLab.set();
+		PSet<String> result = usedVariables;
+		if (result == null) {
+			result = JGraLab.set();
 			GreqlExpression expr = getRootExpression();
 			if (expr != null) {
 				for (Variable v : expr.get_boundVar()) {
-					usedVariables = usedVariables.plus(v.get_name());
+					result = result.plus(v.get_name());
 				}
 			}
+			usedVariables = result;
 		}
-		return usedVariables;
+		return result;
 	}
 
 	@Override
 	public Set<String> getStoredVariables() {
-		if (storedVariables == null) {
-			storedVariables = JGraLab.set();
+		PSet<String> result = storedVariables;
+		if (result == null) {
+			result = JGraLab.set();
 			GreqlExpression expr = getRootExpression();
 			if (expr != null) {
 				Identifier id = expr.get_identifier();
 				if (id != null) {
-					storedVariables = storedVariables.plus(id.get_name());
+					result = result.plus(id.get_name());
 				}
 			}
+			storedVariables = result;
 		}
-		return storedVariables;
+		return result;
 	}
 
 	@Override
@@ -342,6 +327,14 @@ public class GreqlQueryImpl extends GreqlQuery implements
 	public void maxVertexCountIncreased(int newValue) {
 	}
 
+	@Override
+	public void verticesRenumbered(int[] oldIds, int[] newIds) {
+	}
+
+	@Override
+	public void edgesRenumbered(int[] oldIds, int[] newIds) {
+	}
+
 	private static class GreqlParserWithVertexEvaluatorUpdates extends
 			GreqlParser {
 
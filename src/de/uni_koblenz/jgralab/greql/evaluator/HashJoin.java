@@ -0,0 +1,173 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.greql.evaluator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pcollections.PSet;
+
+import de.uni_koblenz.jgralab.greql.evaluator.vertexeval.VariableEvaluator;
+import de.uni_koblenz.jgralab.greql.evaluator.vertexeval.VertexEvaluator;
+import de.uni_koblenz.jgralab.greql.schema.Expression;
+import de.uni_koblenz.jgralab.greql.schema.Variable;
+import de.uni_koblenz.jgralab.greql.types.Undefined;
+
+/**
+ * Evaluates an equality constraint <code>probeKey = buildKey</code> of a
+ * declaration as hash join. The build key depends on the joined variable only,
+ * the probe key on variables which are iterated before it. Instead of
+ * iterating over all values of the joined variable, only those values whose
+ * build key equals the current probe key are iterated. They are looked up in a
+ * hash table, which is built once for each definition set of the joined
+ * variable.<br>
+ * 
+ * The constraints of the declaration are still checked for each combination,
+ * the hash join only skips combinations which can't fulfill them. If a key is
+ * undefined or can't be hashed consistently with the <code>equals</code>
+ * function, all values are iterated.
+ * 
+ * @author ist@uni-koblenz.de
+ * 
+ */
+public class HashJoin {
+
+	private final VertexEvaluator<? extends Expression> probeKeyEvaluator;
+
+	private final VertexEvaluator<? extends Expression> buildKeyEvaluator;
+
+	/**
+	 * The definition set the hash table was built for
+	 */
+	private PSet<Object> definitionSet;
+
+	/**
+	 * Maps the normalized build keys to the values with that key in iteration
+	 * order, null if some build key can't be hashed
+	 */
+	private Map<Object, List<Object>> table;
+
+	public HashJoin(VertexEvaluator<? extends Expression> probeKeyEvaluator,
+			VertexEvaluator<? extends Expression> buildKeyEvaluator) {
+		this.probeKeyEvaluator = probeKeyEvaluator;
+		this.buildKeyEvaluator = buildKeyEvaluator;
+	}
+
+	/**
+	 * Returns the values of <code>definitionSet</code> whose build key equals
+	 * the current probe key, in iteration order.
+	 * 
+	 * @param definitionSet
+	 *            the definition set of the joined variable
+	 * @param variableEval
+	 *            the evaluator of the joined variable, whose value is changed
+	 *            while building the hash table
+	 */
+	Collection<Object> getMatchingValues(PSet<Object> definitionSet,
+			VariableEvaluator<Variable> variableEval,
+			InternalGreqlEvaluator evaluator) {
+		if (definitionSet != this.definitionSet) {
+			build(definitionSet, variableEval, evaluator);
+		}
+		if (table == null) {
+			return definitionSet;
+		}
+		Object key = normalizeKey(probeKeyEvaluator.getResult(evaluator));
+		if (key == null) {
+			return definitionSet;
+		}
+		List<Object> values = table.get(key);
+		if (values == null) {
+			return Collections.emptyList();
+		}
+		return values;
+	}
+
+	private void build(PSet<Object> definitionSet,
+			VariableEvaluator<Variable> variableEval,
+			InternalGreqlEvaluator evaluator) {
+		this.definitionSet = definitionSet;
+		table = new HashMap<Object, List<Object>>();
+		for (Object value : definitionSet) {
+			variableEval.setValue(value, evaluator);
+			Object key = normalizeKey(buildKeyEvaluator.getResult(evaluator));
+			if (key == null) {
+				table = null;
+				break;
+			}
+			List<Object> values = table.get(key);
+			if (values == null) {
+				values = new ArrayList<Object>(1);
+				table.put(key, values);
+			}
+			values.add(value);
+		}
+		variableEval.setValue(Undefined.UNDEFINED, evaluator);
+	}
+
+	/**
+	 * Maps <code>key</code> to an object whose equals and hashCode methods
+	 * agree with the <code>equals</code> function. Keys which are equal
+	 * according to <code>equals</code> are mapped to equal objects, but
+	 * different keys might be mapped to equal objects, too.
+	 * 
+	 * @return the normalized key, or null if <code>key</code> is undefined or
+	 *         can't be hashed
+	 */
+	private static Object normalizeKey(Object key) {
+		if ((key == null) || (key == Undefined.UNDEFINED)) {
+			return null;
+		}
+		if ((key instanceof Integer) || (key instanceof Long)
+				|| (key instanceof Double)) {
+			// numbers of different types are compared by value, and 0.0
+			// equals -0.0
+			double d = ((Number) key).doubleValue();
+			return d == 0 ? 0.0 : d;
+		}
+		if (key instanceof Number) {
+			return null;
+		}
+		if (key instanceof Enum) {
+			// strings equal enum constants with that name
+			return key.toString();
+		}
+		return key;
+	}
+}
@@ -35,6 +35,7 @@
 
 package de.uni_koblenz.jgralab.greql.evaluator;
 
+import java.util.Collection;
 import java.util.Iterator;
 
 import org.pcollections.PSet;
@@ -61,7 +62,7 @@ public class VariableDeclaration {
 	/**
 	 * Holds the set of possible values the variable may have
 	 */
-	private PSet<Object> definitionSet;
+	private Collection<Object> definitionSet;
 
 	/**
 	 * Holds the variable-vertex of this declaration.
@@ -77,6 +78,26 @@ public class VariableDeclaration {
 
 	private final VertexEvaluator<? extends Expression> definitionSetEvaluator;
 
+	/**
+	 * The last value of the definition expression and the set of its
+	 * elements, which is reused as long as the definition expression isn't
+	 * reevaluated
+	 */
+	private Object definitionValue = null;
+	private PSet<Object> definitionValueSet = null;
+
+	/**
+	 * The values the variable is restricted to, or null if it iterates over its
+	 * whole definition set
+	 */
+	private Collection<Object> restrictedDefinitionSet = null;
+
+	/**
+	 * The hash join which restricts the values of the variable to those
+	 * matching the values of the variables declared before, or null
+	 */
+	private HashJoin hashJoin = null;
+
 	/**
 	 * Used for simple Iteration over the possible values
 	 */
@@ -161,23 +182,62 @@ public class VariableDeclaration {
 	protected void reset(InternalGreqlEvaluator evaluator) {
 		iterationNumber = 0;
 		variableEval.setValue(Undefined.UNDEFINED, evaluator);
+		if (restrictedDefinitionSet != null) {
+			definitionSet = restrictedDefinitionSet;
+		} else if (hashJoin != null) {
+			definitionSet = hashJoin.getMatchingValues(
+					getDefinitionSet(evaluator), variableEval, evaluator);
+		} else {
+			definitionSet = getDefinitionSet(evaluator);
+		}
+		iter = definitionSet.iterator();
+	}
+
+	/**
+	 * Restricts the values of the represented variable to those matching the
+	 * values of the variables declared before according to
+	 * <code>hashJoin</code>.
+	 */
+	public void setHashJoin(HashJoin hashJoin) {
+		this.hashJoin = hashJoin;
+	}
+
+	/**
+	 * Evaluates the set of possible values of the represented variable
+	 */
+	PSet<Object> getDefinitionSet(InternalGreqlEvaluator evaluator) {
 		Object tempAttribute = definitionSetEvaluator.getResult(evaluator);
+		if (tempAttribute == definitionValue) {
+			// the definition expression wasn't reevaluated
+			return definitionValueSet;
+		}
+		PSet<Object> set;
 		if (tempAttribute instanceof PVector) {
 			PVector<?> col = (PVector<?>) tempAttribute;
-			definitionSet = JGraLab.set().plusAll(col);
-			if (col.size() > definitionSet.size()) {
+			set = JGraLab.set().plusAll(col);
+			if (col.size() > set.size()) {
 				throw new GreqlException(
 						"A collection that doesn't fulfill the set property is used as variable range definition");
 			}
-
 		} else if (tempAttribute instanceof PSet) {
 			@SuppressWarnings("unchecked")
 			PSet<Object> s = (PSet<Object>) tempAttribute;
-			definitionSet = s;
+			set = s;
 		} else {
-			definitionSet = JGraLab.set().plus(tempAttribute);
+			set = JGraLab.set().plus(tempAttribute);
 		}
-		iter = definitionSet.iterator();
+		definitionValue = tempAttribute;
+		definitionValueSet = set;
+		return set;
+	}
+
+	/**
+	 * Restricts the values of the represented variable to the given subset of
+	 * its definition set, which is used instead of the definition set upon
+	 * each following {@link #reset(InternalGreqlEvaluator)}.
+	 */
+	void restrictDefinitionSet(Collection<Object> values) {
+		restrictedDefinitionSet = values;
 	}
 
 	/**
@@ -35,8 +35,11 @@
 
 package de.uni_koblenz.jgralab.greql.evaluator;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.pcollections.PSet;
+
 import de.uni_koblenz.jgralab.greql.evaluator.vertexeval.VertexEvaluator;
 import de.uni_koblenz.jgralab.greql.exception.WrongResultTypeException;
 import de.uni_koblenz.jgralab.greql.schema.Declaration;
@@ -231,4 +234,45 @@ public class VariableDeclarationLayer {
 	public void reset() {
 		firstIteration = true;
 	}
+
+	/**
+	 * Splits the definition set of the outermost variable of this layer into
+	 * consecutive parts. Iterating over the parts in the returned order, each
+	 * with its values restricted by
+	 * {@link #restrictOutermostDefinitionSet(List)}, yields the same variable
+	 * combinations in the same order as iterating over the whole layer.
+	 * 
+	 * @param maxParts
+	 *            the maximum number of parts
+	 * @param minPartSize
+	 *            the minimum number of values in each part
+	 * @return the parts, or null if the definition set has fewer than
+	 *         <code>2 * minPartSize</code> values
+	 */
+	public List<List<Object>> splitOutermostDefinitionSet(
+			InternalGreqlEvaluator evaluator, int maxParts, int minPartSize) {
+		PSet<Object> definitionSet = variableDeclarations.get(0)
+				.getDefinitionSet(evaluator);
+		int size = definitionSet.size();
+		int parts = Math.min(maxParts, size / Math.max(minPartSize, 1));
+		if (parts < 2) {
+			return null;
+		}
+		List<Object> values = new ArrayList<Object>(definitionSet);
+		List<List<Object>> result = new ArrayList<List<Object>>(parts);
+		for (int i = 0; i < parts; ++i) {
+			result.add(values.subList((int) ((long) size * i / parts),
+					(int) ((long) size * (i + 1) / parts)));
+		}
+		return result;
+	}
+
+	/**
+	 * Restricts the values of the outermost variable of this layer to
+	 * <code>values</code>, a part returned by
+	 * {@link #splitOutermostDefinitionSet(InternalGreqlEvaluator, int, int)}.
+	 */
+	public void restrictOutermostDefinitionSet(List<Object> values) {
+		variableDeclarations.get(0).restrictDefinitionSet(values);
+	}
 }
@@ -60,29 +60,37 @@ public abstract class AbstractGraphElementCollectionEvaluator<V extends Expressi
 		super(vertex, query);
 	}
 
-	protected TypeCollection typeCollection = null;
+	/**
+	 * The first bound type collection, used for estimations only
+	 */
+	protected volatile TypeCollection typeCollection = null;
 
 	public TypeCollection getTypeCollection(InternalGreqlEvaluator evaluator) {
-		if (typeCollection == null) {
-			typeCollection = TypeCollection.empty();
+		TypeCollection result = typeCollection;
+		if (result == null) {
+			result = TypeCollection.empty();
 			IsTypeRestrOfExpression inc = ((Expression) getVertex())
 					.getFirstIsTypeRestrOfExpressionIncidence(EdgeDirection.IN);
 			while (inc != null) {
 				TypeIdEvaluator typeEval = (TypeIdEvaluator) query
 						.getVertexEvaluator(inc.getAlpha());
-				typeCollection = typeCollection
-						.combine((TypeCollection) typeEval.getResult(evaluator));
+				result = result.combine((TypeCollection) typeEval
+						.getResult(evaluator));
 
 				inc = inc
 						.getNextIsTypeRestrOfExpressionIncidence(EdgeDirection.IN);
 			}
 		}
 		try {
-			typeCollection = typeCollection.bindToSchema(evaluator);
+			// the bound collection belongs to the current evaluation
+			result = result.bindToSchema(evaluator);
 		} catch (UnknownTypeException e) {
 			throw new UnknownTypeException(e.getTypeName(),
 					createPossibleSourcePositions());
 		}
-		return typeCollection;
+		if (typeCollection == null) {
+			typeCollection = result;
+		}
+		return result;
 	}
 }
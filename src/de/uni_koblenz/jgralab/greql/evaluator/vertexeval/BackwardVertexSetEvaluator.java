@@ -63,24 +63,22 @@ public class BackwardVertexSetEvaluator extends
 		super(vertex, query);
 	}
 
-	private boolean initialized = false;
+	private volatile VertexEvaluator<? extends Expression> targetEval = null;
 
-	private VertexEvaluator<? extends Expression> targetEval = null;
-
-	private final void initialize(InternalGreqlEvaluator evaluator) {
-
-		Expression targetExpression = vertex.getFirstIsTargetExprOfIncidence(
-				EdgeDirection.IN).getAlpha();
-		targetEval = query.getVertexEvaluator(targetExpression);
-
-		initialized = true;
+	private final VertexEvaluator<? extends Expression> getTargetEval() {
+		VertexEvaluator<? extends Expression> result = targetEval;
+		if (result == null) {
+			Expression targetExpression = vertex
+					.getFirstIsTargetExprOfIncidence(EdgeDirection.IN)
+					.getAlpha();
+			result = query.getVertexEvaluator(targetExpression);
+			targetEval = result;
+		}
+		return result;
 	}
 
 	@Override
 	public PSet<Vertex> evaluate(InternalGreqlEvaluator evaluator) {
-		if (!initialized) {
-			initialize(evaluator);
-		}
 		DFA searchAutomaton = (DFA) evaluator.getLocalAutomaton(vertex);
 		if (searchAutomaton == null) {
 			PathDescription p = (PathDescription) vertex
@@ -93,7 +91,7 @@ public class BackwardVertexSetEvaluator extends
 		}
 		evaluator.progress(getOwnEvaluationCosts());
 		Vertex targetVertex = null;
-		targetVertex = (Vertex) targetEval.getResult(evaluator);
+		targetVertex = (Vertex) getTargetEval().getResult(evaluator);
 
 		return ReachableVertices.search(evaluator, targetVertex,
 				searchAutomaton);
@@ -34,21 +34,64 @@
  */
 package de.uni_koblenz.jgralab.greql.evaluator.vertexeval;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.pcollections.PCollection;
 
 import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.TraversalContext;
+import de.uni_koblenz.jgralab.greql.evaluator.GreqlEvaluatorImpl;
 import de.uni_koblenz.jgralab.greql.evaluator.GreqlQueryImpl;
 import de.uni_koblenz.jgralab.greql.evaluator.InternalGreqlEvaluator;
 import de.uni_koblenz.jgralab.greql.evaluator.VariableDeclarationLayer;
+import de.uni_koblenz.jgralab.greql.exception.EvaluationInterruptedException;
+import de.uni_koblenz.jgralab.greql.exception.GreqlException;
 import de.uni_koblenz.jgralab.greql.schema.Comprehension;
 import de.uni_koblenz.jgralab.greql.schema.Declaration;
 import de.uni_koblenz.jgralab.greql.schema.Expression;
+import de.uni_koblenz.jgralab.greql.schema.GreqlAggregation;
+import de.uni_koblenz.jgralab.greql.schema.GreqlVertex;
+import de.uni_koblenz.jgralab.greql.schema.Variable;
 
+/**
+ * Base class of the evaluators of comprehensions, which iterate over all
+ * variable combinations of their declaration and collect the results.<br>
+ * 
+ * If the optimizer marked a comprehension as parallelizable, the values of the
+ * outermost variable are split into parts which are iterated by the threads of
+ * {@link GreqlEvaluatorImpl#getComprehensionExecutor()} and the evaluating
+ * thread, each with its own evaluator. The partial results are merged in the
+ * order of the parts, so the result equals the one of the sequential
+ * evaluation. Comprehensions nested into a part are evaluated sequentially.
+ */
 public abstract class ComprehensionEvaluator<V extends Comprehension> extends
 		VertexEvaluator<V> {
 
-	private VertexEvaluator<? extends Expression> resultDefinitionEvaluator = null;
-	protected long maxCount = Long.MAX_VALUE;
+	/**
+	 * The number of parts the values of the outermost variable are split into
+	 * per thread, so that threads which finish early can take over
+	 */
+	private static final int PARTS_PER_THREAD = 4;
+
+	private volatile VertexEvaluator<? extends Expression> resultDefinitionEvaluator = null;
+
+	private volatile boolean parallelizable = false;
+
+	/**
+	 * The vertices below this comprehension except for variables, which are
+	 * evaluated anew by the evaluators of a parallel evaluation
+	 */
+	private volatile List<GreqlVertex> subtreeVertices = null;
 
 	public ComprehensionEvaluator(V vertex, GreqlQueryImpl query) {
 		super(vertex, query);
@@ -58,14 +101,15 @@ public abstract class ComprehensionEvaluator<V extends Comprehension> extends
 			InternalGreqlEvaluator evaluator);
 
 	protected final VertexEvaluator<? extends Expression> getResultDefinitionEvaluator() {
-		if (resultDefinitionEvaluator == null) {
+		VertexEvaluator<? extends Expression> result = resultDefinitionEvaluator;
+		if (result == null) {
 			Expression resultDefinition = getVertex()
 					.getFirstIsCompResultDefOfIncidence(EdgeDirection.IN)
 					.getAlpha();
-			resultDefinitionEvaluator = query
-					.getVertexEvaluator(resultDefinition);
+			result = query.getVertexEvaluator(resultDefinition);
+			resultDefinitionEvaluator = result;
 		}
-		return resultDefinitionEvaluator;
+		return result;
 	}
 
 	protected final VariableDeclarationLayer getVariableDeclationLayer(
@@ -77,19 +121,60 @@ public abstract class ComprehensionEvaluator<V extends Comprehension> extends
 		return (VariableDeclarationLayer) declEval.getResult(evaluator);
 	}
 
-	protected final void initializeMaxCount(InternalGreqlEvaluator evaluator) {
+	/**
+	 * @return the maximum number of results for the current evaluation, or
+	 *         {@link Long#MAX_VALUE} if the comprehension has no limit
+	 */
+	protected final long getMaxCount(InternalGreqlEvaluator evaluator) {
 		if (getVertex().get_maxCount() != null) {
 			VertexEvaluator<? extends Expression> maxCountEval = query
 					.getVertexEvaluator(getVertex().get_maxCount());
-			maxCount = ((Number) maxCountEval.getResult(evaluator)).longValue();
+			return ((Number) maxCountEval.getResult(evaluator)).longValue();
 		}
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return true if the comprehension may be evaluated by several threads
+	 */
+	public final boolean isParallelizable() {
+		return parallelizable;
+	}
+
+	/**
+	 * Marks the comprehension as parallelizable. This is done by the optimizer
+	 * if the comprehension applies side-effect-free functions only.
+	 */
+	public final void setParallelizable(boolean parallelizable) {
+		this.parallelizable = parallelizable;
 	}
 
 	@Override
 	public Object evaluate(InternalGreqlEvaluator evaluator) {
 		evaluator.progress(getOwnEvaluationCosts());
-		initializeMaxCount(evaluator);
+		long maxCount = getMaxCount(evaluator);
 		VariableDeclarationLayer declLayer = getVariableDeclationLayer(evaluator);
+		if (parallelizable && (maxCount == Long.MAX_VALUE)
+				&& (GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS > 1)
+				&& (evaluator instanceof GreqlEvaluatorImpl)
+				&& !((GreqlEvaluatorImpl) evaluator).isForked()) {
+			List<List<Object>> parts = declLayer.splitOutermostDefinitionSet(
+					evaluator, GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS
+							* PARTS_PER_THREAD,
+					GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_MIN_PART_SIZE);
+			if (parts != null) {
+				return evaluateParts((GreqlEvaluatorImpl) evaluator, parts);
+			}
+		}
+		return collectResults(evaluator, declLayer, maxCount);
+	}
+
+	/**
+	 * Iterates over all variable combinations of <code>declLayer</code> and
+	 * collects the results.
+	 */
+	protected Object collectResults(InternalGreqlEvaluator evaluator,
+			VariableDeclarationLayer declLayer, long maxCount) {
 		VertexEvaluator<?> resultDefEval = getResultDefinitionEvaluator();
 		PCollection<Object> resultCollection = getResultDatastructure(evaluator);
 		declLayer.reset();
@@ -100,4 +185,131 @@ public abstract class ComprehensionEvaluator<V extends Comprehension> extends
 		}
 		return resultCollection;
 	}
+
+	/**
+	 * Merges the results of two consecutive parts of a parallel evaluation as
+	 * returned by
+	 * {@link #collectResults(InternalGreqlEvaluator, VariableDeclarationLayer, long)}
+	 * .
+	 */
+	@SuppressWarnings("unchecked")
+	protected Object mergeResults(Object first, Object second) {
+		return ((PCollection<Object>) first)
+				.plusAll((PCollection<Object>) second);
+	}
+
+	private List<GreqlVertex> getSubtreeVertices() {
+		List<GreqlVertex> result = subtreeVertices;
+		if (result == null) {
+			result = new ArrayList<GreqlVertex>();
+			Set<GreqlVertex> visited = new HashSet<GreqlVertex>();
+			Queue<GreqlVertex> queue = new LinkedList<GreqlVertex>();
+			queue.add(vertex);
+			while (!queue.isEmpty()) {
+				GreqlVertex v = queue.poll();
+				for (GreqlAggregation e : v
+						.getGreqlAggregationIncidences(EdgeDirection.IN)) {
+					GreqlVertex child = (GreqlVertex) e.getThat();
+					if (visited.add(child)) {
+						queue.add(child);
+						if (!(child instanceof Variable)) {
+							result.add(child);
+						}
+					}
+				}
+			}
+			subtreeVertices = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates the comprehension for the given parts of the values of its
+	 * outermost variable. The first part is evaluated by the current thread,
+	 * the others by the comprehension executor.
+	 */
+	private Object evaluateParts(GreqlEvaluatorImpl evaluator,
+			List<List<Object>> parts) {
+		Graph graph = evaluator.getGraph();
+		TraversalContext traversalContext = graph == null ? null : graph
+				.getTraversalContext();
+		ExecutorService executor = GreqlEvaluatorImpl
+				.getComprehensionExecutor();
+		List<Future<Object>> partialResults = new ArrayList<Future<Object>>(
+				parts.size() - 1);
+		try {
+			for (int i = 1; i < parts.size(); i++) {
+				partialResults.add(executor.submit(new PartialResult(evaluator
+						.fork(getSubtreeVertices()), traversalContext, parts
+						.get(i))));
+			}
+			Object result = new PartialResult(
+					evaluator.fork(getSubtreeVertices()), traversalContext,
+					parts.get(0)).call();
+			for (Future<Object> partialResult : partialResults) {
+				result = mergeResults(result, get(partialResult));
+			}
+			return result;
+		} finally {
+			// stops the remaining parts if one part failed
+			for (Future<Object> partialResult : partialResults) {
+				partialResult.cancel(true);
+			}
+		}
+	}
+
+	private static Object get(Future<Object> partialResult) {
+		try {
+			return partialResult.get();
+		} catch (InterruptedException e) {
+			throw new EvaluationInterruptedException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new GreqlException(
+					"Exception while evaluating a parallel comprehension",
+					cause);
+		}
+	}
+
+	/**
+	 * Evaluates the comprehension for one part of the values of its outermost
+	 * variable.
+	 */
+	private class PartialResult implements Callable<Object> {
+		private final GreqlEvaluatorImpl evaluator;
+		private final TraversalContext traversalContext;
+		private final List<Object> part;
+
+		PartialResult(GreqlEvaluatorImpl evaluator,
+				TraversalContext traversalContext, List<Object> part) {
+			this.evaluator = evaluator;
+			this.traversalContext = traversalContext;
+			this.part = part;
+		}
+
+		@Override
+		public Object call() {
+			Graph graph = evaluator.getGraph();
+			TraversalContext oldTraversalContext = null;
+			if (graph != null) {
+				oldTraversalContext = graph.getTraversalContext();
+				graph.setTraversalContext(traversalContext);
+			}
+			try {
+				VariableDeclarationLayer declLayer = getVariableDeclationLayer(evaluator);
+				declLayer.restrictOutermostDefinitionSet(part);
+				return collectResults(evaluator, declLayer, Long.MAX_VALUE);
+			} finally {
+				if (graph != null) {
+					graph.setTraversalContext(oldTraversalContext);
+				}
+			}
+		}
+	}
 }
@@ -36,20 +36,30 @@
 package de.uni_koblenz.jgralab.greql.evaluator.vertexeval;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.pcollections.PVector;
 
 import de.uni_koblenz.jgralab.EdgeDirection;
 import de.uni_koblenz.jgralab.greql.evaluator.GreqlQueryImpl;
+import de.uni_koblenz.jgralab.greql.evaluator.HashJoin;
 import de.uni_koblenz.jgralab.greql.evaluator.InternalGreqlEvaluator;
 import de.uni_koblenz.jgralab.greql.evaluator.VariableDeclaration;
 import de.uni_koblenz.jgralab.greql.evaluator.VariableDeclarationLayer;
 import de.uni_koblenz.jgralab.greql.evaluator.VertexCosts;
+import de.uni_koblenz.jgralab.greql.optimizer.OptimizerUtility;
+import de.uni_koblenz.jgralab.greql.schema.BoolLiteral;
+import de.uni_koblenz.jgralab.greql.schema.ConditionalExpression;
 import de.uni_koblenz.jgralab.greql.schema.Declaration;
 import de.uni_koblenz.jgralab.greql.schema.Expression;
+import de.uni_koblenz.jgralab.greql.schema.FunctionApplication;
+import de.uni_koblenz.jgralab.greql.schema.IsArgumentOf;
 import de.uni_koblenz.jgralab.greql.schema.IsConstraintOf;
+import de.uni_koblenz.jgralab.greql.schema.IsDeclaredVarOf;
 import de.uni_koblenz.jgralab.greql.schema.IsSimpleDeclOf;
 import de.uni_koblenz.jgralab.greql.schema.SimpleDeclaration;
 import de.uni_koblenz.jgralab.greql.schema.Variable;
@@ -68,6 +78,12 @@ public class DeclarationEvaluator extends VertexEvaluator<Declaration> {
 	 */
 	protected static final int declarationCostsFactor = 5;
 
+	/**
+	 * The equality constraints which are evaluated as hash joins, computed by
+	 * the join planning on the first evaluation
+	 */
+	private volatile List<EquiJoin> joinPlan = null;
+
 	/**
 	 * @param vertex
 	 *            the vertex which gets evaluated by this VertexEvaluator
@@ -102,11 +118,148 @@ public class DeclarationEvaluator extends VertexEvaluator<Declaration> {
 				varDeclList.add(v);
 			}
 		}
+		for (EquiJoin join : getJoinPlan()) {
+			varDeclList.get(join.variable).setHashJoin(
+					new HashJoin(join.probeKey, join.buildKey));
+		}
 		VariableDeclarationLayer declarationLayer = new VariableDeclarationLayer(
 				vertex, varDeclList, constraintList);
 		return declarationLayer;
 	}
 
+	/**
+	 * An equality constraint <code>probeKey = buildKey</code> between the
+	 * variable at position <code>variable</code> of the declaration layer and
+	 * variables declared before it.
+	 */
+	private static final class EquiJoin {
+		final int variable;
+		final VertexEvaluator<? extends Expression> probeKey;
+		final VertexEvaluator<? extends Expression> buildKey;
+
+		EquiJoin(int variable, VertexEvaluator<? extends Expression> probeKey,
+				VertexEvaluator<? extends Expression> buildKey) {
+			this.variable = variable;
+			this.probeKey = probeKey;
+			this.buildKey = buildKey;
+		}
+	}
+
+	private List<EquiJoin> getJoinPlan() {
+		List<EquiJoin> result = joinPlan;
+		if (result == null) {
+			result = planJoins();
+			joinPlan = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the conjuncts of the constraints which compare an expression of
+	 * one declared variable with an expression of variables declared before it
+	 * (or outside of this declaration). For each variable, the first such
+	 * conjunct is evaluated as hash join, the other variables are iterated
+	 * completely.
+	 */
+	private List<EquiJoin> planJoins() {
+		List<Variable> variables = new ArrayList<Variable>();
+		for (IsSimpleDeclOf inc : vertex
+				.getIsSimpleDeclOfIncidences(EdgeDirection.IN)) {
+			for (IsDeclaredVarOf varInc : inc.getAlpha()
+					.getIsDeclaredVarOfIncidences(EdgeDirection.IN)) {
+				variables.add(varInc.getAlpha());
+			}
+		}
+		if (variables.size() < 2) {
+			return Collections.emptyList();
+		}
+		List<Expression> conjuncts = new ArrayList<Expression>();
+		for (IsConstraintOf consInc : vertex
+				.getIsConstraintOfIncidences(EdgeDirection.IN)) {
+			collectConjuncts(consInc.getAlpha(), conjuncts);
+		}
+		List<EquiJoin> result = new ArrayList<EquiJoin>();
+		Set<Integer> joinedVariables = new HashSet<Integer>();
+		for (Expression conjunct : conjuncts) {
+			if (!(conjunct instanceof FunctionApplication)
+					|| !((FunctionApplication) conjunct)
+							.getFirstIsFunctionIdOfIncidence(EdgeDirection.IN)
+							.getAlpha().get_name().equals("equals")) {
+				continue;
+			}
+			List<Expression> args = new ArrayList<Expression>(2);
+			for (IsArgumentOf argInc : ((FunctionApplication) conjunct)
+					.getIsArgumentOfIncidences(EdgeDirection.IN)) {
+				args.add(argInc.getAlpha());
+			}
+			if ((args.size() != 2)
+					|| !OptimizerUtility.isSideEffectFree(conjunct)) {
+				continue;
+			}
+			for (int i = 0; i < 2; ++i) {
+				VertexEvaluator<? extends Expression> probeKey = query
+						.getVertexEvaluator(args.get(i));
+				VertexEvaluator<? extends Expression> buildKey = query
+						.getVertexEvaluator(args.get(1 - i));
+				Set<Variable> buildVars = buildKey.getNeededVariables();
+				if (buildVars.size() != 1) {
+					continue;
+				}
+				int variable = variables.indexOf(buildVars.iterator().next());
+				if ((variable <= 0) || joinedVariables.contains(variable)) {
+					continue;
+				}
+				boolean probeKeyIsBound = true;
+				for (Variable v : probeKey.getNeededVariables()) {
+					if (variables.indexOf(v) >= variable) {
+						probeKeyIsBound = false;
+						break;
+					}
+				}
+				if (probeKeyIsBound) {
+					joinedVariables.add(variable);
+					result.add(new EquiJoin(variable, probeKey, buildKey));
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the conjuncts of <code>constraint</code> to <code>conjuncts</code>.
+	 * Besides applications of <code>and</code>, conditional expressions of the
+	 * form <code>a ? b : false</code> created by the optimizer are
+	 * conjunctions.
+	 */
+	private static void collectConjuncts(Expression constraint,
+			List<Expression> conjuncts) {
+		if ((constraint instanceof FunctionApplication)
+				&& OptimizerUtility.isAnd((FunctionApplication) constraint)) {
+			for (IsArgumentOf argInc : ((FunctionApplication) constraint)
+					.getIsArgumentOfIncidences(EdgeDirection.IN)) {
+				collectConjuncts(argInc.getAlpha(), conjuncts);
+			}
+		} else if (constraint instanceof ConditionalExpression) {
+			ConditionalExpression condExp = (ConditionalExpression) constraint;
+			Expression falseExpr = condExp.getFirstIsFalseExprOfIncidence(
+					EdgeDirection.IN).getAlpha();
+			if ((falseExpr instanceof BoolLiteral)
+					&& !((BoolLiteral) falseExpr).is_boolValue()) {
+				collectConjuncts(
+						condExp.getFirstIsConditionOfIncidence(
+								EdgeDirection.IN).getAlpha(), conjuncts);
+				collectConjuncts(
+						condExp.getFirstIsTrueExprOfIncidence(
+								EdgeDirection.IN).getAlpha(), conjuncts);
+			} else {
+				conjuncts.add(constraint);
+			}
+		} else {
+			conjuncts.add(constraint);
+		}
+	}
+
 	@Override
 	public VertexCosts calculateSubtreeEvaluationCosts() {
 		Declaration decl = getVertex();
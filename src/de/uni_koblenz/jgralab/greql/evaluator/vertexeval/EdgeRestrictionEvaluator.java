@@ -59,37 +59,67 @@ import de.uni_koblenz.jgralab.greql.types.TypeCollection;
  */
 public class EdgeRestrictionEvaluator extends VertexEvaluator<EdgeRestriction> {
 
-	private VertexEvaluator<? extends Expression> predicateEvaluator = null;
-
-	public VertexEvaluator<? extends Expression> getPredicateEvaluator() {
-		return predicateEvaluator;
-	}
+	private volatile VertexEvaluator<? extends Expression> predicateEvaluator = null;
 
 	/**
-	 * The JValueTypeCollection which holds all the allowed and forbidden types
+	 * @return the evaluator of the boolean predicate of the edge, or
+	 *         <code>null</code> if there is none
 	 */
-	private TypeCollection typeCollection = null;
+	public VertexEvaluator<? extends Expression> getPredicateEvaluator() {
+		VertexEvaluator<? extends Expression> result = predicateEvaluator;
+		if (result == null) {
+			IsBooleanPredicateOfEdgeRestriction predInc = vertex
+					.getFirstIsBooleanPredicateOfEdgeRestrictionIncidence(EdgeDirection.IN);
+			if (predInc != null) {
+				result = query.getVertexEvaluator(predInc.getAlpha());
+				predicateEvaluator = result;
+			}
+		}
+		return result;
+	}
 
 	/**
-	 * Returns the typeCollection
+	 * Returns the TypeCollection which holds all the allowed and forbidden
+	 * types, bound to the schema of the current datagraph
 	 */
 	public TypeCollection getTypeCollection(InternalGreqlEvaluator evaluator) {
-		if (typeCollection == null) {
-			evaluate(evaluator);
+		TypeCollection typeCollection = TypeCollection.empty();
+		IsTypeIdOf typeInc = vertex
+				.getFirstIsTypeIdOfIncidence(EdgeDirection.IN);
+		while (typeInc != null) {
+			TypeIdEvaluator typeEval = (TypeIdEvaluator) query
+					.getVertexEvaluator(typeInc.getAlpha());
+			typeCollection = typeCollection.combine((TypeCollection) typeEval
+					.getResult(evaluator));
+			typeInc = typeInc.getNextIsTypeIdOfIncidence(EdgeDirection.IN);
+		}
+		try {
+			return typeCollection.bindToSchema(evaluator);
+		} catch (UnknownTypeException e) {
+			throw new UnknownTypeException(e.getTypeName(),
+					createPossibleSourcePositions());
 		}
-		return typeCollection;
 	}
 
 	/**
 	 * the valid role of an edge
 	 */
-	private Set<String> validRoles;
+	private volatile Set<String> validRoles;
 
 	/**
 	 * @return the valid edge role
 	 */
 	public Set<String> getEdgeRoles() {
-		return validRoles;
+		Set<String> result = validRoles;
+		if ((result == null) && (vertex.getFirstIsRoleIdOfIncidence() != null)) {
+			result = new HashSet<String>();
+			for (IsRoleIdOf e : vertex.getIsRoleIdOfIncidences()) {
+				RoleId role = e.getAlpha();
+				result.add(role.get_name());
+			}
+			validRoles = result;
+		}
+		return result;
 	}
 
 	public EdgeRestrictionEvaluator(EdgeRestriction vertex, GreqlQueryImpl query) {
@@ -97,44 +127,13 @@ public class EdgeRestrictionEvaluator extends VertexEvaluator<EdgeRestriction> {
 	}
 
 	/**
-	 * evaluates the EdgeRestriction, creates the typeList and the validEdgeRole
+	 * evaluates the EdgeRestriction, checks that the types exist in the schema
+	 * of the datagraph
 	 */
 	@Override
 	public Object evaluate(InternalGreqlEvaluator evaluator) {
 		evaluator.progress(getOwnEvaluationCosts());
-		if (typeCollection == null) {
-			typeCollection = TypeCollection.empty();
-			IsTypeIdOf typeInc = vertex
-					.getFirstIsTypeIdOfIncidence(EdgeDirection.IN);
-			while (typeInc != null) {
-				TypeIdEvaluator typeEval = (TypeIdEvaluator) query
-						.getVertexEvaluator(typeInc.getAlpha());
-				typeCollection = typeCollection
-						.combine((TypeCollection) typeEval.getResult(evaluator));
-				typeInc = typeInc.getNextIsTypeIdOfIncidence(EdgeDirection.IN);
-			}
-		}
-
-		try {
-			typeCollection = typeCollection.bindToSchema(evaluator);
-		} catch (UnknownTypeException e) {
-			throw new UnknownTypeException(e.getTypeName(),
-					createPossibleSourcePositions());
-		}
-
-		if (vertex.getFirstIsRoleIdOfIncidence() != null) {
-			validRoles = new HashSet<String>();
-			for (IsRoleIdOf e : vertex.getIsRoleIdOfIncidences()) {
-				RoleId role = e.getAlpha();
-				validRoles.add(role.get_name());
-			}
-		}
-		IsBooleanPredicateOfEdgeRestriction predInc = vertex
-				.getFirstIsBooleanPredicateOfEdgeRestrictionIncidence(EdgeDirection.IN);
-		if (predInc != null) {
-			// System.out.println("Found a BooleanPredicateOfEdge");
-			predicateEvaluator = query.getVertexEvaluator(predInc.getAlpha());
-		}
+		getTypeCollection(evaluator);
 		return null;
 	}
 
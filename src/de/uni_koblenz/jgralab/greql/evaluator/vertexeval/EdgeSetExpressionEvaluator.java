@@ -38,6 +38,7 @@ package de.uni_koblenz.jgralab.greql.evaluator.vertexeval;
 import org.pcollections.PSet;
 
 import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.greql.evaluator.GreqlQueryImpl;
 import de.uni_koblenz.jgralab.greql.evaluator.InternalGreqlEvaluator;
@@ -46,6 +47,7 @@ import de.uni_koblenz.jgralab.greql.schema.EdgeSetExpression;
 import de.uni_koblenz.jgralab.greql.schema.IsTypeRestrOfExpression;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.GraphElementClass;
 
 /**
  * Calculates a subset of the datagraph edges
@@ -66,13 +68,20 @@ public class EdgeSetExpressionEvaluator extends
 		TypeCollection tc = getTypeCollection(evaluator);
 		// create the resulting set
 		PSet<Edge> resultSet = JGraLab.set();
-		Edge currentEdge = evaluator.getGraph().getFirstEdge();
+		// iterate only the instances of the allowed type, if there's one
+		GraphElementClass<?, ?> type = tc.getSingleAllowedType();
+		EdgeClass ec = ((type instanceof EdgeClass) && !type
+				.isDefaultGraphElementClass()) ? (EdgeClass) type : null;
+		Graph graph = evaluator.getGraph();
+		Edge currentEdge = ec == null ? graph.getFirstEdge() : graph
+				.getFirstEdge(ec);
 		while (currentEdge != null) {
 			EdgeClass edgeClass = currentEdge.getAttributedElementClass();
 			if (tc.acceptsType(edgeClass)) {
 				resultSet = resultSet.plus(currentEdge);
 			}
-			currentEdge = currentEdge.getNextEdge();
+			currentEdge = ec == null ? currentEdge.getNextEdge() : currentEdge
+					.getNextEdge(ec);
 		}
 		evaluator.progress(getOwnEvaluationCosts());
 		return resultSet;
@@ -100,6 +109,7 @@ public class EdgeSetExpressionEvaluator extends
 	@Override
 	public long calculateEstimatedCardinality() {
 		long card;
+		TypeCollection typeCollection = this.typeCollection;
 		if (typeCollection != null) {
 			card = typeCollection.getEstimatedGraphElementCount(query
 					.getOptimizer().getOptimizerInfo());
@@ -45,7 +45,7 @@ import de.uni_koblenz.jgralab.greql.schema.IsSubgraphDefiningExpression;
 public class ExpressionDefinedSubgraphEvaluator extends
 		SubgraphDefinitionEvaluator<ExpressionDefinedSubgraph> {
 
-	VertexEvaluator<? extends Expression> subgraphDefExprEvaluator = null;
+	volatile VertexEvaluator<? extends Expression> subgraphDefExprEvaluator = null;
 
 	public ExpressionDefinedSubgraphEvaluator(ExpressionDefinedSubgraph vertex,
 			GreqlQueryImpl query) {
@@ -55,16 +55,17 @@ public class ExpressionDefinedSubgraphEvaluator extends
 	@Override
 	public Object evaluate(InternalGreqlEvaluator evaluator) {
 		evaluator.progress(getOwnEvaluationCosts());
-		if (subgraphDefExprEvaluator == null) {
+		VertexEvaluator<? extends Expression> eval = subgraphDefExprEvaluator;
+		if (eval == null) {
 			ExpressionDefinedSubgraph exprDefinedSubgraph = vertex;
 			IsSubgraphDefiningExpression isSubgraphDefiningExpression = exprDefinedSubgraph
 					.getFirstIsSubgraphDefiningExpressionIncidence(EdgeDirection.IN);
 			Expression subgraphDefExpr = (Expression) isSubgraphDefiningExpression
 					.getThat();
-			subgraphDefExprEvaluator = query
-					.getVertexEvaluator(subgraphDefExpr);
+			eval = query.getVertexEvaluator(subgraphDefExpr);
+			subgraphDefExprEvaluator = eval;
 		}
-		return subgraphDefExprEvaluator.getResult(evaluator);
+		return eval.getResult(evaluator);
 	}
 
 	@Override
@@ -74,8 +75,10 @@ public class ExpressionDefinedSubgraphEvaluator extends
 				.getFirstIsSubgraphDefiningExpressionIncidence(EdgeDirection.IN);
 		Expression subgraphDefExpr = (Expression) isSubgraphDefiningExpression
 				.getThat();
-		subgraphDefExprEvaluator = query.getVertexEvaluator(subgraphDefExpr);
-		return subgraphDefExprEvaluator.calculateSubtreeEvaluationCosts();
+		VertexEvaluator<? extends Expression> eval = query
+				.getVertexEvaluator(subgraphDefExpr);
+		subgraphDefExprEvaluator = eval;
+		return eval.calculateSubtreeEvaluationCosts();
 	}
 
 }
@@ -60,23 +60,22 @@ public class ForwardVertexSetEvaluator extends
 		super(vertex, query);
 	}
 
-	private boolean initialized = false;
+	private volatile VertexEvaluator<? extends Expression> startEval = null;
 
-	private VertexEvaluator<? extends Expression> startEval = null;
-
-	private final void initialize(InternalGreqlEvaluator evaluator) {
-		Expression startExpression = vertex.getFirstIsStartExprOfIncidence(
-				EdgeDirection.IN).getAlpha();
-		startEval = query.getVertexEvaluator(startExpression);
-
-		initialized = true;
+	private final VertexEvaluator<? extends Expression> getStartEval() {
+		VertexEvaluator<? extends Expression> result = startEval;
+		if (result == null) {
+			Expression startExpression = vertex
+					.getFirstIsStartExprOfIncidence(EdgeDirection.IN)
+					.getAlpha();
+			result = query.getVertexEvaluator(startExpression);
+			startEval = result;
+		}
+		return result;
 	}
 
 	@Override
 	public Object evaluate(InternalGreqlEvaluator evaluator) {
-		if (!initialized) {
-			initialize(evaluator);
-		}
 		DFA searchAutomaton = (DFA) evaluator.getLocalAutomaton(vertex);
 		if (searchAutomaton == null) {
 			PathDescription p = (PathDescription) vertex
@@ -88,7 +87,7 @@ public class ForwardVertexSetEvaluator extends
 		}
 		evaluator.progress(getOwnEvaluationCosts());
 		Vertex startVertex = null;
-		startVertex = (Vertex) startEval.getResult(evaluator);
+		startVertex = (Vertex) getStartEval().getResult(evaluator);
 		return ReachableVertices
 				.search(evaluator, startVertex, searchAutomaton);
 	}
@@ -64,42 +64,40 @@ import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 public class FunctionApplicationEvaluator extends
 		VertexEvaluator<FunctionApplication> {
 
-	protected ArrayList<VertexEvaluator<? extends Expression>> parameterEvaluators = null;
-
-	protected int paramEvalCount = 0;
-
-	protected boolean listCreated = false;
-
-	TypeCollection typeArgument = null;
+	protected volatile ArrayList<VertexEvaluator<? extends Expression>> parameterEvaluators = null;
 
 	/**
 	 * The name of this function
 	 */
-	private String functionName = null;
+	private volatile String functionName = null;
 
-	private FunctionInfo fi = null;
+	private volatile FunctionInfo fi = null;
 
 	/**
 	 * Returns the name of the GreqlFunction
 	 */
 	public String getFunctionName() {
-		if (functionName == null) {
+		String result = functionName;
+		if (result == null) {
 			FunctionId id = vertex.getFirstIsFunctionIdOfIncidence(
 					EdgeDirection.IN).getAlpha();
-			functionName = id.get_name();
+			result = id.get_name();
+			functionName = result;
 		}
-		return functionName;
+		return result;
 	}
 
 	public FunctionInfo getFunctionInfo() {
-		if (fi == null) {
-			fi = FunLib.getFunctionInfo(getFunctionName());
-			if (fi == null) {
+		FunctionInfo result = fi;
+		if (result == null) {
+			result = FunLib.getFunctionInfo(getFunctionName());
+			if (result == null) {
 				throw new GreqlException("Call to unknown function '"
 						+ getFunctionName() + "'");
 			}
+			fi = result;
 		}
-		return fi;
+		return result;
 	}
 
 	public Function getFunction() {
@@ -170,16 +168,15 @@ public class FunctionApplicationEvaluator extends
 		evaluator.progress(getOwnEvaluationCosts());
 		FunctionInfo fi = getFunctionInfo();
 
-		if (!listCreated) {
-			typeArgument = createTypeArgument(evaluator);
+		ArrayList<VertexEvaluator<? extends Expression>> parameterEvaluators = this.parameterEvaluators;
+		if (parameterEvaluators == null) {
 			parameterEvaluators = createVertexEvaluatorList();
-			paramEvalCount = parameterEvaluators.size();
-			listCreated = true;
+			this.parameterEvaluators = parameterEvaluators;
 		}
+		int paramEvalCount = parameterEvaluators.size();
 
-		if (typeArgument != null) {
-			typeArgument = typeArgument.bindToSchema(evaluator);
-		}
+		// the type argument is bound to the schema of the current datagraph
+		TypeCollection typeArgument = createTypeArgument(evaluator);
 
 		int parameterCount = parameterEvaluators.size();
 		if (fi.needsGraphArgument()) {
@@ -66,28 +66,26 @@ public class ListComprehensionEvaluator extends
 		super(vertex, query);
 	}
 
-	private Boolean createHeader = null;
-
-	private List<VertexEvaluator<? extends Expression>> headerEvaluators = null;
+	/**
+	 * The evaluators of the table headers, empty if no table is created
+	 */
+	private volatile List<VertexEvaluator<? extends Expression>> headerEvaluators = null;
 
 	@Override
 	protected PCollection<Object> getResultDatastructure(
 			InternalGreqlEvaluator evaluator) {
-		if (createHeader == null) {
-			if (vertex.getFirstIsTableHeaderOfIncidence(EdgeDirection.IN) != null) {
-				headerEvaluators = new ArrayList<VertexEvaluator<? extends Expression>>();
-				createHeader = true;
-				for (IsTableHeaderOf tableInc : vertex
-						.getIsTableHeaderOfIncidences(EdgeDirection.IN)) {
-					VertexEvaluator<? extends Expression> headerEval = query
-							.getVertexEvaluator(tableInc.getAlpha());
-					headerEvaluators.add(headerEval);
-				}
-			} else {
-				createHeader = false;
+		List<VertexEvaluator<? extends Expression>> headerEvaluators = this.headerEvaluators;
+		if (headerEvaluators == null) {
+			headerEvaluators = new ArrayList<VertexEvaluator<? extends Expression>>();
+			for (IsTableHeaderOf tableInc : vertex
+					.getIsTableHeaderOfIncidences(EdgeDirection.IN)) {
+				VertexEvaluator<? extends Expression> headerEval = query
+						.getVertexEvaluator(tableInc.getAlpha());
+				headerEvaluators.add(headerEval);
 			}
+			this.headerEvaluators = headerEvaluators;
 		}
-		if (createHeader) {
+		if (!headerEvaluators.isEmpty()) {
 			PVector<String> headerTuple = JGraLab.<String> vector();
 			for (VertexEvaluator<? extends Expression> headerEvaluator : headerEvaluators) {
 				headerTuple = headerTuple.plus((String) headerEvaluator
@@ -67,18 +67,19 @@ public class ListRangeConstructionEvaluator extends
 		super(vertex, query);
 	}
 
-	private VertexEvaluator<? extends Expression> firstElementEvaluator = null;
+	private volatile VertexEvaluator<? extends Expression> firstElementEvaluator = null;
 
-	private VertexEvaluator<? extends Expression> lastElementEvaluator = null;
+	private volatile VertexEvaluator<? extends Expression> lastElementEvaluator = null;
 
 	private void getEvals() {
 		Expression firstElementExpression = vertex
 				.getFirstIsFirstValueOfIncidence(EdgeDirection.IN).getAlpha();
 		Expression lastElementExpression = vertex
 				.getFirstIsLastValueOfIncidence(EdgeDirection.IN).getAlpha();
+		// firstElementEvaluator is checked by evaluate(), so assign it last
+		lastElementEvaluator = query.getVertexEvaluator(lastElementExpression);
 		firstElementEvaluator = query
 				.getVertexEvaluator(firstElementExpression);
-		lastElementEvaluator = query.getVertexEvaluator(lastElementExpression);
 	}
 
 	@Override
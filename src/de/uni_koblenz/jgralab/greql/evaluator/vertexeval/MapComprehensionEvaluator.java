@@ -92,10 +92,8 @@ public class MapComprehensionEvaluator extends
 	}
 
 	@Override
-	public Object evaluate(InternalGreqlEvaluator evaluator) {
-		evaluator.progress(getOwnEvaluationCosts());
-		initializeMaxCount(evaluator);
-		VariableDeclarationLayer declLayer = getVariableDeclationLayer(evaluator);
+	protected Object collectResults(InternalGreqlEvaluator evaluator,
+			VariableDeclarationLayer declLayer, long maxCount) {
 		PMap<Object, Object> resultMap = JGraLab.map();
 
 		Expression key = vertex
@@ -117,6 +115,14 @@ public class MapComprehensionEvaluator extends
 		return resultMap;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	protected Object mergeResults(Object first, Object second) {
+		// later entries replace earlier ones as in the sequential evaluation
+		return ((PMap<Object, Object>) first)
+				.plusAll((PMap<Object, Object>) second);
+	}
+
 	@Override
 	public long calculateEstimatedCardinality() {
 		MapComprehension setComp = getVertex();
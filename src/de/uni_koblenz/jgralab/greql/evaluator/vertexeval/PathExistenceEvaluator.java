@@ -56,7 +56,7 @@ import de.uni_koblenz.jgralab.greql.schema.PathExistence;
  */
 public class PathExistenceEvaluator extends PathSearchEvaluator<PathExistence> {
 
-	private FunctionInfo fi;
+	private volatile FunctionInfo fi;
 
 	public PathExistenceEvaluator(PathExistence vertex, GreqlQueryImpl query) {
 		super(vertex, query);
@@ -105,10 +105,12 @@ public class PathExistenceEvaluator extends PathSearchEvaluator<PathExistence> {
 		arguments[1] = startVertex;
 		arguments[2] = targetVertex;
 		arguments[3] = searchAutomaton;
-		if (fi == null) {
-			fi = FunLib.getFunctionInfo("isReachable");
+		FunctionInfo isReachable = fi;
+		if (isReachable == null) {
+			isReachable = FunLib.getFunctionInfo("isReachable");
+			fi = isReachable;
 		}
-		return FunLib.apply(fi, arguments);
+		return FunLib.apply(isReachable, arguments);
 	}
 
 	@Override
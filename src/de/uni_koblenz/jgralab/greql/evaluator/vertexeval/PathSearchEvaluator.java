@@ -36,7 +36,6 @@
 package de.uni_koblenz.jgralab.greql.evaluator.vertexeval;
 
 import de.uni_koblenz.jgralab.greql.evaluator.GreqlQueryImpl;
-import de.uni_koblenz.jgralab.greql.evaluator.fa.DFA;
 import de.uni_koblenz.jgralab.greql.schema.PathExpression;
 
 /**
@@ -56,16 +55,10 @@ public abstract class PathSearchEvaluator<V extends PathExpression> extends
 	 */
 	protected static final int searchFactor = 20;
 
-	/**
-	 * The DFA used for PathSearch
-	 */
-	protected DFA searchAutomaton;
-
 	/**
 	 * this is the GReQL-Function which evaluates the pathexistence
 	 */
 	public PathSearchEvaluator(V vertex, GreqlQueryImpl query) {
 		super(vertex, query);
-		searchAutomaton = null;
 	}
 }
@@ -53,7 +53,7 @@ import de.uni_koblenz.jgralab.greql.schema.PrimaryPathDescription;
 public abstract class PrimaryPathDescriptionEvaluator<V extends PrimaryPathDescription>
 		extends PathDescriptionEvaluator<V> {
 
-	private GReQLDirection validDirection = null;
+	private volatile GReQLDirection validDirection = null;
 
 	public PrimaryPathDescriptionEvaluator(V vertex, GreqlQueryImpl query) {
 		super(vertex, query);
@@ -63,16 +63,18 @@ public abstract class PrimaryPathDescriptionEvaluator<V extends PrimaryPathDescr
 	 * Returns the edge direction this pathDescription accepts
 	 */
 	protected GReQLDirection getEdgeDirection(PrimaryPathDescription vertex) {
-		if (validDirection == null) {
-			validDirection = GReQLDirection.INOUT;
+		GReQLDirection result = validDirection;
+		if (result == null) {
+			result = GReQLDirection.INOUT;
 			Edge dirEdge = vertex
 					.getFirstIsDirectionOfIncidence(EdgeDirection.IN);
 			if (dirEdge != null) {
 				Direction dirVertex = (Direction) dirEdge.getAlpha();
-				validDirection = dirVertex.get_dirValue();
+				result = dirVertex.get_dirValue();
 			}
+			validDirection = result;
 		}
-		return validDirection;
+		return result;
 	}
 
 	/**
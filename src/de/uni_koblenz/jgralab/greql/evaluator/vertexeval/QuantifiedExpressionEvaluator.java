@@ -58,7 +58,11 @@ public class QuantifiedExpressionEvaluator extends
 
 	private QuantificationType quantificationType = null;
 
-	private boolean initialized = false;
+	/**
+	 * Written last by {@link #initialize(InternalGreqlEvaluator)}, so threads
+	 * which see <code>true</code> also see the other fields
+	 */
+	private volatile boolean initialized = false;
 
 	private VertexEvaluator<? extends Expression> predicateEvaluator = null;
 
@@ -53,17 +53,19 @@ import de.uni_koblenz.jgralab.greql.schema.RecordId;
  */
 public class RecordElementEvaluator extends VertexEvaluator<RecordElement> {
 
-	private String id = null;
+	private volatile String id = null;
 
-	private VertexEvaluator<? extends Expression> expEval = null;
+	private volatile VertexEvaluator<? extends Expression> expEval = null;
 
 	public String getId() {
-		if (id == null) {
+		String result = id;
+		if (result == null) {
 			RecordId idVertex = vertex.getFirstIsRecordIdOfIncidence(
 					EdgeDirection.IN).getAlpha();
-			id = idVertex.get_name();
+			result = idVertex.get_name();
+			id = result;
 		}
-		return id;
+		return result;
 	}
 
 	public RecordElementEvaluator(RecordElement vertex, GreqlQueryImpl query) {
@@ -73,13 +75,15 @@ public class RecordElementEvaluator extends VertexEvaluator<RecordElement> {
 	@Override
 	public Object evaluate(InternalGreqlEvaluator evaluator) {
 		evaluator.progress(getOwnEvaluationCosts());
-		if (expEval == null) {
+		VertexEvaluator<? extends Expression> eval = expEval;
+		if (eval == null) {
 			Expression recordElementExp = vertex
 					.getFirstIsRecordExprOfIncidence(EdgeDirection.IN)
 					.getAlpha();
-			expEval = query.getVertexEvaluator(recordElementExp);
+			eval = query.getVertexEvaluator(recordElementExp);
+			expEval = eval;
 		}
-		return expEval.getResult(evaluator);
+		return eval.getResult(evaluator);
 	}
 
 	@Override
@@ -36,6 +36,7 @@
 package de.uni_koblenz.jgralab.greql.evaluator.vertexeval;
 
 import java.util.HashSet;
+import java.util.Set;
 
 import org.pcollections.PVector;
 
@@ -125,8 +126,8 @@ public class SimpleDeclarationEvaluator extends
 
 	@Override
 	public void calculateNeededAndDefinedVariables() {
-		neededVariables = new HashSet<Variable>();
-		definedVariables = new HashSet<Variable>();
+		Set<Variable> neededVariables = new HashSet<Variable>();
+		Set<Variable> definedVariables = new HashSet<Variable>();
 		IsDeclaredVarOf varInc = vertex
 				.getFirstIsDeclaredVarOfIncidence(EdgeDirection.IN);
 		while (varInc != null) {
@@ -142,6 +143,8 @@ public class SimpleDeclarationEvaluator extends
 				neededVariables.addAll(veval.getNeededVariables());
 			}
 		}
+		this.neededVariables = neededVariables;
+		this.definedVariables = definedVariables;
 	}
 
 	@Override
@@ -49,37 +49,47 @@ import de.uni_koblenz.jgralab.greql.schema.SubgraphRestrictedExpression;
 public class SubgraphRestrictedExpressionEvaluator extends
 		VertexEvaluator<SubgraphRestrictedExpression> {
 
-	SubgraphDefinitionEvaluator<?> subgraphDefinitionEval;
+	volatile SubgraphDefinitionEvaluator<?> subgraphDefinitionEval;
 
-	VertexEvaluator<? extends Expression> exprEval;
+	volatile VertexEvaluator<? extends Expression> exprEval;
 
 	public SubgraphRestrictedExpressionEvaluator(
 			SubgraphRestrictedExpression vertex, GreqlQueryImpl query) {
 		super(vertex, query);
 	}
 
-	@Override
-	public Object evaluate(InternalGreqlEvaluator evaluator) {
-		evaluator.progress(getOwnEvaluationCosts());
-		// take traversal context for subgraph
-		if (subgraphDefinitionEval == null) {
+	private SubgraphDefinitionEvaluator<?> getSubgraphDefinitionEval() {
+		SubgraphDefinitionEvaluator<?> eval = subgraphDefinitionEval;
+		if (eval == null) {
 			IsSubgraphDefinitionOf isSubgraphDef = vertex
 					.getFirstIsSubgraphDefinitionOfIncidence(EdgeDirection.IN);
 			SubgraphDefinition defVertex = (SubgraphDefinition) isSubgraphDef
 					.getThat();
-			subgraphDefinitionEval = (SubgraphDefinitionEvaluator<?>) query
+			eval = (SubgraphDefinitionEvaluator<?>) query
 					.getVertexEvaluator(defVertex);
+			subgraphDefinitionEval = eval;
 		}
-		TraversalContext subgraph = (TraversalContext) subgraphDefinitionEval
-				.getResult(evaluator);
+		return eval;
+	}
 
-		// take restricted expression
-		if (exprEval == null) {
+	private VertexEvaluator<? extends Expression> getExprEval() {
+		VertexEvaluator<? extends Expression> eval = exprEval;
+		if (eval == null) {
 			IsExpressionOnSubgraph isExprOn = vertex
 					.getFirstIsExpressionOnSubgraphIncidence(EdgeDirection.IN);
 			Expression expr = (Expression) isExprOn.getThat();
-			exprEval = query.getVertexEvaluator(expr);
+			eval = query.getVertexEvaluator(expr);
+			exprEval = eval;
 		}
+		return eval;
+	}
+
+	@Override
+	public Object evaluate(InternalGreqlEvaluator evaluator) {
+		evaluator.progress(getOwnEvaluationCosts());
+		// take traversal context for subgraph
+		TraversalContext subgraph = (TraversalContext) getSubgraphDefinitionEval()
+				.getResult(evaluator);
 
 		Graph graph = evaluator.getGraph();
 
@@ -88,7 +98,7 @@ public class SubgraphRestrictedExpressionEvaluator extends
 		graph.setTraversalContext(subgraph);
 
 		// evaluate restricted expression with traversal context
-		Object result = exprEval.getResult(evaluator);
+		Object result = getExprEval().getResult(evaluator);
 		evaluator.setLocalEvaluationResult(vertex, result);
 
 		// release traversal context
@@ -100,27 +110,12 @@ public class SubgraphRestrictedExpressionEvaluator extends
 	protected VertexCosts calculateSubtreeEvaluationCosts() {
 		// return
 		// greqlEvaluator.getCostModel().calculateCostsSubgraphRestrictedExpression(this);
-		if (subgraphDefinitionEval == null) {
-			IsSubgraphDefinitionOf isSubgraphDef = vertex
-					.getFirstIsSubgraphDefinitionOfIncidence(EdgeDirection.IN);
-			SubgraphDefinition defVertex = (SubgraphDefinition) isSubgraphDef
-					.getThat();
-			subgraphDefinitionEval = (SubgraphDefinitionEvaluator<?>) query
-					.getVertexEvaluator(defVertex);
-		}
-
-		// take restricted expression
-		if (exprEval == null) {
-			IsExpressionOnSubgraph isExprOn = vertex
-					.getFirstIsExpressionOnSubgraphIncidence(EdgeDirection.IN);
-			Expression expr = (Expression) isExprOn.getThat();
-			exprEval = query.getVertexEvaluator(expr);
-		}
 		long ownCosts = 10;
 		long iteratedCosts = ownCosts * getVariableCombinations();
-		long subtree = subgraphDefinitionEval
+		long subtree = getSubgraphDefinitionEval()
 				.getCurrentSubtreeEvaluationCosts()
-				+ exprEval.getCurrentSubtreeEvaluationCosts() + iteratedCosts;
+				+ getExprEval().getCurrentSubtreeEvaluationCosts()
+				+ iteratedCosts;
 
 		return new VertexCosts(ownCosts, iteratedCosts, subtree);
 	}
@@ -50,7 +50,10 @@ import de.uni_koblenz.jgralab.greql.types.TypeCollection;
  * 
  */
 public class TypeIdEvaluator extends VertexEvaluator<TypeId> {
-	private TypeCollection tc;
+	/**
+	 * The first bound type collection, used for estimations only
+	 */
+	private volatile TypeCollection tc;
 
 	public TypeIdEvaluator(TypeId vertex, GreqlQueryImpl query) {
 		super(vertex, query);
@@ -58,18 +61,23 @@ public class TypeIdEvaluator extends VertexEvaluator<TypeId> {
 
 	@Override
 	public TypeCollection evaluate(InternalGreqlEvaluator evaluator) {
-		if (tc == null) {
-			tc = TypeCollection.empty().with(vertex.get_name(),
+		TypeCollection result = tc;
+		if (result == null) {
+			result = TypeCollection.empty().with(vertex.get_name(),
 					vertex.is_type(), vertex.is_excluded());
 		}
 		try {
-			tc = tc.bindToSchema(evaluator);
+			// the bound collection belongs to the current evaluation
+			result = result.bindToSchema(evaluator);
 		} catch (UnknownTypeException e) {
 			throw new UnknownTypeException(e.getTypeName(),
 					createPossibleSourcePositions());
 		}
+		if (tc == null) {
+			tc = result;
+		}
 		evaluator.progress(getOwnEvaluationCosts());
-		return tc;
+		return result;
 	}
 
 	@Override
@@ -84,6 +92,7 @@ public class TypeIdEvaluator extends VertexEvaluator<TypeId> {
 	public double calculateEstimatedSelectivity() {
 		double selectivity;
 		OptimizerInfo optimizerInfo = query.getOptimizer().getOptimizerInfo();
+		TypeCollection tc = this.tc;
 		if (tc != null) {
 			selectivity = tc.getFrequency(optimizerInfo);
 		} else {
@@ -55,7 +55,7 @@ import de.uni_koblenz.jgralab.greql.schema.ValueConstruction;
 abstract public class ValueConstructionEvaluator<V extends ValueConstruction>
 		extends VertexEvaluator<V> {
 
-	private ArrayList<VertexEvaluator<? extends Expression>> partEvaluators = null;
+	private volatile ArrayList<VertexEvaluator<? extends Expression>> partEvaluators = null;
 
 	public ValueConstructionEvaluator(V vertex, GreqlQueryImpl query) {
 		super(vertex, query);
@@ -63,6 +63,7 @@ abstract public class ValueConstructionEvaluator<V extends ValueConstruction>
 
 	public final PCollection<Object> createValue(
 			PCollection<Object> collection, InternalGreqlEvaluator evaluator) {
+		ArrayList<VertexEvaluator<? extends Expression>> partEvaluators = this.partEvaluators;
 		if (partEvaluators == null) {
 			int partCount = 0;
 			IsPartOf inc = vertex.getFirstIsPartOfIncidence(EdgeDirection.IN);
@@ -80,6 +81,7 @@ abstract public class ValueConstructionEvaluator<V extends ValueConstruction>
 				partEvaluators.add(vertexEval);
 				inc = inc.getNextIsPartOfIncidence(EdgeDirection.IN);
 			}
+			this.partEvaluators = partEvaluators;
 		}
 		for (int i = 0; i < partEvaluators.size(); i++) {
 			collection = collection.plus(partEvaluators.get(i).getResult(
@@ -66,12 +66,12 @@ import de.uni_koblenz.jgralab.greql.schema.Variable;
  */
 public class VariableEvaluator<V extends Variable> extends VertexEvaluator<V> {
 
-	private List<VertexEvaluator<? extends Expression>> dependingExpressions;
+	private volatile List<VertexEvaluator<? extends Expression>> dependingExpressions;
 
 	/**
 	 * This is the estimated cardinality of the definitionset of this variable
 	 */
-	private long estimatedAssignments = Long.MIN_VALUE;
+	private volatile long estimatedAssignments = Long.MIN_VALUE;
 
 	/**
 	 * Sets the given value as "result" of this variable, so it can be uses via
@@ -81,8 +81,10 @@ public class VariableEvaluator<V extends Variable> extends VertexEvaluator<V> {
 	 * @param evaluator
 	 */
 	public void setValue(Object variableValue, InternalGreqlEvaluator evaluator) {
+		List<VertexEvaluator<? extends Expression>> dependingExpressions = this.dependingExpressions;
 		if (dependingExpressions == null) {
 			dependingExpressions = calculateDependingExpressions();
+			this.dependingExpressions = dependingExpressions;
 		}
 
 		int size = dependingExpressions.size();
@@ -116,19 +118,23 @@ public class VariableEvaluator<V extends Variable> extends VertexEvaluator<V> {
 
 	@Override
 	public Set<Variable> getNeededVariables() {
-		if (neededVariables == null) {
-			neededVariables = new HashSet<Variable>();
-			neededVariables.add(vertex);
+		Set<Variable> result = neededVariables;
+		if (result == null) {
+			result = new HashSet<Variable>();
+			result.add(vertex);
+			neededVariables = result;
 		}
-		return neededVariables;
+		return result;
 	}
 
 	@Override
 	public Set<Variable> getDefinedVariables() {
-		if (definedVariables == null) {
-			definedVariables = new HashSet<Variable>();
+		Set<Variable> result = definedVariables;
+		if (result == null) {
+			result = new HashSet<Variable>();
+			definedVariables = result;
 		}
-		return definedVariables;
+		return result;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -196,10 +202,12 @@ public class VariableEvaluator<V extends Variable> extends VertexEvaluator<V> {
 	 */
 	@Override
 	public long getVariableCombinations() {
-		if (estimatedAssignments == Long.MIN_VALUE) {
-			estimatedAssignments = calculateEstimatedAssignments();
+		long result = estimatedAssignments;
+		if (result == Long.MIN_VALUE) {
+			result = calculateEstimatedAssignments();
+			estimatedAssignments = result;
 		}
-		return estimatedAssignments;
+		return result;
 	}
 
 	/**
@@ -59,6 +59,14 @@ import de.uni_koblenz.jgralab.greql.schema.Variable;
  * This is the base class for all VertexEvaluators which evaluate the vertices
  * in the GReQL Syntaxgraph
  * 
+ * A VertexEvaluator only holds state of the query plan, e.g. evaluators of
+ * neighbouring vertices or estimated costs. This state only depends on the
+ * (optimized) syntaxgraph and is computed lazily and published via volatile
+ * fields, so that one {@link GreqlQueryImpl} can be evaluated by several
+ * threads at once. Everything that depends on a single evaluation, e.g.
+ * results, automatons or type collections bound to the schema of the
+ * datagraph, has to be stored in the {@link InternalGreqlEvaluator}.
+ * 
  * @author ist@uni-koblenz.de
  */
 public abstract class VertexEvaluator<V extends GreqlVertex> {
@@ -91,40 +99,27 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	/**
 	 * The set of variables this vertex depends on
 	 */
-	protected Set<Variable> neededVariables = null;
+	protected volatile Set<Variable> neededVariables = null;
 
 	/**
 	 * The set of variables this vertex defines and that are valid in all
 	 * subgraphs
 	 */
-	protected Set<Variable> definedVariables = null;
+	protected volatile Set<Variable> definedVariables = null;
 
 	/*
 	 * The following fields are used by Optimizer
 	 */
 
 	/**
-	 * The costs for the current evaluation of the whole subtree in the abstract
-	 * measurement unit "interpretation steps"
-	 */
-	protected long currentSubtreeEvaluationCosts = Long.MIN_VALUE;
-
-	/**
-	 * The costs for the evaluation of the whole subtree for the first time
-	 */
-	protected long initialSubtreeEvaluationCosts = Long.MIN_VALUE;
-
-	/**
-	 * The costs for <b>one</b> evaluation of this vertex _without_ the costs of
-	 * the evaluation of the subtrees
+	 * The costs of this vertex in the abstract measurement unit
+	 * "interpretation steps", i.e. the costs for <b>one</b> evaluation of this
+	 * vertex without the subtree, the costs for all evaluations for all
+	 * variable combinations without the subtree, and the costs for the first
+	 * evaluation of the whole subtree. <code>null</code> until they are
+	 * calculated.
 	 */
-	protected long ownEvaluationCosts = Long.MIN_VALUE;
-
-	/**
-	 * The costs for all evaluations of this vertex for all variable
-	 * combinations <b>without</b> the costs for the subtree evaluation
-	 */
-	protected long iteratedEvaluationCosts = Long.MIN_VALUE;
+	private volatile VertexCosts costs = null;
 
 	/**
 	 * the costs to create one transition
@@ -146,12 +141,12 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	/**
 	 * The expected cardinality of the evaluation result this evaluator creates
 	 */
-	protected long estimatedCardinality = Long.MIN_VALUE;
+	protected volatile long estimatedCardinality = Long.MIN_VALUE;
 
 	/**
 	 * The expected selectivity of this vertexevaluator
 	 */
-	protected double estimatedSelectivity = Double.NaN;
+	protected volatile double estimatedSelectivity = Double.NaN;
 
 	/**
 	 * @param vertex
@@ -240,10 +235,7 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 		if (evaluator != null) {
 			evaluator.removeLocalEvaluationResult(vertex);
 		}
-		currentSubtreeEvaluationCosts = Long.MIN_VALUE;
-		initialSubtreeEvaluationCosts = Long.MIN_VALUE;
-		ownEvaluationCosts = Long.MIN_VALUE;
-		iteratedEvaluationCosts = Long.MIN_VALUE;
+		costs = null;
 		estimatedCardinality = Long.MIN_VALUE;
 		estimatedSelectivity = Double.NaN;
 	}
@@ -278,7 +270,7 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	 *         evaluator evaluates is root of
 	 */
 	public long getCurrentSubtreeEvaluationCosts() {
-		if (currentSubtreeEvaluationCosts == Long.MIN_VALUE) {
+		if (costs == null) {
 			return getInitialSubtreeEvaluationCosts();
 		} else {
 			return 1;
@@ -294,16 +286,7 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	 *         evaluator evaluates is root of
 	 */
 	public long getInitialSubtreeEvaluationCosts() {
-		if (initialSubtreeEvaluationCosts > 0) {
-			return initialSubtreeEvaluationCosts;
-		} else {
-			VertexCosts costs = calculateSubtreeEvaluationCosts();
-			ownEvaluationCosts = costs.ownEvaluationCosts;
-			iteratedEvaluationCosts = costs.iteratedEvaluationCosts;
-			currentSubtreeEvaluationCosts = costs.subtreeEvaluationCosts;
-			initialSubtreeEvaluationCosts = costs.subtreeEvaluationCosts;
-			return initialSubtreeEvaluationCosts;
-		}
+		return getCosts().subtreeEvaluationCosts;
 	}
 
 	/**
@@ -314,19 +297,24 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	 *         subtree and iteration costs
 	 */
 	public long getOwnEvaluationCosts() {
-		if (ownEvaluationCosts == Long.MIN_VALUE) {
-			// call for side-effects
-			getInitialSubtreeEvaluationCosts();
+		return getCosts().ownEvaluationCosts;
+	}
+
+	private VertexCosts getCosts() {
+		VertexCosts c = costs;
+		if (c == null) {
+			c = calculateSubtreeEvaluationCosts();
+			costs = c;
 		}
-		return ownEvaluationCosts;
+		return c;
 	}
 
 	/**
 	 * calculate the set of needed and defined variables
 	 */
 	public void calculateNeededAndDefinedVariables() {
-		neededVariables = new HashSet<Variable>();
-		definedVariables = new HashSet<Variable>();
+		Set<Variable> neededVariables = new HashSet<Variable>();
+		Set<Variable> definedVariables = new HashSet<Variable>();
 		Edge inc = getVertex().getFirstIncidence(EdgeDirection.IN);
 		while (inc != null) {
 			VertexEvaluator<?> veval = query
@@ -341,6 +329,8 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 		bothVariables.addAll(neededVariables);
 		neededVariables.removeAll(definedVariables);
 		definedVariables.removeAll(bothVariables);
+		this.neededVariables = neededVariables;
+		this.definedVariables = definedVariables;
 	}
 
 	/**
@@ -349,10 +339,12 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	 * @return the set of variables this vertex depends on
 	 */
 	public Set<Variable> getNeededVariables() {
-		if (neededVariables == null) {
+		Set<Variable> result = neededVariables;
+		if (result == null) {
 			calculateNeededAndDefinedVariables();
+			result = neededVariables;
 		}
-		return neededVariables;
+		return result;
 	}
 
 	/**
@@ -363,10 +355,12 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	 * @return the set of variables this vertex defines and that are valid
 	 */
 	public Set<Variable> getDefinedVariables() {
-		if (definedVariables == null) {
+		Set<Variable> result = definedVariables;
+		if (result == null) {
 			calculateNeededAndDefinedVariables();
+			result = definedVariables;
 		}
-		return definedVariables;
+		return result;
 	}
 
 	/**
@@ -389,10 +383,12 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	 * returns the estimated size of the result.
 	 */
 	public long getEstimatedCardinality() {
-		if (estimatedCardinality == Long.MIN_VALUE) {
-			estimatedCardinality = calculateEstimatedCardinality();
+		long result = estimatedCardinality;
+		if (result == Long.MIN_VALUE) {
+			result = calculateEstimatedCardinality();
+			estimatedCardinality = result;
 		}
-		return estimatedCardinality;
+		return result;
 	}
 
 	/**
@@ -408,10 +404,12 @@ public abstract class VertexEvaluator<V extends GreqlVertex> {
 	 * returns the estimated selectivity of the vertex evaluation.
 	 */
 	public double getEstimatedSelectivity() {
-		if (Double.isNaN(estimatedSelectivity)) {
-			estimatedSelectivity = calculateEstimatedSelectivity();
+		double result = estimatedSelectivity;
+		if (Double.isNaN(result)) {
+			result = calculateEstimatedSelectivity();
+			estimatedSelectivity = result;
 		}
-		return estimatedSelectivity;
+		return result;
 	}
 
 	/**
@@ -37,6 +37,7 @@ package de.uni_koblenz.jgralab.greql.evaluator.vertexeval;
 
 import org.pcollections.PSet;
 
+import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.evaluator.GreqlQueryImpl;
@@ -45,6 +46,8 @@ import de.uni_koblenz.jgralab.greql.evaluator.VertexCosts;
 import de.uni_koblenz.jgralab.greql.schema.IsTypeRestrOfExpression;
 import de.uni_koblenz.jgralab.greql.schema.VertexSetExpression;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
+import de.uni_koblenz.jgralab.schema.GraphElementClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
 
 /**
  * construct a subset of the datagraph vertices. For instance, the expression
@@ -69,12 +72,19 @@ public class VertexSetExpressionEvaluator extends
 		PSet<Vertex> resultSet = null;
 		if (resultSet == null) {
 			resultSet = JGraLab.set();
-			Vertex currentVertex = evaluator.getGraph().getFirstVertex();
+			// iterate only the instances of the allowed type, if there's one
+			GraphElementClass<?, ?> type = tc.getSingleAllowedType();
+			VertexClass vc = ((type instanceof VertexClass) && !type
+					.isDefaultGraphElementClass()) ? (VertexClass) type : null;
+			Graph graph = evaluator.getGraph();
+			Vertex currentVertex = vc == null ? graph.getFirstVertex() : graph
+					.getFirstVertex(vc);
 			while (currentVertex != null) {
 				if (tc.acceptsType(currentVertex.getAttributedElementClass())) {
 					resultSet = resultSet.plus(currentVertex);
 				}
-				currentVertex = currentVertex.getNextVertex();
+				currentVertex = vc == null ? currentVertex.getNextVertex()
+						: currentVertex.getNextVertex(vc);
 			}
 		}
 		evaluator.progress(getOwnEvaluationCosts());
@@ -103,6 +113,7 @@ public class VertexSetExpressionEvaluator extends
 	@Override
 	public long calculateEstimatedCardinality() {
 		long card;
+		TypeCollection typeCollection = this.typeCollection;
 		if (typeCollection != null) {
 			card = typeCollection.getEstimatedGraphElementCount(query
 					.getOptimizer().getOptimizerInfo());
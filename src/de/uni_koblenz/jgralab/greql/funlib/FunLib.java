@@ -324,6 +324,7 @@ public class FunLib {
 		boolean needsGraphArgument;
 		boolean acceptsUndefinedValues;
 		boolean needsEvaluatorArgument;
+		boolean sideEffectFree;
 
 		FunctionInfo(String name, Class<? extends Function> cls) {
 			this.name = name;
@@ -347,6 +348,8 @@ public class FunLib {
 					.isAnnotationPresent(AcceptsUndefinedArguments.class);
 			needsEvaluatorArgument = cls
 					.isAnnotationPresent(NeedsEvaluatorArgument.class);
+			sideEffectFree = cls
+					.isAnnotationPresent(SideEffectFree.class);
 			registerSignatures(functionSignatures, cls);
 			signatures = new Signature[functionSignatures.size()];
 			functionSignatures.toArray(signatures);
@@ -364,6 +367,8 @@ public class FunLib {
 					.isAnnotationPresent(AcceptsUndefinedArguments.class);
 			needsEvaluatorArgument = functionClass
 					.isAnnotationPresent(NeedsEvaluatorArgument.class);
+			sideEffectFree = functionClass
+					.isAnnotationPresent(SideEffectFree.class);
 			registerSignatures(functionSignatures, functionClass);
 			signatures = new Signature[functionSignatures.size()];
 			functionSignatures.toArray(signatures);
@@ -401,6 +406,10 @@ public class FunLib {
 			return needsEvaluatorArgument;
 		}
 
+		public final boolean isSideEffectFree() {
+			return sideEffectFree;
+		}
+
 		public final Set<Class<?>> getReturnTypes() {
 			Set<Class<?>> returnTypes = new HashSet<Class<?>>();
 			for (Signature signatur : signatures) {
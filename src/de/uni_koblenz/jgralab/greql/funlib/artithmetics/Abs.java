@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.artithmetics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Abs extends Function {
 	@Description(params = "a", categories = Category.ARITHMETICS, description = "Calculates the absolute value of the given number.")
 	public Abs() {
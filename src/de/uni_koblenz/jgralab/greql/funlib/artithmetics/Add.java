@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.artithmetics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Add extends Function {
 
 	@Description(params = { "a", "b" }, categories = Category.ARITHMETICS, description = "Adds the given two numbers with the usual "
@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.artithmetics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Ceil extends Function {
 
 	@Description(params = "a", description = "Returns the ceiling of the given number.", categories = Category.ARITHMETICS)
@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.artithmetics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Div extends Function {
 
 	@Description(params = { "a", "b" }, description = "Returns the quotient of dividing the first by the second number.", categories = Category.ARITHMETICS)
@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.artithmetics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Mod extends Function {
 
 	@Description(params = { "a", "b" }, description = "Calculates the remainder of the division $a/b$. Alternative usage: a \\% b.", categories = Category.ARITHMETICS)
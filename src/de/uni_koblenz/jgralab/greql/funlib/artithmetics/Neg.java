@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.artithmetics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Neg extends Function {
 	@Description(params = "a", description = "Negates the given number. Can be used as unary operator: -x.", categories = Category.ARITHMETICS)
 	public Neg() {
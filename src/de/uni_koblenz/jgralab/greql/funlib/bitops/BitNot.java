@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.bitops;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class BitNot extends Function {
 	
 	@Description(params = "a", description = "Calculates the bitwise negation of the given number.",
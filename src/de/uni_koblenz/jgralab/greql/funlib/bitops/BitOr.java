@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.bitops;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class BitOr extends Function {
 	
 	@Description(params = {"a","b"}, description = "Calculates the bitwise OR of the given two numbers.", 
@@ -38,7 +38,9 @@ import org.pcollections.PMap;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class ContainsKey extends Function {
 
 	@Description(params = { "map", "key" }, description = "Returns true, iff the map contains the key.", categories = Category.COLLECTIONS_AND_MAPS)
@@ -38,7 +38,9 @@ import org.pcollections.PMap;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class ContainsValue extends Function {
 
 	@Description(params = { "map", "value" }, description = "Returns true, iff the given map contains value.", categories = Category.COLLECTIONS_AND_MAPS)
@@ -44,7 +44,9 @@ import org.pcollections.PSet;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class EntrySet extends Function {
 
 	@Description(params = "map", description = "Returns the set of entries of the map.", categories = Category.COLLECTIONS_AND_MAPS)
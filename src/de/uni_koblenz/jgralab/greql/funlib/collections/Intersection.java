@@ -41,7 +41,9 @@ import org.pcollections.PSet;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Intersection extends Function {
 
 	@Description(params = { "a", "b" }, description = "Returns the intersection of a and b.", categories = Category.COLLECTIONS_AND_MAPS)
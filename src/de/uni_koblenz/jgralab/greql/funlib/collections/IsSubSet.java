@@ -40,7 +40,9 @@ import org.pcollections.PSet;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class IsSubSet extends Function {
 
 	@Description(params = { "sub", "s" }, description = "Returns true, iff the sub is subset of s.", categories = Category.COLLECTIONS_AND_MAPS)
@@ -39,7 +39,9 @@ import org.pcollections.PSet;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class KeySet extends Function {
 
 	@Description(params = "map", description = "Returns the set of keys of the map.", categories = Category.COLLECTIONS_AND_MAPS)
@@ -41,7 +41,9 @@ import org.pcollections.PVector;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Pos extends Function {
 
 	@Description(params = {"l","x"}, description = 
@@ -44,8 +44,10 @@ import org.pcollections.PVector;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Tuple;
 
+@SideEffectFree
 public class Sort extends Function {
 
 	@Description(params ="l", description = "Sorts the given collection according to natural ordering.",
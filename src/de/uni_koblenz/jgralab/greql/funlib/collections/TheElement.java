@@ -39,7 +39,9 @@ import org.pcollections.PVector;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class TheElement extends Function {
 
 	@Description(params = "c", description = "Returns the only element in the given collection. "
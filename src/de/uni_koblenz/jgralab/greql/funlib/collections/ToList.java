@@ -44,9 +44,11 @@ import org.pcollections.PVector;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Table;
 import de.uni_koblenz.jgralab.greql.types.Tuple;
 
+@SideEffectFree
 public class ToList extends Function {
 
 	@Description(params = "l", description = "Converts a collection into a list.",
@@ -43,8 +43,10 @@ import org.pcollections.PSet;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Tuple;
 
+@SideEffectFree
 public class ToSet extends Function {
 
 	@Description(params = "c", description = "Converts a collection into a set (removes duplicates).",
@@ -37,10 +37,12 @@ package de.uni_koblenz.jgralab.greql.funlib.graph;
 import de.uni_koblenz.jgralab.EdgeDirection;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.funlib.graph.base.DegreeFunction;
 import de.uni_koblenz.jgralab.greql.types.Path;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 
+@SideEffectFree
 public class Degree extends DegreeFunction {
 
 	public Degree() {
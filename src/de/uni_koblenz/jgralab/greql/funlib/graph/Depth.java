@@ -36,8 +36,10 @@ package de.uni_koblenz.jgralab.greql.funlib.graph;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.PathSystem;
 
+@SideEffectFree
 public class Depth extends Function {
 
 	@Description(params = "p", description = "Returns the depth of the given path system.",
@@ -44,9 +44,11 @@ import de.uni_koblenz.jgralab.GraphElement;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Undefined;
 import de.uni_koblenz.jgralab.schema.Attribute;
 
+@SideEffectFree
 public class Describe extends Function {
 
 	@Description(params = "el", description = "Returns a human-readable description of the given element.",
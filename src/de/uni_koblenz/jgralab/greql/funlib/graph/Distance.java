@@ -38,8 +38,10 @@ package de.uni_koblenz.jgralab.greql.funlib.graph;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.PathSystem;
 
+@SideEffectFree
 public class Distance extends Function {
 	
 	@Description(params = {"ps","v"}, description = "Returns the distance from the root to the given vertex in the given path system.",
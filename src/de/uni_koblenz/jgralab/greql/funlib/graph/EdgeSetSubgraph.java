@@ -42,8 +42,10 @@ import de.uni_koblenz.jgralab.graphmarker.SubGraphMarker;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsGraphArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
 @NeedsGraphArgument
+@SideEffectFree
 public class EdgeSetSubgraph extends Function {
 
 	@Description(params = { "graph", "edgeSet" }, description = "Returns the subgraph induced by the edge set, i.e. the egdes in edgeSet together with their alpha and omega vertices.", categories = Category.GRAPH)
@@ -40,9 +40,11 @@ import de.uni_koblenz.jgralab.graphmarker.SubGraphMarker;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsGraphArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 
 @NeedsGraphArgument
+@SideEffectFree
 public class EdgeTypeSubgraph extends Function {
 
 	@Description(params = { "graph", "typeCollection" }, description = "Returns the subgraph induced by the edge types in typeCollection, i.e. all edges specified by typeCollection together with their alpha and omega vertices.", categories = Category.GRAPH)
@@ -42,10 +42,12 @@ import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 
 @Deprecated
 // use incidences instead
+@SideEffectFree
 public class EdgesConnected extends Function {
 	public EdgesConnected() {
 		super(2, 5, 1.0);
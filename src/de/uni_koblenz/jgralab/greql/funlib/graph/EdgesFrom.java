@@ -42,10 +42,12 @@ import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 
 @Deprecated
 // use outIncidences instead
+@SideEffectFree
 public class EdgesFrom extends Function {
 
 	public EdgesFrom() {
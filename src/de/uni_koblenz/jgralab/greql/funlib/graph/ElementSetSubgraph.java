@@ -43,8 +43,10 @@ import de.uni_koblenz.jgralab.graphmarker.SubGraphMarker;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsGraphArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
 @NeedsGraphArgument
+@SideEffectFree
 public class ElementSetSubgraph extends Function {
 
 	@Description(params = { "g", "vset", "eset" }, description = "Returns the subgraph consisting of all vertices in vset and all edges in eset that connect vertices in vset.", categories = Category.GRAPH)
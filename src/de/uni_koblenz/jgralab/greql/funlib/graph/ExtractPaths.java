@@ -38,9 +38,11 @@ import org.pcollections.PSet;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Path;
 import de.uni_koblenz.jgralab.greql.types.PathSystem;
 
+@SideEffectFree
 public class ExtractPaths extends Function {
 
 	public ExtractPaths() {
@@ -39,9 +39,11 @@ import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsGraphArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 
 @NeedsGraphArgument
+@SideEffectFree
 public class FirstEdge extends Function {
 	public FirstEdge() {
 		super(4, 1, 1.0);
@@ -38,9 +38,11 @@ import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.EdgeDirection;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.funlib.graph.base.FirstFunction;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 
+@SideEffectFree
 public class FirstIn extends FirstFunction {
 
 	public FirstIn() {
@@ -39,9 +39,11 @@ import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsGraphArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 
 @NeedsGraphArgument
+@SideEffectFree
 public class FirstVertex extends Function {
 	public FirstVertex() {
 		super(4, 1, 1.0);
@@ -39,8 +39,10 @@ import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsGraphArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
 @NeedsGraphArgument
+@SideEffectFree
 public class GetEdge extends Function {
 
 	@Description(params = {"graph","id"}, description = "Returns the edge with the given id.", 
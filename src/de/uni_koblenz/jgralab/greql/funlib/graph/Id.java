@@ -37,7 +37,9 @@ package de.uni_koblenz.jgralab.greql.funlib.graph;
 import de.uni_koblenz.jgralab.GraphElement;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Id extends Function {
 
 	@Description(params = "el", description = "Returns the id of the given graph element.",
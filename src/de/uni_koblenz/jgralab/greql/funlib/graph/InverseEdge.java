@@ -3,7 +3,9 @@ package de.uni_koblenz.jgralab.greql.funlib.graph;
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class InverseEdge extends Function {
 	@Description(params = "e", description = "Returns the inverse-oriented edge of the given edge e. "
 			+ "I.e., if e is a normal (forward-oriented) edge, "
@@ -42,8 +42,10 @@ import de.uni_koblenz.jgralab.algolib.algorithms.topological_order.TopologicalOr
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsGraphArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
 @NeedsGraphArgument
+@SideEffectFree
 public class IsAcyclic extends Function {
 	
 	@Description(params = "g", description = "Returns true, iff the graph is acyclic.", 
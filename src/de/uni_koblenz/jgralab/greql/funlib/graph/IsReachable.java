@@ -35,12 +35,9 @@
 
 package de.uni_koblenz.jgralab.greql.funlib.graph;
 
-import java.util.LinkedList;
-import java.util.Queue;
-
 import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.Vertex;
-import de.uni_koblenz.jgralab.graphmarker.BooleanGraphMarker;
 import de.uni_koblenz.jgralab.greql.evaluator.InternalGreqlEvaluator;
 import de.uni_koblenz.jgralab.greql.evaluator.fa.DFA;
 import de.uni_koblenz.jgralab.greql.evaluator.fa.State;
@@ -48,9 +45,13 @@ import de.uni_koblenz.jgralab.greql.evaluator.fa.Transition;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsEvaluatorArgument;
-import de.uni_koblenz.jgralab.greql.types.pathsearch.PathSearchQueueEntry;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.PathSearchWorkspace;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.VertexStateMarker;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.VertexStateQueue;
 
 @NeedsEvaluatorArgument
+@SideEffectFree
 public class IsReachable extends Function {
 
 	public static boolean PRINT_STOP_VERTICES = false;
@@ -69,37 +70,40 @@ public class IsReachable extends Function {
 			throw new IllegalArgumentException(
 					"The vertices are in different graphs, but must be in the same graph.");
 		}
-		BooleanGraphMarker[] markers = new BooleanGraphMarker[dfa.stateList
-				.size()];
-		for (State s : dfa.stateList) {
-			markers[s.number] = new BooleanGraphMarker(u.getGraph());
-		}
-		Queue<PathSearchQueueEntry> queue = new LinkedList<PathSearchQueueEntry>();
-		PathSearchQueueEntry currentEntry = new PathSearchQueueEntry(u,
-				dfa.initialState);
-		markers[currentEntry.state.number].mark(currentEntry.vertex);
-		queue.add(currentEntry);
-		while (!queue.isEmpty()) {
-			currentEntry = queue.poll();
-			if ((currentEntry.vertex == v) && currentEntry.state.isFinal) {
-				return true;
-			}
-			for (Edge inc : currentEntry.vertex.incidences()) {
-				for (Transition currentTransition : currentEntry.state.outTransitions) {
-					Vertex nextVertex = currentTransition.getNextVertex(
-							currentEntry.vertex, inc);
-					boolean isMarked = markers[currentTransition.endState.number]
-							.isMarked(nextVertex);
-					boolean transitionIsPossible = currentTransition.accepts(
-							currentEntry.vertex, inc, evaluator);
-					if (!isMarked && transitionIsPossible) {
-						PathSearchQueueEntry nextEntry = new PathSearchQueueEntry(
-								nextVertex, currentTransition.endState);
-						markers[nextEntry.state.number].mark(nextVertex);
-						queue.add(nextEntry);
+		Graph graph = u.getGraph();
+		int targetId = v.getId();
+		PathSearchWorkspace workspace = PathSearchWorkspace.acquire(graph, dfa);
+		try {
+			VertexStateMarker marker = workspace.marker;
+			VertexStateQueue queue = workspace.queue;
+			marker.mark(u.getId(), dfa.initialState.number);
+			queue.put(u.getId(), dfa.initialState.number);
+			while (queue.hasNext()) {
+				State state = dfa.stateList.get(queue.currentStateNumber);
+				if ((queue.currentVertexId == targetId) && state.isFinal) {
+					return true;
+				}
+				Vertex vertex = graph.getVertex(queue.currentVertexId);
+				int size = state.outTransitions.size();
+				for (Edge inc = vertex.getFirstIncidence(); inc != null; inc = inc
+						.getNextIncidence()) {
+					for (int i = 0; i < size; i++) {
+						Transition currentTransition = state.outTransitions
+								.get(i);
+						int nextId = currentTransition.getNextVertex(vertex,
+								inc).getId();
+						int endState = currentTransition.endState.number;
+						if (!marker.isMarked(nextId, endState)
+								&& currentTransition.accepts(vertex, inc,
+										evaluator)) {
+							marker.mark(nextId, endState);
+							queue.put(nextId, endState);
+						}
 					}
 				}
 			}
+		} finally {
+			workspace.release();
 		}
 		return false;
 	}
@@ -10,8 +10,10 @@ import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.FunLib;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsEvaluatorArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
 @NeedsEvaluatorArgument
+@SideEffectFree
 public class Path extends Function {
 	@Description(params = { "internal", "v1", "pd", "v2" }, description = "Returns the shortest path between v1 and v2 matching the path description pd.", categories = Category.GRAPH)
 	public Path() {
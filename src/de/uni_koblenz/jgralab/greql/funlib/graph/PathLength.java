@@ -36,8 +36,10 @@ package de.uni_koblenz.jgralab.greql.funlib.graph;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Path;
 
+@SideEffectFree
 public class PathLength extends Function {
 
 	@Description(params = "p", description = "Returns the length of the given Path.",
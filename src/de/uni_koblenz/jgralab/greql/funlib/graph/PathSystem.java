@@ -53,10 +53,12 @@ import de.uni_koblenz.jgralab.greql.evaluator.fa.Transition;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsEvaluatorArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.PathSystem.PathSystemNode;
 import de.uni_koblenz.jgralab.greql.types.pathsearch.PathSystemMarkerEntry;
 
 @NeedsEvaluatorArgument
+@SideEffectFree
 public class PathSystem extends Function {
 
 	@Description(params = { "internal", "startVertex", "fa" }, description = "Returns a path system with the given root vertex, which is structured according to the given path description.", categories = Category.PATHS_AND_PATHSYSTEMS_AND_SLICES)
@@ -35,12 +35,13 @@
 
 package de.uni_koblenz.jgralab.greql.funlib.graph;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 
+import org.pcollections.ArrayPSet;
 import org.pcollections.PSet;
 
 import de.uni_koblenz.jgralab.Edge;
-import de.uni_koblenz.jgralab.JGraLab;
+import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.evaluator.InternalGreqlEvaluator;
 import de.uni_koblenz.jgralab.greql.evaluator.fa.DFA;
@@ -49,9 +50,13 @@ import de.uni_koblenz.jgralab.greql.evaluator.fa.Transition;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsEvaluatorArgument;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.PathSearchWorkspace;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.VertexStateMarker;
 import de.uni_koblenz.jgralab.greql.types.pathsearch.VertexStateQueue;
 
 @NeedsEvaluatorArgument
+@SideEffectFree
 public class ReachableVertices extends Function {
 
 	@Description(params = { "internal", "v", "dfa" }, description = "Returns all vertices that are reachable from the given vertex by a path matching the the given path description.", categories = {
@@ -67,42 +72,44 @@ public class ReachableVertices extends Function {
 
 	public static PSet<Vertex> search(InternalGreqlEvaluator evaluator,
 			Vertex v, DFA dfa) {
-		PSet<Vertex> resultSet = JGraLab.set();
-
-		@SuppressWarnings("unchecked")
-		HashSet<Vertex>[] markedElements = new HashSet[dfa.stateList.size()];
-		// BitSet[] markedElements = new BitSet[dfa.stateList.size()];
-		for (State s : dfa.stateList) {
-			// markedElements[s.number] = new BitSet();
-			markedElements[s.number] = new HashSet<Vertex>(100);
-		}
-		VertexStateQueue queue = new VertexStateQueue();
-		markedElements[dfa.initialState.number].add(v);
-		queue.put(v, dfa.initialState);
-		while (queue.hasNext()) {
-			Vertex vertex = queue.currentVertex;
-			State state = queue.currentState;
-			if (state.isFinal) {
-				resultSet = resultSet.plus(vertex);
-			}
-			for (Edge inc = vertex.getFirstIncidence(); inc != null; inc = inc
-					.getNextIncidence()) {
+		ArrayList<Vertex> result = new ArrayList<Vertex>();
+		Graph graph = v.getGraph();
+		PathSearchWorkspace workspace = PathSearchWorkspace.acquire(graph, dfa);
+		// vertices are marked with this pseudo state when added to the result
+		int resultState = dfa.stateList.size();
+		try {
+			VertexStateMarker marker = workspace.marker;
+			VertexStateQueue queue = workspace.queue;
+			marker.mark(v.getId(), dfa.initialState.number);
+			queue.put(v.getId(), dfa.initialState.number);
+			while (queue.hasNext()) {
+				Vertex vertex = graph.getVertex(queue.currentVertexId);
+				State state = dfa.stateList.get(queue.currentStateNumber);
+				if (state.isFinal
+						&& marker.mark(queue.currentVertexId, resultState)) {
+					result.add(vertex);
+				}
 				int size = state.outTransitions.size();
-				for (int i = 0; i < size; i++) {
-					Transition currentTransition = state.outTransitions.get(i);
-					Vertex nextVertex = currentTransition.getNextVertex(vertex,
-							inc);
-					if (!markedElements[currentTransition.endState.number]
-							.contains(nextVertex)) {
-						if (currentTransition.accepts(vertex, inc, evaluator)) {
-							markedElements[currentTransition.endState.number]
-									.add(nextVertex);
-							queue.put(nextVertex, currentTransition.endState);
+				for (Edge inc = vertex.getFirstIncidence(); inc != null; inc = inc
+						.getNextIncidence()) {
+					for (int i = 0; i < size; i++) {
+						Transition currentTransition = state.outTransitions
+								.get(i);
+						int nextId = currentTransition.getNextVertex(vertex,
+								inc).getId();
+						int endState = currentTransition.endState.number;
+						if (!marker.isMarked(nextId, endState)
+								&& currentTransition.accepts(vertex, inc,
+										evaluator)) {
+							marker.mark(nextId, endState);
+							queue.put(nextId, endState);
 						}
 					}
 				}
 			}
+		} finally {
+			workspace.release();
 		}
-		return resultSet;
+		return ArrayPSet.fromDistinct(result);
 	}
 }
@@ -35,10 +35,10 @@
 
 package de.uni_koblenz.jgralab.greql.funlib.graph;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -59,8 +59,10 @@ import de.uni_koblenz.jgralab.greql.evaluator.fa.Transition;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
 import de.uni_koblenz.jgralab.greql.funlib.NeedsEvaluatorArgument;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.PathSearchWorkspace;
 import de.uni_koblenz.jgralab.greql.types.pathsearch.PathSystemMarkerEntry;
-import de.uni_koblenz.jgralab.greql.types.pathsearch.PathSystemQueueEntry;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.VertexStateMarker;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.VertexStateQueue;
 
 @NeedsEvaluatorArgument
 public class Slice extends Function {
@@ -193,49 +195,60 @@ public class Slice extends Function {
 			Set<Vertex> sliCritVertices, DFA dfa) {
 		// GreqlEvaluator.errprintln("Start marking vertices of slice");
 		ArrayList<Vertex> finalVertices = new ArrayList<Vertex>();
-		Queue<PathSystemQueueEntry> queue = new LinkedList<PathSystemQueueEntry>();
-		PathSystemQueueEntry currentEntry;
-
-		// fill queue with vertices in slicing criterion and mark these vertices
-		for (Vertex v : sliCritVertices) {
-			currentEntry = new PathSystemQueueEntry(v, dfa.initialState, null,
-					null, 0);
-			queue.offer(currentEntry);
-			markVertex(v, dfa.initialState, null /* no parent state */,
-					null /* no parent vertex */, null /* no parent state */, 0);
-		}
-
-		while (!queue.isEmpty()) {
-			currentEntry = queue.poll();
-			if (currentEntry.state.isFinal) {
-				finalVertices.add(currentEntry.vertex);
+		PathSearchWorkspace workspace = PathSearchWorkspace.acquire(graph, dfa);
+		try {
+			VertexStateMarker enqueued = workspace.marker;
+			VertexStateQueue queue = workspace.queue;
+
+			// fill queue with vertices in slicing criterion and mark these
+			// vertices
+			for (Vertex v : sliCritVertices) {
+				enqueued.mark(v.getId(), dfa.initialState.number);
+				queue.put(v.getId(), dfa.initialState.number);
+				markVertex(v, dfa.initialState, null /* no parent state */,
+						null /* no parent vertex */,
+						null /* no parent state */, 0);
 			}
-			for (Edge inc : currentEntry.vertex.incidences()) {
-				for (Transition currentTransition : currentEntry.state.outTransitions) {
-					Vertex nextVertex = currentTransition.getNextVertex(
-							currentEntry.vertex, inc);
-					if (!isMarked(nextVertex, currentTransition.endState, inc)
-							&& currentTransition.accepts(currentEntry.vertex,
-									inc, evaluator)) {
-						Edge traversedEdge = currentTransition.consumesEdge() ? inc
-								: null;
-						/*
-						 * if the vertex is not marked with the state, add it to
-						 * the queue for further processing - the parent edge
-						 * doesn't matter but only the state
-						 */
-						if (!isMarked(nextVertex, currentTransition.endState)) {
-							queue.add(new PathSystemQueueEntry(nextVertex,
-									currentTransition.endState, traversedEdge,
-									currentEntry.state, 0));
+
+			while (queue.hasNext()) {
+				Vertex vertex = graph.getVertex(queue.currentVertexId);
+				State state = dfa.stateList.get(queue.currentStateNumber);
+				if (state.isFinal) {
+					finalVertices.add(vertex);
+				}
+				int size = state.outTransitions.size();
+				for (Edge inc = vertex.getFirstIncidence(); inc != null; inc = inc
+						.getNextIncidence()) {
+					for (int i = 0; i < size; i++) {
+						Transition currentTransition = state.outTransitions
+								.get(i);
+						Vertex nextVertex = currentTransition.getNextVertex(
+								vertex, inc);
+						if (!isMarked(nextVertex, currentTransition.endState,
+								inc)
+								&& currentTransition.accepts(vertex, inc,
+										evaluator)) {
+							Edge traversedEdge = currentTransition
+									.consumesEdge() ? inc : null;
+							/*
+							 * if the vertex is not marked with the state, add
+							 * it to the queue for further processing - the
+							 * parent edge doesn't matter but only the state
+							 */
+							if (enqueued.mark(nextVertex.getId(),
+									currentTransition.endState.number)) {
+								queue.put(nextVertex.getId(),
+										currentTransition.endState.number);
+							}
+							/* mark the vertex with all reachability information */
+							markVertex(nextVertex, currentTransition.endState,
+									vertex, traversedEdge, state, 0);
 						}
-						/* mark the vertex with all reachability information */
-						markVertex(nextVertex, currentTransition.endState,
-								currentEntry.vertex, traversedEdge,
-								currentEntry.state, 0);
 					}
 				}
 			}
+		} finally {
+			workspace.release();
 		}
 
 		return finalVertices;
@@ -256,7 +269,7 @@ public class Slice extends Function {
 			sliceSubGraph.mark(v);
 		}
 
-		Queue<Vertex> queue = new LinkedList<Vertex>();
+		Queue<Vertex> queue = new ArrayDeque<Vertex>();
 		Vertex currentVertex, parentVertex;
 		State parentState;
 		stateMarker = new GraphMarker<Set<State>>(graph);
@@ -39,8 +39,10 @@ import org.pcollections.PVector;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Path;
 
+@SideEffectFree
 public class VertexTrace extends Function {
 
 	@Description(params = "p", description = "Returns the vertex trace of the given path.",
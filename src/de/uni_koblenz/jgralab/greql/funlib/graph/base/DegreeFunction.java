@@ -37,9 +37,11 @@ package de.uni_koblenz.jgralab.greql.funlib.graph.base;
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.EdgeDirection;
 import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Path;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 
+@SideEffectFree
 public abstract class DegreeFunction extends EdgeDirectionFunction {
 	protected DegreeFunction(EdgeDirection direction) {
 		super(direction, 10, 1, 1);
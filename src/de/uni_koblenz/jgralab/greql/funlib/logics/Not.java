@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.logics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Not extends Function {
 	
 	@Description(params = "a", description = "Logical NOT. Can be used as unary operator: not a.",
@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.logics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Or extends Function {
 	
 	@Description(params = {"a","b"}, description = "Logical OR. Can be used as infix operator: a or b.",
@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.logics;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Xor extends Function {
 	
 	@Description(params = {"a","b"}, description = "Logical XOR, i.e., $(a \\wedge \\neg b) \\vee (\\neg a\\wedge b)$.",
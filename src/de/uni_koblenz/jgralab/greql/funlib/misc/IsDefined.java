@@ -37,9 +37,11 @@ package de.uni_koblenz.jgralab.greql.funlib.misc;
 import de.uni_koblenz.jgralab.greql.funlib.AcceptsUndefinedArguments;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Undefined;
 
 @AcceptsUndefinedArguments
+@SideEffectFree
 public class IsDefined extends Function {
 
 	@Description(params = "val", description = "Returns true, iff the given object is defined.",
@@ -37,9 +37,11 @@ package de.uni_koblenz.jgralab.greql.funlib.misc;
 import de.uni_koblenz.jgralab.greql.funlib.AcceptsUndefinedArguments;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.Types;
 
 @AcceptsUndefinedArguments
+@SideEffectFree
 public class ValueType extends Function {
 
 	@Description(params = "val", description = "Returns a String denoting the value type of the given object.",
@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.relations;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class LeEqual extends Function {
 
 	@Description(params = { "a", "b" }, description = "Determines if $a \\leq b$. Alternative: a <= b", categories = Category.RELATIONS)
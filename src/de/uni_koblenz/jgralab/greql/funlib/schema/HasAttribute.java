@@ -37,8 +37,10 @@ package de.uni_koblenz.jgralab.greql.funlib.schema;
 import de.uni_koblenz.jgralab.AttributedElement;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.schema.AttributedElementClass;
 
+@SideEffectFree
 public class HasAttribute extends Function {
 
 	public HasAttribute() {
@@ -37,7 +37,9 @@ package de.uni_koblenz.jgralab.greql.funlib.schema;
 import de.uni_koblenz.jgralab.Record;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class HasComponent extends Function {
 
 	@Description(params = {"r", "name"}, description = 
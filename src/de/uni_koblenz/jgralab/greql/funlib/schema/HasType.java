@@ -38,9 +38,11 @@ import de.uni_koblenz.jgralab.GraphElement;
 import de.uni_koblenz.jgralab.greql.exception.GreqlException;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.types.TypeCollection;
 import de.uni_koblenz.jgralab.schema.GraphElementClass;
 
+@SideEffectFree
 public class HasType extends Function {
 
 	public HasType() {
@@ -37,8 +37,10 @@ package de.uni_koblenz.jgralab.greql.funlib.schema;
 import de.uni_koblenz.jgralab.AttributedElement;
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.schema.AttributedElementClass;
 
+@SideEffectFree
 public class Type extends Function {
 
 	@Description(params = "el", description = "Returns the AttributedElementClass of the given element.",
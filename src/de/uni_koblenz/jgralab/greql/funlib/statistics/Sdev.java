@@ -39,7 +39,9 @@ import java.util.Collection;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Sdev extends Function {
 
 	@Description(params = "l", description = "Returns the standard deviation of a collection of numbers.\n"
@@ -38,7 +38,9 @@ import org.pcollections.PCollection;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Join extends Function {
 
 	@Description(params = { "l", "delimiter" }, description = "Joins the strings in the given collection by interleaving with the given delimiter.", categories = Category.STRINGS)
@@ -36,7 +36,9 @@ package de.uni_koblenz.jgralab.greql.funlib.strings;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class Length extends Function {
 
 	@Description(params = "s", description = "Returns the length of String s.", categories = Category.STRINGS)
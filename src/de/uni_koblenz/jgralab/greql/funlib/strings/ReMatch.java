@@ -34,12 +34,14 @@
  */
 package de.uni_koblenz.jgralab.greql.funlib.strings;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import de.uni_koblenz.jgralab.greql.funlib.Description;
 import de.uni_koblenz.jgralab.greql.funlib.Function;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 
+@SideEffectFree
 public class ReMatch extends Function {
 	
 	@Description(params = {"s", "regex"}, description = "Returns true, iff the given string matches the given regular expression. \n"
@@ -49,8 +51,9 @@ public class ReMatch extends Function {
 		super(50, 1, 0.1);
 	}
 
-	// cache is also used by Split function
-	static HashMap<String, Pattern> patternCache = new HashMap<String, Pattern>();
+	// cache is also used by Split function, both may be applied concurrently
+	// in parallel comprehensions
+	static ConcurrentHashMap<String, Pattern> patternCache = new ConcurrentHashMap<String, Pattern>();
 
 	public Boolean evaluate(String s, String regex) {
 		Pattern pat = patternCache.get(regex);
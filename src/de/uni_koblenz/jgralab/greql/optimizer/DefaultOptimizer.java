@@ -115,6 +115,7 @@ public class DefaultOptimizer extends OptimizerBase {
 				optimizerInfo);
 		Optimizer mco = new MergeConstraintsOptimizer(optimizerInfo);
 		Optimizer msdo = new MergeSimpleDeclarationsOptimizer(optimizerInfo);
+		Optimizer pco = new ParallelComprehensionOptimizer(optimizerInfo);
 
 		int noOfRuns = 0;
 
@@ -223,6 +224,10 @@ public class DefaultOptimizer extends OptimizerBase {
 					+ " iterations.");
 		}
 
+		// Finally mark the comprehensions which may be evaluated by several
+		// threads.
+		pco.optimize(query);
+
 		// Tg2Dot.printGraphAsDot(syntaxgraph, true,
 		// "/home/horn/after-optimization.tg");
 
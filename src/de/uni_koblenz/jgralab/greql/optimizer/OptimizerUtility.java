@@ -39,6 +39,8 @@ package de.uni_koblenz.jgralab.greql.optimizer;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Queue;
 import java.util.Set;
 
 import org.pcollections.PVector;
@@ -47,12 +49,16 @@ import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.EdgeDirection;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.greql.funlib.FunLib;
+import de.uni_koblenz.jgralab.greql.funlib.FunLib.FunctionInfo;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
 import de.uni_koblenz.jgralab.greql.funlib.logics.And;
 import de.uni_koblenz.jgralab.greql.schema.FunctionApplication;
 import de.uni_koblenz.jgralab.greql.schema.FunctionId;
 import de.uni_koblenz.jgralab.greql.schema.GreqlAggregation;
 import de.uni_koblenz.jgralab.greql.schema.GreqlExpression;
 import de.uni_koblenz.jgralab.greql.schema.GreqlGraph;
+import de.uni_koblenz.jgralab.greql.schema.GreqlVertex;
 import de.uni_koblenz.jgralab.greql.schema.IsDeclaredVarOf;
 import de.uni_koblenz.jgralab.greql.schema.SimpleDeclaration;
 import de.uni_koblenz.jgralab.greql.schema.SourcePosition;
@@ -318,4 +324,41 @@ public class OptimizerUtility {
 			}
 		}
 	}
+
+	/**
+	 * Checks if all {@link FunctionApplication}s in the subgraph below
+	 * <code>vertex</code> (including <code>vertex</code> itself) apply
+	 * {@link SideEffectFree} functions.
+	 * 
+	 * @param vertex
+	 *            a {@link GreqlVertex}
+	 * @return <code>true</code> if the evaluation of <code>vertex</code> has
+	 *         no side effects, <code>false</code> otherwise
+	 */
+	public static boolean isSideEffectFree(GreqlVertex vertex) {
+		Set<GreqlVertex> visited = new HashSet<GreqlVertex>();
+		Queue<GreqlVertex> queue = new LinkedList<GreqlVertex>();
+		queue.add(vertex);
+		visited.add(vertex);
+		while (!queue.isEmpty()) {
+			GreqlVertex v = queue.poll();
+			if (v instanceof FunctionApplication) {
+				FunctionId id = ((FunctionApplication) v)
+						.getFirstIsFunctionIdOfIncidence(EdgeDirection.IN)
+						.getAlpha();
+				FunctionInfo fi = FunLib.getFunctionInfo(id.get_name());
+				if ((fi == null) || !fi.isSideEffectFree()) {
+					return false;
+				}
+			}
+			for (GreqlAggregation e : v
+					.getGreqlAggregationIncidences(EdgeDirection.IN)) {
+				GreqlVertex child = (GreqlVertex) e.getThat();
+				if (visited.add(child)) {
+					queue.add(child);
+				}
+			}
+		}
+		return true;
+	}
 }
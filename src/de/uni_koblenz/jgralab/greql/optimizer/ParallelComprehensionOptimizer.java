@@ -0,0 +1,100 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+
+package de.uni_koblenz.jgralab.greql.optimizer;
+
+import java.util.logging.Logger;
+
+import de.uni_koblenz.jgralab.JGraLab;
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.greql.OptimizerInfo;
+import de.uni_koblenz.jgralab.greql.evaluator.GreqlQueryImpl;
+import de.uni_koblenz.jgralab.greql.evaluator.vertexeval.ComprehensionEvaluator;
+import de.uni_koblenz.jgralab.greql.exception.OptimizerException;
+import de.uni_koblenz.jgralab.greql.funlib.SideEffectFree;
+import de.uni_koblenz.jgralab.greql.schema.Comprehension;
+import de.uni_koblenz.jgralab.greql.schema.FunctionApplication;
+import de.uni_koblenz.jgralab.greql.schema.GreqlGraph;
+
+/**
+ * Marks all {@link Comprehension}s without a maximum count as parallelizable,
+ * if all {@link FunctionApplication}s below them apply {@link SideEffectFree}
+ * functions. The {@link GreqlGraph} itself is not changed.
+ * 
+ * @author ist@uni-koblenz.de
+ * 
+ */
+public class ParallelComprehensionOptimizer extends OptimizerBase {
+
+	private static Logger logger = JGraLab
+			.getLogger(ParallelComprehensionOptimizer.class);
+
+	ParallelComprehensionOptimizer(OptimizerInfo optimizerInfo) {
+		super(optimizerInfo);
+	}
+
+	@Override
+	public boolean isEquivalent(Optimizer optimizer) {
+		if (optimizer instanceof ParallelComprehensionOptimizer) {
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean optimize(GreqlQuery query) throws OptimizerException {
+		GreqlQueryImpl q = (GreqlQueryImpl) query;
+		for (Comprehension comp : query.getQueryGraph()
+				.getComprehensionVertices()) {
+			ComprehensionEvaluator<?> compEval = (ComprehensionEvaluator<?>) q
+					.getVertexEvaluator(comp);
+			boolean parallelizable = isParallelizable(comp);
+			compEval.setParallelizable(parallelizable);
+			if (parallelizable) {
+				logger.finer(optimizerHeaderString() + "Marked " + comp
+						+ " as parallelizable.");
+			}
+		}
+		// only the evaluators are marked, the query graph stays the same
+		return false;
+	}
+
+	private boolean isParallelizable(Comprehension comp) {
+		// the first results of a limited comprehension depend on the
+		// iteration order
+		return (comp.get_maxCount() == null)
+				&& OptimizerUtility.isSideEffectFree(comp);
+	}
+}
@@ -409,6 +409,36 @@ public final class TypeCollection {
 		return tcType;
 	}
 
+	/**
+	 * Returns the only allowed (i.e., not forbidden) type of this
+	 * TypeCollection. All accepted elements are instances of that type, so
+	 * callers may iterate its instances only and filter them with
+	 * {@link #acceptsType(GraphElementClass)} instead of checking all elements
+	 * of a graph.
+	 * 
+	 * @return the single allowed type, or null if this TypeCollection is empty,
+	 *         has several allowed types or only forbidden types
+	 */
+	public GraphElementClass<?, ?> getSingleAllowedType() {
+		if (isEmpty()) {
+			return null;
+		}
+		if (schema == null) {
+			throw new IllegalStateException(
+					"TypeCollection isn't bound to a Schema");
+		}
+		GraphElementClass<?, ?> allowed = null;
+		for (TypeEntry e : boundTypeEntries) {
+			if (!e.forbidden) {
+				if (allowed != null) {
+					return null;
+				}
+				allowed = e.gec;
+			}
+		}
+		return allowed;
+	}
+
 	public BitSet getTypeIdSet() {
 		if (schema == null) {
 			throw new IllegalStateException(
@@ -0,0 +1,90 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.greql.types.pathsearch;
+
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.greql.evaluator.fa.DFA;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+
+/**
+ * The {@link VertexStateMarker} and {@link VertexStateQueue} used by one
+ * regular pathsearch. Each thread keeps one workspace which is reused by
+ * subsequent searches, so searches don't allocate memory proportional to the
+ * size of the graph. Searches nested into the evaluation of a transition get
+ * a new workspace.
+ * 
+ * @author ist@uni-koblenz.de
+ * 
+ */
+public class PathSearchWorkspace {
+
+	private static final ThreadLocal<PathSearchWorkspace> freeWorkspace = new ThreadLocal<PathSearchWorkspace>();
+
+	public final VertexStateMarker marker = new VertexStateMarker();
+
+	public final VertexStateQueue queue = new VertexStateQueue();
+
+	private PathSearchWorkspace() {
+	}
+
+	/**
+	 * Returns an empty workspace for a search with the given automaton in the
+	 * given graph. It has to be given back with {@link #release()} when the
+	 * search is finished. Besides the numbers of the automaton's states, the
+	 * marker accepts <code>dfa.stateList.size()</code> as an additional state
+	 * number, which may be used to mark the results of the search.
+	 */
+	public static PathSearchWorkspace acquire(Graph graph, DFA dfa) {
+		PathSearchWorkspace workspace = freeWorkspace.get();
+		if (workspace == null) {
+			workspace = new PathSearchWorkspace();
+		} else {
+			freeWorkspace.set(null);
+		}
+		workspace.marker.ensureCapacity(dfa.stateList.size() + 1,
+				((InternalGraph) graph).getMaxVCount());
+		return workspace;
+	}
+
+	/**
+	 * Clears this workspace and keeps it for the next search of the current
+	 * thread.
+	 */
+	public void release() {
+		marker.clear();
+		queue.clear();
+		freeWorkspace.set(this);
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.greql.types.pathsearch;
+
+import java.util.Arrays;
+
+/**
+ * Marks pairs of vertex ids and state numbers with one bit each. For every
+ * state, there's one bitset indexed by vertex id and one summary bitset which
+ * records the non-empty words of the former. So {@link #clear()} only touches
+ * words which have been marked, and a marker can be reused for many small
+ * searches in a large graph.
+ * 
+ * @author ist@uni-koblenz.de
+ * 
+ */
+public class VertexStateMarker {
+
+	private long[][] marks = new long[0][];
+
+	private long[][] usedWords = new long[0][];
+
+	/**
+	 * Makes sure that vertices with ids up to <code>maxVertexId</code> can be
+	 * marked with states <code>0..stateCount-1</code>.
+	 */
+	public final void ensureCapacity(int stateCount, int maxVertexId) {
+		int wordCount = (maxVertexId >> 6) + 1;
+		if (marks.length < stateCount) {
+			marks = Arrays.copyOf(marks, stateCount);
+			usedWords = Arrays.copyOf(usedWords, stateCount);
+		}
+		for (int s = 0; s < stateCount; s++) {
+			if (marks[s] == null) {
+				marks[s] = new long[wordCount];
+				usedWords[s] = new long[(wordCount >> 6) + 1];
+			} else if (marks[s].length < wordCount) {
+				marks[s] = Arrays.copyOf(marks[s], wordCount);
+				usedWords[s] = Arrays.copyOf(usedWords[s],
+						(wordCount >> 6) + 1);
+			}
+		}
+	}
+
+	/**
+	 * Marks the vertex with the given id with the given state.
+	 * 
+	 * @return true if the vertex was marked successfully, false if it is
+	 *         already marked with this state
+	 */
+	public final boolean mark(int vertexId, int stateNumber) {
+		long[] words = marks[stateNumber];
+		int w = vertexId >> 6;
+		long word = words[w];
+		long bit = 1L << vertexId;
+		if ((word & bit) != 0) {
+			return false;
+		}
+		if (word == 0) {
+			usedWords[stateNumber][w >> 6] |= 1L << w;
+		}
+		words[w] = word | bit;
+		return true;
+	}
+
+	/**
+	 * @return true if the vertex with the given id is marked with the given
+	 *         state
+	 */
+	public final boolean isMarked(int vertexId, int stateNumber) {
+		return (marks[stateNumber][vertexId >> 6] & (1L << vertexId)) != 0;
+	}
+
+	/**
+	 * Removes all marks.
+	 */
+	public final void clear() {
+		for (int s = 0; s < marks.length; s++) {
+			long[] words = marks[s];
+			long[] used = usedWords[s];
+			for (int u = 0; u < used.length; u++) {
+				long bits = used[u];
+				while (bits != 0) {
+					words[(u << 6) + Long.numberOfTrailingZeros(bits)] = 0;
+					bits &= bits - 1;
+				}
+				used[u] = 0;
+			}
+		}
+	}
+}
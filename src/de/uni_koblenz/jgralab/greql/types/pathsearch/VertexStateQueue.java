@@ -32,74 +32,80 @@
  * non-source form of such a combination shall include the source code for
  * the parts of JGraLab used as well as that of the covered work.
  */
+package de.uni_koblenz.jgralab.greql.types.pathsearch;
+
 /**
+ * A FIFO queue of (vertex id, state number) pairs which is used for regular
+ * pathsearch. The pairs are stored in a growing ring buffer of ints, so
+ * putting and taking entries doesn't allocate any objects.
+ * 
+ * @author ist@uni-koblenz.de
  * 
  */
-package de.uni_koblenz.jgralab.greql.types.pathsearch;
-
-import de.uni_koblenz.jgralab.Vertex;
-import de.uni_koblenz.jgralab.greql.evaluator.fa.State;
-
 public class VertexStateQueue {
 
-	private static int initialSize = 100;
-
-	public Vertex currentVertex = null;
-
-	public State currentState = null;
-
-	int size = initialSize;
+	private static final int INITIAL_SIZE = 128;
 
-	Vertex[] vertices = null;
+	/**
+	 * the id of the vertex taken by the last successful call of
+	 * {@link #hasNext()}
+	 */
+	public int currentVertexId;
 
-	State[] states = null;
+	/**
+	 * the number of the state taken by the last successful call of
+	 * {@link #hasNext()}
+	 */
+	public int currentStateNumber;
 
-	int last = 0;
+	/**
+	 * vertex ids at even and state numbers at odd positions, the length is
+	 * always a power of two
+	 */
+	private int[] entries = new int[2 * INITIAL_SIZE];
 
-	int first = 0;
+	private int first = 0;
 
-	public VertexStateQueue() {
-		vertices = new Vertex[initialSize];
-		states = new State[initialSize];
-		size = initialSize;
-	}
+	private int last = 0;
 
-	public final void put(Vertex v, State s) {
-		if (last == first + size - 1) {
+	public final void put(int vertexId, int stateNumber) {
+		if (last - first == entries.length) {
 			resize();
 		}
-		vertices[last % size] = v;
-		states[last % size] = s;
-		last++;
+		int mask = entries.length - 1;
+		entries[last & mask] = vertexId;
+		entries[(last + 1) & mask] = stateNumber;
+		last += 2;
 	}
 
 	public final boolean hasNext() {
-
 		if (first == last) {
-			// if (last < (initialSize / 2)) {
-			// initialSize = last+1;
-			// }
 			return false;
 		}
-		currentVertex = vertices[first % size];
-		currentState = states[first % size];
-		first++;
+		int mask = entries.length - 1;
+		currentVertexId = entries[first & mask];
+		currentStateNumber = entries[(first + 1) & mask];
+		first += 2;
 		return true;
 	}
 
-	private final void resize() {
-		Vertex[] newVertices = new Vertex[size * 2];
-		State[] newStates = new State[size * 2];
+	public final boolean isEmpty() {
+		return first == last;
+	}
 
-		for (int i = 0; i < size; i++) {
-			newVertices[i] = vertices[(first + i) % size];
-			newStates[i] = states[(first + i) % size];
-		}
-		states = newStates;
-		vertices = newVertices;
-		last = size - 1;
+	public final void clear() {
+		first = 0;
+		last = 0;
+	}
+
+	private final void resize() {
+		int size = entries.length;
+		int[] newEntries = new int[size * 2];
+		int start = first & (size - 1);
+		System.arraycopy(entries, start, newEntries, 0, size - start);
+		System.arraycopy(entries, 0, newEntries, size - start, start);
+		entries = newEntries;
 		first = 0;
-		size *= 2;
-		// initialSize *= 2;
+		last = size;
 	}
 }
@@ -0,0 +1,289 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import static de.uni_koblenz.jgralab.impl.BlockGZIPOutputStream.FEXTRA;
+import static de.uni_koblenz.jgralab.impl.BlockGZIPOutputStream.HEADER_SIZE;
+import static de.uni_koblenz.jgralab.impl.BlockGZIPOutputStream.SI1;
+import static de.uni_koblenz.jgralab.impl.BlockGZIPOutputStream.SI2;
+import static de.uni_koblenz.jgralab.impl.BlockGZIPOutputStream.TRAILER_SIZE;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * {@link BlockGZIPInputStream} reads the multi-member GZIP format written by
+ * {@link BlockGZIPOutputStream} and inflates the members with several
+ * threads. The members are split by the member sizes in their headers, so
+ * files written by other GZIP tools can't be read. Use
+ * {@link #isBlockCompressed(InputStream)} to check the input before.
+ */
+public class BlockGZIPInputStream extends InputStream {
+	private static final int BLOCKS_PER_THREAD = 2;
+
+	private final InputStream in;
+	private final ExecutorService workers;
+	private final int maxPending;
+	private final LinkedList<Future<byte[]>> pending;
+	private byte[] block;
+	private int pos;
+	private boolean eof;
+	private boolean closed;
+
+	/**
+	 * Creates a {@link BlockGZIPInputStream} which reads from <code>in</code>
+	 * and inflates with <code>threads</code> worker threads.
+	 * 
+	 * @param in
+	 *            the underlying stream
+	 * @param threads
+	 *            the number of inflating threads, at least 1
+	 */
+	public BlockGZIPInputStream(InputStream in, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"The number of threads must be at least 1, given was "
+							+ threads);
+		}
+		this.in = in;
+		workers = Executors.newFixedThreadPool(threads);
+		maxPending = BLOCKS_PER_THREAD * threads;
+		pending = new LinkedList<Future<byte[]>>();
+		block = new byte[0];
+	}
+
+	/**
+	 * Checks if <code>in</code> starts with a GZIP member written by
+	 * {@link BlockGZIPOutputStream}. The stream has to support
+	 * {@link InputStream#mark(int)}, it is reset to its current position.
+	 * 
+	 * @param in
+	 *            a stream supporting mark and reset
+	 * @return true if <code>in</code> can be read by a
+	 *         {@link BlockGZIPInputStream}
+	 */
+	public static boolean isBlockCompressed(InputStream in) throws IOException {
+		assert in.markSupported();
+		byte[] header = new byte[HEADER_SIZE];
+		in.mark(HEADER_SIZE);
+		try {
+			int len = 0;
+			while (len < HEADER_SIZE) {
+				int n = in.read(header, len, HEADER_SIZE - len);
+				if (n < 0) {
+					return false;
+				}
+				len += n;
+			}
+			return isMemberHeader(header);
+		} finally {
+			in.reset();
+		}
+	}
+
+	private static boolean isMemberHeader(byte[] h) {
+		return (h[0] == 0x1f) && (h[1] == (byte) 0x8b) && (h[2] == 8)
+				&& (h[3] == FEXTRA) && (h[10] == 8) && (h[11] == 0)
+				&& (h[12] == SI1) && (h[13] == SI2) && (h[14] == 4)
+				&& (h[15] == 0);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if ((pos == block.length) && !nextBlock()) {
+			return -1;
+		}
+		return block[pos++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if ((pos == block.length) && !nextBlock()) {
+			return -1;
+		}
+		int n = Math.min(len, block.length - pos);
+		System.arraycopy(block, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return block.length - pos;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		workers.shutdownNow();
+		in.close();
+	}
+
+	/**
+	 * Makes the next non-empty block the current one.
+	 * 
+	 * @return false if the end of the input has been reached
+	 */
+	private boolean nextBlock() throws IOException {
+		do {
+			while (!eof && (pending.size() < maxPending)) {
+				submitMember();
+			}
+			if (pending.isEmpty()) {
+				return false;
+			}
+			try {
+				block = pending.removeFirst().get();
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException(
+						"Interrupted while inflating a block");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IOException("Exception while inflating a block",
+						e.getCause());
+			}
+			pos = 0;
+		} while (block.length == 0);
+		return true;
+	}
+
+	/**
+	 * Reads the next member and submits it for inflation.
+	 */
+	private void submitMember() throws IOException {
+		byte[] header = new byte[HEADER_SIZE];
+		int n = readFully(header, 0, HEADER_SIZE);
+		if (n == 0) {
+			eof = true;
+			return;
+		}
+		if ((n < HEADER_SIZE) || !isMemberHeader(header)) {
+			throw new ZipException("Not a block compressed GZIP member");
+		}
+		int size = (header[16] & 0xff) | ((header[17] & 0xff) << 8)
+				| ((header[18] & 0xff) << 16) | ((header[19] & 0xff) << 24);
+		if (size < HEADER_SIZE + TRAILER_SIZE) {
+			throw new ZipException("Invalid GZIP member size " + size);
+		}
+		final byte[] member = new byte[size];
+		System.arraycopy(header, 0, member, 0, HEADER_SIZE);
+		if (readFully(member, HEADER_SIZE, size - HEADER_SIZE) < size
+				- HEADER_SIZE) {
+			throw new EOFException("Unexpected end of GZIP member");
+		}
+		pending.add(workers.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() throws IOException {
+				return inflate(member);
+			}
+		}));
+	}
+
+	private int readFully(byte[] b, int off, int len) throws IOException {
+		int total = 0;
+		while (total < len) {
+			int n = in.read(b, off + total, len - total);
+			if (n < 0) {
+				break;
+			}
+			total += n;
+		}
+		return total;
+	}
+
+	/**
+	 * Inflates a complete GZIP <code>member</code> and checks its CRC and
+	 * size.
+	 */
+	static byte[] inflate(byte[] member) throws IOException {
+		int t = member.length - TRAILER_SIZE;
+		int crc = getInt(member, t);
+		int size = getInt(member, t + 4);
+		if ((size < 0) || (size > BlockGZIPOutputStream.BLOCK_SIZE)) {
+			throw new ZipException("Invalid GZIP block size " + size);
+		}
+		byte[] result = new byte[size];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(member, HEADER_SIZE, t - HEADER_SIZE);
+			int len = 0;
+			while (!inflater.finished() && (len < size)) {
+				int n = inflater.inflate(result, len, size - len);
+				if ((n == 0) && inflater.needsInput()) {
+					throw new ZipException("Corrupt GZIP block");
+				}
+				len += n;
+			}
+			if (len != size) {
+				throw new ZipException("Corrupt GZIP block");
+			}
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		} finally {
+			inflater.end();
+		}
+		CRC32 c = new CRC32();
+		c.update(result);
+		if ((int) c.getValue() != crc) {
+			throw new ZipException("Corrupt GZIP block (CRC mismatch)");
+		}
+		return result;
+	}
+
+	private static int getInt(byte[] b, int off) {
+		return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8)
+				| ((b[off + 2] & 0xff) << 16) | ((b[off + 3] & 0xff) << 24);
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * {@link BlockGZIPOutputStream} compresses its output with several threads.
+ * The data is split into blocks of {@link #BLOCK_SIZE} bytes, and each block
+ * is compressed into a complete GZIP member by a worker thread. The members
+ * are written in order, so the output is a multi-member GZIP file which can
+ * be read by {@link java.util.zip.GZIPInputStream} and other GZIP tools.<br/>
+ * <br/>
+ * 
+ * Like BGZF, each member header has an extra field (subfield id
+ * <code>JG</code>) which holds the total size of the member, so that
+ * {@link BlockGZIPInputStream} can split the input into members without
+ * inflating it and inflate the blocks in parallel:
+ * 
+ * <pre>
+ * member ::= 1f 8b 08 04 mtime(4) xfl(1) os(1) xlen(2)=8
+ *            'J' 'G' len(2)=4 memberSize(4) deflate-data crc32(4) isize(4)
+ * </pre>
+ * 
+ * All numbers are little endian.
+ */
+public class BlockGZIPOutputStream extends OutputStream {
+	/**
+	 * Number of uncompressed bytes per GZIP member.
+	 */
+	public static final int BLOCK_SIZE = 1 << 20;
+
+	static final int HEADER_SIZE = 20;
+	static final int TRAILER_SIZE = 8;
+	static final int FEXTRA = 4;
+	static final byte SI1 = 'J';
+	static final byte SI2 = 'G';
+
+	private static final int BLOCKS_PER_THREAD = 2;
+
+	private final OutputStream out;
+	private final ExecutorService workers;
+	private final int maxPending;
+	private final LinkedList<Future<byte[]>> pending;
+	private byte[] block;
+	private int len;
+	private boolean closed;
+
+	/**
+	 * Creates a {@link BlockGZIPOutputStream} which writes to
+	 * <code>out</code> and compresses with <code>threads</code> worker
+	 * threads.
+	 * 
+	 * @param out
+	 *            the underlying stream
+	 * @param threads
+	 *            the number of compressing threads, at least 1
+	 */
+	public BlockGZIPOutputStream(OutputStream out, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"The number of threads must be at least 1, given was "
+							+ threads);
+		}
+		this.out = out;
+		workers = Executors.newFixedThreadPool(threads);
+		maxPending = BLOCKS_PER_THREAD * threads;
+		pending = new LinkedList<Future<byte[]>>();
+		block = new byte[BLOCK_SIZE];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (len == block.length) {
+			submitBlock();
+		}
+		block[len++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int l) throws IOException {
+		while (l > 0) {
+			if (len == block.length) {
+				submitBlock();
+			}
+			int n = Math.min(l, block.length - len);
+			System.arraycopy(b, off, block, len, n);
+			len += n;
+			off += n;
+			l -= n;
+		}
+	}
+
+	/**
+	 * Compresses the buffered bytes into a member of their own, writes all
+	 * members and flushes the underlying stream.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (len > 0) {
+			submitBlock();
+		}
+		while (!pending.isEmpty()) {
+			writeMember();
+		}
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			flush();
+		} finally {
+			workers.shutdownNow();
+			out.close();
+		}
+	}
+
+	private void submitBlock() throws IOException {
+		final byte[] data = block;
+		final int length = len;
+		pending.add(workers.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return compress(data, length);
+			}
+		}));
+		block = new byte[BLOCK_SIZE];
+		len = 0;
+		while (pending.size() > maxPending) {
+			writeMember();
+		}
+	}
+
+	private void writeMember() throws IOException {
+		try {
+			out.write(pending.removeFirst().get());
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException(
+					"Interrupted while compressing a block");
+		} catch (ExecutionException e) {
+			throw new IOException("Exception while compressing a block",
+					e.getCause());
+		}
+	}
+
+	/**
+	 * Compresses the first <code>length</code> bytes of <code>data</code>
+	 * into a complete GZIP member.
+	 */
+	static byte[] compress(byte[] data, int length) {
+		ByteArrayOutputStream member = new ByteArrayOutputStream(
+				length / 2 + HEADER_SIZE + TRAILER_SIZE);
+		// header, the member size is patched in later
+		member.write(new byte[] { 0x1f, (byte) 0x8b, 8, FEXTRA, 0, 0, 0, 0,
+				0, (byte) 0xff, 8, 0, SI1, SI2, 4, 0, 0, 0, 0, 0 }, 0,
+				HEADER_SIZE);
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			byte[] buf = new byte[8192];
+			while (!deflater.finished()) {
+				int n = deflater.deflate(buf);
+				member.write(buf, 0, n);
+			}
+		} finally {
+			deflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		writeInt(member, (int) crc.getValue());
+		writeInt(member, length);
+		byte[] result = member.toByteArray();
+		putInt(result, 16, result.length);
+		return result;
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, int v) {
+		out.write(v);
+		out.write(v >>> 8);
+		out.write(v >>> 16);
+		out.write(v >>> 24);
+	}
+
+	private static void putInt(byte[] b, int off, int v) {
+		b[off] = (byte) v;
+		b[off + 1] = (byte) (v >>> 8);
+		b[off + 2] = (byte) (v >>> 16);
+		b[off + 3] = (byte) (v >>> 24);
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import de.uni_koblenz.jgralab.schema.GraphElementClass;
+import de.uni_koblenz.jgralab.schema.Schema;
+
+/**
+ * Caches the class chains of the GraphElementClasses of a schema. The chain of
+ * a class contains its id (see
+ * {@link GraphElementClass#getGraphElementClassIdInSchema()}) followed by the
+ * ids of all its superclasses except the default class. Chains are used to
+ * locate the links of an element in lists which are partitioned by class.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+final class ClassChains {
+
+	private final Schema schema;
+
+	/**
+	 * Chains indexed by class id. The array is replaced as a whole when a chain
+	 * is added, so it can be read without synchronization.
+	 */
+	private volatile int[][] chains = new int[0][];
+
+	ClassChains(Schema schema) {
+		this.schema = schema;
+	}
+
+	Schema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * @return the chain of <code>gec</code>
+	 */
+	int[] get(GraphElementClass<?, ?> gec) {
+		int id = gec.getGraphElementClassIdInSchema();
+		int[][] cs = chains;
+		if ((id < cs.length) && (cs[id] != null)) {
+			return cs[id];
+		}
+		return compute(gec, id);
+	}
+
+	private synchronized int[] compute(GraphElementClass<?, ?> gec, int id) {
+		int[][] cs = chains;
+		if ((id < cs.length) && (cs[id] != null)) {
+			return cs[id];
+		}
+		int[] chain = new int[gec.getAllSuperClasses().size() + 1];
+		chain[0] = id;
+		int k = 1;
+		for (Object sup : gec.getAllSuperClasses()) {
+			chain[k++] = ((GraphElementClass<?, ?>) sup)
+					.getGraphElementClassIdInSchema();
+		}
+		int[][] newChains = new int[Math.max(cs.length,
+				Math.max(id + 1, schema.getGraphElementClassCount()))][];
+		System.arraycopy(cs, 0, newChains, 0, cs.length);
+		newChains[id] = chain;
+		chains = newChains;
+		return chain;
+	}
+
+	/**
+	 * @return the position of class id <code>c</code> in <code>chain</code>,
+	 *         or -1 if the chain doesn't contain it
+	 */
+	static int indexOf(int[] chain, int c) {
+		for (int k = 0; k < chain.length; ++k) {
+			if (chain[k] == c) {
+				return k;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,319 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import de.uni_koblenz.jgralab.schema.GraphElementClass;
+
+/**
+ * ClassSequence partitions the vertex or edge sequence of a graph by
+ * GraphElementClass. For each class, it maintains a doubly linked list of all
+ * elements of that class and its subclasses in the order of the global
+ * sequence, so that iterating the instances of a class is O(|extent|) instead
+ * of O(|VSeq|) or O(|ESeq|).<br/>
+ * <br/>
+ * 
+ * Every element is contained in the lists of its own class and of all its
+ * superclasses except the default class. The links are stored in an array held
+ * by the element itself (see {@link InternalGraphElement#getClassSeqLinks()}).
+ * The <code>k</code>-th class of an element's class chain (its own class
+ * followed by its superclasses) uses the entries <code>2 * k</code> (next) and
+ * <code>2 * k + 1</code> (previous).<br/>
+ * <br/>
+ * 
+ * The lists are built lazily on the first typed access, maintained
+ * incrementally when elements are appended, removed or moved, and discarded
+ * when the global sequence is sorted. Graphs which are never traversed by type
+ * don't pay for them.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+abstract class ClassSequence<E extends InternalGraphElement<?, ?>> {
+
+	private final ClassChains chains;
+
+	/**
+	 * First and last element of each class list, indexed by class id.
+	 */
+	private Object[] first;
+	private Object[] last;
+
+	/**
+	 * An element whose class wasn't known yet when it was appended. Generic
+	 * elements determine their class only after the super constructor has
+	 * added them to the graph, so they are linked on the next access.
+	 */
+	private E pending;
+
+	private volatile boolean valid;
+
+	ClassSequence(ClassChains chains) {
+		this.chains = chains;
+	}
+
+	/**
+	 * @return the first element of the global sequence
+	 */
+	protected abstract E firstInSeq();
+
+	/**
+	 * @return the successor of <code>e</code> in the global sequence
+	 */
+	protected abstract E nextInSeq(E e);
+
+	/**
+	 * @return the predecessor of <code>e</code> in the global sequence
+	 */
+	protected abstract E prevInSeq(E e);
+
+	/**
+	 * @return the first element of class <code>c</code> (or one of its
+	 *         subclasses) in the global sequence, or null
+	 */
+	final E first(GraphElementClass<?, ?> c) {
+		ensureValid();
+		int id = c.getGraphElementClassIdInSchema();
+		return id < first.length ? this.<E> cast(first[id]) : null;
+	}
+
+	/**
+	 * @return the next element of class <code>c</code> (or one of its
+	 *         subclasses) after <code>e</code> in the global sequence, or null
+	 */
+	final E next(E e, GraphElementClass<?, ?> c) {
+		ensureValid();
+		int k = slot(chain(e), c.getGraphElementClassIdInSchema());
+		assert k >= 0 : e + " is not an instance of " + c.getQualifiedName();
+		return this.<E> cast(e.getClassSeqLinks()[2 * k]);
+	}
+
+	/**
+	 * @return true iff <code>e</code> is contained in the list of class
+	 *         <code>c</code>
+	 */
+	final boolean contains(E e, GraphElementClass<?, ?> c) {
+		ensureValid();
+		return slot(chain(e), c.getGraphElementClassIdInSchema()) >= 0;
+	}
+
+	/**
+	 * Must be called after <code>e</code> has been appended to the global
+	 * sequence.
+	 */
+	final void appended(E e) {
+		if (!valid) {
+			return;
+		}
+		linkPending();
+		if (e.getAttributedElementClass() == null) {
+			pending = e;
+		} else {
+			link(e);
+		}
+	}
+
+	/**
+	 * Must be called before <code>e</code> is removed from the global
+	 * sequence.
+	 */
+	final void removed(E e) {
+		if (!valid) {
+			return;
+		}
+		if (e == pending) {
+			pending = null;
+			return;
+		}
+		linkPending();
+		unlink(e);
+	}
+
+	/**
+	 * Must be called after <code>e</code> has been moved to another position
+	 * in the global sequence. For each class list, <code>e</code> is inserted
+	 * after the nearest predecessor in the global sequence which belongs to the
+	 * same list.
+	 */
+	final void moved(E e) {
+		if (!valid) {
+			return;
+		}
+		linkPending();
+		unlink(e);
+		int[] chain = chain(e);
+		Object[] links = new Object[2 * chain.length];
+		boolean[] found = new boolean[chain.length];
+		int open = chain.length;
+		for (E p = prevInSeq(e); (p != null) && (open > 0); p = prevInSeq(p)) {
+			int[] pc = chain(p);
+			for (int k = 0; k < chain.length; ++k) {
+				if (!found[k]) {
+					int s = slot(pc, chain[k]);
+					if (s >= 0) {
+						Object[] pl = p.getClassSeqLinks();
+						E n = this.<E> cast(pl[2 * s]);
+						links[2 * k] = n;
+						links[(2 * k) + 1] = p;
+						pl[2 * s] = e;
+						setPrev(n, chain[k], e);
+						found[k] = true;
+						--open;
+					}
+				}
+			}
+		}
+		for (int k = 0; k < chain.length; ++k) {
+			if (!found[k]) {
+				E n = this.<E> cast(first[chain[k]]);
+				links[2 * k] = n;
+				first[chain[k]] = e;
+				setPrev(n, chain[k], e);
+			}
+		}
+		e.setClassSeqLinks(links);
+	}
+
+	/**
+	 * Discards all class lists. They are rebuilt on the next typed access.
+	 */
+	final synchronized void invalidate() {
+		if (!valid) {
+			return;
+		}
+		valid = false;
+		pending = null;
+		for (E e = firstInSeq(); e != null; e = nextInSeq(e)) {
+			e.setClassSeqLinks(null);
+		}
+		first = null;
+		last = null;
+	}
+
+	private void ensureValid() {
+		if (!valid || (pending != null)) {
+			synchronized (this) {
+				if (!valid) {
+					int n = chains.getSchema().getGraphElementClassCount();
+					first = new Object[n];
+					last = new Object[n];
+					for (E e = firstInSeq(); e != null; e = nextInSeq(e)) {
+						link(e);
+					}
+					valid = true;
+				} else {
+					linkPending();
+				}
+			}
+		}
+	}
+
+	private void linkPending() {
+		if (pending != null) {
+			E e = pending;
+			pending = null;
+			link(e);
+		}
+	}
+
+	private void link(E e) {
+		int[] chain = chain(e);
+		Object[] links = new Object[2 * chain.length];
+		for (int k = 0; k < chain.length; ++k) {
+			int c = chain[k];
+			E l = this.<E> cast(last[c]);
+			if (l == null) {
+				first[c] = e;
+			} else {
+				l.getClassSeqLinks()[2 * slot(chain(l), c)] = e;
+			}
+			links[(2 * k) + 1] = l;
+			last[c] = e;
+		}
+		e.setClassSeqLinks(links);
+	}
+
+	private void unlink(E e) {
+		int[] chain = chain(e);
+		Object[] links = e.getClassSeqLinks();
+		for (int k = 0; k < chain.length; ++k) {
+			int c = chain[k];
+			E n = this.<E> cast(links[2 * k]);
+			E p = this.<E> cast(links[(2 * k) + 1]);
+			if (p == null) {
+				first[c] = n;
+			} else {
+				p.getClassSeqLinks()[2 * slot(chain(p), c)] = n;
+			}
+			setPrev(n, c, p);
+		}
+		e.setClassSeqLinks(null);
+	}
+
+	/**
+	 * Sets the predecessor of <code>e</code> in the list of class
+	 * <code>c</code> to <code>p</code>. If <code>e</code> is null,
+	 * <code>p</code> becomes the last element of that list.
+	 */
+	private void setPrev(E e, int c, E p) {
+		if (e == null) {
+			last[c] = p;
+		} else {
+			e.getClassSeqLinks()[(2 * slot(chain(e), c)) + 1] = p;
+		}
+	}
+
+	private int[] chain(E e) {
+		GraphElementClass<?, ?> gec = e.getAttributedElementClass();
+		if (gec.getGraphElementClassIdInSchema() >= first.length) {
+			// the schema has been extended after the lists were built
+			int n = chains.getSchema().getGraphElementClassCount();
+			Object[] newFirst = new Object[n];
+			System.arraycopy(first, 0, newFirst, 0, first.length);
+			first = newFirst;
+			Object[] newLast = new Object[n];
+			System.arraycopy(last, 0, newLast, 0, last.length);
+			last = newLast;
+		}
+		return chains.get(gec);
+	}
+
+	private static int slot(int[] chain, int c) {
+		return ClassChains.indexOf(chain, c);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T cast(Object o) {
+		return (T) o;
+	}
+}
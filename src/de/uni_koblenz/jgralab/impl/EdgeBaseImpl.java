@@ -36,6 +36,7 @@
 package de.uni_koblenz.jgralab.impl;
 
 import java.util.BitSet;
+import java.util.concurrent.locks.Lock;
 
 import de.uni_koblenz.jgralab.AttributedElement;
 import de.uni_koblenz.jgralab.Edge;
@@ -54,7 +55,10 @@ import de.uni_koblenz.jgralab.schema.EdgeClass;
 public abstract class EdgeBaseImpl extends IncidenceImpl implements
 		InternalEdge {
 
-	protected final ReversedEdgeBaseImpl reversedEdge;
+	/**
+	 * The reversed edge, null if the graph creates reversed edges lazily.
+	 */
+	private final ReversedEdgeBaseImpl reversedEdge;
 
 	/**
 	 * @param anId
@@ -63,7 +67,8 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 	protected EdgeBaseImpl(int anId, Graph graph, Vertex alpha, Vertex omega) {
 		super(graph);
 		setId(anId);
-		reversedEdge = createReversedEdge();
+		reversedEdge = this.graph.lazyReversedEdges ? null
+				: createReversedEdge();
 	}
 
 	private BitSet setAttributes;
@@ -96,7 +101,7 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 		assert e.isValid();
 		assert getGraph() == e.getGraph();
 
-		if (e == getReversedEdge()) {
+		if (!e.isNormal() && (e.getNormalEdge() == this)) {
 			return -1;
 		} else {
 			int x = Math.abs(getId()) - Math.abs(e.getId());
@@ -164,15 +169,14 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 	public final Edge getNextEdge(EdgeClass anEdgeClass) {
 		assert anEdgeClass != null;
 		assert isValid();
-		Edge currentEdge = getNextEdge();
-		while (currentEdge != null) {
-			if (currentEdge.isInstanceOf(anEdgeClass)) {
-				return currentEdge;
+		TraversalContext tc = graph.getTraversalContext();
+		InternalEdge e = graph.getNextEdgeInESeq(this, anEdgeClass);
+		if (!((tc == null) || (e == null) || tc.containsEdge(e))) {
+			while (!((e == null) || tc.containsEdge(e))) {
+				e = graph.getNextEdgeInESeq(e, anEdgeClass);
 			}
-			currentEdge = currentEdge.getNextEdge();
 		}
-		return null;
-
+		return e;
 	}
 
 	/*
@@ -193,7 +197,7 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 	@Override
 	public Vertex getOmega() {
 		assert isValid();
-		return reversedEdge.getIncidentVertex();
+		return ((InternalEdge) getReversedEdge()).getIncidentVertex();
 	}
 
 	/*
@@ -203,7 +207,19 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 	 */
 	@Override
 	public final Edge getReversedEdge() {
-		return reversedEdge;
+		if (reversedEdge != null) {
+			return reversedEdge;
+		}
+		// created lazily, and only cached weakly, so that all requests yield
+		// the identical object as long as it's in use
+		int eId = getId();
+		if (eId <= 0) {
+			// deleted edges don't keep their reversed edge
+			return createReversedEdge();
+		}
+		FlyweightCache<ReversedEdgeBaseImpl> c = graph.reversedEdges;
+		ReversedEdgeBaseImpl r = c.get(eId);
+		return r != null ? r : c.putIfAbsent(eId, createReversedEdge());
 	}
 
 	/*
@@ -319,8 +335,7 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 		assert isValid();
 		assert e.isValid();
 		assert getGraph() == e.getGraph();
-		assert e != this;
-		assert e != reversedEdge;
+		assert e.getNormalEdge() != this;
 		graph.putEdgeAfterInGraph((InternalEdge) e.getNormalEdge(), this);
 	}
 
@@ -336,8 +351,7 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 		assert isValid();
 		assert e.isValid();
 		assert getGraph() == e.getGraph();
-		assert e != this;
-		assert e != reversedEdge;
+		assert e.getNormalEdge() != this;
 		graph.putEdgeBeforeInGraph((InternalEdge) e.getNormalEdge(), this);
 	}
 
@@ -348,36 +362,44 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 	 */
 	@Override
 	public final void setAlpha(Vertex alpha) {
-		InternalVertex alphaBase = (InternalVertex) alpha;
-		assert isValid();
-		assert alphaBase != null;
-		assert alphaBase.isValid();
-		assert getGraph() == alphaBase.getGraph();
+		Lock w = graph.beginWrite();
+		try {
+			InternalVertex alphaBase = (InternalVertex) alpha;
+			assert isValid();
+			assert alphaBase != null;
+			assert alphaBase.isValid();
+			assert getGraph() == alphaBase.getGraph();
 
-		InternalVertex oldAlpha = getIncidentVertex();
+			InternalVertex oldAlpha = getIncidentVertex();
 
-		graph.fireBeforeChangeAlpha(this, oldAlpha, alphaBase);
+			graph.fireBeforeChangeAlpha(this, oldAlpha, alphaBase);
 
-		if (alphaBase == oldAlpha) {
-			return; // nothing to change
-		}
-		if (!(alphaBase.getAttributedElementClass())
-				.isValidFromFor(getAttributedElementClass())) {
-			throw new GraphException("Edges of class "
-					+ getAttributedElementClass().getUniqueName()
-					+ " may not start at vertices of class "
-					+ alphaBase.getAttributedElementClass().getUniqueName());
-		}
+			if (alphaBase == oldAlpha) {
+				return; // nothing to change
+			}
+			if (!(alphaBase.getAttributedElementClass())
+					.isValidFromFor(getAttributedElementClass())) {
+				throw new GraphException("Edges of class "
+						+ getAttributedElementClass().getUniqueName()
+						+ " may not start at vertices of class "
+						+ alphaBase.getAttributedElementClass().getUniqueName());
+			}
 
-		oldAlpha.removeIncidenceFromISeq(this);
-		oldAlpha.incidenceListModified();
+			oldAlpha.removeIncidenceFromISeq(this);
+			oldAlpha.incidenceListModified();
 
-		InternalVertex newAlpha = alphaBase;
-		newAlpha.appendIncidenceToISeq(this);
-		newAlpha.incidenceListModified();
-		setIncidentVertex(newAlpha);
+			InternalVertex newAlpha = alphaBase;
+			if (newAlpha == getOmega()) {
+				beforeBecomingLoop();
+			}
+			newAlpha.appendIncidenceToISeq(this);
+			newAlpha.incidenceListModified();
+			setIncidentVertex(newAlpha);
 
-		graph.fireAfterChangeAlpha(this, oldAlpha, alphaBase);
+			graph.fireAfterChangeAlpha(this, oldAlpha, alphaBase);
+		} finally {
+			GraphBaseImpl.endWrite(w);
+		}
 	}
 
 	/*
@@ -387,38 +409,44 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 	 */
 	@Override
 	public final void setOmega(Vertex omega) {
-		InternalVertex omegaBase = (InternalVertex) omega;
-		assert isValid();
-		assert omegaBase != null;
-		assert omegaBase.isValid();
-		assert getGraph() == omegaBase.getGraph();
-
-		InternalVertex oldOmgea = reversedEdge.getIncidentVertex();
-		graph.fireBeforeChangeOmega(this, oldOmgea, omegaBase);
-
-		if (omegaBase == oldOmgea) {
-			return; // nothing to change
-		}
+		Lock w = graph.beginWrite();
+		try {
+			InternalVertex omegaBase = (InternalVertex) omega;
+			assert isValid();
+			assert omegaBase != null;
+			assert omegaBase.isValid();
+			assert getGraph() == omegaBase.getGraph();
+
+			InternalEdge r = (InternalEdge) getReversedEdge();
+			InternalVertex oldOmgea = r.getIncidentVertex();
+			graph.fireBeforeChangeOmega(this, oldOmgea, omegaBase);
+
+			if (omegaBase == oldOmgea) {
+				return; // nothing to change
+			}
 
-		if (!(omegaBase.getAttributedElementClass())
-				.isValidToFor(getAttributedElementClass())) {
-			throw new GraphException("Edges of class "
-					+ getAttributedElementClass().getUniqueName()
-					+ " may not end at at vertices of class "
-					+ omegaBase.getAttributedElementClass().getUniqueName());
-		}
+			if (!(omegaBase.getAttributedElementClass())
+					.isValidToFor(getAttributedElementClass())) {
+				throw new GraphException("Edges of class "
+						+ getAttributedElementClass().getUniqueName()
+						+ " may not end at at vertices of class "
+						+ omegaBase.getAttributedElementClass().getUniqueName());
+			}
 
-		oldOmgea.removeIncidenceFromISeq(reversedEdge);
-		oldOmgea.incidenceListModified();
+			oldOmgea.removeIncidenceFromISeq(r);
+			oldOmgea.incidenceListModified();
 
-		InternalVertex newOmega = omegaBase;
-		newOmega.appendIncidenceToISeq(reversedEdge);
-		newOmega.incidenceListModified();
-		// TODO Check if this is really needed as
-		// appenIncidenceToLambdaSeq called it before.
-		reversedEdge.setIncidentVertex(newOmega);
+			InternalVertex newOmega = omegaBase;
+			newOmega.appendIncidenceToISeq(r);
+			newOmega.incidenceListModified();
+			// TODO Check if this is really needed as
+			// appenIncidenceToLambdaSeq called it before.
+			r.setIncidentVertex(newOmega);
 
-		graph.fireAfterChangeOmega(this, oldOmgea, omegaBase);
+			graph.fireAfterChangeOmega(this, oldOmgea, omegaBase);
+		} finally {
+			GraphBaseImpl.endWrite(w);
+		}
 	}
 
 	/*
@@ -489,4 +517,15 @@ public abstract class EdgeBaseImpl extends IncidenceImpl implements
 	 * generated edge classes.
 	 */
 	abstract protected ReversedEdgeBaseImpl createReversedEdge();
+
+	/**
+	 * Called by {@link #setAlpha(Vertex)} when this edge is about to become a
+	 * loop, after its normal incidence has been removed from the incidence
+	 * list of the old alpha vertex. Implementations which refer to the omega
+	 * incidence of an edge by the normal edge must refer to the reversed edge
+	 * afterwards, since both incidences of a loop are contained in the same
+	 * incidence list.
+	 */
+	protected void beforeBecomingLoop() {
+	}
 }
@@ -0,0 +1,96 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.util.ConcurrentModificationException;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.TraversalContext;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+
+/**
+ * A {@link RangeSpliterator} over the edges of a graph in id order. Only
+ * edges of the given {@link EdgeClass} (including subclasses) and contained in
+ * the {@link TraversalContext} of the creating thread are visited.
+ * Instances should only be created by
+ * {@link de.uni_koblenz.jgralab.Graph#edgeSpliterator(EdgeClass)}.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class EdgeSpliterator extends RangeSpliterator<Edge> {
+	private final InternalGraph graph;
+	private final EdgeClass edgeClass;
+	private final TraversalContext tc;
+	private final long edgeListVersion;
+
+	public EdgeSpliterator(InternalGraph g, EdgeClass edgeClass) {
+		this(g, edgeClass, g.getTraversalContext(), g.getEdgeListVersion(), 1,
+				g.getMaxECount() + 1);
+	}
+
+	private EdgeSpliterator(InternalGraph g, EdgeClass edgeClass,
+			TraversalContext tc, long edgeListVersion, int origin, int fence) {
+		super(g, origin, fence);
+		assert (edgeClass == null) || (g.getSchema() == edgeClass.getSchema());
+		graph = g;
+		this.edgeClass = edgeClass;
+		this.tc = tc;
+		this.edgeListVersion = edgeListVersion;
+	}
+
+	@Override
+	protected Edge elementAt(int id) {
+		Edge e = graph.getEdge(id);
+		if ((e == null) || ((edgeClass != null) && !e.isInstanceOf(edgeClass))
+				|| ((tc != null) && !tc.containsEdge(e))) {
+			return null;
+		}
+		return e;
+	}
+
+	@Override
+	protected RangeSpliterator<Edge> createPart(int origin, int fence) {
+		return new EdgeSpliterator(graph, edgeClass, tc, edgeListVersion,
+				origin, fence);
+	}
+
+	@Override
+	protected void checkModification() {
+		if (graph.isEdgeListModified(edgeListVersion)) {
+			throw new ConcurrentModificationException(
+					"The edge list of the graph has been modified - the spliterator is not longer valid");
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches flyweight objects by id, e.g., the elements of a frozen graph or the
+ * lazily created reversed edges of a graph. The flyweights are only weakly
+ * referenced, so that all requests for an id yield the identical object as
+ * long as it is in use, while flyweights which are no longer in use are
+ * reclaimed by the garbage collector instead of being kept for the lifetime
+ * of the graph.
+ * 
+ * Lookups are thread-safe. {@link #resize(int)}, {@link #remove(int)} and
+ * {@link #move(int, int)} must not run concurrently with lookups of the
+ * affected ids, i.e., they are meant to be called by the writer of a graph.
+ * 
+ * @param <T>
+ *            the type of the flyweights
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public final class FlyweightCache<T> {
+
+	private volatile AtomicReferenceArray<Entry<T>> entries;
+
+	/**
+	 * Receives the entries whose flyweights have been reclaimed, so that they
+	 * can be removed from {@link #entries}.
+	 */
+	private final ReferenceQueue<T> reclaimed = new ReferenceQueue<T>();
+
+	/**
+	 * @param size
+	 *            the number of ids, valid ids range from 0 to
+	 *            <code>size - 1</code>
+	 */
+	public FlyweightCache(int size) {
+		entries = new AtomicReferenceArray<Entry<T>>(size);
+	}
+
+	/**
+	 * @return the flyweight for <code>id</code> if it is in use, or null
+	 */
+	public T get(int id) {
+		Entry<T> e = entries.get(id);
+		return e == null ? null : e.get();
+	}
+
+	/**
+	 * Stores <code>flyweight</code> for <code>id</code> unless another
+	 * flyweight for <code>id</code> is in use.
+	 * 
+	 * @return the flyweight for <code>id</code> which is in use afterwards
+	 */
+	public T putIfAbsent(int id, T flyweight) {
+		expungeReclaimed();
+		AtomicReferenceArray<Entry<T>> es = entries;
+		Entry<T> created = new Entry<T>(flyweight, id, reclaimed);
+		while (true) {
+			Entry<T> e = es.get(id);
+			T t = e == null ? null : e.get();
+			if (t != null) {
+				return t;
+			}
+			if (es.compareAndSet(id, e, created)) {
+				return flyweight;
+			}
+		}
+	}
+
+	/**
+	 * Forgets the flyweight for <code>id</code>, e.g., because the id is
+	 * freed.
+	 */
+	public void remove(int id) {
+		entries.set(id, null);
+	}
+
+	/**
+	 * Moves the flyweight for <code>from</code> to <code>to</code>, e.g.,
+	 * because an element has been renumbered.
+	 */
+	public void move(int from, int to) {
+		AtomicReferenceArray<Entry<T>> es = entries;
+		Entry<T> e = es.getAndSet(from, null);
+		T t = e == null ? null : e.get();
+		es.set(to, t == null ? null : new Entry<T>(t, to, reclaimed));
+	}
+
+	/**
+	 * Changes the number of ids to <code>size</code>. Flyweights of ids which
+	 * are still valid are kept.
+	 */
+	public void resize(int size) {
+		AtomicReferenceArray<Entry<T>> old = entries;
+		AtomicReferenceArray<Entry<T>> es = new AtomicReferenceArray<Entry<T>>(
+				size);
+		for (int i = Math.min(size, old.length()) - 1; i >= 0; --i) {
+			es.set(i, old.get(i));
+		}
+		entries = es;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expungeReclaimed() {
+		for (Reference<? extends T> r = reclaimed.poll(); r != null; r = reclaimed
+				.poll()) {
+			Entry<T> e = (Entry<T>) r;
+			AtomicReferenceArray<Entry<T>> es = entries;
+			if (e.id < es.length()) {
+				es.compareAndSet(e.id, e, null);
+			}
+		}
+	}
+
+	private static final class Entry<T> extends WeakReference<T> {
+		final int id;
+
+		Entry(T flyweight, int id, ReferenceQueue<T> queue) {
+			super(flyweight, queue);
+			this.id = id;
+		}
+	}
+}
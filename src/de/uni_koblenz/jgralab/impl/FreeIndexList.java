@@ -690,4 +690,27 @@ public class FreeIndexList {
 		return (runCount > 2 || runCount == 2 && runs[0] > 0);
 	}
 
+	/**
+	 * Gets the number of free index values which are lower than the highest
+	 * used index value, i.e. the total size of all "gaps".
+	 *
+	 * @return the number of free index values below the highest used index
+	 */
+	public int getGapCount() {
+		return runs[runCount - 1] > 0 ? free - runs[runCount - 1] : free;
+	}
+
+	/**
+	 * Computes the degree of fragmentation of this FreeIndexList as the
+	 * fraction of free index values in the range from 1 to the highest used
+	 * index value. Unfragmented lists have a fragmentation of 0.0, the value
+	 * approaches 1.0 when only few and widely spread indices are used.
+	 *
+	 * @return the fragmentation, a value in the range [0.0, 1.0)
+	 */
+	public double getFragmentation() {
+		int gaps = getGapCount();
+		return gaps == 0 ? 0.0 : (double) gaps / (gaps + used);
+	}
+
 }
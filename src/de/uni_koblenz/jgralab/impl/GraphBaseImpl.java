@@ -39,6 +39,7 @@ import java.io.OutputStream;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -46,13 +47,20 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import de.uni_koblenz.jgralab.AttributedElement;
 import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.ElementSpliterator;
 import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.GraphChangeListener;
 import de.uni_koblenz.jgralab.GraphFactory;
 import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.GraphStructureChangeBatch;
+import de.uni_koblenz.jgralab.GraphStructureChangedBatchListener;
 import de.uni_koblenz.jgralab.GraphStructureChangedListener;
 import de.uni_koblenz.jgralab.GraphStructureChangedListenerWithAutoRemove;
 import de.uni_koblenz.jgralab.ProgressFunction;
@@ -64,10 +72,12 @@ import de.uni_koblenz.jgralab.exception.GraphException;
 import de.uni_koblenz.jgralab.exception.GraphIOException;
 import de.uni_koblenz.jgralab.exception.NoSuchAttributeException;
 import de.uni_koblenz.jgralab.graphmarker.SubGraphMarker;
+import de.uni_koblenz.jgralab.impl.csr.CsrGraphImpl;
 import de.uni_koblenz.jgralab.schema.AggregationKind;
 import de.uni_koblenz.jgralab.schema.Attribute;
 import de.uni_koblenz.jgralab.schema.EdgeClass;
 import de.uni_koblenz.jgralab.schema.EnumDomain;
+import de.uni_koblenz.jgralab.schema.GraphElementClass;
 import de.uni_koblenz.jgralab.schema.GraphClass;
 import de.uni_koblenz.jgralab.schema.RecordDomain;
 import de.uni_koblenz.jgralab.schema.Schema;
@@ -113,6 +123,13 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	 */
 	private boolean loading;
 
+	/**
+	 * The pending attribute values of a graph loaded with lazy attribute
+	 * decoding, null if all attribute values are decoded. Volatile, since
+	 * attribute getters check it without holding the graph lock.
+	 */
+	volatile LazyAttributes lazyAttributes;
+
 	// ------------- VERTEX LIST VARIABLES -------------
 	/**
 	 * maximum number of vertices
@@ -136,9 +153,65 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	 */
 	protected FreeIndexList freeEdgeList;
 
+	// ------------- PER-CLASS SEQUENCES -------------
+
+	/**
+	 * class chains of the schema, shared by the per-class sequences and the
+	 * incidence partitions of the vertices
+	 */
+	final ClassChains classChains;
+
+	// ------------- REVERSED EDGES -------------
+
+	/**
+	 * True iff reversed edges are only created when they are requested (see
+	 * {@link Schema#createsReversedEdgesLazily()}).
+	 */
+	final boolean lazyReversedEdges;
+
+	/**
+	 * The lazily created reversed edges by edge id, so that each edge has only
+	 * one reversed edge while it is in use. Null unless
+	 * {@link #lazyReversedEdges} is set.
+	 */
+	FlyweightCache<ReversedEdgeBaseImpl> reversedEdges;
+
+	/**
+	 * vSeq partitioned by VertexClass, used for typed vertex traversal
+	 */
+	private final ClassSequence<InternalVertex> vSeqByClass;
+
+	/**
+	 * eSeq partitioned by EdgeClass, used for typed edge traversal
+	 */
+	private final ClassSequence<InternalEdge> eSeqByClass;
+
 	// ------------- TRAVERSAL CONTEXT -------------
 	private final ThreadLocal<TraversalContext> tc = new ThreadLocal<TraversalContext>();
 
+	// ------------- CONCURRENT ACCESS -------------
+
+	/**
+	 * lock guarding structural modifications, null if concurrent access is
+	 * disabled
+	 */
+	private volatile ReentrantReadWriteLock rwLock;
+
+	private static final String LOCKING_WORKER = "The action of "
+			+ "forEachParallel() must neither lock nor modify the graph";
+
+	// ------------- SNAPSHOTS -------------
+
+	/**
+	 * the most recent snapshot, see {@link #snapshot()}
+	 */
+	private WeakReference<Graph> snapshot;
+
+	/**
+	 * guards {@link #snapshot}, so that concurrent readers share one copy
+	 */
+	private final Object snapshotMonitor = new Object();
+
 	// ------------- UNSET ATTRIBUTES --------------
 	protected BitSet setAttributes;
 
@@ -224,6 +297,40 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		}
 
 		schema = cls.getSchema();
+		classChains = new ClassChains(schema);
+		lazyReversedEdges = schema.createsReversedEdgesLazily();
+		vSeqByClass = new ClassSequence<InternalVertex>(classChains) {
+			@Override
+			protected InternalVertex firstInSeq() {
+				return getFirstVertexInVSeq();
+			}
+
+			@Override
+			protected InternalVertex nextInSeq(InternalVertex v) {
+				return v.getNextVertexInVSeq();
+			}
+
+			@Override
+			protected InternalVertex prevInSeq(InternalVertex v) {
+				return v.getPrevVertexInVSeq();
+			}
+		};
+		eSeqByClass = new ClassSequence<InternalEdge>(classChains) {
+			@Override
+			protected InternalEdge firstInSeq() {
+				return getFirstEdgeInESeq();
+			}
+
+			@Override
+			protected InternalEdge nextInSeq(InternalEdge e) {
+				return e.getNextEdgeInESeq();
+			}
+
+			@Override
+			protected InternalEdge prevInSeq(InternalEdge e) {
+				return e.getPrevEdgeInESeq();
+			}
+		};
 		// graphFactory = schema.getGraphFactory();
 		setId(id == null ? RandomIdGenerator.generateId() : id);
 		// needed for initialization of graphVersion with transactions
@@ -244,65 +351,70 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 
 	@Override
 	public final void addEdge(Edge newEdge, Vertex alpha, Vertex omega) {
-		assert newEdge != null;
-		assert (alpha != null) && alpha.isValid() && vSeqContainsVertex(alpha) : "Alpha vertex is invalid";
-		assert (omega != null) && omega.isValid() && vSeqContainsVertex(omega) : "Omega vertex is invalid";
-		assert newEdge.isNormal() : "Can't add reversed edge";
-		assert (alpha.getSchema() == omega.getSchema())
-				&& (alpha.getSchema() == schema)
-				&& (newEdge.getSchema() == schema) : "The schemas of alpha, omega, newEdge and this graph don't match!";
-		assert (alpha.getGraph() == omega.getGraph())
-				&& (alpha.getGraph() == this) && (newEdge.getGraph() == this) : "The graph of alpha, omega, newEdge and this graph don't match!";
-		EdgeBaseImpl e = (EdgeBaseImpl) newEdge;
-		InternalVertex a = (InternalVertex) alpha;
-		InternalVertex o = (InternalVertex) omega;
-
-		EdgeClass myEC = newEdge.getAttributedElementClass();
-		VertexClass aVC = a.getAttributedElementClass();
-		if (!aVC.isValidFromFor(myEC)) {
-			throw new GraphException("Edges of class "
-					+ myEC.getQualifiedName()
-					+ " may not start at vertices of class "
-					+ aVC.getQualifiedName());
-		}
-		VertexClass oVC = o.getAttributedElementClass();
-		if (!oVC.isValidToFor(myEC)) {
-			throw new GraphException("Edges of class "
-					+ myEC.getQualifiedName()
-					+ " may not end at vertices of class "
-					+ oVC.getQualifiedName());
-		}
-		int eId = e.getId();
-		if (isLoading()) {
-			if (eId > 0) {
-				// the given edge already has an id, try to use it
-				if (containsEdgeId(eId)) {
-					throw new GraphException("edge with id " + e.getId()
-							+ " already exists");
-				}
-				if (eId > eMax) {
-					throw new GraphException("edge id " + e.getId()
-							+ " is bigger than eSize");
+		Lock w = beginWrite();
+		try {
+			assert newEdge != null;
+			assert (alpha != null) && alpha.isValid() && vSeqContainsVertex(alpha) : "Alpha vertex is invalid";
+			assert (omega != null) && omega.isValid() && vSeqContainsVertex(omega) : "Omega vertex is invalid";
+			assert newEdge.isNormal() : "Can't add reversed edge";
+			assert (alpha.getSchema() == omega.getSchema())
+					&& (alpha.getSchema() == schema)
+					&& (newEdge.getSchema() == schema) : "The schemas of alpha, omega, newEdge and this graph don't match!";
+			assert (alpha.getGraph() == omega.getGraph())
+					&& (alpha.getGraph() == this) && (newEdge.getGraph() == this) : "The graph of alpha, omega, newEdge and this graph don't match!";
+			EdgeBaseImpl e = (EdgeBaseImpl) newEdge;
+			InternalVertex a = (InternalVertex) alpha;
+			InternalVertex o = (InternalVertex) omega;
+
+			EdgeClass myEC = newEdge.getAttributedElementClass();
+			VertexClass aVC = a.getAttributedElementClass();
+			if (!aVC.isValidFromFor(myEC)) {
+				throw new GraphException("Edges of class "
+						+ myEC.getQualifiedName()
+						+ " may not start at vertices of class "
+						+ aVC.getQualifiedName());
+			}
+			VertexClass oVC = o.getAttributedElementClass();
+			if (!oVC.isValidToFor(myEC)) {
+				throw new GraphException("Edges of class "
+						+ myEC.getQualifiedName()
+						+ " may not end at vertices of class "
+						+ oVC.getQualifiedName());
+			}
+			int eId = e.getId();
+			if (isLoading()) {
+				if (eId > 0) {
+					// the given edge already has an id, try to use it
+					if (containsEdgeId(eId)) {
+						throw new GraphException("edge with id " + e.getId()
+								+ " already exists");
+					}
+					if (eId > eMax) {
+						throw new GraphException("edge id " + e.getId()
+								+ " is bigger than eSize");
+					}
+				} else {
+					throw new GraphException("can not load an edge with id <= 0");
 				}
 			} else {
-				throw new GraphException("can not load an edge with id <= 0");
+				if (!canAddGraphElement(eId)) {
+					throw new GraphException("can not add an edge with id != 0");
+				}
+				eId = allocateEdgeIndex(eId);
+				assert eId != 0;
+				e.setId(eId);
+				a.appendIncidenceToISeq(e);
+				o.appendIncidenceToISeq((InternalEdge) e.getReversedEdge());
 			}
-		} else {
-			if (!canAddGraphElement(eId)) {
-				throw new GraphException("can not add an edge with id != 0");
-			}
-			eId = allocateEdgeIndex(eId);
-			assert eId != 0;
-			e.setId(eId);
-			a.appendIncidenceToISeq(e);
-			o.appendIncidenceToISeq(e.reversedEdge);
-		}
-		appendEdgeToESeq(e);
-		if (!isLoading()) {
-			a.incidenceListModified();
-			o.incidenceListModified();
-			edgeListModified();
-			internalEdgeAdded(e);
+			appendEdgeToESeq(e);
+			if (!isLoading()) {
+				a.incidenceListModified();
+				o.incidenceListModified();
+				edgeListModified();
+				internalEdgeAdded(e);
+			}
+		} finally {
+			endWrite(w);
 		}
 	}
 
@@ -313,37 +425,42 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 
 	@Override
 	public final void addVertex(Vertex newVertex) {
-		InternalVertex v = (InternalVertex) newVertex;
-
-		int vId = v.getId();
-		if (isLoading()) {
-			if (vId > 0) {
-				// the given vertex already has an id, try to use it
-				if (containsVertexId(vId)) {
-					throw new GraphException("vertex with id " + vId
-							+ " already exists");
-				}
-				if (vId > vMax) {
-					throw new GraphException("vertex id " + vId
-							+ " is bigger than vSize");
+		Lock w = beginWrite();
+		try {
+			InternalVertex v = (InternalVertex) newVertex;
+
+			int vId = v.getId();
+			if (isLoading()) {
+				if (vId > 0) {
+					// the given vertex already has an id, try to use it
+					if (containsVertexId(vId)) {
+						throw new GraphException("vertex with id " + vId
+								+ " already exists");
+					}
+					if (vId > vMax) {
+						throw new GraphException("vertex id " + vId
+								+ " is bigger than vSize");
+					}
+				} else {
+					throw new GraphException("can not load a vertex with id <= 0");
 				}
 			} else {
-				throw new GraphException("can not load a vertex with id <= 0");
-			}
-		} else {
-			if (!canAddGraphElement(vId)) {
-				throw new GraphException("can not add a vertex with vId " + vId);
+				if (!canAddGraphElement(vId)) {
+					throw new GraphException("can not add a vertex with vId " + vId);
+				}
+				vId = allocateVertexIndex(vId);
+				assert vId != 0;
+				v.setId(vId);
 			}
-			vId = allocateVertexIndex(vId);
-			assert vId != 0;
-			v.setId(vId);
-		}
 
-		appendVertexToVSeq(v);
+			appendVertexToVSeq(v);
 
-		if (!isLoading()) {
-			vertexListModified();
-			internalVertexAdded(v);
+			if (!isLoading()) {
+				vertexListModified();
+				internalVertexAdded(v);
+			}
+		} finally {
+			endWrite(w);
 		}
 	}
 
@@ -359,7 +476,6 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	@Override
 	public final void appendEdgeToESeq(InternalEdge e) {
 		getEdge()[((EdgeBaseImpl) e).id] = e;
-		getRevEdge()[((EdgeBaseImpl) e).id] = ((EdgeBaseImpl) e).reversedEdge;
 		setECount(getECountInESeq() + 1);
 		if (getFirstEdgeInESeq() == null) {
 			setFirstEdgeInGraph(e);
@@ -371,6 +487,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 
 		}
 		setLastEdgeInGraph(e);
+		eSeqByClass.appended(e);
 	}
 
 	@Override
@@ -385,6 +502,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 			v.setPrevVertex(getLastVertexInVSeq());
 		}
 		setLastVertex(v);
+		vSeqByClass.appended(v);
 	}
 
 	/*
@@ -455,7 +573,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	}
 
 	@Override
-	public final boolean eSeqContainsEdge(Edge e) {
+	public boolean eSeqContainsEdge(Edge e) {
 		return (e != null)
 				&& (e.getGraph() == this)
 				&& containsEdgeId(((EdgeBaseImpl) e.getNormalEdge()).id)
@@ -475,8 +593,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		if (eId < 0) {
 			eId = -eId;
 		}
-		return (eId > 0) && (eId <= eMax) && (getEdge()[eId] != null)
-				&& (getRevEdge()[eId] != null);
+		return (eId > 0) && (eId <= eMax) && (getEdge()[eId] != null);
 	}
 
 	/*
@@ -493,7 +610,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	}
 
 	@Override
-	public final boolean vSeqContainsVertex(Vertex v) {
+	public boolean vSeqContainsVertex(Vertex v) {
 		return (v != null) && (v.getGraph() == this)
 				&& containsVertexId(((VertexBaseImpl) v).id)
 				&& (getVertex()[((VertexBaseImpl) v).id] == v);
@@ -555,9 +672,14 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	 */
 	@Override
 	public final void deleteEdge(Edge e) {
-		assert (e != null) && e.isValid() && eSeqContainsEdge(e);
-		internalDeleteEdge(e);
-		edgeListModified();
+		Lock w = beginWrite();
+		try {
+			assert (e != null) && e.isValid() && eSeqContainsEdge(e);
+			internalDeleteEdge(e);
+			edgeListModified();
+		} finally {
+			endWrite(w);
+		}
 	}
 
 	/*
@@ -568,10 +690,15 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	 */
 	@Override
 	public final void deleteVertex(Vertex v) {
-		assert (v != null) && v.isValid() && vSeqContainsVertex(v);
+		Lock w = beginWrite();
+		try {
+			assert (v != null) && v.isValid() && vSeqContainsVertex(v);
 
-		getDeleteVertexList().add((InternalVertex) v);
-		internalDeleteVertex();
+			getDeleteVertexList().add((InternalVertex) v);
+			internalDeleteVertex();
+		} finally {
+			endWrite(w);
+		}
 	}
 
 	@Override
@@ -608,6 +735,17 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	 * @param newSize
 	 *            the new size of the edge array
 	 */
+	/**
+	 * Must be called when the edge id <code>eId</code> is freed, so that a
+	 * lazily created reversed edge of the former edge isn't handed out for a
+	 * new edge reusing the id.
+	 */
+	protected final void forgetReversedEdge(int eId) {
+		if (reversedEdges != null) {
+			reversedEdges.remove(eId);
+		}
+	}
+
 	@Override
 	public final void expandEdgeArray(int newSize) {
 		if (newSize <= eMax) {
@@ -620,19 +758,19 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 			System.arraycopy(getEdge(), 0, e, 0, getEdge().length);
 		}
 		setEdge(e);
-
-		ReversedEdgeBaseImpl[] r = new ReversedEdgeBaseImpl[newSize + 1];
-
-		if (getRevEdge() != null) {
-			System.arraycopy(getRevEdge(), 0, r, 0, getRevEdge().length);
-		}
-
-		setRevEdge(r);
 		if (getFreeEdgeList() == null) {
 			this.freeEdgeList = new FreeIndexList(newSize);
 		} else {
 			getFreeEdgeList().expandBy(newSize - eMax);
 		}
+		if (lazyReversedEdges) {
+			if (reversedEdges == null) {
+				reversedEdges = new FlyweightCache<ReversedEdgeBaseImpl>(
+						newSize + 1);
+			} else {
+				reversedEdges.resize(newSize + 1);
+			}
+		}
 
 		eMax = newSize;
 		notifyMaxEdgeCountIncreased(newSize);
@@ -697,10 +835,14 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	 * @see de.uni_koblenz.jgralab.Graph#getEdge(int)
 	 */
 	@Override
-	public final Edge getEdge(int eId) {
+	public Edge getEdge(int eId) {
 		assert eId != 0 : "The edge id must be != 0, given was " + eId;
 		try {
-			return eId < 0 ? getRevEdge()[-eId] : getEdge()[eId];
+			if (eId > 0) {
+				return getEdge()[eId];
+			}
+			InternalEdge e = getEdge()[-eId];
+			return e == null ? null : e.getReversedEdge();
 		} catch (ArrayIndexOutOfBoundsException e) {
 			return null;
 		}
@@ -746,15 +888,40 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	@Override
 	public final Edge getFirstEdge(EdgeClass edgeClass) {
 		assert edgeClass != null;
-		Edge currentEdge = getFirstEdge();
-		if (currentEdge == null) {
-			return null;
+		TraversalContext tc = getTraversalContext();
+		InternalEdge firstEdge = getFirstEdgeInESeq(edgeClass);
+		if (!((tc == null) || (firstEdge == null) || tc.containsEdge(firstEdge))) {
+			while (!((firstEdge == null) || tc.containsEdge(firstEdge))) {
+				firstEdge = getNextEdgeInESeq(firstEdge, edgeClass);
+			}
 		}
-		if (currentEdge.isInstanceOf(edgeClass)) {
-			return currentEdge;
+		return firstEdge;
+	}
+
+	@Override
+	public final InternalEdge getFirstEdgeInESeq(EdgeClass edgeClass) {
+		if (usesClassSequence(edgeClass)) {
+			return eSeqByClass.first(edgeClass);
 		}
-		return currentEdge.getNextEdge(edgeClass);
+		InternalEdge e = getFirstEdgeInESeq();
+		while ((e != null) && !e.isInstanceOf(edgeClass)) {
+			e = e.getNextEdgeInESeq();
+		}
+		return e;
+	}
 
+	@Override
+	public final InternalEdge getNextEdgeInESeq(InternalEdge edge,
+			EdgeClass edgeClass) {
+		if (usesClassSequence(edgeClass)
+				&& eSeqByClass.contains(edge, edgeClass)) {
+			return eSeqByClass.next(edge, edgeClass);
+		}
+		InternalEdge e = edge.getNextEdgeInESeq();
+		while ((e != null) && !e.isInstanceOf(edgeClass)) {
+			e = e.getNextEdgeInESeq();
+		}
+		return e;
 	}
 
 	/*
@@ -799,14 +966,62 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	@Override
 	public final Vertex getFirstVertex(VertexClass vertexClass) {
 		assert vertexClass != null;
-		Vertex firstVertex = getFirstVertex();
-		if (firstVertex == null) {
-			return null;
+		TraversalContext tc = getTraversalContext();
+		InternalVertex firstVertex = getFirstVertexInVSeq(vertexClass);
+		if (!((tc == null) || (firstVertex == null) || tc
+				.containsVertex(firstVertex))) {
+			while (!((firstVertex == null) || tc.containsVertex(firstVertex))) {
+				firstVertex = getNextVertexInVSeq(firstVertex, vertexClass);
+			}
+		}
+		return firstVertex;
+	}
+
+	@Override
+	public final InternalVertex getFirstVertexInVSeq(VertexClass vertexClass) {
+		if (usesClassSequence(vertexClass)) {
+			return vSeqByClass.first(vertexClass);
+		}
+		InternalVertex v = getFirstVertexInVSeq();
+		while ((v != null) && !v.isInstanceOf(vertexClass)) {
+			v = v.getNextVertexInVSeq();
+		}
+		return v;
+	}
+
+	@Override
+	public final InternalVertex getNextVertexInVSeq(InternalVertex vertex,
+			VertexClass vertexClass) {
+		if (usesClassSequence(vertexClass)
+				&& vSeqByClass.contains(vertex, vertexClass)) {
+			return vSeqByClass.next(vertex, vertexClass);
 		}
-		if (firstVertex.isInstanceOf(vertexClass)) {
-			return firstVertex;
+		InternalVertex v = vertex.getNextVertexInVSeq();
+		while ((v != null) && !v.isInstanceOf(vertexClass)) {
+			v = v.getNextVertexInVSeq();
 		}
-		return firstVertex.getNextVertex(vertexClass);
+		return v;
+	}
+
+	/**
+	 * Checks if typed traversal of instances of <code>cls</code> may use the
+	 * per-class sequences. The default classes are not covered since every
+	 * element is an instance of them.
+	 */
+	private boolean usesClassSequence(GraphElementClass<?, ?> cls) {
+		return hasClassSequences() && !cls.isDefaultGraphElementClass()
+				&& (cls.getSchema() == schema);
+	}
+
+	/**
+	 * Determines if this graph supports per-class sequences for typed
+	 * traversal. Graph implementations whose elements don't store the
+	 * required links must override this method to return false.
+	 * 
+	 * @return true iff this graph supports per-class sequences
+	 */
+	protected boolean hasClassSequences() {
+		return true;
 	}
 
 	/*
@@ -938,9 +1153,9 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		alpha.removeIncidenceFromISeq(e);
 		alpha.incidenceListModified();
 
-		InternalVertex omega = ((EdgeBaseImpl) e).reversedEdge
-				.getIncidentVertex();
-		omega.removeIncidenceFromISeq(((EdgeBaseImpl) e).reversedEdge);
+		InternalEdge r = (InternalEdge) e.getReversedEdge();
+		InternalVertex omega = r.getIncidentVertex();
+		omega.removeIncidenceFromISeq(r);
 		omega.incidenceListModified();
 
 		removeEdgeFromESeq(e);
@@ -1000,6 +1215,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	@Override
 	public final void removeVertexFromVSeq(InternalVertex v) {
 		assert v != null;
+		vSeqByClass.removed(v);
 		if (v == getFirstVertexInVSeq()) {
 			// delete at head of vertex list
 			setFirstVertex(v.getNextVertexInVSeq());
@@ -1021,8 +1237,17 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 			(v.getPrevVertexInVSeq()).setNextVertex(v.getNextVertexInVSeq());
 			(v.getNextVertexInVSeq()).setPrevVertex(v.getPrevVertexInVSeq());
 		}
-		// freeIndex(getFreeVertexList(), v.getId());
-		freeVertexIndex(v.getId());
+		LazyAttributes l = lazyAttributes;
+		if (l != null) {
+			// the id is reused, so the values must not stay pending
+			l.decode(this, v);
+		}
+		if (batchDepth > 0) {
+			// the id is freed at the end of the batch
+			deletedVertexIds.add(v.getId());
+		} else {
+			freeVertexIndex(v.getId());
+		}
 		getVertex()[v.getId()] = null;
 		v.setPrevVertex(null);
 		v.setNextVertex(null);
@@ -1033,12 +1258,21 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	@Override
 	public final void removeEdgeFromESeq(InternalEdge e) {
 		assert e != null;
+		eSeqByClass.removed(e);
 		removeEdgeFromESeqWithoutDeletingIt(e);
 
-		// freeIndex(getFreeEdgeList(), e.getId());
-		freeEdgeIndex(e.getId());
+		LazyAttributes l = lazyAttributes;
+		if (l != null) {
+			// the id is reused, so the values must not stay pending
+			l.decode(this, e);
+		}
+		if (batchDepth > 0) {
+			// the id is freed at the end of the batch
+			deletedEdgeIds.add(e.getId());
+		} else {
+			freeEdgeIndex(e.getId());
+		}
 		getEdge()[e.getId()] = null;
-		getRevEdge()[e.getId()] = null;
 		e.setPrevEdgeInGraph(null);
 		e.setNextEdgeInGraph(null);
 		e.setId(0);
@@ -1122,13 +1356,35 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 			int[] nextIncidence) {
 		getFreeVertexList().reinitialize(getVertex());
 		getFreeEdgeList().reinitialize(getEdge());
+		if (lazyReversedEdges) {
+			// the omega incidence of a loop may precede its alpha incidence,
+			// so the alpha vertices have to be known before linking
+			for (int vId = 1; vId < getVertex().length; ++vId) {
+				InternalVertex v = getVertex()[vId];
+				if (v != null) {
+					for (int eId = firstIncidence[vId]; eId != 0; eId = nextIncidence[eMax
+							+ eId]) {
+						if (eId > 0) {
+							getEdge()[eId].setIncidentVertex(v);
+						}
+					}
+				}
+			}
+		}
 		for (int vId = 1; vId < getVertex().length; ++vId) {
 			InternalVertex v = getVertex()[vId];
 			if (v != null) {
 				int eId = firstIncidence[vId];
 				while (eId != 0) {
-					v.appendIncidenceToISeq(eId < 0 ? getRevEdge()[-eId]
-							: getEdge()[eId]);
+					if (eId < 0) {
+						v.appendIncidenceToISeq((InternalEdge) getEdge()[-eId]
+								.getReversedEdge());
+					} else {
+						if (lazyReversedEdges) {
+							getEdge()[eId].setIncidentVertex(null);
+						}
+						v.appendIncidenceToISeq(getEdge()[eId]);
+					}
 					eId = nextIncidence[eMax + eId];
 				}
 			}
@@ -1138,96 +1394,108 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	@Override
 	public final void putEdgeAfterInGraph(InternalEdge targetEdge,
 			InternalEdge movedEdge) {
-		assert (targetEdge != null) && targetEdge.isValid()
-				&& eSeqContainsEdge(targetEdge);
-		assert (movedEdge != null) && movedEdge.isValid()
-				&& eSeqContainsEdge(movedEdge);
-		assert targetEdge != movedEdge;
-
-		if ((targetEdge == movedEdge)
-				|| (targetEdge.getNextEdgeInESeq() == movedEdge)) {
-			return;
-		}
+		Lock w = beginWrite();
+		try {
+			assert (targetEdge != null) && targetEdge.isValid()
+					&& eSeqContainsEdge(targetEdge);
+			assert (movedEdge != null) && movedEdge.isValid()
+					&& eSeqContainsEdge(movedEdge);
+			assert targetEdge != movedEdge;
+
+			if ((targetEdge == movedEdge)
+					|| (targetEdge.getNextEdgeInESeq() == movedEdge)) {
+				return;
+			}
 
-		assert getFirstEdgeInESeq() != getLastEdgeInESeq();
+			assert getFirstEdgeInESeq() != getLastEdgeInESeq();
 
-		// remove moved edge from eSeq
-		if (movedEdge == getFirstEdgeInESeq()) {
-			setFirstEdgeInGraph(movedEdge.getNextEdgeInESeq());
-			(movedEdge.getNextEdgeInESeq()).setPrevEdgeInGraph(null);
-		} else if (movedEdge == getLastEdgeInESeq()) {
-			setLastEdgeInGraph(movedEdge.getPrevEdgeInESeq());
-			(movedEdge.getPrevEdgeInESeq()).setNextEdgeInGraph(null);
-		} else {
-			(movedEdge.getPrevEdgeInESeq()).setNextEdgeInGraph(movedEdge
-					.getNextEdgeInESeq());
-			(movedEdge.getNextEdgeInESeq()).setPrevEdgeInGraph(movedEdge
-					.getPrevEdgeInESeq());
+			// remove moved edge from eSeq
+			if (movedEdge == getFirstEdgeInESeq()) {
+				setFirstEdgeInGraph(movedEdge.getNextEdgeInESeq());
+				(movedEdge.getNextEdgeInESeq()).setPrevEdgeInGraph(null);
+			} else if (movedEdge == getLastEdgeInESeq()) {
+				setLastEdgeInGraph(movedEdge.getPrevEdgeInESeq());
+				(movedEdge.getPrevEdgeInESeq()).setNextEdgeInGraph(null);
+			} else {
+				(movedEdge.getPrevEdgeInESeq()).setNextEdgeInGraph(movedEdge
+						.getNextEdgeInESeq());
+				(movedEdge.getNextEdgeInESeq()).setPrevEdgeInGraph(movedEdge
+						.getPrevEdgeInESeq());
 
-		}
+			}
 
-		// insert moved edge in eSeq immediately after target
-		if (targetEdge == getLastEdgeInESeq()) {
-			setLastEdgeInGraph(movedEdge);
-			movedEdge.setNextEdgeInGraph(null);
-		} else {
-			(targetEdge.getNextEdgeInESeq()).setPrevEdgeInGraph(movedEdge);
-			movedEdge.setNextEdgeInGraph(targetEdge.getNextEdgeInESeq());
-		}
-		movedEdge.setPrevEdgeInGraph(targetEdge);
+			// insert moved edge in eSeq immediately after target
+			if (targetEdge == getLastEdgeInESeq()) {
+				setLastEdgeInGraph(movedEdge);
+				movedEdge.setNextEdgeInGraph(null);
+			} else {
+				(targetEdge.getNextEdgeInESeq()).setPrevEdgeInGraph(movedEdge);
+				movedEdge.setNextEdgeInGraph(targetEdge.getNextEdgeInESeq());
+			}
+			movedEdge.setPrevEdgeInGraph(targetEdge);
 
-		targetEdge.setNextEdgeInGraph(movedEdge);
-		edgeListModified();
+			targetEdge.setNextEdgeInGraph(movedEdge);
+			eSeqByClass.moved(movedEdge);
+			edgeListModified();
+		} finally {
+			endWrite(w);
+		}
 	}
 
 	@Override
 	public final void putVertexAfter(InternalVertex targetVertex,
 			InternalVertex movedVertex) {
-		assert (targetVertex != null) && targetVertex.isValid()
-				&& vSeqContainsVertex(targetVertex);
-		assert (movedVertex != null) && movedVertex.isValid()
-				&& vSeqContainsVertex(movedVertex);
-		assert targetVertex != movedVertex;
-
-		Vertex nextVertex = targetVertex.getNextVertexInVSeq();
-		if ((targetVertex == movedVertex) || (nextVertex == movedVertex)) {
-			return;
-		}
+		Lock w = beginWrite();
+		try {
+			assert (targetVertex != null) && targetVertex.isValid()
+					&& vSeqContainsVertex(targetVertex);
+			assert (movedVertex != null) && movedVertex.isValid()
+					&& vSeqContainsVertex(movedVertex);
+			assert targetVertex != movedVertex;
+
+			Vertex nextVertex = targetVertex.getNextVertexInVSeq();
+			if ((targetVertex == movedVertex) || (nextVertex == movedVertex)) {
+				return;
+			}
 
-		assert getFirstVertexInVSeq() != getLastVertexInVSeq();
+			assert getFirstVertexInVSeq() != getLastVertexInVSeq();
 
-		// remove moved vertex from vSeq
-		if (movedVertex == getFirstVertexInVSeq()) {
-			InternalVertex newFirstVertex = movedVertex.getNextVertexInVSeq();
-			setFirstVertex(newFirstVertex);
-			newFirstVertex.setPrevVertex(null);
-			// ((VertexImpl)
-			// movedVertex.getNextVertex()).setPrevVertex(null);
+			// remove moved vertex from vSeq
+			if (movedVertex == getFirstVertexInVSeq()) {
+				InternalVertex newFirstVertex = movedVertex.getNextVertexInVSeq();
+				setFirstVertex(newFirstVertex);
+				newFirstVertex.setPrevVertex(null);
+				// ((VertexImpl)
+				// movedVertex.getNextVertex()).setPrevVertex(null);
 
-		} else if (movedVertex == getLastVertexInVSeq()) {
-			setLastVertex(movedVertex.getPrevVertexInVSeq());
-			(movedVertex.getPrevVertexInVSeq()).setNextVertex(null);
-		} else {
-			(movedVertex.getPrevVertexInVSeq()).setNextVertex(movedVertex
-					.getNextVertexInVSeq());
-			(movedVertex.getNextVertexInVSeq()).setPrevVertex(movedVertex
-					.getPrevVertexInVSeq());
+			} else if (movedVertex == getLastVertexInVSeq()) {
+				setLastVertex(movedVertex.getPrevVertexInVSeq());
+				(movedVertex.getPrevVertexInVSeq()).setNextVertex(null);
+			} else {
+				(movedVertex.getPrevVertexInVSeq()).setNextVertex(movedVertex
+						.getNextVertexInVSeq());
+				(movedVertex.getNextVertexInVSeq()).setPrevVertex(movedVertex
+						.getPrevVertexInVSeq());
 
-		}
+			}
 
-		// insert moved vertex in vSeq immediately after target
-		if (targetVertex == getLastVertexInVSeq()) {
-			setLastVertex(movedVertex);
-			movedVertex.setNextVertex(null);
-		} else {
-			(targetVertex.getNextVertexInVSeq()).setPrevVertex(movedVertex);
+			// insert moved vertex in vSeq immediately after target
+			if (targetVertex == getLastVertexInVSeq()) {
+				setLastVertex(movedVertex);
+				movedVertex.setNextVertex(null);
+			} else {
+				(targetVertex.getNextVertexInVSeq()).setPrevVertex(movedVertex);
 
-			movedVertex.setNextVertex(targetVertex.getNextVertexInVSeq());
-		}
-		movedVertex.setPrevVertex(targetVertex);
+				movedVertex.setNextVertex(targetVertex.getNextVertexInVSeq());
+			}
+			movedVertex.setPrevVertex(targetVertex);
 
-		targetVertex.setNextVertex(movedVertex);
-		vertexListModified();
+			targetVertex.setNextVertex(movedVertex);
+			vSeqByClass.moved(movedVertex);
+			vertexListModified();
+		} finally {
+			endWrite(w);
+		}
 	}
 
 	/**
@@ -1242,83 +1510,95 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	@Override
 	public final void putEdgeBeforeInGraph(InternalEdge targetEdge,
 			InternalEdge movedEdge) {
-		assert (targetEdge != null) && targetEdge.isValid()
-				&& eSeqContainsEdge(targetEdge);
-		assert (movedEdge != null) && movedEdge.isValid()
-				&& eSeqContainsEdge(movedEdge);
-		assert targetEdge != movedEdge;
-
-		if ((targetEdge == movedEdge)
-				|| (targetEdge.getPrevEdgeInESeq() == movedEdge)) {
-			return;
-		}
+		Lock w = beginWrite();
+		try {
+			assert (targetEdge != null) && targetEdge.isValid()
+					&& eSeqContainsEdge(targetEdge);
+			assert (movedEdge != null) && movedEdge.isValid()
+					&& eSeqContainsEdge(movedEdge);
+			assert targetEdge != movedEdge;
+
+			if ((targetEdge == movedEdge)
+					|| (targetEdge.getPrevEdgeInESeq() == movedEdge)) {
+				return;
+			}
 
-		assert getFirstEdgeInESeq() != getLastEdgeInESeq();
+			assert getFirstEdgeInESeq() != getLastEdgeInESeq();
 
-		removeEdgeFromESeqWithoutDeletingIt(movedEdge);
+			removeEdgeFromESeqWithoutDeletingIt(movedEdge);
 
-		// insert moved edge in eSeq immediately before target
-		if (targetEdge == getFirstEdgeInESeq()) {
-			setFirstEdgeInGraph(movedEdge);
-			movedEdge.setPrevEdgeInGraph(null);
+			// insert moved edge in eSeq immediately before target
+			if (targetEdge == getFirstEdgeInESeq()) {
+				setFirstEdgeInGraph(movedEdge);
+				movedEdge.setPrevEdgeInGraph(null);
 
-		} else {
-			InternalEdge previousEdge = (targetEdge.getPrevEdgeInESeq());
-			previousEdge.setNextEdgeInGraph(movedEdge);
-			movedEdge.setPrevEdgeInGraph(previousEdge);
+			} else {
+				InternalEdge previousEdge = (targetEdge.getPrevEdgeInESeq());
+				previousEdge.setNextEdgeInGraph(movedEdge);
+				movedEdge.setPrevEdgeInGraph(previousEdge);
 
-		}
-		movedEdge.setNextEdgeInGraph(targetEdge);
-		targetEdge.setPrevEdgeInGraph(movedEdge);
+			}
+			movedEdge.setNextEdgeInGraph(targetEdge);
+			targetEdge.setPrevEdgeInGraph(movedEdge);
+			eSeqByClass.moved(movedEdge);
 
-		edgeListModified();
+			edgeListModified();
+		} finally {
+			endWrite(w);
+		}
 	}
 
 	@Override
 	public final void putVertexBefore(InternalVertex targetVertex,
 			InternalVertex movedVertex) {
-		assert (targetVertex != null) && targetVertex.isValid()
-				&& vSeqContainsVertex(targetVertex);
-		assert (movedVertex != null) && movedVertex.isValid()
-				&& vSeqContainsVertex(movedVertex);
-		assert targetVertex != movedVertex;
-
-		Vertex prevVertex = targetVertex.getPrevVertexInVSeq();
-		if ((targetVertex == movedVertex) || (prevVertex == movedVertex)) {
-			return;
-		}
+		Lock w = beginWrite();
+		try {
+			assert (targetVertex != null) && targetVertex.isValid()
+					&& vSeqContainsVertex(targetVertex);
+			assert (movedVertex != null) && movedVertex.isValid()
+					&& vSeqContainsVertex(movedVertex);
+			assert targetVertex != movedVertex;
+
+			Vertex prevVertex = targetVertex.getPrevVertexInVSeq();
+			if ((targetVertex == movedVertex) || (prevVertex == movedVertex)) {
+				return;
+			}
 
-		assert getFirstVertexInVSeq() != getLastVertexInVSeq();
+			assert getFirstVertexInVSeq() != getLastVertexInVSeq();
 
-		// remove moved vertex from vSeq
-		if (movedVertex == getFirstVertexInVSeq()) {
-			setFirstVertex(movedVertex.getNextVertexInVSeq());
-			(movedVertex.getNextVertexInVSeq()).setPrevVertex(null);
+			// remove moved vertex from vSeq
+			if (movedVertex == getFirstVertexInVSeq()) {
+				setFirstVertex(movedVertex.getNextVertexInVSeq());
+				(movedVertex.getNextVertexInVSeq()).setPrevVertex(null);
 
-		} else if (movedVertex == getLastVertexInVSeq()) {
-			setLastVertex(movedVertex.getPrevVertexInVSeq());
-			(movedVertex.getPrevVertexInVSeq()).setNextVertex(null);
-		} else {
-			(movedVertex.getPrevVertexInVSeq()).setNextVertex(movedVertex
-					.getNextVertexInVSeq());
-			(movedVertex.getNextVertexInVSeq()).setPrevVertex(movedVertex
-					.getPrevVertexInVSeq());
+			} else if (movedVertex == getLastVertexInVSeq()) {
+				setLastVertex(movedVertex.getPrevVertexInVSeq());
+				(movedVertex.getPrevVertexInVSeq()).setNextVertex(null);
+			} else {
+				(movedVertex.getPrevVertexInVSeq()).setNextVertex(movedVertex
+						.getNextVertexInVSeq());
+				(movedVertex.getNextVertexInVSeq()).setPrevVertex(movedVertex
+						.getPrevVertexInVSeq());
 
-		}
+			}
 
-		// insert moved vertex in vSeq immediately before target
-		if (targetVertex == getFirstVertexInVSeq()) {
-			setFirstVertex(movedVertex);
-			movedVertex.setPrevVertex(null);
-		} else {
-			InternalVertex previousVertex = targetVertex.getPrevVertexInVSeq();
-			previousVertex.setNextVertex(movedVertex);
-			movedVertex.setPrevVertex(previousVertex);
-		}
-		movedVertex.setNextVertex(targetVertex);
-		targetVertex.setPrevVertex(movedVertex);
+			// insert moved vertex in vSeq immediately before target
+			if (targetVertex == getFirstVertexInVSeq()) {
+				setFirstVertex(movedVertex);
+				movedVertex.setPrevVertex(null);
+			} else {
+				InternalVertex previousVertex = targetVertex.getPrevVertexInVSeq();
+				previousVertex.setNextVertex(movedVertex);
+				movedVertex.setPrevVertex(previousVertex);
+			}
+			movedVertex.setNextVertex(targetVertex);
+			targetVertex.setPrevVertex(movedVertex);
+			vSeqByClass.moved(movedVertex);
 
-		vertexListModified();
+			vertexListModified();
+		} finally {
+			endWrite(w);
+		}
 	}
 
 	/*
@@ -1353,6 +1633,33 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		return result;
 	}
 
+	/**
+	 * Sets the pending attribute values of a graph loaded with lazy attribute
+	 * decoding, or null when all of them are decoded.
+	 */
+	public final void internalSetLazyAttributes(LazyAttributes lazyAttributes) {
+		this.lazyAttributes = lazyAttributes;
+	}
+
+	/**
+	 * @return the pending attribute values of a graph loaded with lazy
+	 *         attribute decoding, or null if all attribute values are decoded
+	 */
+	public final LazyAttributes internalGetLazyAttributes() {
+		return lazyAttributes;
+	}
+
+	/**
+	 * Decodes all pending attribute values of a graph loaded with lazy
+	 * attribute decoding.
+	 */
+	public final void internalDecodeLazyAttributes() {
+		LazyAttributes l = lazyAttributes;
+		if (l != null) {
+			l.decodeAll(this);
+		}
+	}
+
 	@Override
 	public final void vertexListModified() {
 		setVertexListVersion(getVertexListVersion() + 1);
@@ -1404,216 +1711,382 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		return new VertexIterable<Vertex>(this, vertexClass, filter);
 	}
 
+	@Override
+	public ElementSpliterator<Vertex> vertexSpliterator(VertexClass vertexClass) {
+		return new VertexSpliterator(this, vertexClass);
+	}
+
+	@Override
+	public ElementSpliterator<Edge> edgeSpliterator(EdgeClass edgeClass) {
+		return new EdgeSpliterator(this, edgeClass);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
 	 * @see de.uni_koblenz.jgralab.Graph#defragment()
 	 */
 	@Override
-	public final void defragment() {
-		// TODO is tc really required to be removed for defragmentation?
-		TraversalContext tc = setTraversalContext(null);
+	public void defragment() {
+		Lock w = beginWrite();
 		try {
-			// defragment vertex array
-			if (getVCountInVSeq() < vMax) {
-				if (getVCountInVSeq() > 0) {
-					int vId = vMax;
-					while (getFreeVertexList().isFragmented()) {
-						while ((vId >= 1) && (getVertex()[vId] == null)) {
-							--vId;
-						}
-						assert vId >= 1;
-						InternalVertex v = getVertex()[vId];
-						getVertex()[vId] = null;
-						getFreeVertexList().freeIndex(vId);
-						int newId = allocateVertexIndex(0);
-						assert newId < vId;
-						v.setId(newId);
-						getVertex()[newId] = v;
-						--vId;
+			checkNoBatch();
+			// pending attribute values are registered by element id
+			internalDecodeLazyAttributes();
+			// TODO is tc really required to be removed for defragmentation?
+			TraversalContext tc = setTraversalContext(null);
+			try {
+				// defragment vertex array
+				if (getVCountInVSeq() < vMax) {
+					compactVertices(Integer.MAX_VALUE);
+					int newVMax = getVCountInVSeq() == 0 ? 1 : getVCountInVSeq();
+					if (newVMax != vMax) {
+						vMax = newVMax;
+						InternalVertex[] newVertex = new InternalVertex[vMax + 1];
+						System.arraycopy(getVertex(), 0, newVertex, 0,
+								newVertex.length);
+						setVertex(newVertex);
 					}
+					graphModified();
 				}
-				int newVMax = getVCountInVSeq() == 0 ? 1 : getVCountInVSeq();
-				if (newVMax != vMax) {
-					vMax = newVMax;
-					InternalVertex[] newVertex = new InternalVertex[vMax + 1];
-					System.arraycopy(getVertex(), 0, newVertex, 0,
-							newVertex.length);
-					setVertex(newVertex);
-				}
-				graphModified();
-			}
-			// defragment edge array
-			if (getECountInESeq() < eMax) {
-				if (getECountInESeq() > 0) {
-					int eId = eMax;
-					while (getFreeEdgeList().isFragmented()) {
-						while ((eId >= 1) && (getEdge()[eId] == null)) {
-							--eId;
-						}
-						assert eId >= 1;
-						InternalEdge e = getEdge()[eId];
-						getEdge()[eId] = null;
-						InternalEdge r = getRevEdge()[eId];
-						getRevEdge()[eId] = null;
-						getFreeEdgeList().freeIndex(eId);
-						int newId = allocateEdgeIndex(0);
-						assert newId < eId;
-						e.setId(newId);
-						getEdge()[newId] = e;
-						getRevEdge()[newId] = r;
-						--eId;
+				// defragment edge array
+				if (getECountInESeq() < eMax) {
+					compactEdges(Integer.MAX_VALUE);
+					int newEMax = getECountInESeq() == 0 ? 1 : getECountInESeq();
+					if (newEMax != eMax) {
+						eMax = newEMax;
+						InternalEdge[] newEdge = new InternalEdge[eMax + 1];
+						System.arraycopy(getEdge(), 0, newEdge, 0, newEdge.length);
+						setEdge(newEdge);
 					}
+					graphModified();
 				}
-				int newEMax = getECountInESeq() == 0 ? 1 : getECountInESeq();
-				if (newEMax != eMax) {
-					eMax = newEMax;
-					InternalEdge[] newEdge = new InternalEdge[eMax + 1];
-					System.arraycopy(getEdge(), 0, newEdge, 0, newEdge.length);
-					setEdge(newEdge);
-				}
-				graphModified();
+			} finally {
+				setTraversalContext(tc);
 			}
 		} finally {
-			setTraversalContext(tc);
+			endWrite(w);
 		}
 	}
 
-	// sort vertices
 	@Override
-	public final void sortVertices(Comparator<Vertex> comp) {
-
-		if (getFirstVertexInVSeq() == null) {
-			// no sorting required for empty vertex lists
-			return;
-		}
-		final class VertexList {
-			InternalVertex first;
-			InternalVertex last;
-
-			public void add(InternalVertex v) {
-				if (first == null) {
-					first = v;
-					assert (last == null);
-					last = v;
-				} else {
-					v.setPrevVertex(last);
-					last.setNextVertex(v);
-					last = v;
+	public int defragment(int maxMoves) {
+		Lock w = beginWrite();
+		try {
+			checkNoBatch();
+			internalDecodeLazyAttributes();
+			TraversalContext tc = setTraversalContext(null);
+			try {
+				int moved = compactVertices(maxMoves);
+				moved += compactEdges(maxMoves - moved);
+				if (moved > 0) {
+					graphModified();
 				}
-				v.setNextVertex(null);
+				return moved;
+			} finally {
+				setTraversalContext(tc);
 			}
+		} finally {
+			endWrite(w);
+		}
+	}
 
-			public InternalVertex remove() {
-				if (first == null) {
-					throw new NoSuchElementException();
-				}
-				InternalVertex out;
-				if (first == last) {
-					out = first;
-					first = null;
-					last = null;
-					return out;
+	@Override
+	public void renumberVertices(int[] oldIds, int[] newIds) {
+		Lock w = beginWrite();
+		try {
+			checkNoBatch();
+			internalDecodeLazyAttributes();
+			for (int i = 0; i < oldIds.length; ++i) {
+				if ((oldIds[i] < 1) || (getVertex(oldIds[i]) == null)
+						|| (newIds[i] < 1)
+						|| ((newIds[i] <= vMax) && (getVertex()[newIds[i]] != null))) {
+					throw new GraphException("Can't renumber vertex "
+							+ oldIds[i] + " to " + newIds[i]);
 				}
-				out = first;
-				first = out.getNextVertexInVSeq();
-				first.setPrevVertex(null);
-				return out;
+				moveVertex(oldIds[i], newIds[i]);
 			}
+			notifyVerticesRenumbered(oldIds, newIds);
+			graphModified();
+		} finally {
+			endWrite(w);
+		}
+	}
 
-			public boolean isEmpty() {
-				assert ((first == null) == (last == null));
-				return first == null;
+	@Override
+	public void renumberEdges(int[] oldIds, int[] newIds) {
+		Lock w = beginWrite();
+		try {
+			checkNoBatch();
+			internalDecodeLazyAttributes();
+			for (int i = 0; i < oldIds.length; ++i) {
+				if ((oldIds[i] < 1) || (getEdge(oldIds[i]) == null)
+						|| (newIds[i] < 1)
+						|| ((newIds[i] <= eMax) && (getEdge()[newIds[i]] != null))) {
+					throw new GraphException("Can't renumber edge "
+							+ oldIds[i] + " to " + newIds[i]);
+				}
+				moveEdge(oldIds[i], newIds[i]);
 			}
-
+			notifyEdgesRenumbered(oldIds, newIds);
+			graphModified();
+		} finally {
+			endWrite(w);
 		}
+	}
 
-		VertexList a = new VertexList();
-		VertexList b = new VertexList();
-		VertexList out = a;
+	/**
+	 * Moves the vertex <code>vId</code> to the free index <code>newId</code>,
+	 * or to the lowest free index if <code>newId</code> is 0.
+	 * 
+	 * @return the new id of the vertex
+	 */
+	private int moveVertex(int vId, int newId) {
+		InternalVertex v = getVertex()[vId];
+		getVertex()[vId] = null;
+		getFreeVertexList().freeIndex(vId);
+		newId = allocateVertexIndex(newId);
+		v.setId(newId);
+		getVertex()[newId] = v;
+		return newId;
+	}
 
-		// split
-		InternalVertex last;
-		VertexList l = new VertexList();
-		l.first = getFirstVertexInVSeq();
-		l.last = getLastVertexInVSeq();
+	/**
+	 * Moves the edge <code>eId</code> to the free index <code>newId</code>, or
+	 * to the lowest free index if <code>newId</code> is 0.
+	 * 
+	 * @return the new id of the edge
+	 */
+	private int moveEdge(int eId, int newId) {
+		InternalEdge e = getEdge()[eId];
+		getEdge()[eId] = null;
+		getFreeEdgeList().freeIndex(eId);
+		newId = allocateEdgeIndex(newId);
+		e.setId(newId);
+		getEdge()[newId] = e;
+		if (reversedEdges != null) {
+			reversedEdges.move(eId, newId);
+		}
+		return newId;
+	}
 
-		out.add(last = l.remove());
-		while (!l.isEmpty()) {
-			InternalVertex current = l.remove();
-			if (comp.compare(current, last) < 0) {
-				out = (out == a) ? b : a;
+	/**
+	 * Moves at most <code>maxMoves</code> vertices with the highest ids into
+	 * the lowest gaps of the vertex array and notifies the
+	 * <code>GraphStructureChangedListener</code>s about the new ids.
+	 * 
+	 * @param maxMoves
+	 *            the maximum number of vertices to move
+	 * @return the number of moved vertices
+	 */
+	private int compactVertices(int maxMoves) {
+		FreeIndexList freeList = getFreeVertexList();
+		int n = Math.min(maxMoves, freeList.getGapCount());
+		if (n <= 0) {
+			return 0;
+		}
+		int[] oldIds = new int[n];
+		int[] newIds = new int[n];
+		int moved = 0;
+		int vId = vMax;
+		while ((moved < n) && freeList.isFragmented()) {
+			while ((vId >= 1) && (getVertex()[vId] == null)) {
+				--vId;
 			}
-			out.add(current);
-			last = current;
+			assert vId >= 1;
+			int newId = moveVertex(vId, 0);
+			assert newId < vId;
+			oldIds[moved] = vId;
+			newIds[moved++] = newId;
+			--vId;
 		}
-		if (a.isEmpty() || b.isEmpty()) {
-			out = a.isEmpty() ? b : a;
-			setFirstVertex(out.first);
-			setLastVertex(out.last);
-			return;
+		if (moved < n) {
+			oldIds = Arrays.copyOf(oldIds, moved);
+			newIds = Arrays.copyOf(newIds, moved);
 		}
+		notifyVerticesRenumbered(oldIds, newIds);
+		return moved;
+	}
 
-		while (true) {
-			if (a.isEmpty() || b.isEmpty()) {
-				out = a.isEmpty() ? b : a;
-				setFirstVertex(out.first);
-				setLastVertex(out.last);
-				edgeListModified();
-				return;
+	/**
+	 * Moves at most <code>maxMoves</code> edges with the highest ids into the
+	 * lowest gaps of the edge array and notifies the
+	 * <code>GraphStructureChangedListener</code>s about the new ids.
+	 * 
+	 * @param maxMoves
+	 *            the maximum number of edges to move
+	 * @return the number of moved edges
+	 */
+	private int compactEdges(int maxMoves) {
+		FreeIndexList freeList = getFreeEdgeList();
+		int n = Math.min(maxMoves, freeList.getGapCount());
+		if (n <= 0) {
+			return 0;
+		}
+		int[] oldIds = new int[n];
+		int[] newIds = new int[n];
+		int moved = 0;
+		int eId = eMax;
+		while ((moved < n) && freeList.isFragmented()) {
+			while ((eId >= 1) && (getEdge()[eId] == null)) {
+				--eId;
 			}
+			assert eId >= 1;
+			int newId = moveEdge(eId, 0);
+			assert newId < eId;
+			oldIds[moved] = eId;
+			newIds[moved++] = newId;
+			--eId;
+		}
+		if (moved < n) {
+			oldIds = Arrays.copyOf(oldIds, moved);
+			newIds = Arrays.copyOf(newIds, moved);
+		}
+		notifyEdgesRenumbered(oldIds, newIds);
+		return moved;
+	}
 
-			VertexList c = new VertexList();
-			VertexList d = new VertexList();
-			out = c;
-
-			last = null;
-			while (!a.isEmpty() && !b.isEmpty()) {
-				int compareAToLast = last != null ? comp.compare(a.first, last)
-						: 0;
-				int compareBToLast = last != null ? comp.compare(b.first, last)
-						: 0;
+	// sort vertices
+	@Override
+	public final void sortVertices(Comparator<Vertex> comp) {
+		Lock w = beginWrite();
+		try {
 
-				if ((compareAToLast >= 0) && (compareBToLast >= 0)) {
-					if (comp.compare(a.first, b.first) <= 0) {
-						out.add(last = a.remove());
+			if (getFirstVertexInVSeq() == null) {
+				// no sorting required for empty vertex lists
+				return;
+			}
+			vSeqByClass.invalidate();
+			final class VertexList {
+				InternalVertex first;
+				InternalVertex last;
+
+				public void add(InternalVertex v) {
+					if (first == null) {
+						first = v;
+						assert (last == null);
+						last = v;
 					} else {
-						out.add(last = b.remove());
+						v.setPrevVertex(last);
+						last.setNextVertex(v);
+						last = v;
 					}
-				} else if ((compareAToLast < 0) && (compareBToLast < 0)) {
-					out = (out == c) ? d : c;
-					last = null;
-				} else if ((compareAToLast < 0) && (compareBToLast >= 0)) {
-					out.add(last = b.remove());
-				} else {
-					out.add(last = a.remove());
+					v.setNextVertex(null);
+				}
+
+				public InternalVertex remove() {
+					if (first == null) {
+						throw new NoSuchElementException();
+					}
+					InternalVertex out;
+					if (first == last) {
+						out = first;
+						first = null;
+						last = null;
+						return out;
+					}
+					out = first;
+					first = out.getNextVertexInVSeq();
+					first.setPrevVertex(null);
+					return out;
 				}
+
+				public boolean isEmpty() {
+					assert ((first == null) == (last == null));
+					return first == null;
+				}
+
 			}
 
-			// copy rest of A
-			while (!a.isEmpty()) {
-				InternalVertex current = a.remove();
+			VertexList a = new VertexList();
+			VertexList b = new VertexList();
+			VertexList out = a;
+
+			// split
+			InternalVertex last;
+			VertexList l = new VertexList();
+			l.first = getFirstVertexInVSeq();
+			l.last = getLastVertexInVSeq();
+
+			out.add(last = l.remove());
+			while (!l.isEmpty()) {
+				InternalVertex current = l.remove();
 				if (comp.compare(current, last) < 0) {
-					out = (out == c) ? d : c;
+					out = (out == a) ? b : a;
 				}
 				out.add(current);
 				last = current;
 			}
+			if (a.isEmpty() || b.isEmpty()) {
+				out = a.isEmpty() ? b : a;
+				setFirstVertex(out.first);
+				setLastVertex(out.last);
+				return;
+			}
 
-			// copy rest of B
-			while (!b.isEmpty()) {
-				InternalVertex current = b.remove();
-				if (comp.compare(current, last) < 0) {
-					out = (out == c) ? d : c;
+			while (true) {
+				if (a.isEmpty() || b.isEmpty()) {
+					out = a.isEmpty() ? b : a;
+					setFirstVertex(out.first);
+					setLastVertex(out.last);
+					edgeListModified();
+					return;
 				}
-				out.add(current);
-				last = current;
+
+				VertexList c = new VertexList();
+				VertexList d = new VertexList();
+				out = c;
+
+				last = null;
+				while (!a.isEmpty() && !b.isEmpty()) {
+					int compareAToLast = last != null ? comp.compare(a.first, last)
+							: 0;
+					int compareBToLast = last != null ? comp.compare(b.first, last)
+							: 0;
+
+					if ((compareAToLast >= 0) && (compareBToLast >= 0)) {
+						if (comp.compare(a.first, b.first) <= 0) {
+							out.add(last = a.remove());
+						} else {
+							out.add(last = b.remove());
+						}
+					} else if ((compareAToLast < 0) && (compareBToLast < 0)) {
+						out = (out == c) ? d : c;
+						last = null;
+					} else if ((compareAToLast < 0) && (compareBToLast >= 0)) {
+						out.add(last = b.remove());
+					} else {
+						out.add(last = a.remove());
+					}
+				}
+
+				// copy rest of A
+				while (!a.isEmpty()) {
+					InternalVertex current = a.remove();
+					if (comp.compare(current, last) < 0) {
+						out = (out == c) ? d : c;
+					}
+					out.add(current);
+					last = current;
+				}
+
+				// copy rest of B
+				while (!b.isEmpty()) {
+					InternalVertex current = b.remove();
+					if (comp.compare(current, last) < 0) {
+						out = (out == c) ? d : c;
+					}
+					out.add(current);
+					last = current;
+				}
+
+				a = c;
+				b = d;
 			}
 
-			a = c;
-			b = d;
+		} finally {
+			endWrite(w);
 		}
-
 	}
 
 	@Override
@@ -1647,139 +2120,145 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 
 	@Override
 	public final void sortEdges(Comparator<Edge> comp) {
+		Lock w = beginWrite();
+		try {
 
-		if (getFirstEdgeInESeq() == null) {
-			// no sorting required for empty edge lists
-			return;
-		}
-		final class EdgeList {
-			InternalEdge first;
-			InternalEdge last;
-
-			public void add(InternalEdge e) {
-				if (first == null) {
-					first = e;
-					assert (last == null);
-					last = e;
-				} else {
-					e.setPrevEdgeInGraph(last);
-					last.setNextEdgeInGraph(e);
-					last = e;
-				}
-				e.setNextEdgeInGraph(null);
+			if (getFirstEdgeInESeq() == null) {
+				// no sorting required for empty edge lists
+				return;
 			}
-
-			public InternalEdge remove() {
-				if (first == null) {
-					throw new NoSuchElementException();
+			eSeqByClass.invalidate();
+			final class EdgeList {
+				InternalEdge first;
+				InternalEdge last;
+
+				public void add(InternalEdge e) {
+					if (first == null) {
+						first = e;
+						assert (last == null);
+						last = e;
+					} else {
+						e.setPrevEdgeInGraph(last);
+						last.setNextEdgeInGraph(e);
+						last = e;
+					}
+					e.setNextEdgeInGraph(null);
 				}
-				InternalEdge out;
-				if (first == last) {
+
+				public InternalEdge remove() {
+					if (first == null) {
+						throw new NoSuchElementException();
+					}
+					InternalEdge out;
+					if (first == last) {
+						out = first;
+						first = null;
+						last = null;
+						return out;
+					}
 					out = first;
-					first = null;
-					last = null;
+					first = out.getNextEdgeInESeq();
+					first.setPrevEdgeInGraph(null);
+
 					return out;
 				}
-				out = first;
-				first = out.getNextEdgeInESeq();
-				first.setPrevEdgeInGraph(null);
 
-				return out;
-			}
+				public boolean isEmpty() {
+					assert ((first == null) == (last == null));
+					return first == null;
+				}
 
-			public boolean isEmpty() {
-				assert ((first == null) == (last == null));
-				return first == null;
 			}
 
-		}
+			EdgeList a = new EdgeList();
+			EdgeList b = new EdgeList();
+			EdgeList out = a;
 
-		EdgeList a = new EdgeList();
-		EdgeList b = new EdgeList();
-		EdgeList out = a;
-
-		// split
-		InternalEdge last;
-		EdgeList l = new EdgeList();
-		l.first = getFirstEdgeInESeq();
-		l.last = getLastEdgeInESeq();
+			// split
+			InternalEdge last;
+			EdgeList l = new EdgeList();
+			l.first = getFirstEdgeInESeq();
+			l.last = getLastEdgeInESeq();
 
-		out.add(last = l.remove());
-		while (!l.isEmpty()) {
-			InternalEdge current = l.remove();
-			if (comp.compare(current, last) < 0) {
-				out = (out == a) ? b : a;
+			out.add(last = l.remove());
+			while (!l.isEmpty()) {
+				InternalEdge current = l.remove();
+				if (comp.compare(current, last) < 0) {
+					out = (out == a) ? b : a;
+				}
+				out.add(current);
+				last = current;
 			}
-			out.add(current);
-			last = current;
-		}
-		if (a.isEmpty() || b.isEmpty()) {
-			out = a.isEmpty() ? b : a;
-			setFirstEdgeInGraph(out.first);
-			setLastEdgeInGraph(out.last);
-			return;
-		}
-
-		while (true) {
 			if (a.isEmpty() || b.isEmpty()) {
 				out = a.isEmpty() ? b : a;
 				setFirstEdgeInGraph(out.first);
 				setLastEdgeInGraph(out.last);
-				edgeListModified();
 				return;
 			}
 
-			EdgeList c = new EdgeList();
-			EdgeList d = new EdgeList();
-			out = c;
-
-			last = null;
-			while (!a.isEmpty() && !b.isEmpty()) {
-				int compareAToLast = last != null ? comp.compare(a.first, last)
-						: 0;
-				int compareBToLast = last != null ? comp.compare(b.first, last)
-						: 0;
+			while (true) {
+				if (a.isEmpty() || b.isEmpty()) {
+					out = a.isEmpty() ? b : a;
+					setFirstEdgeInGraph(out.first);
+					setLastEdgeInGraph(out.last);
+					edgeListModified();
+					return;
+				}
 
-				if ((compareAToLast >= 0) && (compareBToLast >= 0)) {
-					if (comp.compare(a.first, b.first) <= 0) {
-						out.add(last = a.remove());
-					} else {
+				EdgeList c = new EdgeList();
+				EdgeList d = new EdgeList();
+				out = c;
+
+				last = null;
+				while (!a.isEmpty() && !b.isEmpty()) {
+					int compareAToLast = last != null ? comp.compare(a.first, last)
+							: 0;
+					int compareBToLast = last != null ? comp.compare(b.first, last)
+							: 0;
+
+					if ((compareAToLast >= 0) && (compareBToLast >= 0)) {
+						if (comp.compare(a.first, b.first) <= 0) {
+							out.add(last = a.remove());
+						} else {
+							out.add(last = b.remove());
+						}
+					} else if ((compareAToLast < 0) && (compareBToLast < 0)) {
+						out = (out == c) ? d : c;
+						last = null;
+					} else if ((compareAToLast < 0) && (compareBToLast >= 0)) {
 						out.add(last = b.remove());
+					} else {
+						out.add(last = a.remove());
 					}
-				} else if ((compareAToLast < 0) && (compareBToLast < 0)) {
-					out = (out == c) ? d : c;
-					last = null;
-				} else if ((compareAToLast < 0) && (compareBToLast >= 0)) {
-					out.add(last = b.remove());
-				} else {
-					out.add(last = a.remove());
 				}
-			}
 
-			// copy rest of A
-			while (!a.isEmpty()) {
-				InternalEdge current = a.remove();
-				if (comp.compare(current, last) < 0) {
-					out = (out == c) ? d : c;
+				// copy rest of A
+				while (!a.isEmpty()) {
+					InternalEdge current = a.remove();
+					if (comp.compare(current, last) < 0) {
+						out = (out == c) ? d : c;
+					}
+					out.add(current);
+					last = current;
 				}
-				out.add(current);
-				last = current;
-			}
 
-			// copy rest of B
-			while (!b.isEmpty()) {
-				InternalEdge current = b.remove();
-				if (comp.compare(current, last) < 0) {
-					out = (out == c) ? d : c;
+				// copy rest of B
+				while (!b.isEmpty()) {
+					InternalEdge current = b.remove();
+					if (comp.compare(current, last) < 0) {
+						out = (out == c) ? d : c;
+					}
+					out.add(current);
+					last = current;
 				}
-				out.add(current);
-				last = current;
+
+				a = c;
+				b = d;
 			}
 
-			a = c;
-			b = d;
+		} finally {
+			endWrite(w);
 		}
-
 	}
 
 	private ArrayList<GraphChangeListener> graphChangeListeners;
@@ -1898,6 +2377,127 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 				.iterator() : null;
 	}
 
+	// ------------- BATCHED STRUCTURE CHANGES -------------
+
+	/**
+	 * Nesting depth of the current batch of changes, 0 if no batch is active.
+	 */
+	private int batchDepth;
+
+	/**
+	 * Ids of the vertices and edges added and deleted during the current
+	 * batch.
+	 */
+	private IdBuffer addedVertexIds;
+	private IdBuffer deletedVertexIds;
+	private IdBuffer addedEdgeIds;
+	private IdBuffer deletedEdgeIds;
+
+	/**
+	 * A growable buffer of ids, which avoids boxing the ids of large batches.
+	 */
+	private static final class IdBuffer {
+		private int[] ids = new int[16];
+		private int size;
+
+		void add(int id) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = id;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(ids, size);
+		}
+	}
+
+	@Override
+	public void beginBatch() {
+		Lock w = beginWrite();
+		try {
+			if (batchDepth++ == 0) {
+				addedVertexIds = new IdBuffer();
+				deletedVertexIds = new IdBuffer();
+				addedEdgeIds = new IdBuffer();
+				deletedEdgeIds = new IdBuffer();
+			}
+		} finally {
+			endWrite(w);
+		}
+	}
+
+	@Override
+	public void endBatch() {
+		GraphStructureChangeBatch batch;
+		Lock w = beginWrite();
+		try {
+			if (batchDepth == 0) {
+				throw new GraphException("endBatch() without beginBatch()");
+			}
+			if (--batchDepth > 0) {
+				return;
+			}
+			batch = new GraphStructureChangeBatch(this,
+					addedVertexIds.toArray(), deletedVertexIds.toArray(),
+					addedEdgeIds.toArray(), deletedEdgeIds.toArray());
+			addedVertexIds = deletedVertexIds = addedEdgeIds = deletedEdgeIds = null;
+			for (int vId : batch.getDeletedVertexIds()) {
+				freeVertexIndex(vId);
+			}
+			for (int eId : batch.getDeletedEdgeIds()) {
+				freeEdgeIndex(eId);
+			}
+			if (!batch.isEmpty()) {
+				notifyStructureChanged(batch);
+			}
+		} finally {
+			endWrite(w);
+		}
+	}
+
+	private final void checkNoBatch() {
+		if (batchDepth > 0) {
+			throw new GraphException(
+					"The graph can't be defragmented during a batch of changes");
+		}
+	}
+
+	/**
+	 * @return true if <code>listener</code> is notified about per-element
+	 *         changes at the end of the current batch
+	 */
+	private final boolean isBatched(GraphStructureChangedListener listener) {
+		return (batchDepth > 0)
+				&& (listener instanceof GraphStructureChangedBatchListener);
+	}
+
+	private final void notifyStructureChanged(GraphStructureChangeBatch batch) {
+		if (graphStructureChangedListenersWithAutoRemoval != null) {
+			Iterator<WeakReference<GraphStructureChangedListener>> iterator = getListenerListIteratorForAutoRemove();
+			while (iterator.hasNext()) {
+				GraphStructureChangedListener currentListener = iterator.next()
+						.get();
+				if (currentListener == null) {
+					iterator.remove();
+				} else if (currentListener instanceof GraphStructureChangedBatchListener) {
+					((GraphStructureChangedBatchListener) currentListener)
+							.structureChanged(batch);
+				}
+			}
+			setAutoListenerListToNullIfEmpty();
+		}
+		int n = graphStructureChangedListeners.size();
+		for (int i = 0; i < n; i++) {
+			GraphStructureChangedListener currentListener = graphStructureChangedListeners
+					.get(i);
+			if (currentListener instanceof GraphStructureChangedBatchListener) {
+				((GraphStructureChangedBatchListener) currentListener)
+						.structureChanged(batch);
+			}
+		}
+	}
+
 	@Override
 	public final void notifyVertexDeleted(Vertex v) {
 		assert (v != null) && v.isValid() && vSeqContainsVertex(v);
@@ -1908,7 +2508,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 						.get();
 				if (currentListener == null) {
 					iterator.remove();
-				} else {
+				} else if (!isBatched(currentListener)) {
 					currentListener.vertexDeleted(v);
 				}
 			}
@@ -1916,13 +2516,20 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		}
 		int n = graphStructureChangedListeners.size();
 		for (int i = 0; i < n; i++) {
-			graphStructureChangedListeners.get(i).vertexDeleted(v);
+			GraphStructureChangedListener currentListener = graphStructureChangedListeners
+					.get(i);
+			if (!isBatched(currentListener)) {
+				currentListener.vertexDeleted(v);
+			}
 		}
 	}
 
 	@Override
 	public final void notifyVertexAdded(Vertex v) {
 		assert (v != null) && v.isValid() && vSeqContainsVertex(v);
+		if (batchDepth > 0) {
+			addedVertexIds.add(v.getId());
+		}
 		if (graphStructureChangedListenersWithAutoRemoval != null) {
 			Iterator<WeakReference<GraphStructureChangedListener>> iterator = getListenerListIteratorForAutoRemove();
 			while (iterator.hasNext()) {
@@ -1930,7 +2537,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 						.get();
 				if (currentListener == null) {
 					iterator.remove();
-				} else {
+				} else if (!isBatched(currentListener)) {
 					currentListener.vertexAdded(v);
 				}
 			}
@@ -1938,7 +2545,11 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		}
 		int n = graphStructureChangedListeners.size();
 		for (int i = 0; i < n; i++) {
-			graphStructureChangedListeners.get(i).vertexAdded(v);
+			GraphStructureChangedListener currentListener = graphStructureChangedListeners
+					.get(i);
+			if (!isBatched(currentListener)) {
+				currentListener.vertexAdded(v);
+			}
 		}
 	}
 
@@ -1953,7 +2564,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 						.get();
 				if (currentListener == null) {
 					iterator.remove();
-				} else {
+				} else if (!isBatched(currentListener)) {
 					currentListener.edgeDeleted(e);
 				}
 			}
@@ -1961,7 +2572,11 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		}
 		int n = graphStructureChangedListeners.size();
 		for (int i = 0; i < n; i++) {
-			graphStructureChangedListeners.get(i).edgeDeleted(e);
+			GraphStructureChangedListener currentListener = graphStructureChangedListeners
+					.get(i);
+			if (!isBatched(currentListener)) {
+				currentListener.edgeDeleted(e);
+			}
 		}
 	}
 
@@ -1969,6 +2584,9 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 	public final void notifyEdgeAdded(Edge e) {
 		assert (e != null) && e.isValid() && e.isNormal()
 				&& eSeqContainsEdge(e);
+		if (batchDepth > 0) {
+			addedEdgeIds.add(e.getId());
+		}
 		if (graphStructureChangedListenersWithAutoRemoval != null) {
 			Iterator<WeakReference<GraphStructureChangedListener>> iterator = getListenerListIteratorForAutoRemove();
 			while (iterator.hasNext()) {
@@ -1976,7 +2594,7 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 						.get();
 				if (currentListener == null) {
 					iterator.remove();
-				} else {
+				} else if (!isBatched(currentListener)) {
 					currentListener.edgeAdded(e);
 				}
 			}
@@ -1984,7 +2602,11 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		}
 		int n = graphStructureChangedListeners.size();
 		for (int i = 0; i < n; i++) {
-			graphStructureChangedListeners.get(i).edgeAdded(e);
+			GraphStructureChangedListener currentListener = graphStructureChangedListeners
+					.get(i);
+			if (!isBatched(currentListener)) {
+				currentListener.edgeAdded(e);
+			}
 		}
 	}
 
@@ -2032,6 +2654,50 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		}
 	}
 
+	@Override
+	public final void notifyVerticesRenumbered(int[] oldIds, int[] newIds) {
+		if (graphStructureChangedListenersWithAutoRemoval != null) {
+			Iterator<WeakReference<GraphStructureChangedListener>> iterator = getListenerListIteratorForAutoRemove();
+			while (iterator.hasNext()) {
+				GraphStructureChangedListener currentListener = iterator.next()
+						.get();
+				if (currentListener == null) {
+					iterator.remove();
+				} else {
+					currentListener.verticesRenumbered(oldIds, newIds);
+				}
+			}
+			setAutoListenerListToNullIfEmpty();
+		}
+		int n = graphStructureChangedListeners.size();
+		for (int i = 0; i < n; i++) {
+			graphStructureChangedListeners.get(i).verticesRenumbered(oldIds,
+					newIds);
+		}
+	}
+
+	@Override
+	public final void notifyEdgesRenumbered(int[] oldIds, int[] newIds) {
+		if (graphStructureChangedListenersWithAutoRemoval != null) {
+			Iterator<WeakReference<GraphStructureChangedListener>> iterator = getListenerListIteratorForAutoRemove();
+			while (iterator.hasNext()) {
+				GraphStructureChangedListener currentListener = iterator.next()
+						.get();
+				if (currentListener == null) {
+					iterator.remove();
+				} else {
+					currentListener.edgesRenumbered(oldIds, newIds);
+				}
+			}
+			setAutoListenerListToNullIfEmpty();
+		}
+		int n = graphStructureChangedListeners.size();
+		for (int i = 0; i < n; i++) {
+			graphStructureChangedListeners.get(i).edgesRenumbered(oldIds,
+					newIds);
+		}
+	}
+
 	@Override
 	public final void save(String filename) throws GraphIOException {
 		save(filename, null);
@@ -2054,6 +2720,143 @@ public abstract class GraphBaseImpl implements Graph, InternalGraph {
 		GraphIO.saveGraphToStream(this, out, pf);
 	}
 
+	@Override
+	public Graph freeze() {
+		return new CsrGraphImpl(this);
+	}
+
+	@Override
+	public Graph snapshot() {
+		if (!isConcurrentAccess()) {
+			throw new GraphException(
+					"Snapshots require concurrent access to be enabled");
+		}
+		Lock r = getReadLock();
+		r.lock();
+		try {
+			synchronized (snapshotMonitor) {
+				Graph s = snapshot == null ? null : snapshot.get();
+				if ((s == null) || (s.getGraphVersion() != getGraphVersion())) {
+					s = freeze();
+					snapshot = new WeakReference<Graph>(s);
+				}
+				return s;
+			}
+		} finally {
+			r.unlock();
+		}
+	}
+
+	@Override
+	public final void setConcurrentAccess(boolean concurrent) {
+		if (concurrent != isConcurrentAccess()) {
+			rwLock = concurrent ? new ReentrantReadWriteLock() : null;
+		}
+	}
+
+	@Override
+	public final boolean isConcurrentAccess() {
+		return rwLock != null;
+	}
+
+	@Override
+	public final Lock getReadLock() {
+		ReentrantReadWriteLock l = rwLock;
+		assert (l == null) || !RangeSpliterator.isWorker() : LOCKING_WORKER;
+		return l == null ? NoLock.INSTANCE : l.readLock();
+	}
+
+	@Override
+	public final Lock getWriteLock() {
+		ReentrantReadWriteLock l = rwLock;
+		assert (l == null) || !RangeSpliterator.isWorker() : LOCKING_WORKER;
+		return l == null ? NoLock.INSTANCE : l.writeLock();
+	}
+
+	/**
+	 * Acquires the write lock if concurrent access is enabled. Every
+	 * structural modification is enclosed in <code>beginWrite()</code> and
+	 * {@link #endWrite(Lock)}.
+	 * 
+	 * @return the acquired lock, or null if concurrent access is disabled
+	 */
+	final Lock beginWrite() {
+		ReentrantReadWriteLock l = rwLock;
+		if (l == null) {
+			return null;
+		}
+		assert !RangeSpliterator.isWorker() : LOCKING_WORKER;
+		Lock w = l.writeLock();
+		w.lock();
+		return w;
+	}
+
+	/**
+	 * Releases the lock <code>w</code> returned by {@link #beginWrite()}.
+	 */
+	static final void endWrite(Lock w) {
+		if (w != null) {
+			w.unlock();
+		}
+	}
+
+	/**
+	 * Acquires the write lock if concurrent access is enabled. Attribute
+	 * setters of generated and generic classes and the generic factory
+	 * enclose their changes in <code>internalBeginWrite()</code> and
+	 * {@link #internalEndWrite(Lock)}, so that {@link #snapshot()} never
+	 * copies a half-changed element.
+	 * 
+	 * @return the acquired lock, or null if concurrent access is disabled
+	 */
+	public final Lock internalBeginWrite() {
+		return beginWrite();
+	}
+
+	/**
+	 * Releases the lock <code>w</code> returned by
+	 * {@link #internalBeginWrite()}.
+	 */
+	public final void internalEndWrite(Lock w) {
+		endWrite(w);
+	}
+
+	/**
+	 * A {@link Lock} without any effect, returned by {@link #getReadLock()}
+	 * and {@link #getWriteLock()} if concurrent access is disabled.
+	 */
+	private static final class NoLock implements Lock {
+		static final NoLock INSTANCE = new NoLock();
+
+		@Override
+		public void lock() {
+		}
+
+		@Override
+		public void lockInterruptibly() {
+		}
+
+		@Override
+		public boolean tryLock() {
+			return true;
+		}
+
+		@Override
+		public boolean tryLock(long time, TimeUnit unit) {
+			return true;
+		}
+
+		@Override
+		public void unlock() {
+		}
+
+		@Override
+		public Condition newCondition() {
+			throw new UnsupportedOperationException(
+					"Concurrent access is disabled");
+		}
+	}
+
 	@Override
 	public final GraphFactory getGraphFactory() {
 		return graphFactory;
@@ -58,6 +58,7 @@ public abstract class GraphElementImpl<SC extends GraphElementClass<SC, IC>, IC
 	@Override
 	public boolean isUnsetAttribute(String name)
 			throws NoSuchAttributeException {
+		internalEnsureAttributesDecoded();
 		return !internalGetSetAttributesBitSet().get(
 				getAttributedElementClass().getAttributeIndex(name));
 	}
@@ -77,6 +78,18 @@ public abstract class GraphElementImpl<SC extends GraphElementClass<SC, IC>, IC
 
 	protected GraphBaseImpl graph;
 
+	/**
+	 * Decodes the attribute values of this element if its graph was loaded
+	 * with lazy attribute decoding and they haven't been accessed yet. Must be
+	 * called by all methods accessing the attribute values.
+	 */
+	protected final void internalEnsureAttributesDecoded() {
+		LazyAttributes l = graph.lazyAttributes;
+		if (l != null) {
+			l.decode(graph, this);
+		}
+	}
+
 	@Override
 	public Graph getGraph() {
 		return graph;
@@ -37,6 +37,7 @@ package de.uni_koblenz.jgralab.impl;
 
 import java.lang.reflect.Constructor;
 import java.util.HashMap;
+import java.util.concurrent.locks.Lock;
 
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.Graph;
@@ -46,6 +47,7 @@ import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.exception.GraphException;
 import de.uni_koblenz.jgralab.schema.EdgeClass;
 import de.uni_koblenz.jgralab.schema.GraphClass;
+import de.uni_koblenz.jgralab.schema.GraphElementClass;
 import de.uni_koblenz.jgralab.schema.Schema;
 import de.uni_koblenz.jgralab.schema.VertexClass;
 import de.uni_koblenz.jgralab.schema.exception.SchemaClassAccessException;
@@ -57,6 +59,20 @@ import de.uni_koblenz.jgralab.schema.exception.SchemaException;
  * <code>setImplementationClass</code>-methods. Class is abstract because only
  * factories which are specific for their schema should be used.
  * 
+ * Generated factories don't create vertices and edges reflectively. They
+ * register a creation slot for each non-abstract class with
+ * {@link #setVertexCreationSlot(VertexClass, int)} and
+ * {@link #setEdgeCreationSlot(EdgeClass, int)}, and override
+ * {@link #newVertexInstance(int, int, Graph)} and
+ * {@link #newEdgeInstance(int, int, Graph, Vertex, Vertex)} with a
+ * <code>switch</code> over those slots calling the implementation
+ * constructors directly. Slots are looked up by
+ * {@link GraphElementClass#getGraphElementClassIdInSchema()}, so the lookup is
+ * an array access. Implementation classes set with
+ * {@link #setVertexImplementationClass(VertexClass, Class)} or
+ * {@link #setEdgeImplementationClass(EdgeClass, Class)} take precedence over
+ * the slots and are instantiated reflectively.
+ * 
  * @author ist@uni-koblenz.de
  */
 public abstract class GraphFactoryImpl implements GraphFactory {
@@ -66,6 +82,11 @@ public abstract class GraphFactoryImpl implements GraphFactory {
 	protected HashMap<EdgeClass, Constructor<? extends Edge>> edgeMap;
 	protected HashMap<VertexClass, Constructor<? extends Vertex>> vertexMap;
 
+	// Indexed by GraphElementClass id: explicitly set implementation
+	// constructors and creation slots (slot + 1, 0 means no slot).
+	private Constructor<?>[] constructors;
+	private int[] creationSlots;
+
 	protected Schema schema;
 	protected ImplementationType implementationType;
 
@@ -82,6 +103,59 @@ public abstract class GraphFactoryImpl implements GraphFactory {
 	protected void createMaps() {
 		edgeMap = new HashMap<EdgeClass, Constructor<? extends Edge>>();
 		vertexMap = new HashMap<VertexClass, Constructor<? extends Vertex>>();
+		constructors = new Constructor<?>[schema.getGraphElementClassCount()];
+		creationSlots = new int[constructors.length];
+	}
+
+	/**
+	 * Registers <code>slot</code> as creation slot of <code>vc</code>, i.e.,
+	 * {@link #createVertex(VertexClass, int, Graph)} delegates to
+	 * {@link #newVertexInstance(int, int, Graph)} with that slot.
+	 */
+	protected void setVertexCreationSlot(VertexClass vc, int slot) {
+		setCreationSlot(vc, slot);
+	}
+
+	/**
+	 * Registers <code>slot</code> as creation slot of <code>ec</code>, i.e.,
+	 * {@link #createEdge(EdgeClass, int, Graph, Vertex, Vertex)} delegates to
+	 * {@link #newEdgeInstance(int, int, Graph, Vertex, Vertex)} with that
+	 * slot.
+	 */
+	protected void setEdgeCreationSlot(EdgeClass ec, int slot) {
+		setCreationSlot(ec, slot);
+	}
+
+	private void setCreationSlot(GraphElementClass<?, ?> gec, int slot) {
+		if (graphCreated) {
+			throw new IllegalStateException(
+					"Can't change creation slots after a graph was created.");
+		}
+		assert slot >= 0;
+		creationSlots[gec.getGraphElementClassIdInSchema()] = slot + 1;
+	}
+
+	/**
+	 * Creates a new vertex of the class registered with
+	 * {@link #setVertexCreationSlot(VertexClass, int)}. Overridden by generated
+	 * factories.
+	 * 
+	 * @return the new vertex, or null if <code>slot</code> is unknown
+	 */
+	protected Vertex newVertexInstance(int slot, int id, Graph g) {
+		return null;
+	}
+
+	/**
+	 * Creates a new edge of the class registered with
+	 * {@link #setEdgeCreationSlot(EdgeClass, int)}. Overridden by generated
+	 * factories.
+	 * 
+	 * @return the new edge, or null if <code>slot</code> is unknown
+	 */
+	protected Edge newEdgeInstance(int slot, int id, Graph g, Vertex alpha,
+			Vertex omega) {
+		return null;
 	}
 
 	// ---------------------------------------------------
@@ -141,56 +215,90 @@ public abstract class GraphFactoryImpl implements GraphFactory {
 	@Override
 	public <E extends Edge> E createEdge(EdgeClass ec, int id, Graph g,
 			Vertex alpha, Vertex omega) {
-		try {
-			InternalGraph ig = (InternalGraph) g;
-			ig.fireBeforeCreateEdge(ec, alpha, omega);
-			E newInstance;
-			if (ec.equals(g.getGraphClass().getTemporaryEdgeClass())) {
-				newInstance = (E) g.createTemporaryEdge(alpha, omega);
-			} else if (alpha.isTemporary() || omega.isTemporary()) {
-				newInstance = (E) g.createTemporaryEdge(ec, alpha, omega);
-			} else {
-				newInstance = (E) edgeMap.get(ec).newInstance(id, g, alpha,
-						omega);
+		InternalGraph ig = (InternalGraph) g;
+		ig.fireBeforeCreateEdge(ec, alpha, omega);
+		E newInstance;
+		if (ec.equals(g.getGraphClass().getTemporaryEdgeClass())) {
+			newInstance = (E) g.createTemporaryEdge(alpha, omega);
+		} else if (alpha.isTemporary() || omega.isTemporary()) {
+			newInstance = (E) g.createTemporaryEdge(ec, alpha, omega);
+		} else {
+			int classId = ec.getGraphElementClassIdInSchema();
+			Constructor<?> c = constructors[classId];
+			int slot = creationSlots[classId] - 1;
+			// the new edge is visible to snapshot() only when complete
+			Lock w = ((GraphBaseImpl) g).beginWrite();
+			try {
+				if ((c == null) && (slot >= 0)) {
+					newInstance = (E) newEdgeInstance(slot, id, g, alpha,
+							omega);
+				} else {
+					newInstance = (E) newInstance(c, ec, id, g, alpha, omega);
+				}
 				((InternalAttributedElement) newInstance)
 						.internalInitializeSetAttributesBitSet();
+			} finally {
+				GraphBaseImpl.endWrite(w);
 			}
-			ig.fireAfterCreateEdge(newInstance);
-			return newInstance;
-		} catch (Exception ex) {
-			if (ex.getCause() instanceof GraphException) {
-				throw new GraphException(ex.getCause().getLocalizedMessage(),
-						ex);
-			}
-			throw new SchemaClassAccessException("Cannot create edge of class "
-					+ ec.getQualifiedName(), ex);
 		}
+		ig.fireAfterCreateEdge(newInstance);
+		return newInstance;
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public <V extends Vertex> V createVertex(VertexClass vc, int id, Graph g) {
-		try {
-			InternalGraph ig = (InternalGraph) g;
-			ig.fireBeforeCreateVertex(vc);
-			V newInstance;
-			if (vc.equals(g.getGraphClass().getTemporaryVertexClass())) {
-				newInstance = (V) g.createTemporaryVertex();
-			} else {
-				newInstance = (V) vertexMap.get(vc).newInstance(id, g);
+		InternalGraph ig = (InternalGraph) g;
+		ig.fireBeforeCreateVertex(vc);
+		V newInstance;
+		if (vc.equals(g.getGraphClass().getTemporaryVertexClass())) {
+			newInstance = (V) g.createTemporaryVertex();
+		} else {
+			int classId = vc.getGraphElementClassIdInSchema();
+			Constructor<?> c = constructors[classId];
+			int slot = creationSlots[classId] - 1;
+			// the new vertex is visible to snapshot() only when complete
+			Lock w = ((GraphBaseImpl) g).beginWrite();
+			try {
+				if ((c == null) && (slot >= 0)) {
+					newInstance = (V) newVertexInstance(slot, id, g);
+				} else {
+					newInstance = (V) newInstance(c, vc, id, g);
+				}
 				((InternalAttributedElement) newInstance)
 						.internalInitializeSetAttributesBitSet();
+			} finally {
+				GraphBaseImpl.endWrite(w);
 			}
-			ig.fireAfterCreateVertex(newInstance);
-			return newInstance;
+		}
+		ig.fireAfterCreateVertex(newInstance);
+		return newInstance;
+	}
+
+	/**
+	 * Reflectively creates an instance of a vertex or edge class, used for
+	 * implementation classes set explicitly and by factories without creation
+	 * slots.
+	 */
+	private Object newInstance(Constructor<?> c, GraphElementClass<?, ?> gec,
+			Object... args) {
+		try {
+			if (c == null) {
+				throw new SchemaClassAccessException(
+						"No implementation class for "
+								+ gec.getQualifiedName());
+			}
+			return c.newInstance(args);
+		} catch (GraphException ex) {
+			throw ex;
 		} catch (Exception ex) {
 			if (ex.getCause() instanceof GraphException) {
 				throw new GraphException(ex.getCause().getLocalizedMessage(),
 						ex);
 			}
-			throw new SchemaClassAccessException(
-					"Cannot create vertex of class " + vc.getQualifiedName(),
-					ex);
+			throw new SchemaClassAccessException("Cannot create "
+					+ (gec instanceof VertexClass ? "vertex" : "edge")
+					+ " of class " + gec.getQualifiedName(), ex);
 		}
 	}
 
@@ -205,7 +313,10 @@ public abstract class GraphFactoryImpl implements GraphFactory {
 		if (isSuperclassOrEqual(originalClass, implementationClass)) {
 			try {
 				Class<?>[] params = { int.class, Graph.class };
-				vertexMap.put(vc, implementationClass.getConstructor(params));
+				Constructor<? extends Vertex> c = implementationClass
+						.getConstructor(params);
+				vertexMap.put(vc, c);
+				constructors[vc.getGraphElementClassIdInSchema()] = c;
 			} catch (NoSuchMethodException ex) {
 				throw new SchemaClassAccessException(
 						"Unable to locate default constructor for vertexclass"
@@ -229,7 +340,10 @@ public abstract class GraphFactoryImpl implements GraphFactory {
 			try {
 				Class<?>[] params = { int.class, Graph.class, Vertex.class,
 						Vertex.class };
-				edgeMap.put(ec, implementationClass.getConstructor(params));
+				Constructor<? extends Edge> c = implementationClass
+						.getConstructor(params);
+				edgeMap.put(ec, c);
+				constructors[ec.getGraphElementClassIdInSchema()] = c;
 			} catch (NoSuchMethodException ex) {
 				throw new SchemaClassAccessException(
 						"Unable to locate default constructor for edgeclass"
@@ -90,6 +90,13 @@ public abstract class IncidenceImpl extends GraphElementImpl<EdgeClass, Edge>
 	@Override
 	public Edge getNextIncidence(EdgeDirection orientation) {
 		assert isValid();
+		if (orientation != EdgeDirection.INOUT) {
+			IncidencePartition p = IncidencePartition.of(getIncidentVertex());
+			if ((p != null) && p.contains(this, null, orientation)) {
+				return p.accept(p.next(this, null, orientation), null,
+						orientation, graph.getTraversalContext());
+			}
+		}
 		Edge i = getNextIncidence();
 		switch (orientation) {
 		case IN:
@@ -190,6 +197,20 @@ public abstract class IncidenceImpl extends GraphElementImpl<EdgeClass, Edge>
 			EdgeDirection orientation, boolean noSubclasses) {
 		assert anEdgeClass != null;
 		assert isValid();
+		if (IncidencePartition.covers(anEdgeClass, getIncidentVertex())) {
+			IncidencePartition p = IncidencePartition.of(getIncidentVertex());
+			if ((p != null) && p.contains(this, anEdgeClass, orientation)) {
+				TraversalContext tc = graph.getTraversalContext();
+				InternalEdge i = p.accept(p.next(this, anEdgeClass, orientation),
+						anEdgeClass, orientation, tc);
+				while (noSubclasses && (i != null)
+						&& (i.getAttributedElementClass() != anEdgeClass)) {
+					i = p.accept(p.next(i, anEdgeClass, orientation),
+							anEdgeClass, orientation, tc);
+				}
+				return i;
+			}
+		}
 		Edge currentEdge = getNextIncidence(orientation);
 		while (currentEdge != null) {
 			if (noSubclasses) {
@@ -0,0 +1,393 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.TraversalContext;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+
+/**
+ * IncidencePartition splits the incidence list of a vertex into chains per
+ * direction and per EdgeClass. Each chain is a doubly linked list of the
+ * matching incidences in the order of the incidence list, so that typed and
+ * directed navigation only touches matching incidences. The global incidence
+ * list is left untouched.<br/>
+ * <br/>
+ * 
+ * An incidence of direction <code>d</code> whose EdgeClass has the class chain
+ * <code>c_0, ..., c_n-1</code> (see {@link ClassChains}) is contained in the
+ * chains <code>(c_k, d)</code> (slot <code>2 * k</code>),
+ * <code>(c_k, INOUT)</code> (slot <code>2 * k + 1</code>) and
+ * <code>(any class, d)</code> (slot <code>2 * n</code>). The links are stored
+ * in an array held by the incidence itself (see
+ * {@link InternalEdge#getIncidencePartitionLinks()}), where slot
+ * <code>s</code> uses the entries <code>2 * s</code> (next) and
+ * <code>2 * s + 1</code> (previous).<br/>
+ * <br/>
+ * 
+ * Partitions are only built for vertices with at least
+ * {@link #MIN_DEGREE} incidences on their first typed or directed access, and
+ * only if the schema enables them (see
+ * {@link de.uni_koblenz.jgralab.schema.Schema#partitionsIncidenceLists()}).
+ * Once built, a partition is maintained by the vertex when incidences are
+ * appended, removed or moved, and discarded when the incidence list is
+ * sorted.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public final class IncidencePartition {
+
+	/**
+	 * Vertices with fewer incidences aren't partitioned, skipping over
+	 * non-matching incidences is cheap for them.
+	 */
+	static final int MIN_DEGREE = 16;
+
+	private static final int OUT = 0;
+	private static final int IN = 1;
+	private static final int INOUT = 2;
+
+	private final ClassChains chains;
+
+	/**
+	 * Keys of the chains of this partition (see {@link #key(int, int)}) and
+	 * their first and last incidences.
+	 */
+	private int[] keys = new int[8];
+	private InternalEdge[] first = new InternalEdge[8];
+	private InternalEdge[] last = new InternalEdge[8];
+	private int size;
+
+	private IncidencePartition(ClassChains chains, InternalVertex v) {
+		this.chains = chains;
+		for (InternalEdge i = v.getFirstIncidenceInISeq(); i != null; i = i
+				.getNextIncidenceInISeq()) {
+			link(i);
+		}
+	}
+
+	/**
+	 * Returns the incidence partition of <code>v</code> if navigation may use
+	 * it. The partition is built on first use if the schema enables incidence
+	 * partitions and <code>v</code> has enough incidences.
+	 * 
+	 * @return the incidence partition of <code>v</code>, or null
+	 */
+	static IncidencePartition of(InternalVertex v) {
+		GraphBaseImpl g = (GraphBaseImpl) v.getGraph();
+		if (!g.getSchema().partitionsIncidenceLists()
+				|| !g.hasClassSequences()) {
+			return null;
+		}
+		IncidencePartition p = v.getIncidencePartition();
+		if ((p == null)
+				&& ((v.getInDegreeInISeq() + v.getOutDegreeInISeq()) >= MIN_DEGREE)) {
+			synchronized (v) {
+				p = v.getIncidencePartition();
+				if (p == null) {
+					p = new IncidencePartition(g.classChains, v);
+					v.setIncidencePartition(p);
+				}
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * Checks if typed navigation along incidences of class <code>ec</code> may
+	 * use incidence partitions. The default EdgeClass is not covered since
+	 * every edge is an instance of it.
+	 */
+	static boolean covers(EdgeClass ec, InternalVertex v) {
+		return !ec.isDefaultGraphElementClass()
+				&& (ec.getSchema() == v.getSchema());
+	}
+
+	/**
+	 * @return the first incidence of class <code>ec</code> (any class if null)
+	 *         and direction <code>dir</code>, or null
+	 */
+	InternalEdge first(EdgeClass ec, EdgeDirection dir) {
+		int h = indexOf(key(ec, dir));
+		return h < 0 ? null : first[h];
+	}
+
+	/**
+	 * @return true iff <code>i</code> is contained in the chain of class
+	 *         <code>ec</code> (any class if null) and direction
+	 *         <code>dir</code>
+	 */
+	boolean contains(InternalEdge i, EdgeClass ec, EdgeDirection dir) {
+		return slot(i, key(ec, dir)) >= 0;
+	}
+
+	/**
+	 * @return the successor of <code>i</code> in the chain of class
+	 *         <code>ec</code> (any class if null) and direction
+	 *         <code>dir</code>, or null
+	 */
+	InternalEdge next(InternalEdge i, EdgeClass ec, EdgeDirection dir) {
+		int s = slot(i, key(ec, dir));
+		assert s >= 0 : i + " is not contained in chain (" + ec + ", " + dir
+				+ ")";
+		return (InternalEdge) i.getIncidencePartitionLinks()[2 * s];
+	}
+
+	/**
+	 * @return <code>i</code> or its first successor in the chain of class
+	 *         <code>ec</code> and direction <code>dir</code> which is
+	 *         contained in the traversal context <code>tc</code>
+	 */
+	InternalEdge accept(InternalEdge i, EdgeClass ec, EdgeDirection dir,
+			TraversalContext tc) {
+		if (tc != null) {
+			while ((i != null) && !tc.containsEdge(i)) {
+				i = next(i, ec, dir);
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * Must be called after <code>i</code> has been appended to the incidence
+	 * list.
+	 */
+	void appended(InternalEdge i) {
+		link(i);
+	}
+
+	/**
+	 * Must be called before <code>i</code> is removed from the incidence list.
+	 */
+	void removed(InternalEdge i) {
+		unlink(i);
+	}
+
+	/**
+	 * Must be called after <code>i</code> has been moved to another position
+	 * in the incidence list. In each chain, <code>i</code> is inserted after
+	 * the nearest predecessor in the incidence list which belongs to the same
+	 * chain.
+	 */
+	public void moved(InternalEdge i) {
+		unlink(i);
+		int[] chain = chains.get(i.getAttributedElementClass());
+		int d = direction(i);
+		int slots = (2 * chain.length) + 1;
+		Object[] links = new Object[2 * slots];
+		boolean[] found = new boolean[slots];
+		int open = slots;
+		for (InternalEdge p = i.getPrevIncidenceInISeq(); (p != null)
+				&& (open > 0); p = p.getPrevIncidenceInISeq()) {
+			for (int s = 0; s < slots; ++s) {
+				if (!found[s]) {
+					int key = keyOfSlot(chain, d, s);
+					int ps = slot(p, key);
+					if (ps >= 0) {
+						Object[] pl = p.getIncidencePartitionLinks();
+						InternalEdge n = (InternalEdge) pl[2 * ps];
+						links[2 * s] = n;
+						links[(2 * s) + 1] = p;
+						pl[2 * ps] = i;
+						setPrev(n, key, i);
+						found[s] = true;
+						--open;
+					}
+				}
+			}
+		}
+		for (int s = 0; s < slots; ++s) {
+			if (!found[s]) {
+				int key = keyOfSlot(chain, d, s);
+				int h = head(key);
+				InternalEdge n = first[h];
+				links[2 * s] = n;
+				first[h] = i;
+				setPrev(n, key, i);
+			}
+		}
+		i.setIncidencePartitionLinks(links);
+	}
+
+	/**
+	 * Clears the links of all incidences of <code>v</code>. The partition must
+	 * not be used afterwards.
+	 */
+	void discard(InternalVertex v) {
+		for (InternalEdge i = v.getFirstIncidenceInISeq(); i != null; i = i
+				.getNextIncidenceInISeq()) {
+			i.setIncidencePartitionLinks(null);
+		}
+		keys = null;
+		first = null;
+		last = null;
+		size = 0;
+	}
+
+	private void link(InternalEdge i) {
+		int[] chain = chains.get(i.getAttributedElementClass());
+		int d = direction(i);
+		int slots = (2 * chain.length) + 1;
+		Object[] links = new Object[2 * slots];
+		for (int s = 0; s < slots; ++s) {
+			int key = keyOfSlot(chain, d, s);
+			int h = head(key);
+			InternalEdge l = last[h];
+			if (l == null) {
+				first[h] = i;
+			} else {
+				l.getIncidencePartitionLinks()[2 * slot(l, key)] = i;
+			}
+			links[(2 * s) + 1] = l;
+			last[h] = i;
+		}
+		i.setIncidencePartitionLinks(links);
+	}
+
+	private void unlink(InternalEdge i) {
+		int[] chain = chains.get(i.getAttributedElementClass());
+		int d = direction(i);
+		int slots = (2 * chain.length) + 1;
+		Object[] links = i.getIncidencePartitionLinks();
+		for (int s = 0; s < slots; ++s) {
+			int key = keyOfSlot(chain, d, s);
+			InternalEdge n = (InternalEdge) links[2 * s];
+			InternalEdge p = (InternalEdge) links[(2 * s) + 1];
+			if (p == null) {
+				first[indexOf(key)] = n;
+			} else {
+				p.getIncidencePartitionLinks()[2 * slot(p, key)] = n;
+			}
+			setPrev(n, key, p);
+		}
+		i.setIncidencePartitionLinks(null);
+	}
+
+	/**
+	 * Sets the predecessor of <code>i</code> in the chain with key
+	 * <code>key</code> to <code>p</code>. If <code>i</code> is null,
+	 * <code>p</code> becomes the last incidence of that chain.
+	 */
+	private void setPrev(InternalEdge i, int key, InternalEdge p) {
+		if (i == null) {
+			last[indexOf(key)] = p;
+		} else {
+			i.getIncidencePartitionLinks()[(2 * slot(i, key)) + 1] = p;
+		}
+	}
+
+	/**
+	 * @return the slot of the chain with key <code>key</code> in the links of
+	 *         <code>i</code>, or -1 if <code>i</code> isn't contained in that
+	 *         chain
+	 */
+	private int slot(InternalEdge i, int key) {
+		int c = (key / 3) - 1;
+		int q = key % 3;
+		int d = direction(i);
+		int[] chain = chains.get(i.getAttributedElementClass());
+		if (c < 0) {
+			return q == d ? 2 * chain.length : -1;
+		}
+		int k = ClassChains.indexOf(chain, c);
+		if (k < 0) {
+			return -1;
+		}
+		if (q == INOUT) {
+			return (2 * k) + 1;
+		}
+		return q == d ? 2 * k : -1;
+	}
+
+	private static int keyOfSlot(int[] chain, int d, int s) {
+		if (s == (2 * chain.length)) {
+			return key(-1, d);
+		}
+		return key(chain[s / 2], (s % 2) == 0 ? d : INOUT);
+	}
+
+	private static int key(EdgeClass ec, EdgeDirection dir) {
+		assert (ec != null) || (dir != EdgeDirection.INOUT);
+		return key(ec == null ? -1 : ec.getGraphElementClassIdInSchema(),
+				dir == EdgeDirection.OUT ? OUT
+						: dir == EdgeDirection.IN ? IN : INOUT);
+	}
+
+	/**
+	 * @return the key of the chain of class id <code>c</code> (-1 for any
+	 *         class) and direction <code>d</code>
+	 */
+	private static int key(int c, int d) {
+		return (3 * (c + 1)) + d;
+	}
+
+	private static int direction(InternalEdge i) {
+		return i.isNormal() ? OUT : IN;
+	}
+
+	private int indexOf(int key) {
+		for (int h = 0; h < size; ++h) {
+			if (keys[h] == key) {
+				return h;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the index of the chain with key <code>key</code>, which is added
+	 *         if it doesn't exist yet
+	 */
+	private int head(int key) {
+		int h = indexOf(key);
+		if (h >= 0) {
+			return h;
+		}
+		if (size == keys.length) {
+			int n = 2 * size;
+			int[] newKeys = new int[n];
+			System.arraycopy(keys, 0, newKeys, 0, size);
+			keys = newKeys;
+			InternalEdge[] newFirst = new InternalEdge[n];
+			System.arraycopy(first, 0, newFirst, 0, size);
+			first = newFirst;
+			InternalEdge[] newLast = new InternalEdge[n];
+			System.arraycopy(last, 0, newLast, 0, size);
+			last = newLast;
+		}
+		keys[size] = key;
+		return size++;
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+
+/**
+ * A {@link RangeSpliterator} over the incidences of a vertex. Incidences are
+ * not indexed, so the incidence sequence is collected into an array on
+ * creation, using the {@link de.uni_koblenz.jgralab.TraversalContext} of the
+ * creating thread, and the array is split. The order is the order of the
+ * incidence sequence. Instances should only be created by
+ * {@link de.uni_koblenz.jgralab.Vertex#incidenceSpliterator(EdgeClass, EdgeDirection)}
+ * .
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class IncidenceSpliterator extends RangeSpliterator<Edge> {
+	private final InternalVertex vertex;
+	private final Edge[] incidences;
+	private final long incidenceListVersion;
+
+	public IncidenceSpliterator(InternalVertex v, EdgeClass ec,
+			EdgeDirection dir) {
+		this(v, collect(v, ec, dir), v.getIncidenceListVersion(), 0);
+	}
+
+	private IncidenceSpliterator(InternalVertex v, Edge[] incidences,
+			long incidenceListVersion, int origin) {
+		this(v, incidences, incidenceListVersion, origin, incidences.length);
+	}
+
+	private IncidenceSpliterator(InternalVertex v, Edge[] incidences,
+			long incidenceListVersion, int origin, int fence) {
+		super(v.getGraph(), origin, fence);
+		vertex = v;
+		this.incidences = incidences;
+		this.incidenceListVersion = incidenceListVersion;
+	}
+
+	private static Edge[] collect(InternalVertex v, EdgeClass ec,
+			EdgeDirection dir) {
+		assert (v != null) && v.isValid();
+		List<Edge> l = new ArrayList<Edge>(v.getDegree());
+		for (Edge e = ec == null ? v.getFirstIncidence(dir) : v
+				.getFirstIncidence(ec, dir); e != null; e = ec == null ? e
+				.getNextIncidence(dir) : e.getNextIncidence(ec, dir)) {
+			l.add(e);
+		}
+		return l.toArray(new Edge[l.size()]);
+	}
+
+	@Override
+	protected Edge elementAt(int i) {
+		return incidences[i];
+	}
+
+	@Override
+	protected RangeSpliterator<Edge> createPart(int origin, int fence) {
+		return new IncidenceSpliterator(vertex, incidences,
+				incidenceListVersion, origin, fence);
+	}
+
+	@Override
+	protected void checkModification() {
+		if (vertex.isIncidenceListModified(incidenceListVersion)) {
+			throw new ConcurrentModificationException(
+					"The incidence list of the vertex has been modified - the spliterator is not longer valid");
+		}
+	}
+}
@@ -79,4 +79,15 @@ public interface InternalEdge extends Edge,
 
 	public void setPrevIncidenceInternal(InternalEdge prevIncidence);
 
+	/**
+	 * Returns the links of this incidence in the partitioned incidence list of
+	 * its vertex, or null if that hasn't been built.
+	 * 
+	 * @return the incidence partition links of this incidence
+	 * @see IncidencePartition
+	 */
+	public Object[] getIncidencePartitionLinks();
+
+	public void setIncidencePartitionLinks(Object[] incidencePartitionLinks);
+
 }
@@ -189,6 +189,54 @@ public interface InternalGraph extends Graph, InternalAttributedElement {
 	 */
 	public void defragment();
 
+	/**
+	 * Incrementally defragments this graph by moving at most
+	 * <code>maxMoves</code> vertices and edges with high ids into the gaps of
+	 * the vertex and edge arrays. In contrast to {@link #defragment()}, the
+	 * arrays are not shortened, so that the costs of one call are bounded by
+	 * <code>maxMoves</code>. All registered
+	 * <code>GraphStructureChangedListener</code>s are notified about the new
+	 * ids in one batch for vertices and one for edges. Long-running
+	 * applications may call this method repeatedly, e.g. whenever
+	 * {@link FreeIndexList#getFragmentation()} of {@link #getFreeVertexList()}
+	 * or {@link #getFreeEdgeList()} exceeds some threshold, until it returns
+	 * 0.
+	 * 
+	 * <b>Attention:</b> defragment(int) possibly changes vertex and edge IDs!
+	 * 
+	 * @param maxMoves
+	 *            the maximum number of vertices and edges to move
+	 * @return the number of moved vertices and edges, 0 if this graph is not
+	 *         fragmented
+	 */
+	public int defragment(int maxMoves);
+
+	/**
+	 * Gives the vertices with ids <code>oldIds[i]</code> the unused ids
+	 * <code>newIds[i]</code>, in order, and notifies all registered
+	 * <code>GraphStructureChangedListener</code>s like
+	 * {@link #defragment(int)}. Used to replay a recorded defragmentation.
+	 * 
+	 * @param oldIds
+	 *            the current ids of the vertices to move
+	 * @param newIds
+	 *            the new ids of the vertices
+	 */
+	public void renumberVertices(int[] oldIds, int[] newIds);
+
+	/**
+	 * Gives the edges with ids <code>oldIds[i]</code> the unused ids
+	 * <code>newIds[i]</code>, in order, and notifies all registered
+	 * <code>GraphStructureChangedListener</code>s like
+	 * {@link #defragment(int)}. Used to replay a recorded defragmentation.
+	 * 
+	 * @param oldIds
+	 *            the current ids of the edges to move
+	 * @param newIds
+	 *            the new ids of the edges
+	 */
+	public void renumberEdges(int[] oldIds, int[] newIds);
+
 	/**
 	 * Returns the first Vertex in the vertex sequence of this Graph.
 	 * 
@@ -203,6 +251,25 @@ public interface InternalGraph extends Graph, InternalAttributedElement {
 	 */
 	public InternalVertex getLastVertexInVSeq();
 
+	/**
+	 * Returns the first Vertex of class <code>vertexClass</code> (or one of
+	 * its subclasses) in the vertex sequence of this Graph, regardless of any
+	 * traversal context.
+	 * 
+	 * @return the first such Vertex, or null if there is none
+	 */
+	public InternalVertex getFirstVertexInVSeq(VertexClass vertexClass);
+
+	/**
+	 * Returns the next Vertex of class <code>vertexClass</code> (or one of its
+	 * subclasses) after <code>vertex</code> in the vertex sequence of this
+	 * Graph, regardless of any traversal context.
+	 * 
+	 * @return the next such Vertex, or null if there is none
+	 */
+	public InternalVertex getNextVertexInVSeq(InternalVertex vertex,
+			VertexClass vertexClass);
+
 	/**
 	 * Returns the first Edge in the edge sequence of this Graph.
 	 * 
@@ -217,6 +284,25 @@ public interface InternalGraph extends Graph, InternalAttributedElement {
 	 */
 	public InternalEdge getLastEdgeInESeq();
 
+	/**
+	 * Returns the first Edge of class <code>edgeClass</code> (or one of its
+	 * subclasses) in the edge sequence of this Graph, regardless of any
+	 * traversal context.
+	 * 
+	 * @return the first such Edge, or null if there is none
+	 */
+	public InternalEdge getFirstEdgeInESeq(EdgeClass edgeClass);
+
+	/**
+	 * Returns the next Edge of class <code>edgeClass</code> (or one of its
+	 * subclasses) after <code>edge</code> in the edge sequence of this Graph,
+	 * regardless of any traversal context.
+	 * 
+	 * @return the next such Edge, or null if there is none
+	 */
+	public InternalEdge getNextEdgeInESeq(InternalEdge edge,
+			EdgeClass edgeClass);
+
 	public void internalEdgeAdded(InternalEdge e);
 
 	public void internalVertexAdded(InternalVertex v);
@@ -389,10 +475,6 @@ public interface InternalGraph extends Graph, InternalAttributedElement {
 
 	public void setEdge(InternalEdge[] edge);
 
-	public InternalEdge[] getRevEdge();
-
-	public void setRevEdge(InternalEdge[] revEdge);
-
 	public FreeIndexList getFreeEdgeList();
 
 	/**
@@ -479,6 +561,32 @@ public interface InternalGraph extends Graph, InternalAttributedElement {
 	 */
 	public void notifyMaxEdgeCountIncreased(int newValue);
 
+	/**
+	 * Notifies all registered <code>GraphStructureChangedListener</code> that
+	 * the vertices with the given <code>oldIds</code> have been renumbered to
+	 * the given <code>newIds</code>. All invalid <code>WeakReference</code>s
+	 * are deleted automatically from the internal listener list.
+	 * 
+	 * @param oldIds
+	 *            the former ids of the renumbered vertices
+	 * @param newIds
+	 *            the new ids of the renumbered vertices
+	 */
+	public void notifyVerticesRenumbered(int[] oldIds, int[] newIds);
+
+	/**
+	 * Notifies all registered <code>GraphStructureChangedListener</code> that
+	 * the edges with the given <code>oldIds</code> have been renumbered to the
+	 * given <code>newIds</code>. All invalid <code>WeakReference</code>s are
+	 * deleted automatically from the internal listener list.
+	 * 
+	 * @param oldIds
+	 *            the former ids of the renumbered edges
+	 * @param newIds
+	 *            the new ids of the renumbered edges
+	 */
+	public void notifyEdgesRenumbered(int[] oldIds, int[] newIds);
+
 	/**
 	 * Modifies eSeq such that the movedEdge is immediately after the
 	 * targetEdge.
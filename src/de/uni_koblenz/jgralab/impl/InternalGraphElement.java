@@ -65,4 +65,15 @@ public interface InternalGraphElement<SC extends GraphElementClass<SC, IC>, IC e
 	 */
 	public void graphModified();
 
+	/**
+	 * Returns the links of this element in the per-class sequences of its
+	 * graph, or null if those haven't been built.
+	 * 
+	 * @return the per-class sequence links of this element
+	 * @see ClassSequence
+	 */
+	public Object[] getClassSeqLinks();
+
+	public void setClassSeqLinks(Object[] classSeqLinks);
+
 }
@@ -91,6 +91,48 @@ public interface InternalVertex extends Vertex,
 
 	public void setLastIncidence(InternalEdge lastIncidence);
 
+	/**
+	 * @return the number of incoming incidences in the incidence list of this
+	 *         vertex, regardless of any traversal context
+	 */
+	public int getInDegreeInISeq();
+
+	/**
+	 * @return the number of outgoing incidences in the incidence list of this
+	 *         vertex, regardless of any traversal context
+	 */
+	public int getOutDegreeInISeq();
+
+	public void setInDegree(int inDegree);
+
+	public void setOutDegree(int outDegree);
+
+	/**
+	 * Returns the per-EdgeClass degree counters of this vertex, or null if
+	 * they are not maintained. The number of outgoing incidences of the
+	 * EdgeClass with id <code>c</code> (see
+	 * {@link de.uni_koblenz.jgralab.schema.GraphElementClass#getGraphElementClassIdInSchema()})
+	 * is stored at index <code>2 * c</code>, the number of incoming ones at
+	 * index <code>2 * c + 1</code>. Only direct instances are counted.
+	 * 
+	 * @return the per-EdgeClass degree counters or null
+	 * @see de.uni_koblenz.jgralab.schema.Schema#maintainsEdgeClassDegrees()
+	 */
+	public int[] getEdgeClassDegreesInISeq();
+
+	public void setEdgeClassDegrees(int[] edgeClassDegrees);
+
+	/**
+	 * Returns the partition of the incidence list of this vertex by direction
+	 * and EdgeClass, or null if it hasn't been built.
+	 * 
+	 * @return the incidence partition of this vertex or null
+	 * @see de.uni_koblenz.jgralab.schema.Schema#partitionsIncidenceLists()
+	 */
+	public IncidencePartition getIncidencePartition();
+
+	public void setIncidencePartition(IncidencePartition incidencePartition);
+
 	public void appendIncidenceToISeq(InternalEdge i);
 
 	public void removeIncidenceFromISeq(InternalEdge i);
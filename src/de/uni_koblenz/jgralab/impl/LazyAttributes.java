@@ -0,0 +1,150 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.GraphElement;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+
+/**
+ * Keeps the undecoded attribute values of the vertices and edges of a graph
+ * which was loaded with lazy attribute decoding (see
+ * {@link GraphIO#loadGraphFromFileLazily(String, de.uni_koblenz.jgralab.GraphFactory, de.uni_koblenz.jgralab.ProgressFunction)}
+ * ). For each element with pending attribute values an offset into a format
+ * specific buffer is stored, the values are decoded by
+ * {@link #decode(InternalAttributedElement, int)} on first access to any
+ * attribute of the element.
+ * 
+ * Decoding doesn't fire change events and doesn't change the graph version.
+ * When all elements are decoded, the graph drops its reference to this
+ * object, so that attribute access doesn't pay for lazy decoding any more.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public abstract class LazyAttributes {
+	// offset + 1 of the pending attribute values, 0 if there are none
+	private int[] vertexOffset;
+	private int[] edgeOffset;
+	private int pending;
+
+	protected LazyAttributes(int maxV, int maxE) {
+		vertexOffset = new int[maxV + 1];
+		edgeOffset = new int[maxE + 1];
+	}
+
+	/**
+	 * Decodes the attribute values of element <code>e</code> which start at
+	 * <code>offset</code>.
+	 */
+	protected abstract void decode(InternalAttributedElement e, int offset)
+			throws GraphIOException;
+
+	/**
+	 * Registers the pending attribute values at <code>offset</code> for
+	 * element <code>e</code>. Called by the loader only.
+	 */
+	public final void put(GraphElement<?, ?> e, int offset) {
+		int[] offsets = e instanceof Vertex ? vertexOffset : edgeOffset;
+		int id = e.getId();
+		if (offsets[id] == 0) {
+			++pending;
+		}
+		offsets[id] = offset + 1;
+	}
+
+	/**
+	 * @return the number of elements with pending attribute values
+	 */
+	public final synchronized int getPendingCount() {
+		return pending;
+	}
+
+	/**
+	 * Decodes the attribute values of element <code>e</code> if they are still
+	 * pending.
+	 */
+	final synchronized void decode(GraphBaseImpl graph, GraphElement<?, ?> e) {
+		int[] offsets;
+		if (e instanceof Edge) {
+			e = ((Edge) e).getNormalEdge();
+			offsets = edgeOffset;
+		} else {
+			offsets = vertexOffset;
+		}
+		int id = e.getId();
+		if ((id <= 0) || (id >= offsets.length) || (offsets[id] == 0)) {
+			return;
+		}
+		int offset = offsets[id] - 1;
+		// attribute accessors called while decoding must not decode again
+		offsets[id] = 0;
+		long version = graph.getGraphVersion();
+		boolean loading = graph.setLoading(true);
+		try {
+			decode((InternalAttributedElement) e, offset);
+		} catch (GraphIOException ex) {
+			throw new GraphException("Can't decode attribute values of " + e,
+					ex);
+		} finally {
+			graph.setLoading(loading);
+			graph.setGraphVersion(version);
+			if (--pending == 0) {
+				graph.internalSetLazyAttributes(null);
+			}
+		}
+	}
+
+	/**
+	 * Decodes the pending attribute values of all elements of
+	 * <code>graph</code>.
+	 */
+	final synchronized void decodeAll(GraphBaseImpl graph) {
+		InternalVertex[] vertices = graph.getVertex();
+		for (int id = 1; (id < vertexOffset.length) && (pending > 0); ++id) {
+			if (vertexOffset[id] != 0) {
+				decode(graph, vertices[id]);
+			}
+		}
+		InternalEdge[] edges = graph.getEdge();
+		for (int id = 1; (id < edgeOffset.length) && (pending > 0); ++id) {
+			if (edgeOffset[id] != 0) {
+				decode(graph, edges[id]);
+			}
+		}
+	}
+}
@@ -0,0 +1,293 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.pcollections.ArrayPSet;
+import org.pcollections.POrderedSet;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.PathElement;
+import de.uni_koblenz.jgralab.TraversalContext;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+
+/**
+ * Implements the navigation along rolenames and {@link PathElement}s used by
+ * {@link Vertex#reachableVertices(Class, PathElement...)} and
+ * {@link Vertex#adjacences(String)}.<br/>
+ * <br/>
+ * 
+ * Paths are evaluated level-wise: the frontier of each step is a list of
+ * vertex ids, and every vertex reached in a step is added to the next
+ * frontier only once, which is tracked by a {@link BitSet} indexed by vertex
+ * id. So the work per step is bounded by the number of incidences of the
+ * distinct frontier vertices, no matter by how many paths they are reached.
+ * The vertices are reached in the same order as by a breadth first traversal
+ * of all paths, and the result contains each vertex once, in the order it was
+ * first reached.<br/>
+ * <br/>
+ * 
+ * Large frontiers can optionally be expanded by several threads. The
+ * frontier is split into contiguous parts whose neighbours are collected
+ * concurrently, using the {@link TraversalContext} of the calling thread, and
+ * merged in frontier order, so the result is the same as in sequential mode.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public final class PathNavigator {
+	/**
+	 * Frontiers smaller than this are always expanded sequentially.
+	 */
+	public static final int PARALLEL_THRESHOLD = 4096;
+
+	private static final int PARTS_PER_THREAD = 4;
+
+	private PathNavigator() {
+	}
+
+	/**
+	 * Returns the vertices reachable from <code>start</code> by the path
+	 * described by <code>pathElements</code>, sequentially.
+	 * 
+	 * @see Vertex#reachableVertices(Class, PathElement...)
+	 */
+	public static <T extends Vertex> POrderedSet<T> reachableVertices(
+			Vertex start, Class<T> returnType, PathElement... pathElements) {
+		return reachableVertices(start, returnType, 1, pathElements);
+	}
+
+	/**
+	 * Returns the vertices reachable from <code>start</code> by the path
+	 * described by <code>pathElements</code>. Frontiers with at least
+	 * {@link #PARALLEL_THRESHOLD} vertices are expanded by
+	 * <code>threads</code> threads.
+	 * 
+	 * @param start
+	 *            the start vertex
+	 * @param returnType
+	 *            the class of the vertices to return (acts as implicit goal
+	 *            restriction)
+	 * @param threads
+	 *            the maximum number of threads used for expanding a frontier
+	 * @param pathElements
+	 *            the steps of the path
+	 * @return the set of vertices reachable by traversing the path, in the
+	 *         order they are first reached
+	 */
+	public static <T extends Vertex> POrderedSet<T> reachableVertices(
+			Vertex start, Class<T> returnType, int threads,
+			PathElement... pathElements) {
+		assert (start != null) && start.isValid();
+		if (pathElements.length == 0) {
+			return ArrayPSet.empty();
+		}
+		InternalGraph graph = (InternalGraph) start.getGraph();
+		BitSet marks = new BitSet(graph.getMaxVCount() + 1);
+		int[] frontier = { start.getId() };
+		int size = 1;
+		ExecutorService workers = null;
+		try {
+			for (PathElement step : pathElements) {
+				marks.clear();
+				int[] next;
+				if ((threads > 1) && (size >= PARALLEL_THRESHOLD)) {
+					if (workers == null) {
+						workers = Executors.newFixedThreadPool(threads);
+					}
+					next = expandParallel(graph, frontier, size, step, marks,
+							workers, threads);
+				} else {
+					next = expand(graph, frontier, 0, size, step, marks,
+							new int[Math.max(16, size)]);
+				}
+				size = next[0];
+				frontier = Arrays.copyOfRange(next, 1, size + 1);
+				if (size == 0) {
+					break;
+				}
+			}
+		} finally {
+			if (workers != null) {
+				workers.shutdownNow();
+			}
+		}
+		List<T> result = new ArrayList<T>(size);
+		for (int i = 0; i < size; ++i) {
+			Vertex v = graph.getVertex(frontier[i]);
+			if (returnType.isInstance(v)) {
+				result.add(returnType.cast(v));
+			}
+		}
+		return ArrayPSet.fromDistinct(result);
+	}
+
+	/**
+	 * Returns the vertices adjacent to <code>v</code> via edges of class
+	 * <code>ec</code> (including subclasses) in direction <code>dir</code>,
+	 * one entry per edge, in incidence order.
+	 * 
+	 * @see Vertex#adjacences(String)
+	 */
+	public static List<Vertex> adjacences(Vertex v, EdgeClass ec,
+			EdgeDirection dir) {
+		assert (v != null) && v.isValid();
+		List<Vertex> result = new ArrayList<Vertex>();
+		for (Edge e = firstIncidence(v, ec, dir); e != null; e = nextIncidence(
+				e, ec, dir)) {
+			result.add(e.getThat());
+		}
+		return result;
+	}
+
+	private static Edge firstIncidence(Vertex v, EdgeClass ec,
+			EdgeDirection dir) {
+		return ec == null ? v.getFirstIncidence(dir) : v.getFirstIncidence(
+				ec, dir);
+	}
+
+	private static Edge nextIncidence(Edge e, EdgeClass ec, EdgeDirection dir) {
+		return ec == null ? e.getNextIncidence(dir) : e.getNextIncidence(ec,
+				dir);
+	}
+
+	/**
+	 * Appends the ids of the vertices reachable from
+	 * <code>frontier[from, to)</code> by <code>step</code> to
+	 * <code>out[1..]</code>, skipping and setting vertices in
+	 * <code>marks</code> if given. The number of ids is stored in
+	 * <code>out[0]</code>.
+	 * 
+	 * @return <code>out</code>, or a larger copy of it
+	 */
+	private static int[] expand(Graph graph, int[] frontier, int from, int to,
+			PathElement step, BitSet marks, int[] out) {
+		EdgeClass ec = step.edgeClass;
+		EdgeDirection dir = step.edgeDirection;
+		int n = 0;
+		for (int i = from; i < to; ++i) {
+			Vertex v = graph.getVertex(frontier[i]);
+			for (Edge e = firstIncidence(v, ec, dir); e != null; e = nextIncidence(
+					e, ec, dir)) {
+				if (step.strictType && (ec != e.getAttributedElementClass())) {
+					continue;
+				}
+				int id = e.getThat().getId();
+				if (marks != null) {
+					if (marks.get(id)) {
+						continue;
+					}
+					marks.set(id);
+				}
+				if (++n == out.length) {
+					out = Arrays.copyOf(out, 2 * out.length);
+				}
+				out[n] = id;
+			}
+		}
+		out[0] = n;
+		return out;
+	}
+
+	private static int[] expandParallel(final Graph graph,
+			final int[] frontier, int size, final PathElement step,
+			BitSet marks, ExecutorService workers, int threads) {
+		final TraversalContext tc = graph.getTraversalContext();
+		int parts = Math.min(threads * PARTS_PER_THREAD, size);
+		List<Future<int[]>> expanded = new ArrayList<Future<int[]>>(parts);
+		for (int p = 0; p < parts; ++p) {
+			final int from = (int) ((long) size * p / parts);
+			final int to = (int) ((long) size * (p + 1) / parts);
+			expanded.add(workers.submit(new Callable<int[]>() {
+				@Override
+				public int[] call() {
+					TraversalContext old = graph.setTraversalContext(tc);
+					try {
+						return expand(graph, frontier, from, to, step, null,
+								new int[Math.max(16, to - from)]);
+					} finally {
+						graph.setTraversalContext(old);
+					}
+				}
+			}));
+		}
+		int[] out = new int[Math.max(16, size)];
+		int n = 0;
+		for (Future<int[]> f : expanded) {
+			int[] ids = get(f);
+			for (int i = 1; i <= ids[0]; ++i) {
+				int id = ids[i];
+				if (!marks.get(id)) {
+					marks.set(id);
+					if (++n == out.length) {
+						out = Arrays.copyOf(out, 2 * out.length);
+					}
+					out[n] = id;
+				}
+			}
+		}
+		out[0] = n;
+		return out;
+	}
+
+	private static int[] get(Future<int[]> f) {
+		try {
+			return f.get();
+		} catch (InterruptedException e) {
+			throw new GraphException("Interrupted while navigating path", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new GraphException("Exception while navigating path", cause);
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Lock;
+
+import de.uni_koblenz.jgralab.ElementSpliterator;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphElement;
+import de.uni_koblenz.jgralab.exception.GraphException;
+
+/**
+ * Base class of the {@link ElementSpliterator}s. A {@link RangeSpliterator}
+ * covers the index range <code>[index, fence)</code> of some array-like
+ * element storage, and splits by halving this range. Subclasses map an index
+ * to the element at that position, or to null if there is no element or the
+ * element is filtered out.
+ * 
+ * @author ist@uni-koblenz.de
+ * 
+ * @param <E>
+ *            the element type
+ */
+public abstract class RangeSpliterator<E extends GraphElement<?, ?>> implements
+		ElementSpliterator<E> {
+	/**
+	 * Ranges smaller than this are not split any further.
+	 */
+	static final int MIN_SPLIT_SIZE = 1024;
+
+	/**
+	 * Number of parts per thread created by {@link #forEachParallel(Action)},
+	 * so that differently dense ranges even out.
+	 */
+	private static final int PARTS_PER_THREAD = 4;
+
+	/**
+	 * Creates the threads of {@link #forEachParallel(Action, int)}.
+	 */
+	private static final ThreadFactory WORKERS = new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			return new Worker(r);
+		}
+	};
+
+	/**
+	 * A thread of {@link #forEachParallel(Action, int)}. The calling thread
+	 * holds the read lock on behalf of the workers while waiting for them, so
+	 * a worker must not acquire a lock of the graph: it would block forever
+	 * as soon as a writer is waiting.
+	 */
+	private static final class Worker extends Thread {
+		Worker(Runnable r) {
+			super(r, "ElementSpliterator worker");
+			setDaemon(true);
+		}
+	}
+
+	/**
+	 * @return true iff the current thread is a worker of
+	 *         {@link #forEachParallel(Action, int)}, which must not lock the
+	 *         graph
+	 */
+	static boolean isWorker() {
+		return Thread.currentThread() instanceof Worker;
+	}
+
+	private final Graph graph;
+	private int index;
+	private final int fence;
+	private E next;
+	private int nextIndex;
+
+	protected RangeSpliterator(Graph graph, int origin, int fence) {
+		this.graph = graph;
+		index = origin;
+		this.fence = fence;
+	}
+
+	/**
+	 * @return the element at index <code>i</code>, or null if there is no
+	 *         element or it is not accepted by this spliterator
+	 */
+	protected abstract E elementAt(int i);
+
+	/**
+	 * @return a new spliterator of the same kind, covering the range
+	 *         <code>[origin, fence)</code>
+	 */
+	protected abstract RangeSpliterator<E> createPart(int origin, int fence);
+
+	/**
+	 * Throws a {@link java.util.ConcurrentModificationException} if the
+	 * underlying element sequence has been modified.
+	 */
+	protected abstract void checkModification();
+
+	@Override
+	public boolean hasNext() {
+		checkModification();
+		while ((next == null) && (index < fence)) {
+			nextIndex = index;
+			next = elementAt(index++);
+		}
+		return next != null;
+	}
+
+	@Override
+	public E next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		E result = next;
+		next = null;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException(
+				"It is not allowed to remove elements during iteration.");
+	}
+
+	@Override
+	public ElementSpliterator<E> trySplit() {
+		int lo = next == null ? index : nextIndex;
+		int mid = (lo + fence) >>> 1;
+		if (mid - lo < MIN_SPLIT_SIZE) {
+			return null;
+		}
+		next = null;
+		index = mid;
+		return createPart(lo, mid);
+	}
+
+	@Override
+	public int estimateSize() {
+		return fence - (next == null ? index : nextIndex);
+	}
+
+	@Override
+	public void forEachRemaining(Action<? super E> action) {
+		while (hasNext()) {
+			action.apply(next());
+		}
+	}
+
+	@Override
+	public void forEachParallel(Action<? super E> action) {
+		forEachParallel(action, Runtime.getRuntime().availableProcessors());
+	}
+
+	@Override
+	public void forEachParallel(final Action<? super E> action, int threads) {
+		Lock l = graph.getReadLock();
+		l.lock();
+		try {
+			List<ElementSpliterator<E>> parts = split(threads
+					* PARTS_PER_THREAD);
+			if ((threads <= 1) || (parts.size() == 1)) {
+				for (ElementSpliterator<E> part : parts) {
+					part.forEachRemaining(action);
+				}
+				return;
+			}
+			ExecutorService workers = Executors.newFixedThreadPool(
+					Math.min(threads, parts.size()), WORKERS);
+			try {
+				List<Future<?>> done = new ArrayList<Future<?>>(parts.size());
+				for (final ElementSpliterator<E> part : parts) {
+					done.add(workers.submit(new Callable<Object>() {
+						@Override
+						public Object call() throws Exception {
+							part.forEachRemaining(action);
+							return null;
+						}
+					}));
+				}
+				for (Future<?> f : done) {
+					get(f);
+				}
+			} finally {
+				workers.shutdownNow();
+			}
+		} finally {
+			l.unlock();
+		}
+	}
+
+	/**
+	 * Splits this spliterator into at most <code>count</code> parts by
+	 * repeatedly splitting the largest part.
+	 */
+	private List<ElementSpliterator<E>> split(int count) {
+		List<ElementSpliterator<E>> parts = new ArrayList<ElementSpliterator<E>>();
+		parts.add(this);
+		while (parts.size() < count) {
+			int largest = 0;
+			for (int i = 1; i < parts.size(); ++i) {
+				if (parts.get(i).estimateSize() > parts.get(largest)
+						.estimateSize()) {
+					largest = i;
+				}
+			}
+			ElementSpliterator<E> part = parts.get(largest).trySplit();
+			if (part == null) {
+				break;
+			}
+			parts.add(largest, part);
+		}
+		return parts;
+	}
+
+	private static void get(Future<?> f) {
+		try {
+			f.get();
+		} catch (InterruptedException e) {
+			throw new GraphException("Interrupted while traversing graph", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new GraphException("Exception while traversing graph",
+					cause);
+		}
+	}
+}
@@ -41,6 +41,7 @@ import de.uni_koblenz.jgralab.AttributedElement;
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.NoSuchAttributeException;
 import de.uni_koblenz.jgralab.schema.AggregationKind;
 import de.uni_koblenz.jgralab.schema.EdgeClass;
 
@@ -74,6 +75,17 @@ public abstract class ReversedEdgeBaseImpl extends IncidenceImpl implements
 		return normalEdge.internalGetSetAttributesBitSet();
 	}
 
+	@Override
+	public boolean isUnsetAttribute(String name)
+			throws NoSuchAttributeException {
+		return normalEdge.isUnsetAttribute(name);
+	}
+
+	@Override
+	public void internalMarkAttributeAsSet(int attrIdx, boolean value) {
+		normalEdge.internalMarkAttributeAsSet(attrIdx, value);
+	}
+
 	@Override
 	public Class<? extends Edge> getSchemaClass() {
 		return normalEdge.getSchemaClass();
@@ -281,4 +293,14 @@ public abstract class ReversedEdgeBaseImpl extends IncidenceImpl implements
 		normalEdge.setPrevEdgeInGraph(prevEdge);
 	}
 
+	@Override
+	public Object[] getClassSeqLinks() {
+		return normalEdge.getClassSeqLinks();
+	}
+
+	@Override
+	public void setClassSeqLinks(Object[] classSeqLinks) {
+		normalEdge.setClassSeqLinks(classSeqLinks);
+	}
+
 }
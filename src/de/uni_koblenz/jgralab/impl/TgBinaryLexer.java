@@ -0,0 +1,437 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.impl.TgLexer.Token;
+
+/**
+ * {@link TgBinaryLexer} reads the binary TG format written by
+ * {@link TgBinaryWriter} from {@link ByteBuffer}s, usually the memory mapped
+ * sections of a file. Besides raw access to varints and string references it provides the
+ * same token interface as {@link TgLexer}, so that attribute values are read
+ * by the unchanged attribute parsing code.
+ *
+ * @author ist@uni-koblenz.de
+ */
+public final class TgBinaryLexer {
+	private static final Token[] tokens = Token.values();
+
+	private final String filename;
+	private final long[] sectionOffset;
+	private final long[] sectionLength;
+	private final ByteBuffer[] sections;
+	private String[] strings;
+
+	/**
+	 * the buffer of the current section
+	 */
+	private ByteBuffer buf;
+	private int section;
+
+	private Token token;
+	private long value;
+	private double doubleValue;
+	private boolean isDouble;
+	private String text;
+
+	private TgBinaryLexer(String filename) {
+		this.filename = filename;
+		sectionOffset = new long[TgBinaryWriter.STRINGS + 1];
+		sectionLength = new long[TgBinaryWriter.STRINGS + 1];
+		sections = new ByteBuffer[TgBinaryWriter.STRINGS + 1];
+	}
+
+	/**
+	 * Creates a {@link TgBinaryLexer} for the complete TGB file contents in
+	 * <code>buf</code> and reads the section index.
+	 *
+	 * @param buf
+	 *            a buffer with the TGB file contents
+	 * @param filename
+	 *            optional filename for exception messages (can be null)
+	 * @throws GraphIOException
+	 *             if <code>buf</code> is not a TGB file
+	 */
+	public TgBinaryLexer(ByteBuffer buf, String filename)
+			throws GraphIOException {
+		this(filename);
+		int size = buf.limit();
+		if ((size < TgBinaryWriter.MAGIC.length + TgBinaryWriter.TRAILER_SIZE)
+				|| !hasMagic(buf, 0)
+				|| !hasMagic(buf, size - TgBinaryWriter.MAGIC.length)) {
+			throw new GraphIOException(getLocation()
+					+ "Not a TGB file or unsupported TGB version");
+		}
+		try {
+			ByteBuffer index = buf.duplicate();
+			index.position((int) buf.getLong(size - TgBinaryWriter.TRAILER_SIZE));
+			readIndex(index, size);
+		} catch (RuntimeException e) {
+			throw new GraphIOException(getLocation()
+					+ "Corrupt TGB section index", e);
+		}
+		for (int tag = TgBinaryWriter.SCHEMA; tag <= TgBinaryWriter.STRINGS; ++tag) {
+			ByteBuffer b = buf.duplicate();
+			b.limit((int) (sectionOffset[tag] + sectionLength[tag]));
+			b.position((int) sectionOffset[tag]);
+			sections[tag] = b.slice();
+		}
+	}
+
+	/**
+	 * Creates a {@link TgBinaryLexer} for the TGB file opened as
+	 * <code>channel</code>. Each section is mapped into memory on its own by
+	 * means of {@link FileChannel#map}, so the file may be larger than 2 GB as
+	 * long as no single section is. The channel may be closed afterwards.
+	 *
+	 * @param channel
+	 *            a channel of the TGB file
+	 * @param filename
+	 *            optional filename for exception messages (can be null)
+	 * @throws GraphIOException
+	 *             if the file is not a TGB file or a section is too large to
+	 *             be mapped
+	 */
+	public TgBinaryLexer(FileChannel channel, String filename)
+			throws GraphIOException, IOException {
+		this(filename);
+		long size = channel.size();
+		if ((size < TgBinaryWriter.MAGIC.length + TgBinaryWriter.TRAILER_SIZE)
+				|| !hasMagic(read(channel, 0, TgBinaryWriter.MAGIC.length), 0)) {
+			throw new GraphIOException(getLocation()
+					+ "Not a TGB file or unsupported TGB version");
+		}
+		ByteBuffer trailer = read(channel, size - TgBinaryWriter.TRAILER_SIZE,
+				TgBinaryWriter.TRAILER_SIZE);
+		if (!hasMagic(trailer, 8)) {
+			throw new GraphIOException(getLocation()
+					+ "Not a TGB file or unsupported TGB version");
+		}
+		long indexOffset = trailer.getLong(0);
+		long indexLength = size - TgBinaryWriter.TRAILER_SIZE - indexOffset;
+		if ((indexOffset < 0) || (indexLength < 4)
+				|| (indexLength > Integer.MAX_VALUE)) {
+			throw new GraphIOException(getLocation()
+					+ "Corrupt TGB section index");
+		}
+		try {
+			readIndex(read(channel, indexOffset, (int) indexLength), size);
+		} catch (RuntimeException e) {
+			throw new GraphIOException(getLocation()
+					+ "Corrupt TGB section index", e);
+		}
+		for (int tag = TgBinaryWriter.SCHEMA; tag <= TgBinaryWriter.STRINGS; ++tag) {
+			if (sectionLength[tag] > Integer.MAX_VALUE) {
+				throw new GraphIOException(getLocation() + "Section " + tag
+						+ " is too large to be mapped (" + sectionLength[tag]
+						+ " bytes)");
+			}
+			sections[tag] = channel.map(FileChannel.MapMode.READ_ONLY,
+					sectionOffset[tag], sectionLength[tag]);
+		}
+	}
+
+	private static ByteBuffer read(FileChannel channel, long pos, int length)
+			throws IOException {
+		ByteBuffer b = ByteBuffer.allocate(length);
+		while (b.hasRemaining()) {
+			if (channel.read(b, pos + b.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+		b.flip();
+		return b;
+	}
+
+	/**
+	 * Reads the section index from <code>index</code> and checks that all
+	 * sections lie within a file of <code>size</code> bytes.
+	 */
+	private void readIndex(ByteBuffer index, long size)
+			throws GraphIOException {
+		int count = index.getInt();
+		for (int i = 0; i < count; ++i) {
+			int tag = index.getInt();
+			long offset = index.getLong();
+			long length = index.getLong();
+			if ((tag > 0) && (tag < sectionOffset.length)) {
+				if ((offset <= 0) || (length < 0) || (offset + length > size)) {
+					throw new GraphIOException(getLocation()
+							+ "Corrupt TGB section index");
+				}
+				sectionOffset[tag] = offset;
+				sectionLength[tag] = length;
+			}
+		}
+		for (int tag = TgBinaryWriter.SCHEMA; tag <= TgBinaryWriter.STRINGS; ++tag) {
+			if (sectionOffset[tag] == 0) {
+				throw new GraphIOException(getLocation() + "Section " + tag
+						+ " is missing");
+			}
+		}
+	}
+
+	private static boolean hasMagic(ByteBuffer b, int pos) {
+		for (int i = 0; i < TgBinaryWriter.MAGIC.length; ++i) {
+			if (b.get(pos + i) != TgBinaryWriter.MAGIC[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public String getLocation() {
+		return (filename == null ? "" : filename + " ") + "offset "
+				+ (buf == null ? 0 : sectionOffset[section] + buf.position())
+				+ ": ";
+	}
+
+	/**
+	 * Positions the lexer at the start of section <code>tag</code>.
+	 */
+	public void section(int tag) {
+		section = tag;
+		buf = sections[tag];
+		buf.position(0);
+	}
+
+	/**
+	 * @return the current read position within the current section
+	 */
+	public int position() {
+		return buf.position();
+	}
+
+	/**
+	 * Positions the lexer at <code>pos</code> within section <code>tag</code>
+	 * , usually a position returned by {@link #position()} earlier.
+	 */
+	public void position(int tag, int pos) {
+		section = tag;
+		buf = sections[tag];
+		buf.position(pos);
+	}
+
+	/**
+	 * @return an {@link InputStream} over the contents of section
+	 *         <code>tag</code>
+	 */
+	public InputStream sectionStream(int tag) {
+		final ByteBuffer b = sections[tag].duplicate();
+		b.position(0);
+		return new InputStream() {
+			@Override
+			public int read() {
+				return b.hasRemaining() ? b.get() & 0xff : -1;
+			}
+
+			@Override
+			public int read(byte[] dst, int off, int len) {
+				if (!b.hasRemaining()) {
+					return -1;
+				}
+				len = Math.min(len, b.remaining());
+				b.get(dst, off, len);
+				return len;
+			}
+		};
+	}
+
+	/**
+	 * Decodes the string table. Must be called before any string reference
+	 * is read.
+	 */
+	public void readStrings() throws GraphIOException {
+		section(TgBinaryWriter.STRINGS);
+		int count = readVarInt();
+		strings = new String[count];
+		byte[] b = new byte[256];
+		for (int i = 0; i < count; ++i) {
+			int len = readVarInt();
+			if (len > b.length) {
+				b = new byte[Math.max(len, 2 * b.length)];
+			}
+			try {
+				buf.get(b, 0, len);
+			} catch (BufferUnderflowException e) {
+				throw new GraphIOException(getLocation()
+						+ "Unexpected end of string table", e);
+			}
+			strings[i] = new String(b, 0, len, TgBinaryWriter.UTF8);
+		}
+	}
+
+	public int readVarInt() throws GraphIOException {
+		long v = readVarLong();
+		if ((v < 0) || (v > Integer.MAX_VALUE)) {
+			throw new GraphIOException(getLocation() + "Invalid varint " + v);
+		}
+		return (int) v;
+	}
+
+	private long readVarLong() throws GraphIOException {
+		try {
+			long v = 0;
+			int shift = 0;
+			byte b;
+			do {
+				if (shift > 63) {
+					throw new GraphIOException(getLocation()
+							+ "Malformed varint");
+				}
+				b = buf.get();
+				v |= (long) (b & 0x7f) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return v;
+		} catch (BufferUnderflowException e) {
+			throw new GraphIOException(getLocation() + "Unexpected end of data",
+					e);
+		}
+	}
+
+	public long readSignedVarLong() throws GraphIOException {
+		long v = readVarLong();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	public int readStringRef() throws GraphIOException {
+		int idx = readVarInt();
+		if (idx >= strings.length) {
+			throw new GraphIOException(getLocation()
+					+ "Invalid string reference " + idx);
+		}
+		return idx;
+	}
+
+	public String getString(int idx) {
+		return strings[idx];
+	}
+
+	public int getStringCount() {
+		return strings.length;
+	}
+
+	/**
+	 * Reads the next attribute token.
+	 *
+	 * @return a {@link Token}
+	 * @throws GraphIOException
+	 *             when the data is malformed
+	 */
+	public Token nextToken() throws GraphIOException {
+		text = null;
+		isDouble = false;
+		int tag;
+		try {
+			tag = buf.get() & 0xff;
+			if (tag == TgBinaryWriter.DOUBLE_TAG) {
+				isDouble = true;
+				doubleValue = Double.longBitsToDouble(buf.getLong());
+				token = Token.TEXT;
+				return token;
+			}
+		} catch (BufferUnderflowException e) {
+			throw new GraphIOException(getLocation() + "Unexpected end of data",
+					e);
+		}
+		if (tag >= tokens.length) {
+			throw new GraphIOException(getLocation() + "Invalid token tag "
+					+ tag);
+		}
+		token = tokens[tag];
+		switch (token) {
+		case INT:
+			value = readSignedVarLong();
+			break;
+		case TEXT:
+		case STRING:
+			text = strings[readStringRef()];
+			break;
+		default:
+			// no payload
+		}
+		return token;
+	}
+
+	/**
+	 * @return the text of the current token
+	 */
+	public String getText() {
+		if (text != null) {
+			return text;
+		}
+		if (isDouble) {
+			return Double.toString(doubleValue);
+		}
+		if (token == Token.INT) {
+			return Long.toString(value);
+		}
+		return token.toString();
+	}
+
+	public long getLong() {
+		assert token == Token.INT;
+		return value;
+	}
+
+	public int getInt() {
+		assert token == Token.INT;
+		return (int) value;
+	}
+
+	/**
+	 * @return the current token as <code>double</code> value
+	 * @throws NumberFormatException
+	 *             if the current token is no number
+	 */
+	public double getDouble() {
+		if (isDouble) {
+			return doubleValue;
+		}
+		if (token == Token.INT) {
+			return value;
+		}
+		return Double.parseDouble(getText());
+	}
+}
@@ -0,0 +1,303 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_koblenz.jgralab.impl.TgLexer.Token;
+
+/**
+ * {@link TgBinaryWriter} produces the binary TG format (TGB) that is read by
+ * {@link TgBinaryLexer}.
+ *
+ * A TGB file consists of a sequence of sections followed by a section index
+ * and a fixed size trailer:
+ *
+ * <pre>
+ * file    ::= MAGIC section* index trailer
+ * index   ::= int32(count) (int32(tag) int64(offset) int64(length))*
+ * trailer ::= int64(indexOffset) MAGIC
+ * </pre>
+ *
+ * The {@link #SCHEMA} section holds the textual TG header and schema. The
+ * {@link #GRAPH}, {@link #VERTICES} and {@link #EDGES} sections hold element
+ * records with varint encoded ids, and typed attribute blocks. Attribute
+ * blocks are token streams, each token is a tag byte (the ordinal of a
+ * {@link Token}, or {@link #DOUBLE_TAG}) followed by an optional payload:
+ * zig-zag varints for {@link Token#INT}, 8 bytes for doubles, and indexes into
+ * the string table for {@link Token#TEXT} and {@link Token#STRING}. The
+ * {@link #STRINGS} section is written last and contains all strings referenced
+ * by index.
+ *
+ * The writer is an {@link OutputStream} itself, so that textual content (the
+ * schema) can be written directly into a section.
+ *
+ * @author ist@uni-koblenz.de
+ */
+public final class TgBinaryWriter extends OutputStream {
+	public static final int TGB_VERSION = 1;
+
+	static final byte[] MAGIC = { 'T', 'G', 'B', (byte) TGB_VERSION };
+	static final int TRAILER_SIZE = 8 + MAGIC.length;
+
+	public static final int SCHEMA = 1;
+	public static final int GRAPH = 2;
+	public static final int VERTICES = 3;
+	public static final int EDGES = 4;
+	public static final int STRINGS = 5;
+
+	static final int DOUBLE_TAG = 0x7f;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final Map<String, Token> lexemes;
+	static {
+		lexemes = new HashMap<String, Token>();
+		for (Token t : Token.values()) {
+			if (t.lexeme != null) {
+				lexemes.put(t.lexeme, t);
+			}
+		}
+	}
+
+	private static final int BUFFER_SIZE = 65536;
+
+	private final OutputStream out;
+	private final byte[] buffer;
+	private int bufferPos;
+	private long position;
+
+	private final Map<String, Integer> stringIndex;
+	private final List<String> strings;
+
+	private final List<long[]> sections;
+	private int currentSection;
+	private long sectionStart;
+
+	/**
+	 * Creates a {@link TgBinaryWriter} writing to <code>out</code> and writes
+	 * the file magic. The underlying stream is not closed.
+	 *
+	 * @param out
+	 *            an output stream
+	 * @throws IOException
+	 */
+	public TgBinaryWriter(OutputStream out) throws IOException {
+		this.out = out;
+		buffer = new byte[BUFFER_SIZE];
+		stringIndex = new HashMap<String, Integer>();
+		strings = new ArrayList<String>();
+		sections = new ArrayList<long[]>();
+		write(MAGIC);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (bufferPos == BUFFER_SIZE) {
+			flushBuffer();
+		}
+		buffer[bufferPos++] = (byte) b;
+		++position;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (bufferPos + len > BUFFER_SIZE) {
+			flushBuffer();
+			if (len > BUFFER_SIZE) {
+				out.write(b, off, len);
+				position += len;
+				return;
+			}
+		}
+		System.arraycopy(b, off, buffer, bufferPos, len);
+		bufferPos += len;
+		position += len;
+	}
+
+	private void flushBuffer() throws IOException {
+		out.write(buffer, 0, bufferPos);
+		bufferPos = 0;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	/**
+	 * Starts a new section with the given <code>tag</code>, implicitly ending
+	 * the current one.
+	 */
+	public void beginSection(int tag) {
+		endSection();
+		currentSection = tag;
+		sectionStart = position;
+	}
+
+	private void endSection() {
+		if (currentSection != 0) {
+			sections.add(new long[] { currentSection, sectionStart,
+					position - sectionStart });
+			currentSection = 0;
+		}
+	}
+
+	/**
+	 * Writes the string table, the section index and the trailer, and flushes
+	 * the underlying stream.
+	 */
+	public void finish() throws IOException {
+		beginSection(STRINGS);
+		writeVarInt(strings.size());
+		for (String s : strings) {
+			byte[] b = s.getBytes(UTF8);
+			writeVarInt(b.length);
+			write(b);
+		}
+		endSection();
+		long indexOffset = position;
+		writeFixedInt(sections.size());
+		for (long[] s : sections) {
+			writeFixedInt((int) s[0]);
+			writeFixedLong(s[1]);
+			writeFixedLong(s[2]);
+		}
+		writeFixedLong(indexOffset);
+		write(MAGIC);
+		flush();
+	}
+
+	private void writeFixedInt(int v) throws IOException {
+		write(v >>> 24);
+		write(v >>> 16);
+		write(v >>> 8);
+		write(v);
+	}
+
+	private void writeFixedLong(long v) throws IOException {
+		writeFixedInt((int) (v >>> 32));
+		writeFixedInt((int) v);
+	}
+
+	/**
+	 * Writes the non-negative value <code>v</code> as unsigned varint.
+	 */
+	public void writeVarInt(int v) throws IOException {
+		assert v >= 0;
+		writeVarLong(v);
+	}
+
+	private void writeVarLong(long v) throws IOException {
+		while ((v & ~0x7fL) != 0) {
+			write((int) ((v & 0x7f) | 0x80));
+			v >>>= 7;
+		}
+		write((int) v);
+	}
+
+	/**
+	 * Writes the signed value <code>v</code> as zig-zag encoded varint.
+	 */
+	public void writeSignedVarLong(long v) throws IOException {
+		writeVarLong((v << 1) ^ (v >> 63));
+	}
+
+	/**
+	 * Writes a reference to <code>s</code> into the string table.
+	 */
+	public void writeStringRef(String s) throws IOException {
+		Integer idx = stringIndex.get(s);
+		if (idx == null) {
+			idx = strings.size();
+			strings.add(s);
+			stringIndex.put(s, idx);
+		}
+		writeVarInt(idx);
+	}
+
+	/**
+	 * Writes token <code>t</code> without payload.
+	 */
+	public void writeToken(Token t) throws IOException {
+		write(t.ordinal());
+	}
+
+	/**
+	 * Writes <code>s</code> the way the TG lexer would tokenize it: lexemes
+	 * of {@link Token}s are written as token tags, everything else as
+	 * {@link Token#TEXT}. Surrounding whitespace is insignificant.
+	 */
+	public void writeText(String s) throws IOException {
+		s = s.trim();
+		if (s.length() == 0) {
+			return;
+		}
+		Token t = lexemes.get(s);
+		if (t != null) {
+			writeToken(t);
+		} else {
+			writeToken(Token.TEXT);
+			writeStringRef(s);
+		}
+	}
+
+	public void writeString(String s) throws IOException {
+		if (s == null) {
+			writeToken(Token.NULL_LITERAL);
+		} else {
+			writeToken(Token.STRING);
+			writeStringRef(s);
+		}
+	}
+
+	public void writeLong(long l) throws IOException {
+		writeToken(Token.INT);
+		writeSignedVarLong(l);
+	}
+
+	public void writeDouble(double d) throws IOException {
+		write(DOUBLE_TAG);
+		long bits = Double.doubleToRawLongBits(d);
+		writeFixedLong(bits);
+	}
+}
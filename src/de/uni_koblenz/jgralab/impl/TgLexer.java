@@ -34,8 +34,10 @@
  */
 package de.uni_koblenz.jgralab.impl;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.charset.Charset;
 
 import de.uni_koblenz.jgralab.exception.GraphIOException;
@@ -73,7 +75,8 @@ public class TgLexer {
 	private int la; // look-ahead character
 	private int putBackChar;
 
-	private static TgTokenRecognizer rec = new TgTokenRecognizer();
+	private static final TgTokenRecognizer dfa = new TgTokenRecognizer();
+	private final TgTokenRecognizer rec = new TgTokenRecognizer(dfa);
 
 	private static final int TEXT_SIZE = 1024;
 	private char[] text; // buffer for short tokens (length <= TEXT_SIZE)
@@ -86,6 +89,11 @@ public class TgLexer {
 	private int bufferSize; // number of bytes in read buffer
 	private int bufferPos; // read position
 
+	// copy of the consumed input between startRecording() and stopRecording()
+	private boolean recording;
+	private byte[] recordBuffer;
+	private int recordSize;
+
 	/**
 	 * Creates a TgLexer for input stream <code>is</code>, optionally specifying
 	 * a <code>filename</code>.
@@ -124,6 +132,125 @@ public class TgLexer {
 		la = read();
 	}
 
+	/**
+	 * Creates a TgLexer for the bytes in <code>data</code> which start at line
+	 * <code>line</code> of file <code>filename</code>.
+	 * 
+	 * @param data
+	 *            input bytes, must not be null
+	 * @param filename
+	 *            optional filename for exception messages (can be null)
+	 * @param line
+	 *            the line number of the first input byte
+	 * @throws GraphIOException
+	 *             (actually, this constructor won't throw a GraphIOException)
+	 */
+	public TgLexer(byte[] data, String filename, int line)
+			throws GraphIOException {
+		this.filename = filename;
+		buffer = data;
+		bufferSize = data.length;
+		text = new char[TEXT_SIZE];
+		putBackChar = -1;
+		this.line = line;
+		la = read();
+	}
+
+	/**
+	 * Positions a lexer created for a byte array at <code>pos</code>. Must not
+	 * be called for lexers reading from an {@link InputStream}.
+	 * 
+	 * @param pos
+	 *            position of the next character to read
+	 */
+	public void seek(int pos) throws GraphIOException {
+		assert in == null;
+		bufferPos = pos;
+		putBackChar = -1;
+		la = read();
+	}
+
+	/**
+	 * Starts copying the raw input consumed by this lexer. The copy starts
+	 * with <code>prefix</code>, which is the raw text of the current token,
+	 * followed by the current look-ahead character.
+	 * 
+	 * @param prefix
+	 *            raw text of the current token
+	 */
+	public void startRecording(String prefix) {
+		if (recordBuffer == null) {
+			recordBuffer = new byte[TEXT_SIZE];
+		}
+		recordSize = 0;
+		for (int i = 0; i < prefix.length(); ++i) {
+			record(prefix.charAt(i));
+		}
+		if (la >= 0) {
+			record(la);
+		}
+		recording = true;
+	}
+
+	/**
+	 * Stops copying the raw input. The copy ends with the current token, the
+	 * look-ahead character is excluded.
+	 * 
+	 * @return the number of recorded bytes, see {@link #getRecording()}
+	 */
+	public int stopRecording() {
+		recording = false;
+		if (la >= 0) {
+			--recordSize;
+		}
+		return recordSize;
+	}
+
+	/**
+	 * @return the buffer holding the recorded input, valid up to the length
+	 *         returned by {@link #stopRecording()}
+	 */
+	public byte[] getRecording() {
+		return recordBuffer;
+	}
+
+	private final void record(int c) {
+		if (recordSize == recordBuffer.length) {
+			byte[] b = new byte[2 * recordSize];
+			System.arraycopy(recordBuffer, 0, b, 0, recordSize);
+			recordBuffer = b;
+		}
+		recordBuffer[recordSize++] = (byte) c;
+	}
+
+	/**
+	 * Returns the input which has not yet been consumed by this lexer,
+	 * starting with the current look-ahead character. The lexer must not be
+	 * used afterwards.
+	 * 
+	 * @return an {@link InputStream} over the remaining input
+	 */
+	public InputStream getRemainingInput() {
+		int n = Math.max(0, bufferSize - bufferPos);
+		byte[] b = new byte[n + 2];
+		int p = 0;
+		if (la >= 0) {
+			b[p++] = (byte) la;
+		}
+		if (putBackChar >= 0) {
+			b[p++] = (byte) putBackChar;
+		}
+		if (n > 0) {
+			System.arraycopy(buffer, bufferPos, b, p, n);
+			p += n;
+		}
+		la = -1;
+		putBackChar = -1;
+		bufferPos = bufferSize;
+		InputStream rest = new ByteArrayInputStream(b, 0, p);
+		return in == null ? rest : new SequenceInputStream(rest, in);
+	}
+
 	/**
 	 * @return a human readable input position
 	 */
@@ -179,6 +306,9 @@ public class TgLexer {
 					ch = -1;
 				}
 			}
+			if (recording && (ch != -1)) {
+				record(ch);
+			}
 		}
 		if (ch == '\n') {
 			++line;
@@ -225,6 +225,21 @@ final class TgTokenRecognizer {
 		dfaStates = null;
 	}
 
+	/**
+	 * Creates a TgTokenRecognizer that shares the (immutable) DFA states of
+	 * <code>dfa</code>, but has its own matching state. This allows several
+	 * lexers to run concurrently without constructing the DFA repeatedly.
+	 * 
+	 * @param dfa
+	 *            a TgTokenRecognizer
+	 */
+	TgTokenRecognizer(TgTokenRecognizer dfa) {
+		states = dfa.states;
+		minChar = dfa.minChar;
+		maxChar = dfa.maxChar;
+		maxLen = dfa.maxLen;
+	}
+
 	/**
 	 * reset recognizer to match a new token
 	 */
@@ -38,19 +38,17 @@ package de.uni_koblenz.jgralab.impl;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Queue;
+import java.util.concurrent.locks.Lock;
 
 import org.pcollections.POrderedSet;
-import org.pcollections.PSet;
 
 import de.uni_koblenz.jgralab.AttributedElement;
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.ElementSpliterator;
 import de.uni_koblenz.jgralab.Graph;
-import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.PathElement;
 import de.uni_koblenz.jgralab.TraversalContext;
 import de.uni_koblenz.jgralab.Vertex;
@@ -110,6 +108,18 @@ public abstract class VertexBaseImpl extends
 	 */
 	@Override
 	public final int getDegree(EdgeDirection orientation) {
+		if (graph.getTraversalContext() == null) {
+			switch (orientation) {
+			case IN:
+				return getInDegreeInISeq();
+			case OUT:
+				return getOutDegreeInISeq();
+			case INOUT:
+				return getInDegreeInISeq() + getOutDegreeInISeq();
+			default:
+				throw new RuntimeException("FIXME!");
+			}
+		}
 		int d = 0;
 		Edge i = getFirstIncidence();
 		switch (orientation) {
@@ -169,14 +179,14 @@ public abstract class VertexBaseImpl extends
 	public final Vertex getNextVertex(VertexClass vertexClass) {
 		assert vertexClass != null;
 		assert isValid();
-		Vertex v = getNextVertex();
-		while (v != null) {
-			if (v.isInstanceOf(vertexClass)) {
-				return v;
+		TraversalContext tc = graph.getTraversalContext();
+		InternalVertex v = graph.getNextVertexInVSeq(this, vertexClass);
+		if (!((tc == null) || (v == null) || tc.containsVertex(v))) {
+			while (!((v == null) || tc.containsVertex(v))) {
+				v = graph.getNextVertexInVSeq(v, vertexClass);
 			}
-			v = v.getNextVertex();
 		}
-		return null;
+		return v;
 	}
 
 	/*
@@ -286,6 +296,13 @@ public abstract class VertexBaseImpl extends
 	@Override
 	public final Edge getFirstIncidence(EdgeDirection orientation) {
 		assert isValid();
+		if (orientation != EdgeDirection.INOUT) {
+			IncidencePartition p = IncidencePartition.of(this);
+			if (p != null) {
+				return p.accept(p.first(null, orientation), null, orientation,
+						graph.getTraversalContext());
+			}
+		}
 		Edge i = getFirstIncidence();
 		switch (orientation) {
 		case IN:
@@ -351,6 +368,13 @@ public abstract class VertexBaseImpl extends
 			EdgeDirection orientation) {
 		assert anEdgeClass != null;
 		assert isValid();
+		if (IncidencePartition.covers(anEdgeClass, this)) {
+			IncidencePartition p = IncidencePartition.of(this);
+			if (p != null) {
+				return p.accept(p.first(anEdgeClass, orientation), anEdgeClass,
+						orientation, graph.getTraversalContext());
+			}
+		}
 		Edge currentEdge = getFirstIncidence(orientation);
 		while (currentEdge != null) {
 			if (currentEdge.isInstanceOf(anEdgeClass)) {
@@ -374,101 +398,119 @@ public abstract class VertexBaseImpl extends
 
 	@Override
 	public final void putIncidenceAfter(InternalEdge target, InternalEdge moved) {
-		assert (target != null) && (moved != null);
-		assert target.isValid() && moved.isValid();
-		assert target.getGraph() == moved.getGraph();
-		assert target.getGraph() == getGraph();
-		assert target.getThis() == moved.getThis();
-		assert target != moved;
-
-		graph.fireBeforePutIncidenceAfter(moved, target);
+		Lock w = graph.beginWrite();
+		try {
+			assert (target != null) && (moved != null);
+			assert target.isValid() && moved.isValid();
+			assert target.getGraph() == moved.getGraph();
+			assert target.getGraph() == getGraph();
+			assert target.getThis() == moved.getThis();
+			assert target != moved;
 
-		if ((target == moved) || (target.getNextIncidenceInISeq() == moved)) {
-			graph.fireAfterPutIncidenceAfter(moved, target);
-			return;
-		}
+			graph.fireBeforePutIncidenceAfter(moved, target);
 
-		// there are at least 2 incidences in the incidence list
-		// such that firstIncidence != lastIncidence
-		assert getFirstIncidenceInISeq() != getLastIncidenceInISeq();
+			if ((target == moved) || (target.getNextIncidenceInISeq() == moved)) {
+				graph.fireAfterPutIncidenceAfter(moved, target);
+				return;
+			}
 
-		// remove moved incidence from lambdaSeq
-		if (moved == getFirstIncidenceInISeq()) {
-			setFirstIncidence(moved.getNextIncidenceInISeq());
-			(moved.getNextIncidenceInISeq()).setPrevIncidenceInternal(null);
+			// there are at least 2 incidences in the incidence list
+			// such that firstIncidence != lastIncidence
+			assert getFirstIncidenceInISeq() != getLastIncidenceInISeq();
+
+			// remove moved incidence from lambdaSeq
+			if (moved == getFirstIncidenceInISeq()) {
+				setFirstIncidence(moved.getNextIncidenceInISeq());
+				(moved.getNextIncidenceInISeq()).setPrevIncidenceInternal(null);
+
+			} else if (moved == getLastIncidenceInISeq()) {
+				setLastIncidence(moved.getPrevIncidenceInISeq());
+				(moved.getPrevIncidenceInISeq()).setNextIncidenceInternal(null);
+			} else {
+				(moved.getPrevIncidenceInISeq()).setNextIncidenceInternal(moved
+						.getNextIncidenceInISeq());
+				(moved.getNextIncidenceInISeq()).setPrevIncidenceInternal(moved
+						.getPrevIncidenceInISeq());
+			}
 
-		} else if (moved == getLastIncidenceInISeq()) {
-			setLastIncidence(moved.getPrevIncidenceInISeq());
-			(moved.getPrevIncidenceInISeq()).setNextIncidenceInternal(null);
-		} else {
-			(moved.getPrevIncidenceInISeq()).setNextIncidenceInternal(moved
-					.getNextIncidenceInISeq());
-			(moved.getNextIncidenceInISeq()).setPrevIncidenceInternal(moved
-					.getPrevIncidenceInISeq());
-		}
+			// insert moved incidence in lambdaSeq immediately after target
+			if (target == getLastIncidenceInISeq()) {
+				setLastIncidence(moved);
+				moved.setNextIncidenceInternal(null);
+			} else {
+				(target.getNextIncidenceInISeq()).setPrevIncidenceInternal(moved);
+				moved.setNextIncidenceInternal(target.getNextIncidenceInISeq());
+			}
+			moved.setPrevIncidenceInternal(target);
 
-		// insert moved incidence in lambdaSeq immediately after target
-		if (target == getLastIncidenceInISeq()) {
-			setLastIncidence(moved);
-			moved.setNextIncidenceInternal(null);
-		} else {
-			(target.getNextIncidenceInISeq()).setPrevIncidenceInternal(moved);
-			moved.setNextIncidenceInternal(target.getNextIncidenceInISeq());
+			target.setNextIncidenceInternal(moved);
+			incidenceListModified();
+			IncidencePartition p = maintainedIncidencePartition();
+			if (p != null) {
+				p.moved(moved);
+			}
+			graph.fireAfterPutIncidenceAfter(moved, target);
+		} finally {
+			GraphBaseImpl.endWrite(w);
 		}
-		moved.setPrevIncidenceInternal(target);
-
-		target.setNextIncidenceInternal(moved);
-		incidenceListModified();
-		graph.fireAfterPutIncidenceAfter(moved, target);
 	}
 
 	@Override
 	public final void putIncidenceBefore(InternalEdge target, InternalEdge moved) {
-		assert (target != null) && (moved != null);
-		assert target.isValid() && moved.isValid();
-		assert target.getGraph() == moved.getGraph();
-		assert target.getGraph() == getGraph();
-		assert target.getThis() == moved.getThis();
-		assert target != moved;
-
-		graph.fireBeforePutIncidenceBefore(moved, target);
+		Lock w = graph.beginWrite();
+		try {
+			assert (target != null) && (moved != null);
+			assert target.isValid() && moved.isValid();
+			assert target.getGraph() == moved.getGraph();
+			assert target.getGraph() == getGraph();
+			assert target.getThis() == moved.getThis();
+			assert target != moved;
 
-		if ((target == moved) || (target.getPrevIncidenceInISeq() == moved)) {
-			graph.fireAfterPutIncidenceBefore(moved, target);
-			return;
-		}
+			graph.fireBeforePutIncidenceBefore(moved, target);
 
-		// there are at least 2 incidences in the incidence list
-		// such that firstIncidence != lastIncidence
-		assert getFirstIncidenceInISeq() != getLastIncidenceInISeq();
+			if ((target == moved) || (target.getPrevIncidenceInISeq() == moved)) {
+				graph.fireAfterPutIncidenceBefore(moved, target);
+				return;
+			}
 
-		// remove moved incidence from lambdaSeq
-		if (moved == getFirstIncidenceInISeq()) {
-			setFirstIncidence(moved.getNextIncidenceInISeq());
-			(moved.getNextIncidenceInISeq()).setPrevIncidenceInternal(null);
-		} else if (moved == getLastIncidenceInISeq()) {
-			setLastIncidence(moved.getPrevIncidenceInISeq());
-			(moved.getPrevIncidenceInISeq()).setNextIncidenceInternal(null);
-		} else {
-			(moved.getPrevIncidenceInISeq()).setNextIncidenceInternal(moved
-					.getNextIncidenceInISeq());
-			(moved.getNextIncidenceInISeq()).setPrevIncidenceInternal(moved
-					.getPrevIncidenceInISeq());
-		}
+			// there are at least 2 incidences in the incidence list
+			// such that firstIncidence != lastIncidence
+			assert getFirstIncidenceInISeq() != getLastIncidenceInISeq();
+
+			// remove moved incidence from lambdaSeq
+			if (moved == getFirstIncidenceInISeq()) {
+				setFirstIncidence(moved.getNextIncidenceInISeq());
+				(moved.getNextIncidenceInISeq()).setPrevIncidenceInternal(null);
+			} else if (moved == getLastIncidenceInISeq()) {
+				setLastIncidence(moved.getPrevIncidenceInISeq());
+				(moved.getPrevIncidenceInISeq()).setNextIncidenceInternal(null);
+			} else {
+				(moved.getPrevIncidenceInISeq()).setNextIncidenceInternal(moved
+						.getNextIncidenceInISeq());
+				(moved.getNextIncidenceInISeq()).setPrevIncidenceInternal(moved
+						.getPrevIncidenceInISeq());
+			}
 
-		// insert moved incidence in lambdaSeq immediately before target
-		if (target == getFirstIncidenceInISeq()) {
-			setFirstIncidence(moved);
-			moved.setPrevIncidenceInternal(null);
-		} else {
-			InternalEdge previousIncidence = target.getPrevIncidenceInISeq();
-			previousIncidence.setNextIncidenceInternal(moved);
-			moved.setPrevIncidenceInternal(previousIncidence);
+			// insert moved incidence in lambdaSeq immediately before target
+			if (target == getFirstIncidenceInISeq()) {
+				setFirstIncidence(moved);
+				moved.setPrevIncidenceInternal(null);
+			} else {
+				InternalEdge previousIncidence = target.getPrevIncidenceInISeq();
+				previousIncidence.setNextIncidenceInternal(moved);
+				moved.setPrevIncidenceInternal(previousIncidence);
+			}
+			moved.setNextIncidenceInternal(target);
+			target.setPrevIncidenceInternal(moved);
+			incidenceListModified();
+			IncidencePartition p = maintainedIncidencePartition();
+			if (p != null) {
+				p.moved(moved);
+			}
+			graph.fireAfterPutIncidenceBefore(moved, target);
+		} finally {
+			GraphBaseImpl.endWrite(w);
 		}
-		moved.setNextIncidenceInternal(target);
-		target.setPrevIncidenceInternal(moved);
-		incidenceListModified();
-		graph.fireAfterPutIncidenceBefore(moved, target);
 	}
 
 	/*
@@ -522,6 +564,15 @@ public abstract class VertexBaseImpl extends
 	public final int getDegree(EdgeClass ec, EdgeDirection orientation) {
 		assert ec != null;
 		assert isValid();
+		int[] degrees = getEdgeClassDegreesInISeq();
+		if ((degrees != null) && (graph.getTraversalContext() == null)
+				&& graph.getSchema().maintainsEdgeClassDegrees()) {
+			int degree = getEdgeClassDegree(degrees, ec, orientation);
+			for (EdgeClass sub : ec.getAllSubClasses()) {
+				degree += getEdgeClassDegree(degrees, sub, orientation);
+			}
+			return degree;
+		}
 		int degree = 0;
 		for (Edge e = getFirstIncidence(ec, orientation); e != null; e = e
 				.getNextIncidence(ec, orientation)) {
@@ -613,6 +664,13 @@ public abstract class VertexBaseImpl extends
 		return new IncidenceIterable<Edge>(this, eclass);
 	}
 
+	@Override
+	public final ElementSpliterator<Edge> incidenceSpliterator(
+			EdgeClass eclass, EdgeDirection dir) {
+		assert isValid();
+		return new IncidenceSpliterator(this, eclass, dir);
+	}
+
 	@Override
 	public final Vertex getPrevVertex() {
 		TraversalContext tc = graph.getTraversalContext();
@@ -626,6 +684,81 @@ public abstract class VertexBaseImpl extends
 		return prevVertex;
 	}
 
+	private static int getEdgeClassDegree(int[] degrees, EdgeClass ec,
+			EdgeDirection orientation) {
+		int c = 2 * ec.getGraphElementClassIdInSchema();
+		switch (orientation) {
+		case IN:
+			return degrees[c + 1];
+		case OUT:
+			return degrees[c];
+		case INOUT:
+			return degrees[c] + degrees[c + 1];
+		default:
+			throw new RuntimeException("FIXME!");
+		}
+	}
+
+	/**
+	 * Updates the degree counters of this vertex after the incidence
+	 * <code>i</code> has been appended (<code>delta</code> = 1) or removed (
+	 * <code>delta</code> = -1). The per-EdgeClass counters are dropped if the
+	 * schema doesn't maintain them (anymore), and they are built from the
+	 * incidence list if the schema maintains them but this vertex doesn't
+	 * have them yet.
+	 */
+	private void updateDegrees(InternalEdge i, int delta) {
+		if (i.isNormal()) {
+			setOutDegree(getOutDegreeInISeq() + delta);
+		} else {
+			setInDegree(getInDegreeInISeq() + delta);
+		}
+		int[] degrees = getEdgeClassDegreesInISeq();
+		if (!graph.getSchema().maintainsEdgeClassDegrees()) {
+			if (degrees != null) {
+				setEdgeClassDegrees(null);
+			}
+		} else if (degrees != null) {
+			degrees[(2 * i.getAttributedElementClass()
+					.getGraphElementClassIdInSchema())
+					+ (i.isNormal() ? 0 : 1)] += delta;
+		} else {
+			degrees = new int[2 * graph.getSchema()
+					.getGraphElementClassCount()];
+			for (InternalEdge e = getFirstIncidenceInISeq(); e != null; e = e
+					.getNextIncidenceInISeq()) {
+				++degrees[(2 * e.getAttributedElementClass()
+						.getGraphElementClassIdInSchema())
+						+ (e.isNormal() ? 0 : 1)];
+			}
+			setEdgeClassDegrees(degrees);
+		}
+	}
+
+	/**
+	 * Returns the incidence partition of this vertex if it has been built. If
+	 * the schema doesn't enable incidence partitions any longer, the partition
+	 * is discarded.
+	 * 
+	 * @return the incidence partition to be maintained, or null
+	 */
+	private IncidencePartition maintainedIncidencePartition() {
+		IncidencePartition p = getIncidencePartition();
+		if ((p != null) && !graph.getSchema().partitionsIncidenceLists()) {
+			discardIncidencePartition();
+			return null;
+		}
+		return p;
+	}
+
+	private void discardIncidencePartition() {
+		IncidencePartition p = getIncidencePartition();
+		if (p != null) {
+			setIncidencePartition(null);
+			p.discard(this);
+		}
+	}
+
 	@Override
 	public final void appendIncidenceToISeq(InternalEdge i) {
 		assert i != null;
@@ -639,12 +772,21 @@ public abstract class VertexBaseImpl extends
 			i.setPrevIncidenceInternal(getLastIncidenceInISeq());
 		}
 		setLastIncidence(i);
+		updateDegrees(i, 1);
+		IncidencePartition p = maintainedIncidencePartition();
+		if (p != null) {
+			p.appended(i);
+		}
 	}
 
 	@Override
 	public final void removeIncidenceFromISeq(InternalEdge i) {
 		assert i != null;
 		assert i.getIncidentVertex() == this;
+		IncidencePartition p = maintainedIncidencePartition();
+		if (p != null) {
+			p.removed(i);
+		}
 		if (i == getFirstIncidenceInISeq()) {
 			// delete at head of incidence list
 			setFirstIncidence(i.getNextIncidenceInISeq());
@@ -672,143 +814,150 @@ public abstract class VertexBaseImpl extends
 		i.setIncidentVertex(null);
 		i.setNextIncidenceInternal(null);
 		i.setPrevIncidenceInternal(null);
+		updateDegrees(i, -1);
 	}
 
 	@Override
 	public final void sortIncidences(Comparator<Edge> comp) {
-		assert isValid();
-
-		if (getFirstIncidenceInISeq() == null) {
-			// no sorting required for empty incidence lists
-			return;
-		}
-		final class IncidenceList {
-			InternalEdge first;
-			InternalEdge last;
+		Lock w = graph.beginWrite();
+		try {
+			assert isValid();
 
-			public void add(InternalEdge e) {
-				if (first == null) {
-					first = e;
-					assert (last == null);
-					last = e;
-				} else {
-					e.setPrevIncidenceInternal(last);
-					last.setNextIncidenceInternal(e);
-					last = e;
-				}
-				e.setNextIncidenceInternal(null);
+			if (getFirstIncidenceInISeq() == null) {
+				// no sorting required for empty incidence lists
+				return;
 			}
-
-			public InternalEdge remove() {
-				if (first == null) {
-					throw new NoSuchElementException();
+			discardIncidencePartition();
+			final class IncidenceList {
+				InternalEdge first;
+				InternalEdge last;
+
+				public void add(InternalEdge e) {
+					if (first == null) {
+						first = e;
+						assert (last == null);
+						last = e;
+					} else {
+						e.setPrevIncidenceInternal(last);
+						last.setNextIncidenceInternal(e);
+						last = e;
+					}
+					e.setNextIncidenceInternal(null);
 				}
-				InternalEdge out;
-				if (first == last) {
+
+				public InternalEdge remove() {
+					if (first == null) {
+						throw new NoSuchElementException();
+					}
+					InternalEdge out;
+					if (first == last) {
+						out = first;
+						first = null;
+						last = null;
+						return out;
+					}
 					out = first;
-					first = null;
-					last = null;
+					first = out.getNextIncidenceInISeq();
+					first.setPrevIncidenceInternal(null);
 					return out;
 				}
-				out = first;
-				first = out.getNextIncidenceInISeq();
-				first.setPrevIncidenceInternal(null);
-				return out;
-			}
 
-			public boolean isEmpty() {
-				assert ((first == null) == (last == null));
-				return first == null;
-			}
+				public boolean isEmpty() {
+					assert ((first == null) == (last == null));
+					return first == null;
+				}
 
-		}
+			}
 
-		IncidenceList a = new IncidenceList();
-		IncidenceList b = new IncidenceList();
-		IncidenceList out = a;
+			IncidenceList a = new IncidenceList();
+			IncidenceList b = new IncidenceList();
+			IncidenceList out = a;
 
-		// split
-		InternalEdge last;
-		IncidenceList l = new IncidenceList();
-		l.first = getFirstIncidenceInISeq();
-		l.last = getLastIncidenceInISeq();
+			// split
+			InternalEdge last;
+			IncidenceList l = new IncidenceList();
+			l.first = getFirstIncidenceInISeq();
+			l.last = getLastIncidenceInISeq();
 
-		out.add(last = l.remove());
-		while (!l.isEmpty()) {
-			InternalEdge current = l.remove();
-			if (comp.compare(current, last) < 0) {
-				out = (out == a) ? b : a;
+			out.add(last = l.remove());
+			while (!l.isEmpty()) {
+				InternalEdge current = l.remove();
+				if (comp.compare(current, last) < 0) {
+					out = (out == a) ? b : a;
+				}
+				out.add(current);
+				last = current;
 			}
-			out.add(current);
-			last = current;
-		}
-		if (a.isEmpty() || b.isEmpty()) {
-			out = a.isEmpty() ? b : a;
-			setFirstIncidence(out.first);
-			setLastIncidence(out.last);
-			return;
-		}
-
-		while (true) {
 			if (a.isEmpty() || b.isEmpty()) {
 				out = a.isEmpty() ? b : a;
 				setFirstIncidence(out.first);
 				setLastIncidence(out.last);
-				incidenceListModified();
 				return;
 			}
 
-			IncidenceList c = new IncidenceList();
-			IncidenceList d = new IncidenceList();
-			out = c;
+			while (true) {
+				if (a.isEmpty() || b.isEmpty()) {
+					out = a.isEmpty() ? b : a;
+					setFirstIncidence(out.first);
+					setLastIncidence(out.last);
+					incidenceListModified();
+					return;
+				}
 
-			last = null;
-			while (!a.isEmpty() && !b.isEmpty()) {
-				int compareAToLast = last != null ? comp.compare(a.first, last)
-						: 0;
-				int compareBToLast = last != null ? comp.compare(b.first, last)
-						: 0;
+				IncidenceList c = new IncidenceList();
+				IncidenceList d = new IncidenceList();
+				out = c;
 
-				if ((compareAToLast >= 0) && (compareBToLast >= 0)) {
-					if (comp.compare(a.first, b.first) <= 0) {
-						out.add(last = a.remove());
-					} else {
+				last = null;
+				while (!a.isEmpty() && !b.isEmpty()) {
+					int compareAToLast = last != null ? comp.compare(a.first, last)
+							: 0;
+					int compareBToLast = last != null ? comp.compare(b.first, last)
+							: 0;
+
+					if ((compareAToLast >= 0) && (compareBToLast >= 0)) {
+						if (comp.compare(a.first, b.first) <= 0) {
+							out.add(last = a.remove());
+						} else {
+							out.add(last = b.remove());
+						}
+					} else if ((compareAToLast < 0) && (compareBToLast < 0)) {
+						out = (out == c) ? d : c;
+						last = null;
+					} else if ((compareAToLast < 0) && (compareBToLast >= 0)) {
 						out.add(last = b.remove());
+					} else {
+						out.add(last = a.remove());
 					}
-				} else if ((compareAToLast < 0) && (compareBToLast < 0)) {
-					out = (out == c) ? d : c;
-					last = null;
-				} else if ((compareAToLast < 0) && (compareBToLast >= 0)) {
-					out.add(last = b.remove());
-				} else {
-					out.add(last = a.remove());
 				}
-			}
 
-			// copy rest of A
-			while (!a.isEmpty()) {
-				InternalEdge current = a.remove();
-				if (comp.compare(current, last) < 0) {
-					out = (out == c) ? d : c;
+				// copy rest of A
+				while (!a.isEmpty()) {
+					InternalEdge current = a.remove();
+					if (comp.compare(current, last) < 0) {
+						out = (out == c) ? d : c;
+					}
+					out.add(current);
+					last = current;
 				}
-				out.add(current);
-				last = current;
-			}
 
-			// copy rest of B
-			while (!b.isEmpty()) {
-				InternalEdge current = b.remove();
-				if (comp.compare(current, last) < 0) {
-					out = (out == c) ? d : c;
+				// copy rest of B
+				while (!b.isEmpty()) {
+					InternalEdge current = b.remove();
+					if (comp.compare(current, last) < 0) {
+						out = (out == c) ? d : c;
+					}
+					out.add(current);
+					last = current;
 				}
-				out.add(current);
-				last = current;
+
+				a = c;
+				b = d;
 			}
 
-			a = c;
-			b = d;
+		} finally {
+			GraphBaseImpl.endWrite(w);
 		}
-
 	}
 
 	@Override
@@ -816,12 +965,8 @@ public abstract class VertexBaseImpl extends
 		assert (role != null) && (role.length() > 0);
 		assert isValid();
 		DirectedSchemaEdgeClass entry = getEdgeForRolename(role);
-		List<Vertex> adjacences = new ArrayList<Vertex>();
-		EdgeDirection dir = entry.getDirection();
-		for (Edge e : incidences(entry.getEdgeClass(), dir)) {
-			adjacences.add(e.getThat());
-		}
-		return adjacences;
+		return PathNavigator.adjacences(this, entry.getEdgeClass(),
+				entry.getDirection());
 	}
 
 	@Override
@@ -899,36 +1044,8 @@ public abstract class VertexBaseImpl extends
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T extends Vertex> POrderedSet<T> reachableVertices(
 			Class<T> returnType, PathElement... pathElements) {
-		PSet<T> result = JGraLab.set();
-		Queue<Vertex> q = new LinkedList<Vertex>();
-		q.add(this);
-
-		for (int i = 0; i < pathElements.length; i++) {
-			PathElement t = pathElements[i];
-			// the null marks the end of the iteration with PathElement t
-			q.add(null);
-			Vertex vx = q.poll();
-			while (vx != null) {
-				for (Edge e : vx.incidences(t.edgeClass, t.edgeDirection)) {
-					if (!t.strictType
-							|| (t.strictType && (t.edgeClass == e
-									.getAttributedElementClass()))) {
-						if (i == (pathElements.length - 1)) {
-							Vertex r = e.getThat();
-							if (returnType.isInstance(r)) {
-								result = result.plus((T) r);
-							}
-						} else {
-							q.add(e.getThat());
-						}
-					}
-				}
-				vx = q.poll();
-			}
-		}
-		return (POrderedSet<T>) result;
+		return PathNavigator.reachableVertices(this, returnType, pathElements);
 	}
 }
@@ -0,0 +1,99 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl;
+
+import java.util.ConcurrentModificationException;
+
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.TraversalContext;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+
+/**
+ * A {@link RangeSpliterator} over the vertices of a graph in id order. Only
+ * vertices of the given {@link VertexClass} (including subclasses) and
+ * contained in the {@link TraversalContext} of the creating thread are
+ * visited. Instances should only be created by
+ * {@link de.uni_koblenz.jgralab.Graph#vertexSpliterator(VertexClass)}.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class VertexSpliterator extends RangeSpliterator<Vertex> {
+	private final InternalGraph graph;
+	private final VertexClass vertexClass;
+	private final TraversalContext tc;
+	private final long vertexListVersion;
+
+	public VertexSpliterator(InternalGraph g, VertexClass vertexClass) {
+		this(g, vertexClass, g.getTraversalContext(),
+				g.getVertexListVersion(), 1, g.getMaxVCount() + 1);
+	}
+
+	private VertexSpliterator(InternalGraph g, VertexClass vertexClass,
+			TraversalContext tc, long vertexListVersion, int origin,
+			int fence) {
+		super(g, origin, fence);
+		assert (vertexClass == null)
+				|| (g.getSchema() == vertexClass.getSchema());
+		graph = g;
+		this.vertexClass = vertexClass;
+		this.tc = tc;
+		this.vertexListVersion = vertexListVersion;
+	}
+
+	@Override
+	protected Vertex elementAt(int id) {
+		Vertex v = graph.getVertex(id);
+		if ((v == null)
+				|| ((vertexClass != null) && !v.isInstanceOf(vertexClass))
+				|| ((tc != null) && !tc.containsVertex(v))) {
+			return null;
+		}
+		return v;
+	}
+
+	@Override
+	protected RangeSpliterator<Vertex> createPart(int origin, int fence) {
+		return new VertexSpliterator(graph, vertexClass, tc, vertexListVersion,
+				origin, fence);
+	}
+
+	@Override
+	protected void checkModification() {
+		if (graph.isVertexListModified(vertexListVersion)) {
+			throw new ConcurrentModificationException(
+					"The vertex list of the graph has been modified - the spliterator is not longer valid");
+		}
+	}
+}
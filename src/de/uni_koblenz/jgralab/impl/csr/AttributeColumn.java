@@ -0,0 +1,184 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl.csr;
+
+import java.util.BitSet;
+
+import de.uni_koblenz.jgralab.schema.BooleanDomain;
+import de.uni_koblenz.jgralab.schema.Domain;
+import de.uni_koblenz.jgralab.schema.DoubleDomain;
+import de.uni_koblenz.jgralab.schema.IntegerDomain;
+import de.uni_koblenz.jgralab.schema.LongDomain;
+
+/**
+ * Stores the values of one attribute for all elements of one
+ * {@link de.uni_koblenz.jgralab.schema.GraphElementClass} in a frozen graph.
+ * Values of the basic numeric and boolean domains are kept unboxed, all other
+ * values are stored as objects. Elements are addressed by their index within
+ * their class.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+abstract class AttributeColumn {
+
+	/**
+	 * Marks all indexes whose attribute value is unset. Allocated on first
+	 * use.
+	 */
+	private BitSet unset;
+
+	/**
+	 * Creates a column suitable for values of the given {@link Domain}.
+	 * 
+	 * @param domain
+	 *            the attribute's domain
+	 * @param size
+	 *            the number of elements in the column
+	 * @return a new column
+	 */
+	static AttributeColumn create(Domain domain, int size) {
+		if (domain instanceof IntegerDomain) {
+			return new IntColumn(size);
+		} else if (domain instanceof LongDomain) {
+			return new LongColumn(size);
+		} else if (domain instanceof DoubleDomain) {
+			return new DoubleColumn(size);
+		} else if (domain instanceof BooleanDomain) {
+			return new BooleanColumn();
+		}
+		return new ObjectColumn(size);
+	}
+
+	abstract Object get(int index);
+
+	abstract void set(int index, Object value);
+
+	final boolean isUnset(int index) {
+		return (unset != null) && unset.get(index);
+	}
+
+	final void markUnset(int index) {
+		if (unset == null) {
+			unset = new BitSet();
+		}
+		unset.set(index);
+	}
+
+	private static final class IntColumn extends AttributeColumn {
+		private final int[] values;
+
+		IntColumn(int size) {
+			values = new int[size];
+		}
+
+		@Override
+		Object get(int index) {
+			return values[index];
+		}
+
+		@Override
+		void set(int index, Object value) {
+			values[index] = (Integer) value;
+		}
+	}
+
+	private static final class LongColumn extends AttributeColumn {
+		private final long[] values;
+
+		LongColumn(int size) {
+			values = new long[size];
+		}
+
+		@Override
+		Object get(int index) {
+			return values[index];
+		}
+
+		@Override
+		void set(int index, Object value) {
+			values[index] = (Long) value;
+		}
+	}
+
+	private static final class DoubleColumn extends AttributeColumn {
+		private final double[] values;
+
+		DoubleColumn(int size) {
+			values = new double[size];
+		}
+
+		@Override
+		Object get(int index) {
+			return values[index];
+		}
+
+		@Override
+		void set(int index, Object value) {
+			values[index] = (Double) value;
+		}
+	}
+
+	private static final class BooleanColumn extends AttributeColumn {
+		private final BitSet values = new BitSet();
+
+		@Override
+		Object get(int index) {
+			return values.get(index);
+		}
+
+		@Override
+		void set(int index, Object value) {
+			values.set(index, (Boolean) value);
+		}
+	}
+
+	private static final class ObjectColumn extends AttributeColumn {
+		private final Object[] values;
+
+		ObjectColumn(int size) {
+			values = new Object[size];
+		}
+
+		@Override
+		Object get(int index) {
+			return values[index];
+		}
+
+		@Override
+		void set(int index, Object value) {
+			values[index] = value;
+		}
+	}
+}
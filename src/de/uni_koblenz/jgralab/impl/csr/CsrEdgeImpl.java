@@ -0,0 +1,233 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl.csr;
+
+import java.io.IOException;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.exception.NoSuchAttributeException;
+import de.uni_koblenz.jgralab.impl.EdgeBaseImpl;
+import de.uni_koblenz.jgralab.impl.InternalEdge;
+import de.uni_koblenz.jgralab.impl.InternalVertex;
+import de.uni_koblenz.jgralab.impl.ReversedEdgeBaseImpl;
+import de.uni_koblenz.jgralab.schema.AggregationKind;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+
+/**
+ * An {@link Edge} of a {@link CsrGraphImpl}. Apart from its id and its
+ * reversed edge it holds no state, all structural information and attribute
+ * values are read from the arrays of the frozen graph.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class CsrEdgeImpl extends EdgeBaseImpl {
+
+	CsrEdgeImpl(int id, Graph graph) {
+		super(id, graph, null, null);
+	}
+
+	private CsrGraphImpl csr() {
+		return (CsrGraphImpl) graph;
+	}
+
+	@Override
+	protected ReversedEdgeBaseImpl createReversedEdge() {
+		return new CsrReversedEdgeImpl(this, graph);
+	}
+
+	@Override
+	public EdgeClass getAttributedElementClass() {
+		return csr().edgeClass(id);
+	}
+
+	@Override
+	public boolean isInstanceOf(EdgeClass cls) {
+		// Needs to be overridden from the base variant, because that relies on
+		// code generation.
+		EdgeClass type = getAttributedElementClass();
+		return (type == cls) || type.isSubClassOf(cls);
+	}
+
+	@Override
+	public AggregationKind getAggregationKind() {
+		AggregationKind fromAK = getAlphaAggregationKind();
+		AggregationKind toAK = getOmegaAggregationKind();
+		return fromAK != AggregationKind.NONE ? fromAK
+				: (toAK != AggregationKind.NONE ? toAK : AggregationKind.NONE);
+	}
+
+	@Override
+	public AggregationKind getAlphaAggregationKind() {
+		return getAttributedElementClass().getFrom().getAggregationKind();
+	}
+
+	@Override
+	public AggregationKind getOmegaAggregationKind() {
+		return getAttributedElementClass().getTo().getAggregationKind();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getAttribute(String name) {
+		return (T) csr().edgeColumn(id, name).get(csr().edgeIndex(id));
+	}
+
+	@Override
+	public boolean isUnsetAttribute(String name)
+			throws NoSuchAttributeException {
+		return csr().edgeColumn(id, name).isUnset(csr().edgeIndex(id));
+	}
+
+	@Override
+	public <T> void setAttribute(String name, T data) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void readAttributeValueFromString(String attributeName, String value)
+			throws GraphIOException, NoSuchAttributeException {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void readAttributeValues(GraphIO io) throws GraphIOException {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public String writeAttributeValueToString(String attributeName)
+			throws IOException, GraphIOException, NoSuchAttributeException {
+		return CsrGraphImpl.writeAttributeValueToString(this, attributeName);
+	}
+
+	@Override
+	public void writeAttributeValues(GraphIO io) throws IOException,
+			GraphIOException {
+		CsrGraphImpl.writeAttributeValues(this, io);
+	}
+
+	@Override
+	public InternalEdge getNextEdgeInESeq() {
+		return csr().nextEdge(id);
+	}
+
+	@Override
+	public InternalEdge getPrevEdgeInESeq() {
+		return csr().prevEdge(id);
+	}
+
+	@Override
+	public InternalVertex getIncidentVertex() {
+		return csr().alpha(id);
+	}
+
+	@Override
+	public InternalEdge getNextIncidenceInISeq() {
+		return csr().nextIncidence(id);
+	}
+
+	@Override
+	public InternalEdge getPrevIncidenceInISeq() {
+		return csr().prevIncidence(id);
+	}
+
+	@Override
+	public Object[] getIncidencePartitionLinks() {
+		return null;
+	}
+
+	@Override
+	public void setIncidencePartitionLinks(Object[] incidencePartitionLinks) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public Object[] getClassSeqLinks() {
+		return null;
+	}
+
+	@Override
+	public void setClassSeqLinks(Object[] classSeqLinks) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setNextEdgeInGraph(Edge nextEdge) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setPrevEdgeInGraph(Edge prevEdge) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setIncidentVertex(Vertex v) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setNextIncidenceInternal(InternalEdge nextIncidence) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setPrevIncidenceInternal(InternalEdge prevIncidence) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setId(int id) {
+		// only called once by the constructor of EdgeBaseImpl
+		if (this.id != 0) {
+			throw CsrGraphImpl.frozenGraphException();
+		}
+		this.id = id;
+	}
+
+	/**
+	 * This method is not supported by frozen graphs and therefore throws an
+	 * {@link UnsupportedOperationException}.
+	 */
+	@Override
+	public Class<? extends Edge> getSchemaClass() {
+		throw new UnsupportedOperationException(
+				"This method is not supported by frozen graphs");
+	}
+}
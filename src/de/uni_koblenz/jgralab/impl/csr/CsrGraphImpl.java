@@ -0,0 +1,861 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl.csr;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_koblenz.jgralab.AttributedElement;
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.Record;
+import de.uni_koblenz.jgralab.TemporaryEdge;
+import de.uni_koblenz.jgralab.TemporaryVertex;
+import de.uni_koblenz.jgralab.TraversalContext;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.exception.NoSuchAttributeException;
+import de.uni_koblenz.jgralab.impl.FlyweightCache;
+import de.uni_koblenz.jgralab.impl.FreeIndexList;
+import de.uni_koblenz.jgralab.impl.GraphBaseImpl;
+import de.uni_koblenz.jgralab.impl.InternalEdge;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.impl.InternalVertex;
+import de.uni_koblenz.jgralab.impl.RecordImpl;
+import de.uni_koblenz.jgralab.impl.TgLexer.Token;
+import de.uni_koblenz.jgralab.impl.generic.InternalAttributesArrayAccess;
+import de.uni_koblenz.jgralab.schema.Attribute;
+import de.uni_koblenz.jgralab.schema.AttributedElementClass;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.EnumDomain;
+import de.uni_koblenz.jgralab.schema.GraphClass;
+import de.uni_koblenz.jgralab.schema.GraphElementClass;
+import de.uni_koblenz.jgralab.schema.RecordDomain;
+import de.uni_koblenz.jgralab.schema.RecordDomain.RecordComponent;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+
+/**
+ * A read-only {@link Graph} implementation created by {@link Graph#freeze()}.
+ * 
+ * The vertex and edge sequences are stored as arrays of element ids, the
+ * incidence sequences of all vertices are concatenated in VSeq order into one
+ * array of signed edge ids (compressed sparse row format), and the types,
+ * endpoints and sequence positions of all elements are kept in arrays indexed
+ * by element id. Attribute values are stored column-wise per
+ * {@link GraphElementClass} and attribute, see {@link AttributeColumn}.
+ * 
+ * {@link Vertex} and {@link Edge} objects are lightweight flyweights which are
+ * created on access and cached weakly (see {@link FlyweightCache}), so that
+ * each element is represented by exactly one object while it's in use and
+ * comparisons by identity work as for the other implementations, but
+ * flyweights which are no longer in use don't stay in memory. The cache is
+ * thread-safe, so a frozen graph may be traversed by several threads
+ * concurrently.
+ * 
+ * All modifying operations throw an {@link UnsupportedOperationException}.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class CsrGraphImpl extends GraphBaseImpl {
+
+	private final GraphClass type;
+
+	/**
+	 * true if the frozen graph used the generic implementation, i.e., enum
+	 * values are represented by strings and records by {@link RecordImpl}
+	 */
+	private final boolean genericValues;
+
+	private Object[] attributes;
+
+	/**
+	 * false while the super constructor initializes the (unused) element
+	 * arrays and sequences, true afterwards
+	 */
+	private boolean frozen;
+
+	/**
+	 * vertex and edge classes indexed by
+	 * {@link GraphElementClass#getGraphElementClassIdInSchema()}
+	 */
+	private VertexClass[] vertexClasses;
+	private EdgeClass[] edgeClasses;
+
+	/**
+	 * attribute columns indexed by class id and attribute index, null for
+	 * classes without attributes or instances
+	 */
+	private AttributeColumn[][] columns;
+
+	// vertex sequence, all indexed by vertex id except vSeq
+	private int vCount;
+	private int[] vSeq;
+	private int[] vPos;
+	private int[] vType;
+	private int[] vIndex;
+
+	// edge sequence, all indexed by edge id except eSeq
+	private int eCount;
+	private int[] eSeq;
+	private int[] ePos;
+	private int[] eType;
+	private int[] eIndex;
+	private int[] alpha;
+	private int[] omega;
+
+	/**
+	 * Offsets into {@link #inc} indexed by VSeq position. The incidences of the
+	 * vertex at position p are stored at inc[firstInc[p]] up to (excluding)
+	 * inc[firstInc[p + 1]].
+	 */
+	private int[] firstInc;
+
+	/**
+	 * Number of outgoing incidences indexed by VSeq position.
+	 */
+	private int[] outDeg;
+
+	/**
+	 * signed edge ids of all incidences
+	 */
+	private int[] inc;
+
+	/**
+	 * Position of each incidence in {@link #inc}, indexed by eMax + signed edge
+	 * id.
+	 */
+	private int[] incPos;
+
+	private FlyweightCache<CsrVertexImpl> vertexCache;
+	private FlyweightCache<CsrEdgeImpl> edgeCache;
+
+	private List<InternalVertex> deleteVertexList;
+
+	/**
+	 * Creates a frozen copy of the given graph. The complete graph is copied
+	 * regardless of a {@link TraversalContext} set on <code>source</code>.
+	 * 
+	 * @param source
+	 *            the graph to be frozen
+	 */
+	public CsrGraphImpl(InternalGraph source) {
+		super(source.getId(), source.getGraphClass(), source.getMaxVCount(),
+				source.getMaxECount());
+		if (source.hasTemporaryElements()) {
+			throw new GraphException(
+					"Graphs containing temporary elements can't be frozen");
+		}
+		type = source.getGraphClass();
+		genericValues = source instanceof InternalAttributesArrayAccess;
+
+		int classCount = getSchema().getGraphElementClassCount();
+		vertexClasses = new VertexClass[classCount];
+		for (VertexClass vc : type.getVertexClasses()) {
+			vertexClasses[vc.getGraphElementClassIdInSchema()] = vc;
+		}
+		edgeClasses = new EdgeClass[classCount];
+		for (EdgeClass ec : type.getEdgeClasses()) {
+			edgeClasses[ec.getGraphElementClassIdInSchema()] = ec;
+		}
+		columns = new AttributeColumn[classCount][];
+
+		TraversalContext tc = source.setTraversalContext(null);
+		try {
+			copyGraphAttributes(source);
+			copyEdges(source);
+			copyVertices(source);
+		} finally {
+			source.setTraversalContext(tc);
+		}
+		vertexCache = new FlyweightCache<CsrVertexImpl>(vMax + 1);
+		edgeCache = new FlyweightCache<CsrEdgeImpl>(eMax + 1);
+		setGraphVersion(source.getGraphVersion());
+		frozen = true;
+	}
+
+	private void copyGraphAttributes(Graph source) {
+		attributes = new Object[type.getAttributeCount()];
+		setAttributes = new BitSet(type.getAttributeCount());
+		for (Attribute a : type.getAttributeList()) {
+			int i = type.getAttributeIndex(a.getName());
+			attributes[i] = source.getAttribute(a.getName());
+			setAttributes.set(i, !source.isUnsetAttribute(a.getName()));
+		}
+	}
+
+	private void copyEdges(Graph source) {
+		eCount = source.getECount();
+		eSeq = new int[eCount];
+		ePos = new int[eMax + 1];
+		Arrays.fill(ePos, -1);
+		eType = new int[eMax + 1];
+		eIndex = new int[eMax + 1];
+		alpha = new int[eMax + 1];
+		omega = new int[eMax + 1];
+		int[] classSize = new int[edgeClasses.length];
+		int p = 0;
+		for (Edge e = source.getFirstEdge(); e != null; e = e.getNextEdge()) {
+			int eId = e.getId();
+			int classId = e.getAttributedElementClass()
+					.getGraphElementClassIdInSchema();
+			eSeq[p] = eId;
+			ePos[eId] = p++;
+			eType[eId] = classId;
+			eIndex[eId] = classSize[classId]++;
+			alpha[eId] = e.getAlpha().getId();
+			omega[eId] = e.getOmega().getId();
+		}
+		createColumns(edgeClasses, classSize);
+		for (p = 0; p < eCount; ++p) {
+			int eId = eSeq[p];
+			copyAttributes(source.getEdge(eId), columns[eType[eId]],
+					eIndex[eId]);
+		}
+	}
+
+	private void copyVertices(Graph source) {
+		vCount = source.getVCount();
+		vSeq = new int[vCount];
+		vPos = new int[vMax + 1];
+		Arrays.fill(vPos, -1);
+		vType = new int[vMax + 1];
+		vIndex = new int[vMax + 1];
+		firstInc = new int[vCount + 1];
+		outDeg = new int[vCount];
+		int[] classSize = new int[vertexClasses.length];
+		int p = 0;
+		for (Vertex v = source.getFirstVertex(); v != null; v = v
+				.getNextVertex()) {
+			int vId = v.getId();
+			int classId = v.getAttributedElementClass()
+					.getGraphElementClassIdInSchema();
+			vSeq[p] = vId;
+			vPos[vId] = p;
+			vType[vId] = classId;
+			vIndex[vId] = classSize[classId]++;
+			firstInc[p + 1] = firstInc[p] + v.getDegree();
+			outDeg[p] = v.getDegree(EdgeDirection.OUT);
+			++p;
+		}
+		createColumns(vertexClasses, classSize);
+		inc = new int[firstInc[vCount]];
+		incPos = new int[(2 * eMax) + 1];
+		for (p = 0; p < vCount; ++p) {
+			int vId = vSeq[p];
+			Vertex v = source.getVertex(vId);
+			copyAttributes(v, columns[vType[vId]], vIndex[vId]);
+			int i = firstInc[p];
+			for (Edge e : v.incidences()) {
+				inc[i] = e.getId();
+				incPos[eMax + e.getId()] = i++;
+			}
+		}
+	}
+
+	private void createColumns(GraphElementClass<?, ?>[] classes,
+			int[] classSize) {
+		for (int c = 0; c < classes.length; ++c) {
+			if ((classSize[c] == 0) || !classes[c].hasAttributes()) {
+				continue;
+			}
+			AttributeColumn[] cols = new AttributeColumn[classes[c]
+					.getAttributeCount()];
+			for (Attribute a : classes[c].getAttributeList()) {
+				cols[classes[c].getAttributeIndex(a.getName())] = AttributeColumn
+						.create(a.getDomain(), classSize[c]);
+			}
+			columns[c] = cols;
+		}
+	}
+
+	private static void copyAttributes(AttributedElement<?, ?> el,
+			AttributeColumn[] cols, int index) {
+		if (cols == null) {
+			return;
+		}
+		AttributedElementClass<?, ?> aec = el.getAttributedElementClass();
+		for (Attribute a : aec.getAttributeList()) {
+			String name = a.getName();
+			AttributeColumn col = cols[aec.getAttributeIndex(name)];
+			col.set(index, el.getAttribute(name));
+			if (el.isUnsetAttribute(name)) {
+				col.markUnset(index);
+			}
+		}
+	}
+
+	// ************** element access for the flyweights ***************/
+
+	final CsrVertexImpl vertex(int vId) {
+		CsrVertexImpl v = vertexCache.get(vId);
+		return v != null ? v : vertexCache.putIfAbsent(vId, new CsrVertexImpl(
+				vId, this));
+	}
+
+	final CsrEdgeImpl edge(int eId) {
+		CsrEdgeImpl e = edgeCache.get(eId);
+		return e != null ? e : edgeCache.putIfAbsent(eId, new CsrEdgeImpl(eId,
+				this));
+	}
+
+	private InternalEdge incidence(int signedId) {
+		return signedId > 0 ? edge(signedId) : (InternalEdge) edge(-signedId)
+				.getReversedEdge();
+	}
+
+	final VertexClass vertexClass(int vId) {
+		return vertexClasses[vType[vId]];
+	}
+
+	final EdgeClass edgeClass(int eId) {
+		return edgeClasses[eType[eId]];
+	}
+
+	final InternalVertex nextVertex(int vId) {
+		int p = vPos[vId] + 1;
+		return p < vCount ? vertex(vSeq[p]) : null;
+	}
+
+	final InternalVertex prevVertex(int vId) {
+		int p = vPos[vId] - 1;
+		return p >= 0 ? vertex(vSeq[p]) : null;
+	}
+
+	final InternalEdge nextEdge(int eId) {
+		int p = ePos[eId] + 1;
+		return p < eCount ? edge(eSeq[p]) : null;
+	}
+
+	final InternalEdge prevEdge(int eId) {
+		int p = ePos[eId] - 1;
+		return p >= 0 ? edge(eSeq[p]) : null;
+	}
+
+	final InternalEdge firstIncidence(int vId) {
+		int p = vPos[vId];
+		return firstInc[p] < firstInc[p + 1] ? incidence(inc[firstInc[p]])
+				: null;
+	}
+
+	final int inDegree(int vId) {
+		int p = vPos[vId];
+		return firstInc[p + 1] - firstInc[p] - outDeg[p];
+	}
+
+	final int outDegree(int vId) {
+		return outDeg[vPos[vId]];
+	}
+
+	final InternalEdge lastIncidence(int vId) {
+		int p = vPos[vId];
+		return firstInc[p] < firstInc[p + 1] ? incidence(inc[firstInc[p + 1] - 1])
+				: null;
+	}
+
+	final InternalEdge nextIncidence(int signedId) {
+		int i = incPos[eMax + signedId] + 1;
+		int vId = signedId > 0 ? alpha[signedId] : omega[-signedId];
+		return i < firstInc[vPos[vId] + 1] ? incidence(inc[i]) : null;
+	}
+
+	final InternalEdge prevIncidence(int signedId) {
+		int i = incPos[eMax + signedId] - 1;
+		int vId = signedId > 0 ? alpha[signedId] : omega[-signedId];
+		return i >= firstInc[vPos[vId]] ? incidence(inc[i]) : null;
+	}
+
+	final InternalVertex alpha(int eId) {
+		return vertex(alpha[eId]);
+	}
+
+	final InternalVertex omega(int eId) {
+		return vertex(omega[eId]);
+	}
+
+	final AttributeColumn vertexColumn(int vId, String name) {
+		return column(vType[vId], vertexClass(vId).getAttributeIndex(name));
+	}
+
+	final int vertexIndex(int vId) {
+		return vIndex[vId];
+	}
+
+	final AttributeColumn edgeColumn(int eId, String name) {
+		return column(eType[eId], edgeClass(eId).getAttributeIndex(name));
+	}
+
+	final int edgeIndex(int eId) {
+		return eIndex[eId];
+	}
+
+	private AttributeColumn column(int classId, int attrIdx) {
+		return columns[classId][attrIdx];
+	}
+
+	/**
+	 * @return the exception thrown by all operations which would modify a
+	 *         frozen graph
+	 */
+	static UnsupportedOperationException frozenGraphException() {
+		return new UnsupportedOperationException(
+				"A frozen graph can't be modified");
+	}
+
+	private void checkNotFrozen() {
+		if (frozen) {
+			throw frozenGraphException();
+		}
+	}
+
+	static String writeAttributeValueToString(AttributedElement<?, ?> el,
+			String attributeName) throws IOException, GraphIOException {
+		GraphIO io = GraphIO.createStringWriter(el.getSchema());
+		if (el.isUnsetAttribute(attributeName)) {
+			io.writeIdentifier(Token.UNSET.toString());
+		} else {
+			el.getAttributedElementClass().getAttribute(attributeName)
+					.getDomain()
+					.serializeGenericAttribute(io, el.getAttribute(attributeName));
+		}
+		return io.getStringWriterResult();
+	}
+
+	static void writeAttributeValues(AttributedElement<?, ?> el, GraphIO io)
+			throws IOException, GraphIOException {
+		for (Attribute a : el.getAttributedElementClass().getAttributeList()) {
+			if (el.isUnsetAttribute(a.getName())) {
+				io.writeIdentifier(Token.UNSET.toString());
+			} else {
+				a.getDomain().serializeGenericAttribute(io,
+						el.getAttribute(a.getName()));
+			}
+		}
+	}
+
+	// ************** Graph ***************/
+
+	@Override
+	public Graph freeze() {
+		return this;
+	}
+
+	@Override
+	public Graph snapshot() {
+		return this;
+	}
+
+	@Override
+	public GraphClass getAttributedElementClass() {
+		return type;
+	}
+
+	@Override
+	public boolean isInstanceOf(GraphClass cls) {
+		return type.equals(cls);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getAttribute(String name) {
+		return (T) attributes[type.getAttributeIndex(name)];
+	}
+
+	@Override
+	public <T> void setAttribute(String name, T data) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void readAttributeValueFromString(String attributeName, String value)
+			throws GraphIOException, NoSuchAttributeException {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void readAttributeValues(GraphIO io) throws GraphIOException {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public String writeAttributeValueToString(String attributeName)
+			throws IOException, GraphIOException, NoSuchAttributeException {
+		return writeAttributeValueToString(this, attributeName);
+	}
+
+	@Override
+	public void writeAttributeValues(GraphIO io) throws IOException,
+			GraphIOException {
+		writeAttributeValues(this, io);
+	}
+
+	@Override
+	public Object getEnumConstant(EnumDomain enumDomain, String constantName) {
+		if (!genericValues) {
+			return super.getEnumConstant(enumDomain, constantName);
+		}
+		for (String cn : enumDomain.getConsts()) {
+			if (cn.equals(constantName)) {
+				return cn;
+			}
+		}
+		throw new GraphException("No such enum constant '" + constantName
+				+ "' in EnumDomain " + enumDomain);
+	}
+
+	@Override
+	public Record createRecord(RecordDomain recordDomain,
+			Map<String, Object> values) {
+		if (!genericValues) {
+			return super.createRecord(recordDomain, values);
+		}
+		RecordImpl record = RecordImpl.empty();
+		for (RecordComponent c : recordDomain.getComponents()) {
+			if (!values.containsKey(c.getName())) {
+				throw new GraphException("The provided Map misses a "
+						+ c.getName() + " key!");
+			}
+			record = record.plus(c.getName(), values.get(c.getName()));
+		}
+		return record;
+	}
+
+	@Override
+	public Vertex getVertex(int vId) {
+		assert (vId > 0) : "The vertex id must be > 0, given was " + vId;
+		return (vId <= vMax) && (vPos[vId] >= 0) ? vertex(vId) : null;
+	}
+
+	@Override
+	public Edge getEdge(int eId) {
+		assert eId != 0 : "The edge id must be != 0, given was " + eId;
+		int id = Math.abs(eId);
+		if ((id > eMax) || (ePos[id] < 0)) {
+			return null;
+		}
+		return incidence(eId);
+	}
+
+	@Override
+	public boolean vSeqContainsVertex(Vertex v) {
+		return (v != null) && (v.getGraph() == this)
+				&& (vertexCache.get(v.getId()) == v);
+	}
+
+	@Override
+	public boolean eSeqContainsEdge(Edge e) {
+		return (e != null) && (e.getGraph() == this)
+				&& (edgeCache.get(e.getNormalEdge().getId()) == e
+						.getNormalEdge());
+	}
+
+	@Override
+	public <T extends Vertex> T createVertex(VertexClass vc) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public <T extends Edge> T createEdge(EdgeClass ec, Vertex alpha,
+			Vertex omega) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void defragment() {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public int defragment(int maxMoves) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void renumberVertices(int[] oldIds, int[] newIds) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void renumberEdges(int[] oldIds, int[] newIds) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public boolean hasTemporaryElements() {
+		return false;
+	}
+
+	@Override
+	public TemporaryVertex createTemporaryVertex() {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public TemporaryVertex createTemporaryVertex(VertexClass preliminaryType) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public TemporaryEdge createTemporaryEdge(Vertex alpha, Vertex omega) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public TemporaryEdge createTemporaryEdge(EdgeClass preliminaryType,
+			Vertex alpha, Vertex omega) {
+		throw frozenGraphException();
+	}
+
+	/**
+	 * This method is not supported by frozen graphs and therefore throws an
+	 * {@link UnsupportedOperationException}.
+	 */
+	@Override
+	public Class<? extends Graph> getSchemaClass() {
+		throw new UnsupportedOperationException(
+				"This method is not supported by frozen graphs");
+	}
+
+	// ************** rejected modifications ***************/
+
+	@Override
+	public void fireBeforeDeleteVertex(Vertex v) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void fireBeforeDeleteEdge(Edge e) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void fireBeforeChangeAlpha(Edge edge, Vertex oldVertex,
+			Vertex newVertex) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void fireBeforeChangeOmega(Edge edge, Vertex oldVertex,
+			Vertex newVertex) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void fireBeforePutIncidenceBefore(Edge inc, Edge other) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void fireBeforePutIncidenceAfter(Edge inc, Edge other) {
+		throw frozenGraphException();
+	}
+
+	// ************** InternalGraph ***************/
+
+	/**
+	 * A frozen graph has no element arrays, vertices are created on demand by
+	 * {@link #getVertex(int)}. Generic code must not index the element arrays,
+	 * so this fails once the graph is frozen instead of returning null.
+	 * 
+	 * @return <code>null</code> while the frozen copy is being created
+	 * @throws UnsupportedOperationException
+	 *             if the graph is frozen
+	 */
+	@Override
+	public InternalVertex[] getVertex() {
+		checkNotFrozen();
+		return null;
+	}
+
+	/**
+	 * A frozen graph has no element arrays, edges are created on demand by
+	 * {@link #getEdge(int)}. Generic code must not index the element arrays,
+	 * so this fails once the graph is frozen instead of returning null.
+	 * 
+	 * @return <code>null</code> while the frozen copy is being created
+	 * @throws UnsupportedOperationException
+	 *             if the graph is frozen
+	 */
+	@Override
+	public InternalEdge[] getEdge() {
+		checkNotFrozen();
+		return null;
+	}
+
+	@Override
+	public int getVCountInVSeq() {
+		return vCount;
+	}
+
+	@Override
+	public int getECountInESeq() {
+		return eCount;
+	}
+
+	@Override
+	public InternalVertex getFirstVertexInVSeq() {
+		return vCount > 0 ? vertex(vSeq[0]) : null;
+	}
+
+	@Override
+	public InternalVertex getLastVertexInVSeq() {
+		return vCount > 0 ? vertex(vSeq[vCount - 1]) : null;
+	}
+
+	@Override
+	public InternalEdge getFirstEdgeInESeq() {
+		return eCount > 0 ? edge(eSeq[0]) : null;
+	}
+
+	@Override
+	public InternalEdge getLastEdgeInESeq() {
+		return eCount > 0 ? edge(eSeq[eCount - 1]) : null;
+	}
+
+	/**
+	 * Frozen graphs don't store per-class sequence links, typed traversal
+	 * scans the compact sequence arrays instead.
+	 */
+	@Override
+	protected boolean hasClassSequences() {
+		return false;
+	}
+
+	@Override
+	public FreeIndexList getFreeVertexList() {
+		return freeVertexList;
+	}
+
+	@Override
+	public FreeIndexList getFreeEdgeList() {
+		return freeEdgeList;
+	}
+
+	@Override
+	public List<InternalVertex> getDeleteVertexList() {
+		return deleteVertexList;
+	}
+
+	@Override
+	public long getVertexListVersion() {
+		return 0;
+	}
+
+	@Override
+	public long getEdgeListVersion() {
+		return 0;
+	}
+
+	@Override
+	public void setVertex(InternalVertex[] vertex) {
+		checkNotFrozen();
+	}
+
+	@Override
+	public void setVCount(int count) {
+		checkNotFrozen();
+	}
+
+	@Override
+	public void setEdge(InternalEdge[] edge) {
+		checkNotFrozen();
+	}
+
+	@Override
+	public void setECount(int count) {
+		checkNotFrozen();
+	}
+
+	@Override
+	public void setFirstVertex(InternalVertex firstVertex) {
+		checkNotFrozen();
+	}
+
+	@Override
+	public void setLastVertex(InternalVertex lastVertex) {
+		checkNotFrozen();
+	}
+
+	@Override
+	public void setFirstEdgeInGraph(InternalEdge firstEdge) {
+		checkNotFrozen();
+	}
+
+	@Override
+	public void setLastEdgeInGraph(InternalEdge lastEdge) {
+		checkNotFrozen();
+	}
+
+	@Override
+	public void setDeleteVertexList(List<InternalVertex> deleteVertexList) {
+		checkNotFrozen();
+		this.deleteVertexList = deleteVertexList;
+	}
+
+	@Override
+	public void setVertexListVersion(long vertexListVersion) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void setEdgeListVersion(long edgeListVersion) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public int allocateVertexIndex(int currentId) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public int allocateEdgeIndex(int currentId) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void freeVertexIndex(int index) {
+		throw frozenGraphException();
+	}
+
+	@Override
+	public void freeEdgeIndex(int index) {
+		throw frozenGraphException();
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl.csr;
+
+import java.io.IOException;
+
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.exception.NoSuchAttributeException;
+import de.uni_koblenz.jgralab.impl.InternalEdge;
+import de.uni_koblenz.jgralab.impl.InternalVertex;
+import de.uni_koblenz.jgralab.impl.ReversedEdgeBaseImpl;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+
+/**
+ * The reversed edge of a {@link CsrEdgeImpl}.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class CsrReversedEdgeImpl extends ReversedEdgeBaseImpl {
+
+	CsrReversedEdgeImpl(CsrEdgeImpl normalEdge, Graph graph) {
+		super(normalEdge, graph);
+	}
+
+	private CsrGraphImpl csr() {
+		return (CsrGraphImpl) graph;
+	}
+
+	@Override
+	public EdgeClass getAttributedElementClass() {
+		return normalEdge.getAttributedElementClass();
+	}
+
+	@Override
+	public boolean isInstanceOf(EdgeClass cls) {
+		return normalEdge.isInstanceOf(cls);
+	}
+
+	@Override
+	public boolean isUnsetAttribute(String name)
+			throws NoSuchAttributeException {
+		return normalEdge.isUnsetAttribute(name);
+	}
+
+	@Override
+	public InternalVertex getIncidentVertex() {
+		return csr().omega(normalEdge.getId());
+	}
+
+	@Override
+	public InternalEdge getNextIncidenceInISeq() {
+		return csr().nextIncidence(-normalEdge.getId());
+	}
+
+	@Override
+	public InternalEdge getPrevIncidenceInISeq() {
+		return csr().prevIncidence(-normalEdge.getId());
+	}
+
+	@Override
+	public Object[] getIncidencePartitionLinks() {
+		return null;
+	}
+
+	@Override
+	public void setIncidencePartitionLinks(Object[] incidencePartitionLinks) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setIncidentVertex(Vertex v) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setNextIncidenceInternal(InternalEdge nextIncidence) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setPrevIncidenceInternal(InternalEdge prevIncidence) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void readAttributeValueFromString(String attributeName, String value)
+			throws GraphIOException, NoSuchAttributeException {
+		throw new GraphIOException(
+				"Can not call readAttributeValuesFromString for reversed Edges.");
+	}
+
+	@Override
+	public String writeAttributeValueToString(String attributeName)
+			throws IOException, GraphIOException, NoSuchAttributeException {
+		throw new GraphIOException(
+				"Can not call writeAttributeValueToString for reversed Edges.");
+	}
+
+	@Override
+	public void writeAttributeValues(GraphIO io) throws IOException,
+			GraphIOException {
+		throw new GraphIOException(
+				"Can not call writeAttributeValues for reversed Edges.");
+	}
+
+	@Override
+	public void readAttributeValues(GraphIO io) throws GraphIOException {
+		throw new GraphIOException(
+				"Can not call readAttributeValues for reversed Edges.");
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl.csr;
+
+import java.io.IOException;
+
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.exception.NoSuchAttributeException;
+import de.uni_koblenz.jgralab.impl.IncidencePartition;
+import de.uni_koblenz.jgralab.impl.InternalEdge;
+import de.uni_koblenz.jgralab.impl.InternalVertex;
+import de.uni_koblenz.jgralab.impl.VertexBaseImpl;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+
+/**
+ * A {@link Vertex} of a {@link CsrGraphImpl}. Apart from its id it holds no
+ * state, all structural information and attribute values are read from the
+ * arrays of the frozen graph.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class CsrVertexImpl extends VertexBaseImpl {
+
+	CsrVertexImpl(int id, Graph graph) {
+		super(id, graph);
+	}
+
+	private CsrGraphImpl csr() {
+		return (CsrGraphImpl) graph;
+	}
+
+	@Override
+	public VertexClass getAttributedElementClass() {
+		return csr().vertexClass(id);
+	}
+
+	@Override
+	public boolean isInstanceOf(VertexClass cls) {
+		// Needs to be overridden from the base variant, because that relies on
+		// code generation.
+		VertexClass type = getAttributedElementClass();
+		return (type == cls) || type.isSubClassOf(cls);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getAttribute(String name) {
+		return (T) csr().vertexColumn(id, name).get(csr().vertexIndex(id));
+	}
+
+	@Override
+	public boolean isUnsetAttribute(String name)
+			throws NoSuchAttributeException {
+		return csr().vertexColumn(id, name).isUnset(csr().vertexIndex(id));
+	}
+
+	@Override
+	public <T> void setAttribute(String name, T data) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void readAttributeValueFromString(String attributeName, String value)
+			throws GraphIOException, NoSuchAttributeException {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void readAttributeValues(GraphIO io) throws GraphIOException {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public String writeAttributeValueToString(String attributeName)
+			throws IOException, GraphIOException, NoSuchAttributeException {
+		return CsrGraphImpl.writeAttributeValueToString(this, attributeName);
+	}
+
+	@Override
+	public void writeAttributeValues(GraphIO io) throws IOException,
+			GraphIOException {
+		CsrGraphImpl.writeAttributeValues(this, io);
+	}
+
+	@Override
+	public InternalVertex getNextVertexInVSeq() {
+		return csr().nextVertex(id);
+	}
+
+	@Override
+	public InternalVertex getPrevVertexInVSeq() {
+		return csr().prevVertex(id);
+	}
+
+	@Override
+	public InternalEdge getFirstIncidenceInISeq() {
+		return csr().firstIncidence(id);
+	}
+
+	@Override
+	public InternalEdge getLastIncidenceInISeq() {
+		return csr().lastIncidence(id);
+	}
+
+	@Override
+	public int getInDegreeInISeq() {
+		return csr().inDegree(id);
+	}
+
+	@Override
+	public int getOutDegreeInISeq() {
+		return csr().outDegree(id);
+	}
+
+	@Override
+	public int[] getEdgeClassDegreesInISeq() {
+		return null;
+	}
+
+	@Override
+	public long getIncidenceListVersion() {
+		return 0;
+	}
+
+	@Override
+	public IncidencePartition getIncidencePartition() {
+		return null;
+	}
+
+	@Override
+	public void setIncidencePartition(IncidencePartition incidencePartition) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public Object[] getClassSeqLinks() {
+		return null;
+	}
+
+	@Override
+	public void setClassSeqLinks(Object[] classSeqLinks) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setNextVertex(Vertex nextVertex) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setPrevVertex(Vertex prevVertex) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setFirstIncidence(InternalEdge firstIncidence) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setLastIncidence(InternalEdge lastIncidence) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setInDegree(int inDegree) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setOutDegree(int outDegree) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setEdgeClassDegrees(int[] edgeClassDegrees) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setIncidenceListVersion(long incidenceListVersion) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	@Override
+	public void setId(int id) {
+		throw CsrGraphImpl.frozenGraphException();
+	}
+
+	/**
+	 * This method is not supported by frozen graphs and therefore throws an
+	 * {@link UnsupportedOperationException}.
+	 */
+	@Override
+	public Class<? extends Vertex> getSchemaClass() {
+		throw new UnsupportedOperationException(
+				"This method is not supported by frozen graphs");
+	}
+}
@@ -0,0 +1,421 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.impl.generic;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.uni_koblenz.jgralab.schema.Attribute;
+import de.uni_koblenz.jgralab.schema.BooleanDomain;
+import de.uni_koblenz.jgralab.schema.Domain;
+import de.uni_koblenz.jgralab.schema.DoubleDomain;
+import de.uni_koblenz.jgralab.schema.GraphElementClass;
+import de.uni_koblenz.jgralab.schema.IntegerDomain;
+import de.uni_koblenz.jgralab.schema.LongDomain;
+
+/**
+ * Stores the attribute values of all vertices or of all edges of a
+ * {@link GenericGraphImpl} in columnar mode. There is one column per
+ * {@link Attribute}, so an inherited attribute shares its column with all
+ * subclasses. Columns are indexed by element id. Values of the basic numeric
+ * and boolean domains are kept unboxed, and the set-flags of each column are
+ * packed into bits.
+ * 
+ * Columns are divided into pages of {@link #PAGE_SIZE} elements which are
+ * allocated on first write and never move, so writes to different elements
+ * don't interfere, e.g., while attribute values are parsed in parallel.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+final class AttributeColumns {
+	private static final int PAGE_BITS = 10;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/**
+	 * all columns, one per attribute
+	 */
+	private final Map<Attribute, Column> columns = new IdentityHashMap<Attribute, Column>();
+
+	/**
+	 * columns indexed by class id and attribute index
+	 */
+	private volatile Column[][] classColumns = new Column[0][];
+
+	/**
+	 * @return the columns of the attributes of <code>type</code>, indexed by
+	 *         attribute index
+	 */
+	private Column[] columns(GraphElementClass<?, ?> type) {
+		int classId = type.getGraphElementClassIdInSchema();
+		Column[][] cc = classColumns;
+		if (classId < cc.length) {
+			Column[] c = cc[classId];
+			if ((c != null) && (c.length == type.getAttributeCount())) {
+				return c;
+			}
+		}
+		return createColumns(type);
+	}
+
+	private synchronized Column[] createColumns(GraphElementClass<?, ?> type) {
+		int classId = type.getGraphElementClassIdInSchema();
+		Column[][] cc = classColumns;
+		if (classId >= cc.length) {
+			cc = Arrays.copyOf(cc, classId + 1);
+		}
+		List<Attribute> attributes = type.getAttributeList();
+		Column[] c = cc[classId];
+		if ((c == null) || (c.length != attributes.size())) {
+			c = new Column[attributes.size()];
+			for (int i = 0; i < c.length; ++i) {
+				Attribute a = attributes.get(i);
+				Column col = columns.get(a);
+				if (col == null) {
+					col = new Column(a.getDomain());
+					columns.put(a, col);
+				}
+				c[i] = col;
+			}
+			cc[classId] = c;
+		}
+		classColumns = cc;
+		return c;
+	}
+
+	Object get(GraphElementClass<?, ?> type, int attrIdx, int id) {
+		return columns(type)[attrIdx].get(id);
+	}
+
+	void set(GraphElementClass<?, ?> type, int attrIdx, int id, Object value) {
+		columns(type)[attrIdx].set(id, value);
+	}
+
+	boolean isSet(GraphElementClass<?, ?> type, int attrIdx, int id) {
+		return columns(type)[attrIdx].isSet(id);
+	}
+
+	void markSet(GraphElementClass<?, ?> type, int attrIdx, int id,
+			boolean set) {
+		columns(type)[attrIdx].markSet(id, set);
+	}
+
+	/**
+	 * Marks all attributes of element <code>id</code> as unset.
+	 */
+	void markUnset(GraphElementClass<?, ?> type, int id) {
+		for (Column c : columns(type)) {
+			c.markSet(id, false);
+		}
+	}
+
+	/**
+	 * Stores the attribute values <code>values</code> and the set-flags
+	 * <code>set</code> (may be null) of element <code>id</code>.
+	 */
+	void attach(GraphElementClass<?, ?> type, int id, Object[] values,
+			BitSet set) {
+		Column[] c = columns(type);
+		for (int i = 0; i < c.length; ++i) {
+			c[i].set(id, values[i]);
+			c[i].markSet(id, (set != null) && set.get(i));
+		}
+	}
+
+	/**
+	 * @return the attribute values of element <code>id</code>
+	 */
+	Object[] toArray(GraphElementClass<?, ?> type, int id) {
+		Column[] c = columns(type);
+		Object[] values = new Object[c.length];
+		for (int i = 0; i < c.length; ++i) {
+			values[i] = c[i].get(id);
+		}
+		return values;
+	}
+
+	/**
+	 * @return the set-flags of element <code>id</code>
+	 */
+	BitSet setFlags(GraphElementClass<?, ?> type, int id) {
+		Column[] c = columns(type);
+		BitSet set = new BitSet(c.length);
+		for (int i = 0; i < c.length; ++i) {
+			set.set(i, c[i].isSet(id));
+		}
+		return set;
+	}
+
+	/**
+	 * Resets the attribute values of element <code>id</code>, so that no
+	 * references to old values are kept.
+	 */
+	void clear(GraphElementClass<?, ?> type, int id) {
+		for (Column c : columns(type)) {
+			c.clear(id);
+		}
+	}
+
+	/**
+	 * Moves the attribute values of an element from id <code>from</code> to
+	 * id <code>to</code>.
+	 */
+	void move(GraphElementClass<?, ?> type, int from, int to) {
+		for (Column c : columns(type)) {
+			c.set(to, c.get(from));
+			c.markSet(to, c.isSet(from));
+			c.clear(from);
+		}
+	}
+
+	private static final class Column {
+		private final Domain domain;
+		private volatile Page[] pages = new Page[0];
+
+		Column(Domain domain) {
+			this.domain = domain;
+		}
+
+		private Page page(int id) {
+			Page[] p = pages;
+			int i = id >>> PAGE_BITS;
+			return i < p.length ? p[i] : null;
+		}
+
+		private Page writablePage(int id) {
+			Page page = page(id);
+			return page != null ? page : allocate(id);
+		}
+
+		private synchronized Page allocate(int id) {
+			Page[] p = pages;
+			int i = id >>> PAGE_BITS;
+			if (i >= p.length) {
+				p = Arrays.copyOf(p, Math.max(i + 1, 2 * p.length));
+			}
+			Page page = p[i];
+			if (page == null) {
+				page = newPage();
+				p[i] = page;
+			}
+			// the volatile write publishes the new page
+			pages = p;
+			return page;
+		}
+
+		private Page newPage() {
+			if (domain instanceof IntegerDomain) {
+				return new IntPage();
+			} else if (domain instanceof LongDomain) {
+				return new LongPage();
+			} else if (domain instanceof DoubleDomain) {
+				return new DoublePage();
+			} else if (domain instanceof BooleanDomain) {
+				return new BooleanPage();
+			}
+			return new ObjectPage();
+		}
+
+		Object get(int id) {
+			Page page = page(id);
+			if (page == null) {
+				return GenericGraphImpl.genericAttributeDefaultValue(domain);
+			}
+			return page.get(id & PAGE_MASK);
+		}
+
+		void set(int id, Object value) {
+			writablePage(id).set(id & PAGE_MASK, value);
+		}
+
+		void clear(int id) {
+			Page page = page(id);
+			if (page != null) {
+				page.clear(id & PAGE_MASK);
+				page.markSet(id & PAGE_MASK, false);
+			}
+		}
+
+		boolean isSet(int id) {
+			Page page = page(id);
+			return (page != null) && page.isSet(id & PAGE_MASK);
+		}
+
+		void markSet(int id, boolean set) {
+			if (set) {
+				writablePage(id).markSet(id & PAGE_MASK, true);
+			} else {
+				Page page = page(id);
+				if (page != null) {
+					page.markSet(id & PAGE_MASK, false);
+				}
+			}
+		}
+	}
+
+	private static abstract class Page {
+		/**
+		 * set-flags, one bit per element. Each word is shared by 64 elements,
+		 * so it is updated atomically, otherwise concurrent writes to different
+		 * elements could overwrite each other's flags.
+		 */
+		private final AtomicLongArray set = new AtomicLongArray(
+				PAGE_SIZE >>> 6);
+
+		final boolean isSet(int i) {
+			return (set.get(i >>> 6) & (1L << i)) != 0;
+		}
+
+		final void markSet(int i, boolean value) {
+			int w = i >>> 6;
+			long bit = 1L << i;
+			long old;
+			long updated;
+			do {
+				old = set.get(w);
+				updated = value ? old | bit : old & ~bit;
+			} while ((old != updated) && !set.compareAndSet(w, old, updated));
+		}
+
+		abstract Object get(int i);
+
+		abstract void set(int i, Object value);
+
+		abstract void clear(int i);
+	}
+
+	private static final class IntPage extends Page {
+		private final int[] values = new int[PAGE_SIZE];
+
+		@Override
+		Object get(int i) {
+			return values[i];
+		}
+
+		@Override
+		void set(int i, Object value) {
+			values[i] = (Integer) value;
+		}
+
+		@Override
+		void clear(int i) {
+			values[i] = 0;
+		}
+	}
+
+	private static final class LongPage extends Page {
+		private final long[] values = new long[PAGE_SIZE];
+
+		@Override
+		Object get(int i) {
+			return values[i];
+		}
+
+		@Override
+		void set(int i, Object value) {
+			values[i] = (Long) value;
+		}
+
+		@Override
+		void clear(int i) {
+			values[i] = 0;
+		}
+	}
+
+	private static final class DoublePage extends Page {
+		private final double[] values = new double[PAGE_SIZE];
+
+		@Override
+		Object get(int i) {
+			return values[i];
+		}
+
+		@Override
+		void set(int i, Object value) {
+			values[i] = (Double) value;
+		}
+
+		@Override
+		void clear(int i) {
+			values[i] = 0;
+		}
+	}
+
+	/**
+	 * Stores one byte per value, since concurrent writes to different bits of
+	 * one word could overwrite each other.
+	 */
+	private static final class BooleanPage extends Page {
+		private final byte[] values = new byte[PAGE_SIZE];
+
+		@Override
+		Object get(int i) {
+			return values[i] != 0;
+		}
+
+		@Override
+		void set(int i, Object value) {
+			values[i] = (byte) ((Boolean) value ? 1 : 0);
+		}
+
+		@Override
+		void clear(int i) {
+			values[i] = 0;
+		}
+	}
+
+	private static final class ObjectPage extends Page {
+		private final Object[] values = new Object[PAGE_SIZE];
+
+		@Override
+		Object get(int i) {
+			return values[i];
+		}
+
+		@Override
+		void set(int i, Object value) {
+			values[i] = value;
+		}
+
+		@Override
+		void clear(int i) {
+			values[i] = null;
+		}
+	}
+}
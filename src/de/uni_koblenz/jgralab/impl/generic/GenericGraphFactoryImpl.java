@@ -34,11 +34,14 @@
  */
 package de.uni_koblenz.jgralab.impl.generic;
 
+import java.util.concurrent.locks.Lock;
+
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.ImplementationType;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.impl.GraphBaseImpl;
 import de.uni_koblenz.jgralab.impl.GraphFactoryImpl;
 import de.uni_koblenz.jgralab.impl.InternalAttributedElement;
 import de.uni_koblenz.jgralab.impl.InternalGraph;
@@ -48,8 +51,23 @@ import de.uni_koblenz.jgralab.schema.Schema;
 import de.uni_koblenz.jgralab.schema.VertexClass;
 
 public class GenericGraphFactoryImpl extends GraphFactoryImpl {
+	private final boolean columnar;
+
 	public GenericGraphFactoryImpl(Schema s) {
+		this(s, false);
+	}
+
+	/**
+	 * Creates a factory for generic graphs of schema <code>s</code>.
+	 * 
+	 * @param columnar
+	 *            if true, the created graphs store the attribute values of
+	 *            vertices and edges column-wise, see
+	 *            {@link GenericGraphImpl#isColumnar()}
+	 */
+	public GenericGraphFactoryImpl(Schema s, boolean columnar) {
 		super(s, ImplementationType.GENERIC);
+		this.columnar = columnar;
 	}
 
 	@Override
@@ -77,13 +95,14 @@ public class GenericGraphFactoryImpl extends GraphFactoryImpl {
 			throw new GraphException(gc + " is not in schema " + schema);
 		}
 		@SuppressWarnings("unchecked")
-		G graph = (G) new GenericGraphImpl(gc, id, vMax, eMax);
+		G graph = (G) new GenericGraphImpl(gc, id, vMax, eMax, columnar);
 		graph.setGraphFactory(this);
 		((InternalAttributedElement) graph)
 				.internalInitializeSetAttributesBitSet();
 		return graph;
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public <V extends Vertex> V createVertex(VertexClass vc, int id, Graph g) {
 		if (schema != vc.getSchema()) {
@@ -92,14 +111,22 @@ public class GenericGraphFactoryImpl extends GraphFactoryImpl {
 		InternalGraph ig = (InternalGraph) g;
 		ig.fireBeforeCreateVertex(vc);
 
-		@SuppressWarnings("unchecked")
-		V vertex = (V) new GenericVertexImpl(vc, id, g);
-		((InternalAttributedElement) vertex)
-				.internalInitializeSetAttributesBitSet();
+		V vertex;
+		// the new vertex is visible to snapshot() only when complete
+		GraphBaseImpl gb = (GraphBaseImpl) g;
+		Lock w = gb.internalBeginWrite();
+		try {
+			vertex = (V) new GenericVertexImpl(vc, id, g);
+			((InternalAttributedElement) vertex)
+					.internalInitializeSetAttributesBitSet();
+		} finally {
+			gb.internalEndWrite(w);
+		}
 		ig.fireAfterCreateVertex(vertex);
 		return vertex;
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public <E extends Edge> E createEdge(EdgeClass ec, int id, Graph g,
 			Vertex alpha, Vertex omega) {
@@ -108,10 +135,17 @@ public class GenericGraphFactoryImpl extends GraphFactoryImpl {
 		}
 		InternalGraph ig = (InternalGraph) g;
 		ig.fireBeforeCreateEdge(ec, alpha, omega);
-		@SuppressWarnings("unchecked")
-		E edge = (E) new GenericEdgeImpl(ec, id, g, alpha, omega);
-		((InternalAttributedElement) edge)
-				.internalInitializeSetAttributesBitSet();
+		E edge;
+		// the new edge is visible to snapshot() only when complete
+		GraphBaseImpl gb = (GraphBaseImpl) g;
+		Lock w = gb.internalBeginWrite();
+		try {
+			edge = (E) new GenericEdgeImpl(ec, id, g, alpha, omega);
+			((InternalAttributedElement) edge)
+					.internalInitializeSetAttributesBitSet();
+		} finally {
+			gb.internalEndWrite(w);
+		}
 		ig.fireAfterCreateEdge(edge);
 		return edge;
 	}
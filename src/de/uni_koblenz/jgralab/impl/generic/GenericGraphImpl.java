@@ -36,6 +36,7 @@ package de.uni_koblenz.jgralab.impl.generic;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 import de.uni_koblenz.jgralab.AttributedElement;
 import de.uni_koblenz.jgralab.Edge;
@@ -74,15 +75,56 @@ public class GenericGraphImpl extends GraphImpl implements
 	private GraphClass type;
 	private Object[] attributes;
 
+	/**
+	 * attribute values of vertices and edges in columnar mode, null otherwise
+	 */
+	private final AttributeColumns vertexColumns;
+	private final AttributeColumns edgeColumns;
+
 	protected GenericGraphImpl(GraphClass type, String id, int vmax, int emax) {
+		this(type, id, vmax, emax, false);
+	}
+
+	/**
+	 * Creates a generic graph. In columnar mode, the attribute values of
+	 * vertices and edges aren't stored in the elements but in one column per
+	 * attribute, indexed by element id. Values of the basic numeric and
+	 * boolean domains are unboxed, and the set-flags are packed into bits, so
+	 * large graphs need considerably less memory.
+	 */
+	protected GenericGraphImpl(GraphClass type, String id, int vmax, int emax,
+			boolean columnar) {
 		super(id, type, vmax, emax);
 		this.type = type;
+		if (columnar) {
+			vertexColumns = new AttributeColumns();
+			edgeColumns = new AttributeColumns();
+		} else {
+			vertexColumns = null;
+			edgeColumns = null;
+		}
 		if (type.hasAttributes()) {
 			attributes = new Object[type.getAttributeCount()];
 			GenericGraphImpl.initializeGenericAttributeValues(this);
 		}
 	}
 
+	/**
+	 * @return true iff the attribute values of vertices and edges are stored
+	 *         column-wise
+	 */
+	public boolean isColumnar() {
+		return vertexColumns != null;
+	}
+
+	AttributeColumns getVertexColumns() {
+		return vertexColumns;
+	}
+
+	AttributeColumns getEdgeColumns() {
+		return edgeColumns;
+	}
+
 	/**
 	 * Creates a new {@link GenericVertexImpl} in the graph that conforms to a
 	 * given {@link VertexClass} from the Schema.
@@ -164,10 +206,17 @@ public class GenericGraphImpl extends GraphImpl implements
 	public <T> void setAttribute(String name, T data) {
 		int i = getAttributedElementClass().getAttributeIndex(name);
 		if (type.getAttribute(name).getDomain().isConformValue(data)) {
-			T oldValue = this.<T> getAttribute(name);
-			fireBeforeChangeAttribute(this, name, oldValue, data);
-			attributes[i] = data;
-			fireAfterChangeAttribute(this, name, oldValue, data);
+			Lock w = internalBeginWrite();
+			try {
+				T oldValue = this.<T> getAttribute(name);
+				fireBeforeChangeAttribute(this, name, oldValue, data);
+				attributes[i] = data;
+				internalMarkAttributeAsSet(i, true);
+				graphModified();
+				fireAfterChangeAttribute(this, name, oldValue, data);
+			} finally {
+				internalEndWrite(w);
+			}
 		} else {
 			Domain d = type.getAttribute(name).getDomain();
 			throw new ClassCastException("Expected "
@@ -178,8 +227,6 @@ public class GenericGraphImpl extends GraphImpl implements
 					+ (data != null ? data.getClass().getName()
 							+ " object instead" : "null") + " instead");
 		}
-
-		internalMarkAttributeAsSet(i, true);
 	}
 
 	@Override
@@ -35,6 +35,8 @@
 package de.uni_koblenz.jgralab.impl.generic;
 
 import java.io.IOException;
+import java.util.BitSet;
+import java.util.concurrent.locks.Lock;
 
 import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.GraphIO;
@@ -59,6 +61,11 @@ public class GenericVertexImpl extends VertexImpl implements
 		InternalAttributesArrayAccess {
 
 	private final VertexClass type;
+
+	/**
+	 * the attribute values, null if they are stored in the columns of a
+	 * columnar graph
+	 */
 	private Object[] attributes;
 
 	protected GenericVertexImpl(VertexClass type, int id, Graph graph) {
@@ -70,7 +77,9 @@ public class GenericVertexImpl extends VertexImpl implements
 		}
 		this.type = type;
 		if (type.hasAttributes()) {
-			attributes = new Object[type.getAttributeCount()];
+			if ((this.id == 0) || !((GenericGraphImpl) graph).isColumnar()) {
+				attributes = new Object[type.getAttributeCount()];
+			}
 			GenericGraphImpl.initializeGenericAttributeValues(this);
 		}
 	}
@@ -83,20 +92,18 @@ public class GenericVertexImpl extends VertexImpl implements
 	@Override
 	public void readAttributeValueFromString(String attributeName, String value)
 			throws GraphIOException, NoSuchAttributeException {
+		internalEnsureAttributesDecoded();
 		int i = type.getAttributeIndex(attributeName);
 		Domain dom = type.getAttribute(attributeName).getDomain();
-		GenericGraphImpl.setAttributeValueHandlingUnset(attributes, i, dom, dom
-				.parseGenericAttribute(GraphIO.createStringReader(value,
-						getSchema())));
+		setAttributeValueHandlingUnset(i, dom.parseGenericAttribute(GraphIO
+				.createStringReader(value, getSchema())));
 	}
 
 	@Override
 	public void readAttributeValues(GraphIO io) throws GraphIOException {
 		for (Attribute a : type.getAttributeList()) {
-			Domain dom = a.getDomain();
-			GenericGraphImpl.setAttributeValueHandlingUnset(attributes,
-					type.getAttributeIndex(a.getName()), dom,
-					dom.parseGenericAttribute(io));
+			setAttributeValueHandlingUnset(type.getAttributeIndex(a.getName()),
+					a.getDomain().parseGenericAttribute(io));
 		}
 	}
 
@@ -129,19 +136,32 @@ public class GenericVertexImpl extends VertexImpl implements
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T getAttribute(String name) {
+		internalEnsureAttributesDecoded();
 		int i = type.getAttributeIndex(name);
-		return (T) attributes[i];
+		return (T) (isColumnar() ? columns().get(type, i, id) : attributes[i]);
 	}
 
 	@Override
 	public <T> void setAttribute(String name, T data) {
+		internalEnsureAttributesDecoded();
 		int i = type.getAttributeIndex(name);
 		if (getAttributedElementClass().getAttribute(name).getDomain()
 				.isConformValue(data)) {
-			T oldValue = this.<T> getAttribute(name);
-			graph.fireBeforeChangeAttribute(this, name, oldValue, data);
-			attributes[i] = data;
-			graph.fireAfterChangeAttribute(this, name, oldValue, data);
+			Lock w = graph.internalBeginWrite();
+			try {
+				T oldValue = this.<T> getAttribute(name);
+				graph.fireBeforeChangeAttribute(this, name, oldValue, data);
+				if (isColumnar()) {
+					columns().set(type, i, id, data);
+				} else {
+					attributes[i] = data;
+				}
+				internalMarkAttributeAsSet(i, true);
+				graphModified();
+				graph.fireAfterChangeAttribute(this, name, oldValue, data);
+			} finally {
+				graph.internalEndWrite(w);
+			}
 		} else {
 			Domain d = type.getAttribute(name).getDomain();
 			throw new ClassCastException("Expected "
@@ -152,8 +172,6 @@ public class GenericVertexImpl extends VertexImpl implements
 					+ (data != null ? data.getClass().getName()
 							+ " object instead" : "null") + " instead");
 		}
-
-		internalMarkAttributeAsSet(i, true);
 	}
 
 	@Override
@@ -170,9 +188,105 @@ public class GenericVertexImpl extends VertexImpl implements
 
 	@Override
 	public void invokeOnAttributesArray(OnAttributesFunction fn) {
+		internalEnsureAttributesDecoded();
+		if (isColumnar()) {
+			// fn may change the layout of the array, so from now on this
+			// vertex keeps its attribute values in its own array
+			detach(id);
+		}
 		attributes = fn.invoke(this, attributes);
 	}
 
+	/**
+	 * @return true iff the attribute values of this vertex are stored in the
+	 *         columns of the graph
+	 */
+	private boolean isColumnar() {
+		return (attributes == null) && ((GenericGraphImpl) graph).isColumnar();
+	}
+
+	private AttributeColumns columns() {
+		return ((GenericGraphImpl) graph).getVertexColumns();
+	}
+
+	private void setAttributeValueHandlingUnset(int i, Object value) {
+		if (value == GraphIO.Unset.UNSET) {
+			return;
+		}
+		if (isColumnar()) {
+			columns().set(type, i, id, value);
+		} else {
+			attributes[i] = value;
+		}
+	}
+
+	/**
+	 * Moves the attribute values stored under id <code>oldId</code> from the
+	 * columns of the graph into an array owned by this vertex.
+	 */
+	private void detach(int oldId) {
+		AttributeColumns c = columns();
+		BitSet set = c.setFlags(type, oldId);
+		attributes = c.toArray(type, oldId);
+		c.clear(type, oldId);
+		super.internalInitializeSetAttributesBitSet();
+		for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+			super.internalMarkAttributeAsSet(i, true);
+		}
+	}
+
+	@Override
+	public void setId(int id) {
+		int oldId = this.id;
+		super.setId(id);
+		if ((type == null) || !type.hasAttributes() || (oldId == id)
+				|| !((GenericGraphImpl) graph).isColumnar()) {
+			return;
+		}
+		if (attributes != null) {
+			if (oldId == 0) {
+				// added to the graph, move the values into the columns
+				columns().attach(type, id, attributes,
+						internalGetSetAttributesBitSet());
+				attributes = null;
+			}
+		} else if (id == 0) {
+			// removed from the graph, keep the values accessible
+			detach(oldId);
+		} else {
+			// defragmentation
+			columns().move(type, oldId, id);
+		}
+	}
+
+	@Override
+	public boolean isUnsetAttribute(String name)
+			throws NoSuchAttributeException {
+		if (isColumnar()) {
+			internalEnsureAttributesDecoded();
+			return !columns().isSet(type, type.getAttributeIndex(name), id);
+		}
+		return super.isUnsetAttribute(name);
+	}
+
+	@Override
+	public void internalMarkAttributeAsSet(int attrIdx, boolean value) {
+		if (isColumnar()) {
+			columns().markSet(type, attrIdx, id, value);
+		} else {
+			super.internalMarkAttributeAsSet(attrIdx, value);
+		}
+	}
+
+	@Override
+	public void internalInitializeSetAttributesBitSet() {
+		if (isColumnar()) {
+			columns().markUnset(type, id);
+		} else {
+			super.internalInitializeSetAttributesBitSet();
+		}
+	}
+
 	// ************** unsupported methods ***************/
 
 	/**
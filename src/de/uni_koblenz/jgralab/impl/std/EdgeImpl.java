@@ -50,6 +50,7 @@ public abstract class EdgeImpl extends de.uni_koblenz.jgralab.impl.EdgeBaseImpl
 	// global edge sequence
 	private InternalEdge nextEdge;
 	private InternalEdge prevEdge;
+	private Object[] classSeqLinks;
 
 	// the this-vertex
 	private InternalVertex incidentVertex;
@@ -57,6 +58,15 @@ public abstract class EdgeImpl extends de.uni_koblenz.jgralab.impl.EdgeBaseImpl
 	// incidence list
 	private InternalEdge nextIncidence;
 	private InternalEdge prevIncidence;
+	private Object[] incidencePartitionLinks;
+
+	// the omega vertex and the incidence list links of the reversed edge,
+	// which has no state of its own and may be created lazily; these replace
+	// the fields of ReversedEdgeImpl, so they don't add to the size of an edge
+	InternalVertex omega;
+	InternalEdge nextOmegaIncidence;
+	InternalEdge prevOmegaIncidence;
+	Object[] omegaIncidencePartitionLinks;
 
 	@Override
 	public InternalEdge getNextEdgeInESeq() {
@@ -77,12 +87,28 @@ public abstract class EdgeImpl extends de.uni_koblenz.jgralab.impl.EdgeBaseImpl
 
 	@Override
 	public InternalEdge getNextIncidenceInISeq() {
-		return nextIncidence;
+		return incidence(nextIncidence, incidentVertex);
 	}
 
 	@Override
 	public InternalEdge getPrevIncidenceInISeq() {
-		return prevIncidence;
+		return incidence(prevIncidence, incidentVertex);
+	}
+
+	@Override
+	public Vertex getOmega() {
+		assert isValid();
+		return omega;
+	}
+
+	@Override
+	public Object[] getClassSeqLinks() {
+		return classSeqLinks;
+	}
+
+	@Override
+	public void setClassSeqLinks(Object[] classSeqLinks) {
+		this.classSeqLinks = classSeqLinks;
 	}
 
 	@Override
@@ -102,12 +128,22 @@ public abstract class EdgeImpl extends de.uni_koblenz.jgralab.impl.EdgeBaseImpl
 
 	@Override
 	public void setNextIncidenceInternal(InternalEdge nextIncidence) {
-		this.nextIncidence = nextIncidence;
+		this.nextIncidence = link(nextIncidence, incidentVertex);
 	}
 
 	@Override
 	public void setPrevIncidenceInternal(InternalEdge prevIncidence) {
-		this.prevIncidence = prevIncidence;
+		this.prevIncidence = link(prevIncidence, incidentVertex);
+	}
+
+	@Override
+	public Object[] getIncidencePartitionLinks() {
+		return incidencePartitionLinks;
+	}
+
+	@Override
+	public void setIncidencePartitionLinks(Object[] incidencePartitionLinks) {
+		this.incidencePartitionLinks = incidencePartitionLinks;
 	}
 
 	protected EdgeImpl(int anId, Graph graph, Vertex alpha, Vertex omega) {
@@ -119,4 +155,54 @@ public abstract class EdgeImpl extends de.uni_koblenz.jgralab.impl.EdgeBaseImpl
 		assert id >= 0;
 		this.id = id;
 	}
+
+	@Override
+	protected void beforeBecomingLoop() {
+		// Links to the omega incidence are stored as this edge, which would
+		// denote the alpha incidence as soon as alpha equals omega. Let alpha
+		// equal omega while relinking, so that they store the reversed edge.
+		InternalEdge r = (InternalEdge) getReversedEdge();
+		InternalEdge prev = r.getPrevIncidenceInISeq();
+		InternalEdge next = r.getNextIncidenceInISeq();
+		InternalVertex alpha = incidentVertex;
+		incidentVertex = omega;
+		if (prev == null) {
+			omega.setFirstIncidence(r);
+		} else {
+			prev.setNextIncidenceInternal(r);
+		}
+		if (next == null) {
+			omega.setLastIncidence(r);
+		} else {
+			next.setPrevIncidenceInternal(r);
+		}
+		incidentVertex = alpha;
+	}
+
+	/**
+	 * Converts an incidence to the link stored in the incidence list of
+	 * <code>v</code>. The omega incidence of an edge which isn't a loop is
+	 * stored as its normal edge, so that no reversed edge needs to be kept
+	 * while it's contained in an incidence list. All other incidences are
+	 * stored as they are.
+	 */
+	static InternalEdge link(InternalEdge i, InternalVertex v) {
+		if (i instanceof ReversedEdgeImpl) {
+			EdgeImpl e = (EdgeImpl) i.getNormalEdge();
+			return e.incidentVertex != v ? e : i;
+		}
+		return i;
+	}
+
+	/**
+	 * Converts a link stored in the incidence list of <code>v</code> back to
+	 * the incidence, see {@link #link(InternalEdge, InternalVertex)}. A normal
+	 * edge whose alpha vertex isn't <code>v</code> denotes its omega incidence.
+	 */
+	static InternalEdge incidence(InternalEdge l, InternalVertex v) {
+		if ((l instanceof EdgeImpl) && (((EdgeImpl) l).incidentVertex != v)) {
+			return (InternalEdge) l.getReversedEdge();
+		}
+		return l;
+	}
 }
@@ -57,7 +57,6 @@ public abstract class GraphImpl extends
 	private InternalVertex[] vertex;
 	private int vCount;
 	private InternalEdge[] edge;
-	private InternalEdge[] revEdge;
 	private int eCount;
 	private InternalVertex firstVertex;
 	private InternalVertex lastVertex;
@@ -99,11 +98,6 @@ public abstract class GraphImpl extends
 		return edge;
 	}
 
-	@Override
-	public InternalEdge[] getRevEdge() {
-		return revEdge;
-	}
-
 	@Override
 	public int getECountInESeq() {
 		return eCount;
@@ -154,11 +148,6 @@ public abstract class GraphImpl extends
 		this.edge = edge;
 	}
 
-	@Override
-	public void setRevEdge(InternalEdge[] revEdge) {
-		this.revEdge = revEdge;
-	}
-
 	@Override
 	public void setECount(int count) {
 		eCount = count;
@@ -261,6 +250,7 @@ public abstract class GraphImpl extends
 	@Override
 	public void freeEdgeIndex(int index) {
 		freeEdgeList.freeIndex(index);
+		forgetReversedEdge(index);
 	}
 
 	@Override
@@ -48,38 +48,53 @@ import de.uni_koblenz.jgralab.impl.InternalVertex;
  */
 public abstract class ReversedEdgeImpl extends
 		de.uni_koblenz.jgralab.impl.ReversedEdgeBaseImpl {
-	private InternalVertex incidentVertex;
-	private InternalEdge nextIncidence;
-	private InternalEdge prevIncidence;
+
+	// The incidence list links are held by the normal edge, so that the
+	// reversed edge may be created lazily and reclaimed when it's no longer
+	// in use.
 
 	@Override
 	public InternalVertex getIncidentVertex() {
-		return incidentVertex;
+		return ((EdgeImpl) normalEdge).omega;
 	}
 
 	@Override
 	public InternalEdge getNextIncidenceInISeq() {
-		return nextIncidence;
+		EdgeImpl e = (EdgeImpl) normalEdge;
+		return EdgeImpl.incidence(e.nextOmegaIncidence, e.omega);
 	}
 
 	@Override
 	public InternalEdge getPrevIncidenceInISeq() {
-		return prevIncidence;
+		EdgeImpl e = (EdgeImpl) normalEdge;
+		return EdgeImpl.incidence(e.prevOmegaIncidence, e.omega);
 	}
 
 	@Override
 	public void setIncidentVertex(Vertex v) {
-		incidentVertex = (InternalVertex) v;
+		((EdgeImpl) normalEdge).omega = (InternalVertex) v;
 	}
 
 	@Override
 	public void setNextIncidenceInternal(InternalEdge nextIncidence) {
-		this.nextIncidence = nextIncidence;
+		EdgeImpl e = (EdgeImpl) normalEdge;
+		e.nextOmegaIncidence = EdgeImpl.link(nextIncidence, e.omega);
 	}
 
 	@Override
 	public void setPrevIncidenceInternal(InternalEdge prevIncidence) {
-		this.prevIncidence = prevIncidence;
+		EdgeImpl e = (EdgeImpl) normalEdge;
+		e.prevOmegaIncidence = EdgeImpl.link(prevIncidence, e.omega);
+	}
+
+	@Override
+	public Object[] getIncidencePartitionLinks() {
+		return ((EdgeImpl) normalEdge).omegaIncidencePartitionLinks;
+	}
+
+	@Override
+	public void setIncidencePartitionLinks(Object[] incidencePartitionLinks) {
+		((EdgeImpl) normalEdge).omegaIncidencePartitionLinks = incidencePartitionLinks;
 	}
 
 	/**
@@ -14,6 +14,7 @@ import de.uni_koblenz.jgralab.exception.GraphIOException;
 import de.uni_koblenz.jgralab.exception.NoSuchAttributeException;
 import de.uni_koblenz.jgralab.exception.TemporaryGraphElementException;
 import de.uni_koblenz.jgralab.impl.GraphBaseImpl;
+import de.uni_koblenz.jgralab.impl.IncidencePartition;
 import de.uni_koblenz.jgralab.impl.InternalEdge;
 import de.uni_koblenz.jgralab.impl.InternalGraph;
 import de.uni_koblenz.jgralab.impl.InternalVertex;
@@ -161,13 +162,10 @@ public class TemporaryEdgeImpl extends EdgeImpl implements TemporaryEdge {
 			newEdge.setId(tempID);
 			g.allocateEdgeIndex(tempID);
 			g.freeEdgeIndex(idToFree);
-			// fix edge[] & revEdge
+			// fix edge[]
 			InternalEdge[] edge = g.getEdge();
 			edge[tempID] = newEdge;
 			edge[idToFree] = null;
-			InternalEdge[] revEdge = g.getRevEdge();
-			revEdge[tempID] = (InternalEdge) newEdge.getReversedEdge();
-			revEdge[idToFree] = null;
 		}
 
 		return newEdge;
@@ -227,6 +225,12 @@ public class TemporaryEdgeImpl extends EdgeImpl implements TemporaryEdge {
 
 		((InternalVertex) newEdge.getThis()).setLastIncidence(newLastIncidence);
 
+		IncidencePartition p = ((InternalVertex) newEdge.getThis())
+				.getIncidencePartition();
+		if (p != null) {
+			p.moved(newEdge);
+		}
+
 	}
 
 	@Override
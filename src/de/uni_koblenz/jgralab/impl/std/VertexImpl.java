@@ -36,6 +36,7 @@ package de.uni_koblenz.jgralab.impl.std;
 
 import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.impl.IncidencePartition;
 import de.uni_koblenz.jgralab.impl.InternalEdge;
 import de.uni_koblenz.jgralab.impl.InternalVertex;
 
@@ -51,6 +52,11 @@ public abstract class VertexImpl extends
 	private InternalVertex prevVertex;
 	private InternalEdge firstIncidence;
 	private InternalEdge lastIncidence;
+	private int inDegree;
+	private int outDegree;
+	private int[] edgeClassDegrees;
+	private Object[] classSeqLinks;
+	private volatile IncidencePartition incidencePartition;
 
 	/**
 	 * holds the version of the vertex structure, for every modification of the
@@ -74,12 +80,47 @@ public abstract class VertexImpl extends
 
 	@Override
 	public InternalEdge getFirstIncidenceInISeq() {
-		return firstIncidence;
+		return EdgeImpl.incidence(firstIncidence, this);
 	}
 
 	@Override
 	public InternalEdge getLastIncidenceInISeq() {
-		return lastIncidence;
+		return EdgeImpl.incidence(lastIncidence, this);
+	}
+
+	@Override
+	public int getInDegreeInISeq() {
+		return inDegree;
+	}
+
+	@Override
+	public int getOutDegreeInISeq() {
+		return outDegree;
+	}
+
+	@Override
+	public int[] getEdgeClassDegreesInISeq() {
+		return edgeClassDegrees;
+	}
+
+	@Override
+	public IncidencePartition getIncidencePartition() {
+		return incidencePartition;
+	}
+
+	@Override
+	public void setIncidencePartition(IncidencePartition incidencePartition) {
+		this.incidencePartition = incidencePartition;
+	}
+
+	@Override
+	public Object[] getClassSeqLinks() {
+		return classSeqLinks;
+	}
+
+	@Override
+	public void setClassSeqLinks(Object[] classSeqLinks) {
+		this.classSeqLinks = classSeqLinks;
 	}
 
 	@Override
@@ -94,12 +135,27 @@ public abstract class VertexImpl extends
 
 	@Override
 	public void setFirstIncidence(InternalEdge firstIncidence) {
-		this.firstIncidence = firstIncidence;
+		this.firstIncidence = EdgeImpl.link(firstIncidence, this);
 	}
 
 	@Override
 	public void setLastIncidence(InternalEdge lastIncidence) {
-		this.lastIncidence = lastIncidence;
+		this.lastIncidence = EdgeImpl.link(lastIncidence, this);
+	}
+
+	@Override
+	public void setInDegree(int inDegree) {
+		this.inDegree = inDegree;
+	}
+
+	@Override
+	public void setOutDegree(int outDegree) {
+		this.outDegree = outDegree;
+	}
+
+	@Override
+	public void setEdgeClassDegrees(int[] edgeClassDegrees) {
+		this.edgeClassDegrees = edgeClassDegrees;
 	}
 
 	@Override
@@ -47,10 +47,13 @@ import java.util.Vector;
 
 import org.pcollections.PSet;
 
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.EdgeDirection;
 import de.uni_koblenz.jgralab.Graph;
 import de.uni_koblenz.jgralab.GraphFactory;
 import de.uni_koblenz.jgralab.ImplementationType;
 import de.uni_koblenz.jgralab.ProgressFunction;
+import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.exception.GraphIOException;
 import de.uni_koblenz.jgralab.schema.RecordDomain.RecordComponent;
 import de.uni_koblenz.jgralab.schema.codegenerator.CodeGeneratorConfiguration;
@@ -88,6 +91,37 @@ public interface Schema extends Comparable<Schema> {
 	 */
 	public boolean allowsLowercaseEnumConstants();
 
+	/**
+	 * Checks if the vertices of graphs of this schema maintain degree counters
+	 * per EdgeClass, so that {@link Vertex#getDegree(EdgeClass)} and
+	 * {@link Vertex#getDegree(EdgeClass, EdgeDirection)} need not iterate the
+	 * incidence list.
+	 * 
+	 * @return true iff per-EdgeClass degree counters are maintained
+	 */
+	public boolean maintainsEdgeClassDegrees();
+
+	/**
+	 * Checks if high-degree vertices of graphs of this schema partition their
+	 * incidence lists by direction and EdgeClass, so that
+	 * {@link Vertex#getFirstIncidence(EdgeClass, EdgeDirection)} and
+	 * {@link Edge#getNextIncidence(EdgeClass, EdgeDirection)} need not skip
+	 * over non-matching incidences.
+	 * 
+	 * @return true iff incidence lists are partitioned
+	 */
+	public boolean partitionsIncidenceLists();
+
+	/**
+	 * Checks if graphs of this schema create the reversed edge of an edge
+	 * only when it is requested, e.g., by {@link Edge#getReversedEdge()},
+	 * {@link Graph#getEdge(int)} with a negative id or by traversing the
+	 * incidence list of the edge's omega vertex.
+	 * 
+	 * @return true iff reversed edges are created lazily
+	 */
+	public boolean createsReversedEdgesLazily();
+
 	/**
 	 * After creating the schema, this command serves to generate code for the
 	 * schema classes, contained in {@code JavaSourceFromString} objects.
@@ -137,7 +171,10 @@ public interface Schema extends Comparable<Schema> {
 	/**
 	 * After creating the schema, this command serves to generate and compile
 	 * code for the schema classes. The class files are not written to disk, but
-	 * only held in memory.
+	 * only held in memory. If enabled, the bytecode is also kept in the
+	 * on-disk
+	 * {@link de.uni_koblenz.jgralab.schema.impl.compilation.SchemaClassCache},
+	 * so that compiling the same schema again only reads the cache.
 	 * 
 	 * @param config
 	 *            configures the CodeGenerator and which classes and methods to
@@ -402,6 +439,49 @@ public interface Schema extends Comparable<Schema> {
 	public void setAllowLowercaseEnumConstants(
 			boolean allowLowercaseEnumConstants);
 
+	/**
+	 * Enables or disables per-EdgeClass degree counters. Each vertex with
+	 * incident edges then holds two counters for every
+	 * {@link GraphElementClass} of the schema, so this is only advisable for
+	 * schemas with few classes and graphs with high-degree vertices. The
+	 * counters of a vertex are (re)built on the next modification of its
+	 * incidence list. In/out degree totals are always maintained.
+	 * 
+	 * @param maintainEdgeClassDegrees
+	 *            set to true to maintain degree counters per EdgeClass
+	 */
+	public void setMaintainEdgeClassDegrees(boolean maintainEdgeClassDegrees);
+
+	/**
+	 * Enables or disables the partitioning of incidence lists. A partitioned
+	 * vertex keeps a chain of its incidences for each direction and each
+	 * EdgeClass (including superclasses) in the global incidence order, so
+	 * typed and directed navigation only touches matching incidences. The
+	 * chains cost a few references per incidence and are only built for
+	 * vertices with many incidences on their first typed or directed access.
+	 * 
+	 * @param partitionIncidenceLists
+	 *            set to true to partition the incidence lists of high-degree
+	 *            vertices
+	 */
+	public void setPartitionIncidenceLists(boolean partitionIncidenceLists);
+
+	/**
+	 * Enables or disables the lazy creation of reversed edges. Usually, each
+	 * edge is accompanied by its reversed edge from its creation on. With lazy
+	 * creation, the reversed edge is only created when it is requested, e.g.,
+	 * by {@link Edge#getReversedEdge()} or by traversing the incidence list of
+	 * the omega vertex, and it is only weakly referenced by the graph. As long
+	 * as it is in use, all requests yield the identical object, afterwards it
+	 * is reclaimed by the garbage collector. This saves one object per edge.
+	 * The setting is read when a graph is created and applies to that graph
+	 * for its whole lifetime.
+	 * 
+	 * @param createReversedEdgesLazily
+	 *            set to true to create reversed edges on demand
+	 */
+	public void setCreateReversedEdgesLazily(boolean createReversedEdgesLazily);
+
 	/**
 	 * Creates a string representation of this schema in the TG language. Do not
 	 * use in GraphIO.
@@ -348,8 +348,12 @@ public abstract class AttributedElementCodeGenerator<SC extends AttributedElemen
 			code.add("public #type# #isOrGet#_#name#();");
 			break;
 		case STDIMPL:
-			code.add("public #type# #isOrGet#_#name#() {", "\treturn _#name#;",
-					"}");
+			code.add("public #type# #isOrGet#_#name#() {");
+			if (aec.getClass() != GraphClassImpl.class) {
+				// graph elements may be loaded with lazy attribute decoding
+				code.add("\tinternalEnsureAttributesDecoded();");
+			}
+			code.add("\treturn _#name#;", "}");
 			break;
 		case CLASSONLY:
 			break;
@@ -379,14 +383,22 @@ public abstract class AttributedElementCodeGenerator<SC extends AttributedElemen
 			code.add("public void set_#name#(#type# _#name#);");
 			break;
 		case STDIMPL:
+			code.add("public void set_#name#(#type# _#name#) {");
+			if (aec.getClass() != GraphClassImpl.class) {
+				code.add("\tinternalEnsureAttributesDecoded();");
+			}
 			code.add(
-					"public void set_#name#(#type# _#name#) {",
-					"\t#graphRef#fireBeforeChangeAttribute(this, \"#name#\", this._#name#, _#name#);",
-					"\tObject oldValue = this._#name#;",
-					"\tthis._#name# = _#name#;",
-					"\tinternalMarkAttributeAsSet(#attrIndex#, true);",
-					"\tgraphModified();",
-					"\t#graphRef#fireAfterChangeAttribute(this, \"#name#\", oldValue, _#name#);",
+					"\tjava.util.concurrent.locks.Lock w = #graphRef#internalBeginWrite();",
+					"\ttry {",
+					"\t\t#graphRef#fireBeforeChangeAttribute(this, \"#name#\", this._#name#, _#name#);",
+					"\t\tObject oldValue = this._#name#;",
+					"\t\tthis._#name# = _#name#;",
+					"\t\tinternalMarkAttributeAsSet(#attrIndex#, true);",
+					"\t\tgraphModified();",
+					"\t\t#graphRef#fireAfterChangeAttribute(this, \"#name#\", oldValue, _#name#);",
+					"\t} finally {",
+					"\t\t#graphRef#internalEndWrite(w);",
+					"\t}",
 					"}");
 			break;
 		case CLASSONLY:
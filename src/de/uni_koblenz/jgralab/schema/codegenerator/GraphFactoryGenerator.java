@@ -41,7 +41,11 @@ import de.uni_koblenz.jgralab.schema.Schema;
 import de.uni_koblenz.jgralab.schema.VertexClass;
 
 /**
- * This class generates the code of the GraphElement Factory.
+ * This class generates the code of the GraphElement Factory. The generated
+ * factory registers a creation slot for every non-abstract vertex and edge
+ * class and creates elements by a <code>switch</code> over these slots which
+ * calls the implementation constructors directly, see
+ * {@link de.uni_koblenz.jgralab.impl.GraphFactoryImpl}.
  * 
  * @author ist@uni-koblenz.de
  * 
@@ -82,6 +86,8 @@ public class GraphFactoryGenerator extends CodeGenerator {
 		CodeList code = new CodeList();
 		if (currentCycle.isStdImpl()) {
 			code.add(createConstructor());
+			code.add(createNewVertexInstanceMethod());
+			code.add(createNewEdgeInstanceMethod());
 		}
 		return code;
 	}
@@ -109,12 +115,68 @@ public class GraphFactoryGenerator extends CodeGenerator {
 		CodeList code = new CodeList();
 		GraphClass graphClass = schema.getGraphClass();
 		code.addNoIndent(createFillTableForGraph(graphClass));
+		int slot = 0;
 		for (VertexClass vertexClass : graphClass.getVertexClasses()) {
-			code.addNoIndent(createFillTableForVertex(vertexClass));
+			if (!vertexClass.isAbstract()) {
+				code.addNoIndent(createFillTableForVertex(vertexClass, slot++));
+			}
 		}
+		slot = 0;
 		for (EdgeClass edgeClass : graphClass.getEdgeClasses()) {
-			code.addNoIndent(createFillTableForEdge(edgeClass));
+			if (!edgeClass.isAbstract()) {
+				code.addNoIndent(createFillTableForEdge(edgeClass, slot++));
+			}
+		}
+		return code;
+	}
+
+	protected CodeBlock createNewVertexInstanceMethod() {
+		CodeList code = new CodeList();
+		CodeSnippet s = new CodeSnippet(true);
+		s.add("@Override",
+				"protected #jgPackage#.Vertex newVertexInstance(int slot, int id, #jgPackage#.Graph g) {",
+				"\tswitch (slot) {");
+		code.addNoIndent(s);
+		int slot = 0;
+		for (VertexClass vertexClass : schema.getGraphClass()
+				.getVertexClasses()) {
+			if (vertexClass.isAbstract()) {
+				continue;
+			}
+			s = new CodeSnippet();
+			s.setVariable("slot", Integer.toString(slot++));
+			s.setVariable("vertexImplName", "#schemaImplStdPackage#."
+					+ vertexClass.getQualifiedName() + "Impl");
+			s.add("case #slot#:", "\treturn new #vertexImplName#(id, g);");
+			code.add(s);
+		}
+		code.addNoIndent(new CodeSnippet("\tdefault:", "\t\treturn null;",
+				"\t}", "}"));
+		return code;
+	}
+
+	protected CodeBlock createNewEdgeInstanceMethod() {
+		CodeList code = new CodeList();
+		CodeSnippet s = new CodeSnippet(true);
+		s.add("@Override",
+				"protected #jgPackage#.Edge newEdgeInstance(int slot, int id, #jgPackage#.Graph g, #jgPackage#.Vertex alpha, #jgPackage#.Vertex omega) {",
+				"\tswitch (slot) {");
+		code.addNoIndent(s);
+		int slot = 0;
+		for (EdgeClass edgeClass : schema.getGraphClass().getEdgeClasses()) {
+			if (edgeClass.isAbstract()) {
+				continue;
+			}
+			s = new CodeSnippet();
+			s.setVariable("slot", Integer.toString(slot++));
+			s.setVariable("edgeImplName", "#schemaImplStdPackage#."
+					+ edgeClass.getQualifiedName() + "Impl");
+			s.add("case #slot#:",
+					"\treturn new #edgeImplName#(id, g, alpha, omega);");
+			code.add(s);
 		}
+		code.addNoIndent(new CodeSnippet("\tdefault:", "\t\treturn null;",
+				"\t}", "}"));
 		return code;
 	}
 
@@ -141,13 +203,15 @@ public class GraphFactoryGenerator extends CodeGenerator {
 		return code;
 	}
 
-	protected CodeBlock createFillTableForVertex(VertexClass vertexClass) {
+	protected CodeBlock createFillTableForVertex(VertexClass vertexClass,
+			int slot) {
 		if (vertexClass.isAbstract()) {
 			return null;
 		}
 
 		CodeSnippet code = new CodeSnippet(false);
 		code.setVariable("vertexName", vertexClass.getQualifiedName() + ".VC");
+		code.setVariable("slot", Integer.toString(slot));
 
 		code.setVariable("vertexImplName", "#schemaImplStdPackage#."
 				+ vertexClass.getQualifiedName() + "Impl");
@@ -159,14 +223,15 @@ public class GraphFactoryGenerator extends CodeGenerator {
 
 		if (!vertexClass.isAbstract()) {
 			if (currentCycle.isStdImpl()) {
-				code.add("setVertexImplementationClass(#schemaPackage#.#vertexName#, #vertexImplName#.class);");
+				code.add("setVertexCreationSlot(#schemaPackage#.#vertexName#, #slot#);");
 			}
 		}
 		return code;
 	}
 
-	protected CodeBlock createFillTableForEdge(EdgeClass edgeClass) {
+	protected CodeBlock createFillTableForEdge(EdgeClass edgeClass, int slot) {
 		CodeSnippet code = new CodeSnippet(false);
+		code.setVariable("slot", Integer.toString(slot));
 		code.setVariable("edgeName", edgeClass.getQualifiedName() + ".EC");
 		code.setVariable("edgeImplName",
 				"#schemaImplStdPackage#." + edgeClass.getQualifiedName()
@@ -178,7 +243,7 @@ public class GraphFactoryGenerator extends CodeGenerator {
 
 		if (!edgeClass.isAbstract()) {
 			if (currentCycle.isStdImpl()) {
-				code.add("setEdgeImplementationClass(#schemaPackage#.#edgeName#, #edgeImplName#.class);");
+				code.add("setEdgeCreationSlot(#schemaPackage#.#edgeName#, #slot#);");
 			}
 		}
 		return code;
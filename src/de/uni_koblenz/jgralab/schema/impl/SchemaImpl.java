@@ -104,8 +104,10 @@ import de.uni_koblenz.jgralab.schema.codegenerator.VertexCodeGenerator;
 import de.uni_koblenz.jgralab.schema.exception.SchemaClassAccessException;
 import de.uni_koblenz.jgralab.schema.exception.SchemaException;
 import de.uni_koblenz.jgralab.schema.impl.compilation.ClassFileManager;
+import de.uni_koblenz.jgralab.schema.impl.compilation.InMemoryClassFile;
 import de.uni_koblenz.jgralab.schema.impl.compilation.InMemoryJavaSourceFile;
 import de.uni_koblenz.jgralab.schema.impl.compilation.ManagableArtifact;
+import de.uni_koblenz.jgralab.schema.impl.compilation.SchemaClassCache;
 import de.uni_koblenz.jgralab.schema.impl.compilation.SchemaClassManager;
 
 /**
@@ -147,6 +149,21 @@ public class SchemaImpl implements Schema, ManagableArtifact {
 	 */
 	private boolean allowLowercaseEnumConstants = true;
 
+	/**
+	 * Toggles if vertices maintain degree counters per EdgeClass
+	 */
+	private volatile boolean maintainEdgeClassDegrees = false;
+
+	/**
+	 * Toggles if high-degree vertices partition their incidence lists
+	 */
+	private volatile boolean partitionIncidenceLists = false;
+
+	/**
+	 * Toggles if graphs create reversed edges on demand
+	 */
+	private volatile boolean createReversedEdgesLazily = false;
+
 	private PackageImpl defaultPackage;
 
 	/**
@@ -295,6 +312,21 @@ public class SchemaImpl implements Schema, ManagableArtifact {
 		return allowLowercaseEnumConstants;
 	}
 
+	@Override
+	public boolean maintainsEdgeClassDegrees() {
+		return maintainEdgeClassDegrees;
+	}
+
+	@Override
+	public boolean partitionsIncidenceLists() {
+		return partitionIncidenceLists;
+	}
+
+	@Override
+	public boolean createsReversedEdgesLazily() {
+		return createReversedEdgesLazily;
+	}
+
 	private Vector<InMemoryJavaSourceFile> createClasses(
 			CodeGeneratorConfiguration config) {
 		Vector<InMemoryJavaSourceFile> javaSources = new Vector<InMemoryJavaSourceFile>();
@@ -556,6 +588,16 @@ public class SchemaImpl implements Schema, ManagableArtifact {
 	@Override
 	public void compile(CodeGeneratorConfiguration config) {
 		assertFinished();
+		// define the classes from the on-disk cache if possible
+		String cacheKey = SchemaClassCache.key(this, config);
+		Map<String, byte[]> cachedClasses = SchemaClassCache.load(cacheKey);
+		if (cachedClasses != null) {
+			for (Map.Entry<String, byte[]> e : cachedClasses.entrySet()) {
+				schemaClassManager.putSchemaClass(e.getKey(),
+						new InMemoryClassFile(e.getKey(), e.getValue()));
+			}
+			return;
+		}
 		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
 		if (compiler == null) {
 			throw new SchemaException("Cannot compile schema " + qualifiedName
@@ -567,7 +609,10 @@ public class SchemaImpl implements Schema, ManagableArtifact {
 				null, null);
 		ClassFileManager manager = new ClassFileManager(this, jfm);
 		Vector<InMemoryJavaSourceFile> javaSources = commit(config);
-		compiler.getTask(null, manager, null, null, null, javaSources).call();
+		if (compiler.getTask(null, manager, null, null, null, javaSources)
+				.call()) {
+			SchemaClassCache.store(cacheKey, manager.getCompiledClasses());
+		}
 	}
 
 	@Override
@@ -1128,6 +1173,21 @@ public class SchemaImpl implements Schema, ManagableArtifact {
 		this.allowLowercaseEnumConstants = allowLowercaseEnumConstants;
 	}
 
+	@Override
+	public void setMaintainEdgeClassDegrees(boolean maintainEdgeClassDegrees) {
+		this.maintainEdgeClassDegrees = maintainEdgeClassDegrees;
+	}
+
+	@Override
+	public void setPartitionIncidenceLists(boolean partitionIncidenceLists) {
+		this.partitionIncidenceLists = partitionIncidenceLists;
+	}
+
+	@Override
+	public void setCreateReversedEdgesLazily(boolean createReversedEdgesLazily) {
+		this.createReversedEdgesLazily = createReversedEdgesLazily;
+	}
+
 	void setGraphClass(GraphClassImpl gc) {
 		if (graphClass != null) {
 			throw new SchemaException("A GraphClass named '"
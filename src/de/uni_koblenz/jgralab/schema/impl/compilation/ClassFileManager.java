@@ -36,6 +36,8 @@ package de.uni_koblenz.jgralab.schema.impl.compilation;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -70,9 +72,26 @@ public class ClassFileManager extends
 
 	private final String qualifiedSchemaName;
 
+	private final Map<String, InMemoryClassFile> classFiles;
+
 	public ClassFileManager(ManagableArtifact ma, JavaFileManager fm) {
 		super(fm);
 		this.qualifiedSchemaName = ma.getManagedName();
+		classFiles = new LinkedHashMap<String, InMemoryClassFile>();
+	}
+
+	/**
+	 * @return a map from binary class names to the bytecode of all classes
+	 *         compiled by means of this {@link ClassFileManager}
+	 */
+	public Map<String, byte[]> getCompiledClasses() {
+		Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+		for (Map.Entry<String, InMemoryClassFile> e : classFiles.entrySet()) {
+			if (e.getValue().getBytecode() != null) {
+				result.put(e.getKey(), e.getValue().getBytecode());
+			}
+		}
+		return result;
 	}
 
 	@Override
@@ -106,6 +125,7 @@ public class ClassFileManager extends
 		InMemoryClassFile cfa = new InMemoryClassFile(className);
 		SchemaClassManager.instance(qualifiedSchemaName).putSchemaClass(
 				className, cfa);
+		classFiles.put(className, cfa);
 		// System.out.println("Registered class");
 		return cfa;
 	}
@@ -63,6 +63,20 @@ public class InMemoryClassFile extends SimpleJavaFileObject {
 				+ Kind.CLASS.extension), Kind.CLASS);
 	}
 
+	/**
+	 * Creates a new {@code ClassFileAbstraction} for the class given by
+	 * {@code name} with already compiled {@code bytecode}.
+	 * 
+	 * @param name
+	 *            the name of the class
+	 * @param bytecode
+	 *            the bytecode of the class
+	 */
+	public InMemoryClassFile(String name, byte[] bytecode) {
+		this(name);
+		this.bytecode = bytecode;
+	}
+
 	public byte[] getBytecode() {
 		return bytecode;
 	}
@@ -0,0 +1,367 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.schema.impl.compilation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.JGraLab;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.schema.Schema;
+import de.uni_koblenz.jgralab.schema.codegenerator.CodeGenerator;
+import de.uni_koblenz.jgralab.schema.codegenerator.CodeGeneratorConfiguration;
+
+/**
+ * A content addressed on-disk cache for the bytecode of schema classes
+ * compiled in-memory by {@link Schema#compile(CodeGeneratorConfiguration)}.
+ * 
+ * The cache key is a SHA-1 hash of the schema's TG text, the JGraLab version,
+ * the code generator configuration, the Java specification version and the
+ * location and modification time of the JGraLab classes (so that development
+ * builds with an unknown version don't share entries). Each entry is a jar
+ * file named <code>&lt;key&gt;.jar</code> which contains the class files of
+ * one schema.
+ * 
+ * The cache is disabled unless the system property
+ * {@value #CACHE_DIRECTORY_PROPERTY} names a cache directory. Since the cached
+ * classes are loaded into the running process, the directory is created
+ * accessible by its owner only, and an existing directory is only used if it
+ * belongs to the current user and no other user may write to it. This check
+ * needs the <code>java.nio.file</code> API, so the cache is never used on
+ * Java 6 runtimes. Errors while reading or writing the cache are logged and
+ * treated like cache misses.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public final class SchemaClassCache {
+	public static final String CACHE_DIRECTORY_PROPERTY = "jgralab.schemacache";
+	public static final String DISABLED = "none";
+
+	private static final String EXTENSION = ".jar";
+	private static final Logger logger = JGraLab
+			.getLogger(SchemaClassCache.class);
+
+	private SchemaClassCache() {
+	}
+
+	/**
+	 * @return the cache directory, or null if the cache is disabled
+	 */
+	public static File getDirectory() {
+		String dir = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+		if ((dir == null) || dir.trim().isEmpty() || dir.equals(DISABLED)) {
+			return null;
+		}
+		return new File(dir);
+	}
+
+	/**
+	 * Returns the cache directory if it may be used, i.e. if it belongs to the
+	 * current user and can't be written by other users.
+	 * 
+	 * @param create
+	 *            if true, a missing cache directory is created accessible by
+	 *            the current user only
+	 * @return the cache directory, or null if it doesn't exist or must not be
+	 *         used
+	 */
+	private static File getPrivateDirectory(boolean create) {
+		File dir = getDirectory();
+		if (dir == null) {
+			return null;
+		}
+		if (!dir.isDirectory()) {
+			if (!create) {
+				return null;
+			}
+			if (!dir.mkdirs() && !dir.isDirectory()) {
+				logger.warning("Can't create schema cache directory " + dir);
+				return null;
+			}
+			// revoke access for everybody, then grant it to the owner
+			if (!(dir.setReadable(false, false) && dir.setReadable(true, true)
+					&& dir.setWritable(false, false)
+					&& dir.setWritable(true, true)
+					&& dir.setExecutable(false, false) && dir.setExecutable(
+					true, true))) {
+				logger.warning("Can't restrict access to schema cache directory "
+						+ dir);
+			}
+		}
+		if (!isPrivate(dir)) {
+			logger.warning("Not using schema cache directory " + dir
+					+ ", it doesn't belong to the current user "
+					+ "or can be written by other users");
+			return null;
+		}
+		return dir;
+	}
+
+	/**
+	 * Checks that <code>dir</code> is owned by the current user and, on POSIX
+	 * file systems, that neither its group nor others may write to it. The
+	 * <code>java.nio.file</code> API needed for that is accessed reflectively,
+	 * since JGraLab still runs on Java 6, where this method returns false.
+	 */
+	private static boolean isPrivate(File dir) {
+		try {
+			Class<?> pathClass = Class.forName("java.nio.file.Path");
+			Class<?> filesClass = Class.forName("java.nio.file.Files");
+			Object path = File.class.getMethod("toPath").invoke(dir);
+			Object noOptions = Array.newInstance(
+					Class.forName("java.nio.file.LinkOption"), 0);
+			Principal owner = (Principal) filesClass.getMethod("getOwner",
+					pathClass, noOptions.getClass()).invoke(null, path,
+					noOptions);
+			String user = System.getProperty("user.name");
+			if (!owner.getName().equals(user)
+					&& !owner.getName().endsWith("\\" + user)) {
+				return false;
+			}
+			Set<?> permissions;
+			try {
+				permissions = (Set<?>) filesClass.getMethod(
+						"getPosixFilePermissions", pathClass,
+						noOptions.getClass()).invoke(null, path, noOptions);
+			} catch (InvocationTargetException e) {
+				if (e.getCause() instanceof UnsupportedOperationException) {
+					// no POSIX file system, the owner check has to do
+					return true;
+				}
+				throw e;
+			}
+			for (Object p : permissions) {
+				if (p.toString().equals("GROUP_WRITE")
+						|| p.toString().equals("OTHERS_WRITE")) {
+					return false;
+				}
+			}
+			return true;
+		} catch (ClassNotFoundException e) {
+			// Java 6
+			return false;
+		} catch (Exception e) {
+			logger.log(Level.WARNING, "Can't check owner and permissions of "
+					+ dir, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Computes the cache key of <code>schema</code> compiled with
+	 * <code>config</code>.
+	 * 
+	 * @return the key, or null if the cache is disabled
+	 */
+	public static String key(Schema schema, CodeGeneratorConfiguration config) {
+		if (getDirectory() == null) {
+			return null;
+		}
+		try {
+			ByteArrayOutputStream text = new ByteArrayOutputStream();
+			GraphIO.saveSchemaToStream(schema, text);
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			md.update(text.toByteArray());
+			md.update(("\n" + JGraLab.getVersionInfo(false) + "\n"
+					+ config.hasTypeSpecificMethodsSupport() + "\n"
+					+ System.getProperty("java.specification.version")
+					+ "\n" + codeFingerprint()).getBytes("UTF-8"));
+			StringBuilder sb = new StringBuilder();
+			for (byte b : md.digest()) {
+				sb.append(Integer.toHexString((b >> 4) & 0xf)).append(
+						Integer.toHexString(b & 0xf));
+			}
+			return sb.toString();
+		} catch (GraphIOException e) {
+			logger.log(Level.WARNING, "Can't compute schema cache key", e);
+			return null;
+		} catch (NoSuchAlgorithmException e) {
+			logger.log(Level.WARNING, "Can't compute schema cache key", e);
+			return null;
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the location and modification time of the code generator
+	 *         classes
+	 */
+	private static String codeFingerprint() {
+		URL url = CodeGenerator.class.getResource("CodeGenerator.class");
+		if (url == null) {
+			return "";
+		}
+		try {
+			URLConnection c = url.openConnection();
+			long lastModified = c.getLastModified();
+			InputStream in = c.getInputStream();
+			in.close();
+			return url + "@" + lastModified;
+		} catch (IOException e) {
+			return url.toString();
+		}
+	}
+
+	/**
+	 * @return true iff there is a cache entry for <code>key</code>
+	 */
+	public static boolean contains(String key) {
+		if (key == null) {
+			return false;
+		}
+		File dir = getPrivateDirectory(false);
+		return (dir != null) && file(dir, key).isFile();
+	}
+
+	private static File file(File dir, String key) {
+		return new File(dir, key + EXTENSION);
+	}
+
+	/**
+	 * Reads the cache entry for <code>key</code>.
+	 * 
+	 * @return a map from binary class names to bytecode, or null if there is
+	 *         no (readable) entry
+	 */
+	public static Map<String, byte[]> load(String key) {
+		if (key == null) {
+			return null;
+		}
+		File dir = getPrivateDirectory(false);
+		if (dir == null) {
+			return null;
+		}
+		File f = file(dir, key);
+		if (!f.isFile()) {
+			return null;
+		}
+		Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+		try {
+			JarInputStream in = new JarInputStream(new FileInputStream(f));
+			try {
+				byte[] buffer = new byte[8192];
+				for (JarEntry e = in.getNextJarEntry(); e != null; e = in
+						.getNextJarEntry()) {
+					String name = e.getName();
+					if (!name.endsWith(".class")) {
+						continue;
+					}
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					int n;
+					while ((n = in.read(buffer)) > 0) {
+						bytes.write(buffer, 0, n);
+					}
+					classes.put(
+							name.substring(0, name.length() - 6).replace('/',
+									'.'), bytes.toByteArray());
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Can't read schema cache entry " + f, e);
+			return null;
+		}
+		return classes.isEmpty() ? null : classes;
+	}
+
+	/**
+	 * Writes the cache entry for <code>key</code>. The entry is written to a
+	 * temporary file first and renamed afterwards, so that concurrent
+	 * processes never see partial entries.
+	 * 
+	 * @param classes
+	 *            a map from binary class names to bytecode
+	 */
+	public static void store(String key, Map<String, byte[]> classes) {
+		if ((key == null) || classes.isEmpty()) {
+			return;
+		}
+		File dir = getPrivateDirectory(true);
+		if (dir == null) {
+			return;
+		}
+		File tmp = null;
+		try {
+			tmp = File.createTempFile(key, ".tmp", dir);
+			JarOutputStream out = new JarOutputStream(new FileOutputStream(
+					tmp));
+			try {
+				for (Entry<String, byte[]> e : classes.entrySet()) {
+					out.putNextEntry(new JarEntry(e.getKey().replace('.', '/')
+							+ ".class"));
+					out.write(e.getValue());
+					out.closeEntry();
+				}
+			} finally {
+				out.close();
+			}
+			File f = file(dir, key);
+			if (!tmp.renameTo(f) && !f.isFile()) {
+				throw new IOException("Can't rename " + tmp + " to " + f);
+			}
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Can't write schema cache entry " + key,
+					e);
+		} finally {
+			if ((tmp != null) && tmp.exists()) {
+				tmp.delete();
+			}
+		}
+	}
+}
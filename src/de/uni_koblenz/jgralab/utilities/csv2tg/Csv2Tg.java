@@ -56,6 +56,7 @@ import de.uni_koblenz.ist.utilities.option_handler.OptionHandler;
 import de.uni_koblenz.jgralab.AttributedElement;
 import de.uni_koblenz.jgralab.Edge;
 import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphBuilder;
 import de.uni_koblenz.jgralab.GraphIO;
 import de.uni_koblenz.jgralab.ImplementationType;
 import de.uni_koblenz.jgralab.JGraLab;
@@ -92,6 +93,7 @@ public class Csv2Tg implements FilenameFilter {
 	private Map<CsvReader, String> reader2FilenameMap;
 	private CsvReader currentReader;
 	private String outputFile;
+	private GraphBuilder builder;
 	private Graph graph;
 	private Map<String, Vertex> vertices;
 
@@ -177,6 +179,7 @@ public class Csv2Tg implements FilenameFilter {
 			loadCsvFiles();
 			processVertexFiles();
 			processEdgeFiles();
+			graph = builder.build();
 
 			// Prints the key value from the csv-file of vertices, which do not
 			// have any edge attached!
@@ -219,11 +222,13 @@ public class Csv2Tg implements FilenameFilter {
 		vertexInstances = new HashMap<VertexClass, CsvReader>();
 		edgeInstances = new HashMap<EdgeClass, CsvReader>();
 		reader2FilenameMap = new HashMap<CsvReader, String>();
-		graph = schema.createGraph(ImplementationType.GENERIC);
+		builder = new GraphBuilder(schema, ImplementationType.GENERIC, null,
+				100, 100);
 	}
 
 	private void tearDown() throws IOException {
 		vertices = null;
+		builder = null;
 		graph = null;
 
 		closeAllReader(vertexInstances.values());
@@ -312,7 +317,7 @@ public class Csv2Tg implements FilenameFilter {
 
 	private void createVertex(CsvReader reader, VertexClass vc)
 			throws NoSuchAttributeException, GraphIOException {
-		Vertex vertex = graph.createVertex(vc);
+		Vertex vertex = builder.createVertex(vc);
 
 		insertAttribute(vertex, reader, 1);
 
@@ -332,7 +337,7 @@ public class Csv2Tg implements FilenameFilter {
 		Vertex alpha = getVertex(reader, 1);
 		Vertex omega = getVertex(reader, 2);
 
-		Edge edge = graph.createEdge(ec, alpha, omega);
+		Edge edge = builder.createEdge(ec, alpha, omega);
 
 		insertAttribute(edge, reader, 3);
 
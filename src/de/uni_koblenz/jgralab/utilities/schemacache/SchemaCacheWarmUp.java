@@ -0,0 +1,125 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.utilities.schemacache;
+
+import java.io.File;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+
+import de.uni_koblenz.ist.utilities.option_handler.OptionHandler;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.JGraLab;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.schema.Schema;
+import de.uni_koblenz.jgralab.schema.codegenerator.CodeGeneratorConfiguration;
+import de.uni_koblenz.jgralab.schema.impl.compilation.SchemaClassCache;
+
+/**
+ * Compiles the schemas of the given TG files in-memory, so that their
+ * bytecode is stored in the {@link SchemaClassCache}. Later loads of graphs
+ * of these schemas define the schema classes straight from the cache. The
+ * schemas are compiled with {@link CodeGeneratorConfiguration#MINIMAL}, the
+ * configuration used by {@link GraphIO} when the schema classes are not on the
+ * classpath.
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class SchemaCacheWarmUp {
+
+	public static void main(String[] args) throws GraphIOException {
+		CommandLine cmdl = processCommandLineOptions(args);
+		if (cmdl.hasOption('d')) {
+			System.setProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY, cmdl
+					.getOptionValue('d').trim());
+		}
+		File dir = SchemaClassCache.getDirectory();
+		if (dir == null) {
+			System.err.println("The schema class cache is disabled, specify "
+					+ "a cache directory with -d or the "
+					+ SchemaClassCache.CACHE_DIRECTORY_PROPERTY
+					+ " system property.");
+			System.exit(1);
+		}
+		for (String filename : cmdl.getOptionValues('i')) {
+			Schema schema = GraphIO.loadSchemaFromFile(filename.trim());
+			boolean compiled = warmUp(schema);
+			System.out.println(schema.getQualifiedName()
+					+ (compiled ? " compiled into " : " already cached in ")
+					+ dir);
+		}
+	}
+
+	/**
+	 * Makes sure that the classes of <code>schema</code> are in the
+	 * {@link SchemaClassCache}.
+	 * 
+	 * @param schema
+	 *            a finished schema
+	 * @return true if the schema had to be compiled, false if its classes
+	 *         were already cached
+	 */
+	public static boolean warmUp(Schema schema) {
+		CodeGeneratorConfiguration config = CodeGeneratorConfiguration.MINIMAL;
+		if (SchemaClassCache.contains(SchemaClassCache.key(schema, config))) {
+			return false;
+		}
+		schema.compile(config);
+		return true;
+	}
+
+	private static CommandLine processCommandLineOptions(String[] args) {
+		String toolString = "java " + SchemaCacheWarmUp.class.getName();
+		String versionString = JGraLab.getInfo(false);
+		OptionHandler oh = new OptionHandler(toolString, versionString);
+
+		Option input = new Option("i", "input", true,
+				"(required): TG files containing the schemas to be cached");
+		input.setRequired(true);
+		input.setArgName("file");
+		input.setArgs(Option.UNLIMITED_VALUES);
+		oh.addOption(input);
+
+		Option directory = new Option("d", "directory", true,
+				"(optional): cache directory, defaults to the value of the "
+						+ SchemaClassCache.CACHE_DIRECTORY_PROPERTY
+						+ " system property");
+		directory.setRequired(false);
+		directory.setArgName("dir");
+		oh.addOption(directory);
+
+		return oh.parse(args);
+	}
+}
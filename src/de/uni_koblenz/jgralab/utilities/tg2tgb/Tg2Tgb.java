@@ -0,0 +1,109 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralab.utilities.tg2tgb;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+
+import de.uni_koblenz.ist.utilities.option_handler.OptionHandler;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.JGraLab;
+import de.uni_koblenz.jgralab.ProgressFunction;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.impl.ConsoleProgressFunction;
+
+/**
+ * Converts a graph from the textual TG format to the binary TGB format or vice
+ * versa. The formats are determined by the file extensions (
+ * {@link GraphIO#TGRAPH_BINARY_FILE_EXTENSION} for TGB files, anything else
+ * is treated as TG).
+ * 
+ * @author ist@uni-koblenz.de
+ */
+public class Tg2Tgb {
+
+	public static void main(String[] args) throws GraphIOException {
+		CommandLine cmdl = processCommandLineOptions(args);
+		String inputFilename = cmdl.getOptionValue('i').trim();
+		String outputFilename = cmdl.getOptionValue('o').trim();
+		convert(inputFilename, outputFilename, new ConsoleProgressFunction(
+				"Loading"), new ConsoleProgressFunction("Saving"));
+	}
+
+	/**
+	 * Loads the graph in <code>inputFilename</code> and saves it to
+	 * <code>outputFilename</code>.
+	 * 
+	 * @param inputFilename
+	 *            name of a TG or TGB file
+	 * @param outputFilename
+	 *            name of the TG or TGB file to be written
+	 * @param loadPf
+	 *            a {@link ProgressFunction} for loading, may be
+	 *            <code>null</code>
+	 * @param savePf
+	 *            a {@link ProgressFunction} for saving, may be
+	 *            <code>null</code>
+	 * @throws GraphIOException
+	 *             if loading or saving fails
+	 */
+	public static void convert(String inputFilename, String outputFilename,
+			ProgressFunction loadPf, ProgressFunction savePf)
+			throws GraphIOException {
+		Graph g = GraphIO.loadGraphFromFile(inputFilename, loadPf);
+		GraphIO.saveGraphToFile(g, outputFilename, savePf);
+	}
+
+	private static CommandLine processCommandLineOptions(String[] args) {
+		String toolString = "java " + Tg2Tgb.class.getName();
+		String versionString = JGraLab.getInfo(false);
+		OptionHandler oh = new OptionHandler(toolString, versionString);
+
+		Option input = new Option("i", "input", true,
+				"(required): input TG or TGB file");
+		input.setRequired(true);
+		input.setArgName("file");
+		oh.addOption(input);
+
+		Option output = new Option("o", "output", true,
+				"(required): output TG or TGB file");
+		output.setRequired(true);
+		output.setArgName("file");
+		oh.addOption(output);
+
+		return oh.parse(args);
+	}
+}
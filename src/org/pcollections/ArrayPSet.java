@@ -71,6 +71,22 @@ public final class ArrayPSet<E> implements POrderedSet<E>, Serializable {
 		return (ArrayPSet<T>) empty;
 	}
 
+	/**
+	 * Creates an ordered set with the elements of <code>list</code>, which
+	 * must not contain duplicates. In contrast to
+	 * <code>empty().plusAll(list)</code>, no containment checks are performed.
+	 */
+	public static <T> POrderedSet<T> fromDistinct(
+			Collection<? extends T> list) {
+		if (list.isEmpty()) {
+			return empty();
+		}
+		if (list.size() > SIZELIMIT) {
+			return OrderedPSet.fromDistinct(list);
+		}
+		return new ArrayPSet<T>(ArrayPVector.<T> empty().plusAll(list));
+	}
+
 	@Override
 	public int hashCode() {
 		if ((hashCode == 0) && (size() > 0)) {
@@ -55,6 +55,11 @@ public class OrderedPSet<E> implements POrderedSet<E> {
 		return OrderedPSet.<E> empty().plusAll(list);
 	}
 
+	static <E> OrderedPSet<E> fromDistinct(final Collection<? extends E> list) {
+		return new OrderedPSet<E>(HashTreePSet.<E> from(list),
+				TreePVector.<E> from(list));
+	}
+
 	public static <E> PSet<E> singleton(final E e) {
 		return OrderedPSet.<E> empty().plus(e);
 	}
@@ -0,0 +1,187 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.AttributedElement;
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.schema.Attribute;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.Schema;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralab.utilities.tg2tgb.Tg2Tgb;
+import de.uni_koblenz.jgralabtest.schemas.defaultvaluetestschema.DefaultValueTestSchema;
+
+public class BinaryGraphIOTest {
+	private static final String TESTDATA = "testit/testdata/";
+	private static final String GREQLTESTGRAPH = "testit/testgraphs/greqltestgraph.tg";
+
+	private static String toTg(Graph g) throws GraphIOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GraphIO.saveGraphToStream(g, out, null);
+		return out.toString();
+	}
+
+	private static void assertSameGraph(Graph expected, Graph actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getVCount(), actual.getVCount());
+		assertEquals(expected.getECount(), actual.getECount());
+		assertSameAttributes(expected, actual);
+		Vertex w = actual.getFirstVertex();
+		for (Vertex v : expected.vertices()) {
+			assertEquals(v.getId(), w.getId());
+			assertEquals(v.getAttributedElementClass().getQualifiedName(), w
+					.getAttributedElementClass().getQualifiedName());
+			assertSameAttributes(v, w);
+			Edge j = w.getFirstIncidence();
+			for (Edge i : v.incidences()) {
+				assertEquals(i.getId(), j.getId());
+				j = j.getNextIncidence();
+			}
+			assertNull(j);
+			w = w.getNextVertex();
+		}
+		Edge f = actual.getFirstEdge();
+		for (Edge e : expected.edges()) {
+			assertEquals(e.getId(), f.getId());
+			assertEquals(e.getAttributedElementClass().getQualifiedName(), f
+					.getAttributedElementClass().getQualifiedName());
+			assertEquals(e.getAlpha().getId(), f.getAlpha().getId());
+			assertEquals(e.getOmega().getId(), f.getOmega().getId());
+			assertSameAttributes(e, f);
+			f = f.getNextEdge();
+		}
+	}
+
+	private static void assertSameAttributes(AttributedElement<?, ?> expected,
+			AttributedElement<?, ?> actual) {
+		for (Attribute a : expected.getAttributedElementClass()
+				.getAttributeList()) {
+			Object x = expected.getAttribute(a.getName());
+			Object y = actual.getAttribute(a.getName());
+			assertEquals(a.getName(), x, y);
+		}
+	}
+
+	private Graph createGraph(Schema s, ImplementationType implementationType) {
+		Graph g = s.createGraph(implementationType, "binary", 10, 10);
+		VertexClass vc = s.getGraphClass().getVertexClass("TestVertex");
+		VertexClass svc = s.getGraphClass().getVertexClass("TestSubVertex");
+		EdgeClass ec = s.getGraphClass().getEdgeClass("TestEdge");
+		Vertex v1 = g.createVertex(vc);
+		Vertex v2 = g.createVertex(svc);
+		Vertex v3 = g.createVertex(vc);
+		Vertex v4 = g.createVertex(svc);
+		Edge e1 = g.createEdge(ec, v1, v2);
+		g.createEdge(ec, v2, v2);
+		Edge e3 = g.createEdge(ec, v3, v1);
+		g.createEdge(ec, v4, v1);
+		v1.setAttribute("stringVertex", null);
+		v1.setAttribute("intVertex", -5);
+		v3.setAttribute("longVertex", Long.MIN_VALUE);
+		v3.setAttribute("doubleVertex", -0.25);
+		v3.setAttribute("stringVertex", "Umlaute: \u00e4\u00f6\u00fc \"q\"\n");
+		e1.setAttribute("boolEdge", false);
+		e3.setAttribute("intEdge", Integer.MAX_VALUE);
+		g.setAttribute("stringGraph", "t");
+		g.setAttribute("setGraph", null);
+		// create gaps in the id space and reorder incidences
+		v4.delete();
+		e1.getReversedEdge().putIncidenceAfter(v2.getLastIncidence());
+		return g;
+	}
+
+	@Test
+	public void testRoundTripStandard() throws GraphIOException {
+		Schema s = DefaultValueTestSchema.instance();
+		Graph g = createGraph(s, ImplementationType.STANDARD);
+		String filename = TESTDATA + "binarytest.tgb";
+		GraphIO.saveGraphToFile(g, filename, null);
+		Graph loaded = GraphIO.loadGraphFromFile(filename, s,
+				ImplementationType.STANDARD, null);
+		assertSameGraph(g, loaded);
+		assertNull(loaded.getFirstVertex().getAttribute("stringVertex"));
+		assertEquals(toTg(g), toTg(loaded));
+	}
+
+	@Test
+	public void testRoundTripGeneric() throws GraphIOException {
+		// use a separate schema instance, default values of the compiled
+		// schema are shared with the STANDARD test
+		Schema s = GraphIO
+				.loadSchemaFromFile("testit/testschemas/DefaultValueTestSchema.tg");
+		Graph g = createGraph(s, ImplementationType.GENERIC);
+		String filename = TESTDATA + "binarytest-generic.tgb";
+		GraphIO.saveGraphToFile(g, filename, null);
+		assertSameGraph(g, GraphIO.loadGraphFromFile(filename, s,
+				ImplementationType.GENERIC, null));
+	}
+
+	@Test
+	public void testConvert() throws GraphIOException {
+		String tgb = TESTDATA + "greqltestgraph.tgb";
+		String back = TESTDATA + "greqltestgraph.tg";
+		Tg2Tgb.convert(GREQLTESTGRAPH, tgb, null, null);
+		Tg2Tgb.convert(tgb, back, null, null);
+		Graph original = GraphIO.loadGraphFromFile(GREQLTESTGRAPH, null);
+		assertSameGraph(original, GraphIO.loadGraphFromFile(tgb, null));
+		assertSameGraph(original, GraphIO.loadGraphFromFile(back, null));
+	}
+
+	@Test
+	public void testNoBinaryFile() throws GraphIOException {
+		String filename = TESTDATA + "nobinary.tgb";
+		GraphIO.saveSchemaToFile(DefaultValueTestSchema.instance(), filename);
+		try {
+			GraphIO.loadGraphFromFile(filename, ImplementationType.GENERIC,
+					null);
+			fail("Expected GraphIOException");
+		} catch (GraphIOException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.GraphJournal;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.Schema;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.defaultvaluetestschema.DefaultValueTestSchema;
+
+public class GraphJournalTest {
+	private static final String BASE = "testit/testdata/journaltest.tg";
+	private static final String JOURNAL = "testit/testdata/journaltest.tgj";
+
+	private Schema schema;
+	private VertexClass vc;
+	private VertexClass svc;
+	private EdgeClass ec;
+
+	@Before
+	public void setUp() {
+		new File("testit/testdata").mkdirs();
+		new File(JOURNAL).delete();
+		schema = DefaultValueTestSchema.instance();
+		vc = schema.getGraphClass().getVertexClass("TestVertex");
+		svc = schema.getGraphClass().getVertexClass("TestSubVertex");
+		ec = schema.getGraphClass().getEdgeClass("TestEdge");
+	}
+
+	@After
+	public void tearDown() {
+		new File(BASE).delete();
+		new File(JOURNAL).delete();
+	}
+
+	private static String toTg(Graph g) throws GraphIOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GraphIO.saveGraphToStream(g, out, null);
+		return out.toString();
+	}
+
+	private Graph createBase(ImplementationType implementationType)
+			throws GraphIOException {
+		Graph g = schema.createGraph(implementationType, "journal", 10, 10);
+		Vertex v1 = g.createVertex(vc);
+		Vertex v2 = g.createVertex(svc);
+		Vertex v3 = g.createVertex(vc);
+		g.createEdge(ec, v1, v2);
+		g.createEdge(ec, v2, v3);
+		g.createEdge(ec, v3, v1);
+		v1.setAttribute("intVertex", 1);
+		GraphIO.saveGraphToFile(g, BASE, null);
+		return g;
+	}
+
+	private void modify(Graph g) {
+		Vertex v1 = g.getVertex(1);
+		Vertex v2 = g.getVertex(2);
+		Vertex v4 = g.createVertex(svc);
+		Vertex v5 = g.createVertex(vc);
+		Edge e4 = g.createEdge(ec, v4, v5);
+		Edge e5 = g.createEdge(ec, v1, v4);
+		g.createEdge(ec, v5, v5);
+		v4.setAttribute("stringVertex", "new ä \"value\"\n");
+		v1.setAttribute("intVertex", 42);
+		v1.setAttribute("stringVertex", null);
+		e4.setAttribute("doubleEdge", -0.5);
+		g.setAttribute("stringGraph", "changed");
+		g.getEdge(3).setOmega(v4);
+		e5.setAlpha(v5);
+		e5.getReversedEdge().putIncidenceBefore(v4.getFirstIncidence());
+		g.getEdge(1).getReversedEdge().putIncidenceAfter(g.getEdge(2));
+		// deletes edges 1 and 2 as well
+		v2.delete();
+		e4.delete();
+		// reuses the freed ids
+		g.createEdge(ec, v5, v1);
+		g.createVertex(vc);
+	}
+
+	private void testRecordAndReplay(ImplementationType implementationType)
+			throws GraphIOException {
+		Graph g = createBase(implementationType);
+		GraphJournal journal = GraphJournal.open(g, JOURNAL);
+		modify(g);
+		journal.close();
+
+		Graph loaded = GraphIO.loadGraphWithJournal(BASE, JOURNAL,
+				implementationType, null);
+		assertEquals(g.getGraphVersion(), loaded.getGraphVersion());
+		assertEquals(toTg(g), toTg(loaded));
+	}
+
+	@Test
+	public void testRecordAndReplayStandard() throws GraphIOException {
+		testRecordAndReplay(ImplementationType.STANDARD);
+	}
+
+	@Test
+	public void testRecordAndReplayGeneric() throws GraphIOException {
+		testRecordAndReplay(ImplementationType.GENERIC);
+	}
+
+	@Test
+	public void testContinueAndCompact() throws GraphIOException {
+		Graph g = createBase(ImplementationType.STANDARD);
+		GraphJournal journal = GraphJournal.open(g, JOURNAL);
+		modify(g);
+		journal.close();
+		long journalSize = new File(JOURNAL).length();
+
+		// continue recording on the loaded graph
+		Graph loaded = GraphIO.loadGraphWithJournal(BASE, JOURNAL,
+				ImplementationType.STANDARD, null);
+		journal = GraphJournal.open(loaded, JOURNAL);
+		Vertex v = loaded.createVertex(vc);
+		v.setAttribute("intVertex", 7);
+		loaded.getFirstVertex().delete();
+		journal.close();
+		assertTrue(new File(JOURNAL).length() > journalSize);
+
+		String expected = toTg(loaded);
+		assertEquals(expected, toTg(GraphIO.loadGraphWithJournal(BASE,
+				JOURNAL, ImplementationType.STANDARD, null)));
+
+		Graph compacted = GraphJournal.compact(BASE, JOURNAL,
+				ImplementationType.STANDARD, null);
+		assertEquals(expected, toTg(compacted));
+		assertFalse(new File(JOURNAL).exists());
+		assertEquals(expected, toTg(GraphIO.loadGraphFromFile(BASE,
+				ImplementationType.STANDARD, null)));
+
+		// the compacted graph can be recorded again
+		journal = GraphJournal.open(compacted, JOURNAL);
+		compacted.createVertex(svc);
+		journal.close();
+		assertEquals(toTg(compacted), toTg(GraphIO.loadGraphWithJournal(BASE,
+				JOURNAL, ImplementationType.STANDARD, null)));
+	}
+
+	@Test
+	public void testDefragment() throws GraphIOException {
+		Graph g = createBase(ImplementationType.STANDARD);
+		GraphJournal journal = GraphJournal.open(g, JOURNAL);
+		modify(g);
+		g.getVertex(1).delete();
+		((InternalGraph) g).defragment(1);
+		// attribute changes are recorded with the new ids
+		g.getLastVertex().setAttribute("intVertex", 13);
+		g.getLastEdge().setAttribute("doubleEdge", 1.5);
+		((InternalGraph) g).defragment(Integer.MAX_VALUE);
+		journal.close();
+
+		Graph loaded = GraphIO.loadGraphWithJournal(BASE, JOURNAL,
+				ImplementationType.STANDARD, null);
+		assertEquals(g.getGraphVersion(), loaded.getGraphVersion());
+		assertEquals(toTg(g), toTg(loaded));
+
+		// the version after defragmentation has been recorded
+		journal = GraphJournal.open(loaded, JOURNAL);
+		loaded.createVertex(vc);
+		journal.close();
+		assertEquals(toTg(loaded), toTg(GraphIO.loadGraphWithJournal(BASE,
+				JOURNAL, ImplementationType.STANDARD, null)));
+	}
+
+	@Test
+	public void testVersionMismatch() throws GraphIOException {
+		Graph g = createBase(ImplementationType.STANDARD);
+		GraphJournal journal = GraphJournal.open(g, JOURNAL);
+		g.createVertex(vc);
+		journal.close();
+
+		// unrecorded change
+		g.createVertex(vc);
+		try {
+			GraphJournal.open(g, JOURNAL);
+			fail("Expected GraphIOException");
+		} catch (GraphIOException e) {
+			// expected
+		}
+
+		// base file of a different version
+		GraphIO.saveGraphToFile(g, BASE, null);
+		g.createVertex(vc);
+		GraphIO.saveGraphToFile(g, BASE, null);
+		try {
+			GraphIO.loadGraphWithJournal(BASE, JOURNAL,
+					ImplementationType.STANDARD, null);
+			fail("Expected GraphIOException");
+		} catch (GraphIOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testTruncatedRecord() throws GraphIOException, IOException {
+		Graph g = createBase(ImplementationType.STANDARD);
+		GraphJournal journal = GraphJournal.open(g, JOURNAL);
+		g.createVertex(vc);
+		String expected = toTg(g);
+		g.getVertex(1).setAttribute("stringVertex", "lost");
+		journal.close();
+
+		RandomAccessFile raf = new RandomAccessFile(JOURNAL, "rw");
+		raf.setLength(raf.length() - 2);
+		raf.close();
+
+		Graph loaded = GraphIO.loadGraphWithJournal(BASE, JOURNAL,
+				ImplementationType.STANDARD, null);
+		assertEquals(expected, toTg(loaded));
+
+		// appending drops the incomplete record
+		journal = GraphJournal.open(loaded, JOURNAL);
+		loaded.createVertex(svc);
+		journal.close();
+		assertEquals(toTg(loaded), toTg(GraphIO.loadGraphWithJournal(BASE,
+				JOURNAL, ImplementationType.STANDARD, null)));
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pcollections.PMap;
+
+import de.uni_koblenz.jgralab.AttributedElement;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphChangeAdapter;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.JGraLab;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.impl.GraphBaseImpl;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.impl.LazyAttributes;
+import de.uni_koblenz.jgralab.schema.Attribute;
+import de.uni_koblenz.jgralab.schema.AttributedElementClass;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalGraph;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalSchema;
+import de.uni_koblenz.jgralabtest.schemas.minimal.Node;
+
+public class LazyAttributeLoadingTest {
+	private static final String TESTDATA = "testit/testdata/";
+	private static final String GREQLTESTGRAPH = "testit/testgraphs/greqltestgraph.tg";
+	private static final String MINIMALGRAPH = TESTDATA + "lazyload.tg";
+	private static final String MINIMALGRAPH_BINARY = TESTDATA
+			+ "lazyload.tgb";
+	private static final int NODES = 1000;
+
+	private static String toTg(Graph g) throws GraphIOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GraphIO.saveGraphToStream(g, out, null);
+		return out.toString();
+	}
+
+	private static LazyAttributes pending(Graph g) {
+		return ((GraphBaseImpl) g).internalGetLazyAttributes();
+	}
+
+	@BeforeClass
+	public static void createGraph() throws GraphIOException {
+		MinimalGraph g = MinimalSchema.instance().createMinimalGraph(
+				ImplementationType.STANDARD);
+		Node prev = null;
+		for (int i = 0; i < NODES; ++i) {
+			Node n = g.createNode();
+			PMap<Integer, String> m = JGraLab.map();
+			for (int j = i % 4; j > 0; --j) {
+				m = m.plus(j, "n" + i + " \"x\";ä" + j);
+			}
+			n.set_nodeMap(m);
+			if (prev != null) {
+				g.createLink(prev, n);
+			}
+			prev = n;
+		}
+		GraphIO.saveGraphToFile(g, MINIMALGRAPH, null);
+		GraphIO.saveGraphToFile(g, MINIMALGRAPH_BINARY, null);
+	}
+
+	private static void assertLazyLoad(String filename,
+			ImplementationType implementationType) throws GraphIOException {
+		Graph eager = GraphIO.loadGraphFromFile(filename, implementationType,
+				null);
+		Graph lazy = GraphIO.loadGraphFromFileLazily(filename,
+				implementationType, null);
+		assertNotNull(pending(lazy));
+		assertEquals(eager.getGraphVersion(), lazy.getGraphVersion());
+		// saving accesses all attribute values
+		assertEquals(toTg(eager), toTg(lazy));
+		assertNull(pending(lazy));
+		assertEquals(eager.getGraphVersion(), lazy.getGraphVersion());
+	}
+
+	@Test
+	public void testGreqlTestGraph() throws GraphIOException {
+		assertLazyLoad(GREQLTESTGRAPH, ImplementationType.STANDARD);
+	}
+
+	@Test
+	public void testGenericGreqlTestGraph() throws GraphIOException {
+		assertLazyLoad(GREQLTESTGRAPH, ImplementationType.GENERIC);
+	}
+
+	@Test
+	public void testBinaryGreqlTestGraph() throws GraphIOException {
+		Graph g = GraphIO.loadGraphFromFile(GREQLTESTGRAPH, null);
+		String filename = TESTDATA + "lazyload-greql.tgb";
+		GraphIO.saveGraphToFile(g, filename, null);
+		assertLazyLoad(filename, ImplementationType.STANDARD);
+		assertLazyLoad(filename, ImplementationType.GENERIC);
+	}
+
+	@Test
+	public void testDecodeOnAccess() throws GraphIOException {
+		for (String filename : new String[] { MINIMALGRAPH,
+				MINIMALGRAPH_BINARY }) {
+			MinimalGraph eager = GraphIO.loadGraphFromFile(filename,
+					MinimalSchema.instance(), ImplementationType.STANDARD,
+					null);
+			MinimalGraph lazy = (MinimalGraph) GraphIO
+					.loadGraphFromFileLazily(filename,
+							ImplementationType.STANDARD, null);
+			final int[] events = new int[1];
+			lazy.addGraphChangeListener(new GraphChangeAdapter(lazy) {
+				@Override
+				public <AEC extends AttributedElementClass<AEC, ?>> void afterChangeAttribute(
+						AttributedElement<AEC, ?> element,
+						String attributeName, Object oldValue, Object newValue) {
+					++events[0];
+				}
+			});
+			long version = lazy.getGraphVersion();
+			assertEquals(NODES, pending(lazy).getPendingCount());
+
+			Node n = (Node) lazy.getVertex(42);
+			assertEquals(((Node) eager.getVertex(42)).get_nodeMap(), n.get_nodeMap());
+			assertEquals(NODES - 1, pending(lazy).getPendingCount());
+			assertEquals(((Node) eager.getVertex(43)).get_nodeMap(), lazy.getVertex(43)
+					.getAttribute("nodeMap"));
+			assertEquals(NODES - 2, pending(lazy).getPendingCount());
+			assertEquals(version, lazy.getGraphVersion());
+			assertEquals(0, events[0]);
+
+			// setting a value decodes first, old values are reported
+			PMap<Integer, String> empty = JGraLab.map();
+			((Node) eager.getVertex(44)).set_nodeMap(empty);
+			((Node) lazy.getVertex(44)).set_nodeMap(empty);
+			assertEquals(NODES - 3, pending(lazy).getPendingCount());
+			assertEquals(1, events[0]);
+			assertTrue(version < lazy.getGraphVersion());
+			assertEquals(toTg(eager), toTg(lazy));
+		}
+	}
+
+	@Test
+	public void testGenericDecodeOnAccess() throws GraphIOException {
+		Graph eager = GraphIO.loadGraphFromFile(MINIMALGRAPH,
+				ImplementationType.GENERIC, null);
+		Graph lazy = GraphIO.loadGraphFromFileLazily(MINIMALGRAPH_BINARY,
+				ImplementationType.GENERIC, null);
+		Attribute a = lazy.getSchema().getAttributedElementClass("Node")
+				.getAttribute("nodeMap");
+		for (int id = NODES; id > 0; id -= 7) {
+			assertEquals((Object) eager.getVertex(id).getAttribute(a.getName()),
+					(Object) lazy.getVertex(id).getAttribute(a.getName()));
+			assertEquals(eager.getVertex(id).isUnsetAttribute(a.getName()),
+					lazy.getVertex(id).isUnsetAttribute(a.getName()));
+		}
+		assertEquals(toTg(eager), toTg(lazy));
+	}
+
+	@Test
+	public void testDeleteAndDefragment() throws GraphIOException {
+		MinimalGraph eager = GraphIO.loadGraphFromFile(MINIMALGRAPH,
+				MinimalSchema.instance(), ImplementationType.STANDARD, null);
+		MinimalGraph lazy = (MinimalGraph) GraphIO.loadGraphFromFileLazily(
+				MINIMALGRAPH, ImplementationType.STANDARD, null);
+		for (int id = 2; id < NODES; id += 3) {
+			eager.getVertex(id).delete();
+			lazy.getVertex(id).delete();
+		}
+		// new vertices reuse the ids of deleted ones
+		Vertex e = eager.createNode();
+		Vertex l = lazy.createNode();
+		assertEquals(e.getId(), l.getId());
+		assertEquals((Object) e.getAttribute("nodeMap"),
+				(Object) l.getAttribute("nodeMap"));
+		assertNotNull(pending(lazy));
+
+		((InternalGraph) eager).defragment();
+		((InternalGraph) lazy).defragment();
+		assertNull(pending(lazy));
+		for (Node n : eager.getNodeVertices()) {
+			assertEquals(n.get_nodeMap(),
+					((Node) lazy.getVertex(n.getId())).get_nodeMap());
+		}
+	}
+}
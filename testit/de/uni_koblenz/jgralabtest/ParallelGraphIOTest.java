@@ -0,0 +1,197 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pcollections.PMap;
+
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.JGraLab;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.impl.BlockGZIPInputStream;
+import de.uni_koblenz.jgralab.impl.BlockGZIPOutputStream;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalGraph;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalSchema;
+import de.uni_koblenz.jgralabtest.schemas.minimal.Node;
+
+public class ParallelGraphIOTest {
+	private static final String TESTDATA = "testit/testdata/";
+	private static final String GREQLTESTGRAPH = "testit/testgraphs/greqltestgraph.tg";
+	private static final String LARGEGRAPH = TESTDATA + "parallelload.tg";
+
+	private static String toTg(Graph g) throws GraphIOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GraphIO.saveGraphToStream(g, out, null);
+		return out.toString();
+	}
+
+	@BeforeClass
+	public static void createLargeGraph() throws GraphIOException {
+		// large enough to be split into several chunks, with string values
+		// that contain record delimiters, quotes and comment markers
+		MinimalGraph g = MinimalSchema.instance().createMinimalGraph(
+				ImplementationType.STANDARD, "parallel", 20000, 60000);
+		Random r = new Random(4711);
+		Node[] nodes = new Node[20000];
+		for (int i = 0; i < nodes.length; ++i) {
+			nodes[i] = g.createNode();
+			PMap<Integer, String> m = JGraLab.map();
+			for (int j = r.nextInt(4); j > 0; --j) {
+				m = m.plus(r.nextInt(), "v" + i + ";\"// x\\" + j);
+			}
+			nodes[i].set_nodeMap(m);
+		}
+		for (int i = 0; i < 60000; ++i) {
+			g.createLink(nodes[r.nextInt(nodes.length)],
+					nodes[r.nextInt(nodes.length)]);
+		}
+		nodes[17].delete();
+		nodes[4711].delete();
+		GraphIO.saveGraphToFile(g, LARGEGRAPH, null);
+	}
+
+	private static void assertParallelLoad(String filename)
+			throws GraphIOException {
+		String expected = toTg(GraphIO.loadGraphFromFile(filename,
+				ImplementationType.STANDARD, null));
+		for (int threads = 2; threads <= 8; threads *= 2) {
+			assertEquals(expected, toTg(GraphIO.loadGraphFromFile(filename,
+					ImplementationType.STANDARD, null, threads)));
+		}
+	}
+
+	@Test
+	public void testGreqlTestGraph() throws GraphIOException {
+		assertParallelLoad(GREQLTESTGRAPH);
+	}
+
+	@Test
+	public void testLargeGraph() throws GraphIOException {
+		assertParallelLoad(LARGEGRAPH);
+	}
+
+	@Test
+	public void testCompressedGraph() throws GraphIOException {
+		Graph g = GraphIO.loadGraphFromFile(LARGEGRAPH, null);
+		String filename = TESTDATA + "parallelload.tg.gz";
+		GraphIO.saveGraphToFile(g, filename, null);
+		assertEquals(toTg(g), toTg(GraphIO.loadGraphFromFile(filename,
+				ImplementationType.STANDARD, null, 4)));
+	}
+
+	@Test
+	public void testBlockCompressedGraph() throws GraphIOException,
+			IOException {
+		Graph g = GraphIO.loadGraphFromFile(LARGEGRAPH, null);
+		String tg = toTg(g);
+		String filename = TESTDATA + "parallelsave.tg.gz";
+		GraphIO.saveGraphToFile(g, filename, null, 4);
+
+		// several members, readable by a plain GZIPInputStream
+		InputStream in = new BufferedInputStream(new FileInputStream(filename));
+		try {
+			assertTrue(BlockGZIPInputStream.isBlockCompressed(in));
+			assertTrue(tg.length() > 2 * BlockGZIPOutputStream.BLOCK_SIZE);
+			assertEquals(tg, readFully(new GZIPInputStream(in)));
+		} finally {
+			in.close();
+		}
+		in = new BlockGZIPInputStream(new FileInputStream(filename), 3);
+		try {
+			assertEquals(tg, readFully(in));
+		} finally {
+			in.close();
+		}
+
+		assertEquals(tg, toTg(GraphIO.loadGraphFromFile(filename,
+				ImplementationType.STANDARD, null, 4)));
+		assertEquals(tg, toTg(GraphIO.loadGraphFromFile(filename,
+				ImplementationType.STANDARD, null)));
+	}
+
+	private static String readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[4096];
+		int n;
+		while ((n = in.read(buf)) >= 0) {
+			out.write(buf, 0, n);
+		}
+		return out.toString();
+	}
+
+	@Test
+	public void testGenericGraph() throws GraphIOException {
+		Graph g = GraphIO.loadGraphFromFile(GREQLTESTGRAPH,
+				ImplementationType.GENERIC, null);
+		Graph p = GraphIO.loadGraphFromFile(GREQLTESTGRAPH,
+				ImplementationType.GENERIC, null, 4);
+		assertEquals(toTg(g), toTg(p));
+	}
+
+	@Test
+	public void testTruncatedGraph() throws GraphIOException, IOException {
+		String tg = toTg(GraphIO.loadGraphFromFile(LARGEGRAPH, null));
+		String filename = TESTDATA + "truncated.tg";
+		FileOutputStream out = new FileOutputStream(filename);
+		try {
+			out.write(tg.substring(0, tg.length() / 2).getBytes());
+		} finally {
+			out.close();
+		}
+		try {
+			GraphIO.loadGraphFromFile(filename, ImplementationType.STANDARD,
+					null, 4);
+			fail("Expected GraphIOException");
+		} catch (GraphIOException e) {
+			// expected
+		}
+	}
+}
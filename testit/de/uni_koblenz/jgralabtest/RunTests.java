@@ -56,6 +56,8 @@ import de.uni_koblenz.jgralabtest.utilities.RunUtilitiesTests;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ RunGenericTests.class, RunInstanceTests.class,
 		RunAlgolibTests.class, RunSchemaTests.class, GraphIOTest.class,
+		BinaryGraphIOTest.class, ParallelGraphIOTest.class,
+		GraphJournalTest.class, LazyAttributeLoadingTest.class,
 		TempAttributeTest.class, RunGraphValidatorTests.class,
 		RunCodeGeneratorTests.class, RunUtilitiesTests.class,
 		RunGreqlTests.class, RunGretlTests.class, RunECATest.class,
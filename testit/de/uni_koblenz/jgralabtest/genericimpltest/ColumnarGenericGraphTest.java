@@ -0,0 +1,249 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.genericimpltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.AttributedElement;
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.impl.generic.GenericGraphFactoryImpl;
+import de.uni_koblenz.jgralab.impl.generic.GenericGraphImpl;
+import de.uni_koblenz.jgralab.impl.generic.InternalAttributesArrayAccess;
+import de.uni_koblenz.jgralab.impl.generic.InternalAttributesArrayAccess.OnAttributesFunction;
+import de.uni_koblenz.jgralab.schema.Attribute;
+import de.uni_koblenz.jgralab.schema.AttributedElementClass;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.Schema;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+
+/**
+ * Checks that generic graphs in columnar mode behave exactly like generic
+ * graphs storing the attribute values in the elements.
+ */
+public class ColumnarGenericGraphTest {
+	private static final String GREQLTESTGRAPH = GenericGraphImplTest.GRAPHFOLDER
+			+ "greqltestgraph.tg";
+
+	private static Schema schema;
+	private static VertexClass vc;
+	private static EdgeClass ec;
+
+	@BeforeClass
+	public static void setUpClass() throws GraphIOException {
+		schema = GraphIO.loadSchemaFromFile(GenericGraphImplTest.SCHEMAFOLDER
+				+ "DefaultValueTestSchema.tg");
+		vc = schema.getGraphClass().getVertexClass("TestVertex");
+		ec = schema.getGraphClass().getEdgeClass("TestEdge");
+	}
+
+	private static Graph createGraph(boolean columnar) {
+		Graph g = new GenericGraphFactoryImpl(schema, columnar).createGraph(
+				schema.getGraphClass(), null, 16, 16);
+		assertEquals(columnar, ((GenericGraphImpl) g).isColumnar());
+		return g;
+	}
+
+	private static void create(Graph g, int n) {
+		VertexClass sub = schema.getGraphClass().getVertexClass(
+				"TestSubVertex");
+		Vertex prev = null;
+		for (int i = 0; i < n; ++i) {
+			Vertex v = g.createVertex(i % 3 == 0 ? sub : vc);
+			if (i % 2 == 0) {
+				v.setAttribute("intVertex", i);
+				v.setAttribute("longVertex", -(long) i);
+				v.setAttribute("doubleVertex", i / 8.0);
+				v.setAttribute("boolVertex", i % 4 == 0);
+				v.setAttribute("stringVertex", "v" + i);
+			}
+			if (prev != null) {
+				Edge e = g.createEdge(ec, prev, v);
+				if (i % 5 == 0) {
+					e.setAttribute("intEdge", i);
+					e.setAttribute("stringEdge", null);
+				}
+			}
+			prev = v;
+		}
+	}
+
+	private static void assertSameAttributes(AttributedElement<?, ?> expected,
+			AttributedElement<?, ?> actual) {
+		AttributedElementClass<?, ?> type = expected
+				.getAttributedElementClass();
+		assertEquals(type.getQualifiedName(), actual
+				.getAttributedElementClass().getQualifiedName());
+		for (Attribute a : type.getAttributeList()) {
+			String name = a.getName();
+			assertEquals(name, expected.getAttribute(name),
+					actual.getAttribute(name));
+			assertEquals(name, expected.isUnsetAttribute(name),
+					actual.isUnsetAttribute(name));
+		}
+	}
+
+	private static void assertSameGraph(Graph expected, Graph actual) {
+		assertEquals(expected.getVCount(), actual.getVCount());
+		assertEquals(expected.getECount(), actual.getECount());
+		Iterator<Vertex> vi = actual.vertices().iterator();
+		for (Vertex v : expected.vertices()) {
+			Vertex w = vi.next();
+			assertEquals(v.getId(), w.getId());
+			assertSameAttributes(v, w);
+		}
+		Iterator<Edge> ei = actual.edges().iterator();
+		for (Edge e : expected.edges()) {
+			Edge f = ei.next();
+			assertEquals(e.getId(), f.getId());
+			assertSameAttributes(e, f);
+			assertSameAttributes(e.getReversedEdge(), f.getReversedEdge());
+		}
+	}
+
+	@Test
+	public void testCreate() {
+		Graph expected = createGraph(false);
+		create(expected, 3000);
+		Graph actual = createGraph(true);
+		create(actual, 3000);
+		assertSameGraph(expected, actual);
+
+		Vertex v = actual.getVertex(2);
+		assertEquals(true, v.isUnsetAttribute("intVertex"));
+		v.setAttribute("intVertex", 42);
+		assertEquals(42, v.getAttribute("intVertex"));
+		assertFalse(v.isUnsetAttribute("intVertex"));
+		Edge e = actual.getEdge(4);
+		e.getReversedEdge().setAttribute("longEdge", 7L);
+		assertEquals(7L, e.getAttribute("longEdge"));
+		assertFalse(e.isUnsetAttribute("longEdge"));
+	}
+
+	@Test
+	public void testDelete() {
+		Graph g = createGraph(true);
+		create(g, 10);
+		Vertex v = g.getVertex(5);
+		Edge e = g.getEdge(3);
+		e.setAttribute("intEdge", 33);
+		g.getVertex(4).delete();
+		assertFalse(e.isValid());
+		// values of deleted elements remain accessible
+		assertEquals(33, e.getAttribute("intEdge"));
+		assertFalse(e.isUnsetAttribute("intEdge"));
+		assertTrue(e.isUnsetAttribute("longEdge"));
+		v.delete();
+		assertEquals(-4L, v.getAttribute("longVertex"));
+		assertEquals("v4", v.getAttribute("stringVertex"));
+		assertFalse(v.isUnsetAttribute("stringVertex"));
+
+		// new elements reusing the ids have default values
+		Vertex w = g.createVertex(vc);
+		Edge f = g.createEdge(ec, w, w);
+		Graph h = createGraph(false);
+		Vertex expected = h.createVertex(vc);
+		assertSameAttributes(expected, w);
+		assertSameAttributes(h.createEdge(ec, expected, expected), f);
+	}
+
+	@Test
+	public void testDefragment() {
+		Graph expected = createGraph(false);
+		create(expected, 200);
+		Graph actual = createGraph(true);
+		create(actual, 200);
+		for (int id = 1; id <= 200; id += 7) {
+			expected.getVertex(id).delete();
+			actual.getVertex(id).delete();
+		}
+		((InternalGraph) expected).defragment();
+		((InternalGraph) actual).defragment();
+		assertSameGraph(expected, actual);
+	}
+
+	@Test
+	public void testLoad() throws GraphIOException {
+		Graph expected = GraphIO.loadGraphFromFile(GREQLTESTGRAPH,
+				new GenericGraphFactoryImpl(GraphIO
+						.loadSchemaFromFile(GREQLTESTGRAPH)), null);
+		Schema s = GraphIO.loadSchemaFromFile(GREQLTESTGRAPH);
+		Graph actual = GraphIO.loadGraphFromFile(GREQLTESTGRAPH,
+				new GenericGraphFactoryImpl(s, true), null);
+		assertTrue(((GenericGraphImpl) actual).isColumnar());
+		assertSameGraph(expected, actual);
+
+		Graph parallel = GraphIO.loadGraphFromFile(GREQLTESTGRAPH,
+				new GenericGraphFactoryImpl(s, true), null, 4);
+		assertSameGraph(expected, parallel);
+	}
+
+	@Test
+	public void testAttributesArrayAccess() {
+		Graph g = createGraph(true);
+		create(g, 3);
+		final Vertex v = g.getVertex(1);
+		final int intIdx = vc.getAttributeIndex("intVertex");
+		((InternalAttributesArrayAccess) v)
+				.invokeOnAttributesArray(new OnAttributesFunction() {
+					@Override
+					public Object[] invoke(AttributedElement<?, ?> ae,
+							Object[] attributes) {
+						assertSame(v, ae);
+						assertEquals(0, attributes[intIdx]);
+						Object[] result = attributes.clone();
+						result[intIdx] = 17;
+						return result;
+					}
+				});
+		assertEquals(17, v.getAttribute("intVertex"));
+		assertFalse(v.isUnsetAttribute("intVertex"));
+		assertTrue(v.isUnsetAttribute("listVertex"));
+		// the other vertices are unaffected
+		assertEquals(2, g.getVertex(3).getAttribute("intVertex"));
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ * 
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ * 
+ * For bug reports, documentation and further information, visit
+ * 
+ *                         https://github.com/jgralab/jgralab
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ * 
+ * Additional permission under GNU GPL version 3 section 7
+ * 
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.greql;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.greql.evaluator.GreqlEnvironmentAdapter;
+import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizer;
+import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizerInfo;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalGraph;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalSchema;
+import de.uni_koblenz.jgralabtest.schemas.record.RecordTestGraph;
+import de.uni_koblenz.jgralabtest.schemas.record.RecordTestSchema;
+
+/**
+ * Evaluates one query object by several threads at once, which must yield the
+ * same results as sequential evaluations.
+ */
+public class ConcurrentEvaluationTest extends GenericTest {
+
+	private static final int THREADS = 8;
+
+	private static final int ROUNDS = 20;
+
+	private static final String[] QUERIES = {
+			"from c: V{localities.County}, a:V{junctions.Airport} "
+					+ "with c --> & {@thisVertex = a} --> & {@thisVertex <> a} a "
+					+ "report a end",
+			"from v:V{junctions.Crossroad} reportSet v, v -->{connections.Street}* end",
+			"from v:V{junctions.Crossroad} reportSet v, v <--{connections.Street} end",
+			"from n:list(1..100) with true reportListN 10: n end",
+			"import connections.*; count(E{^Street!})",
+			"forall v:V{junctions.Airport} @ degree(v) >= 0" };
+
+	@Test
+	public void testUnoptimized() throws Exception {
+		for (String q : QUERIES) {
+			checkConcurrentEvaluation(GreqlQuery.createQuery(q, null));
+		}
+	}
+
+	@Test
+	public void testOptimized() throws Exception {
+		for (String q : QUERIES) {
+			checkConcurrentEvaluation(GreqlQuery.createQuery(q,
+					new DefaultOptimizer(new DefaultOptimizerInfo())));
+		}
+	}
+
+	/**
+	 * Type restrictions are bound to the schema of the datagraph, so
+	 * evaluations on graphs of different schemas must not see each other's
+	 * bindings.
+	 */
+	@Test
+	public void testDifferentSchemas() throws Exception {
+		MinimalGraph g1 = MinimalSchema.instance().createMinimalGraph(
+				ImplementationType.STANDARD);
+		de.uni_koblenz.jgralabtest.schemas.minimal.Node prev = g1.createNode();
+		for (int i = 0; i < 10; ++i) {
+			de.uni_koblenz.jgralabtest.schemas.minimal.Node n = g1.createNode();
+			g1.createLink(prev, n);
+			prev = n;
+		}
+		RecordTestGraph g2 = RecordTestSchema.instance().createRecordTestGraph(
+				ImplementationType.STANDARD);
+		g2.createLink(g2.createNode(), g2.createNode());
+		final Graph[] graphs = { g1, g2 };
+
+		final GreqlQuery query = GreqlQuery.createQuery(
+				"from v, w:V{Node} with v -->{Link} w reportSet v end", null);
+		final Object[] expected = {
+				query.evaluate(g1, new GreqlEnvironmentAdapter()),
+				query.evaluate(g2, new GreqlEnvironmentAdapter()) };
+		assertEquals(10, ((Set<?>) expected[0]).size());
+		assertEquals(1, ((Set<?>) expected[1]).size());
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Object>> results = new ArrayList<Future<Object>>();
+			for (int i = 0; i < (THREADS * ROUNDS); ++i) {
+				final Graph g = graphs[i % 2];
+				results.add(executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						return query.evaluate(g, new GreqlEnvironmentAdapter());
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); ++i) {
+				assertEquals(expected[i % 2], results.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void checkConcurrentEvaluation(final GreqlQuery query)
+			throws Exception {
+		final Graph graph = createTestGraph();
+		Object expected = query.evaluate(graph, new GreqlEnvironmentAdapter());
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Object>> results = new ArrayList<Future<Object>>();
+			for (int i = 0; i < (THREADS * ROUNDS); ++i) {
+				results.add(executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						return query.evaluate(graph,
+								new GreqlEnvironmentAdapter());
+					}
+				}));
+			}
+			for (Future<Object> f : results) {
+				assertEquals(query.getQueryText(), expected, f.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
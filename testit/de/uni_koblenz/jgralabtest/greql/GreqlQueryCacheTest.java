@@ -0,0 +1,138 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ * 
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ * 
+ * For bug reports, documentation and further information, visit
+ * 
+ *                         https://github.com/jgralab/jgralab
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ * 
+ * Additional permission under GNU GPL version 3 section 7
+ * 
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.greql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.greql.GreqlQueryCache;
+import de.uni_koblenz.jgralab.greql.exception.GreqlException;
+import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizer;
+import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizerInfo;
+
+public class GreqlQueryCacheTest {
+
+	private static final String QUERY = "from v:V{junctions.Airport} report v end";
+
+	@Test
+	public void testHitsAndMisses() {
+		GreqlQueryCache cache = new GreqlQueryCache();
+		GreqlQuery q = cache.getQuery(QUERY);
+		assertSame(q, cache.getQuery(QUERY));
+		assertSame(q, cache.getQuery(QUERY,
+				new DefaultOptimizer(new DefaultOptimizerInfo())));
+		assertNotSame(q, cache.getQuery(QUERY, null));
+		assertEquals(2, cache.getMissCount());
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.size());
+		assertTrue(cache.getTotalLoadTime() > 0);
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNotSame(q, cache.getQuery(QUERY));
+	}
+
+	@Test
+	public void testEviction() {
+		GreqlQueryCache cache = new GreqlQueryCache(null, 2);
+		GreqlQuery q1 = cache.getQuery("1");
+		GreqlQuery q2 = cache.getQuery("2");
+		assertSame(q1, cache.getQuery("1"));
+		// "2" is the least recently used query
+		cache.getQuery("3");
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(2, cache.size());
+		assertSame(q1, cache.getQuery("1"));
+		assertNotSame(q2, cache.getQuery("2"));
+		assertEquals(2, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testFailuresAreNotCached() {
+		GreqlQueryCache cache = new GreqlQueryCache();
+		for (int i = 0; i < 2; ++i) {
+			try {
+				cache.getQuery("from v:V report");
+				fail("Expected a GreqlException");
+			} catch (GreqlException e) {
+				// expected
+			}
+		}
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testConcurrentMisses() throws Exception {
+		final GreqlQueryCache cache = new GreqlQueryCache();
+		int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<GreqlQuery>> results = new ArrayList<Future<GreqlQuery>>();
+			for (int i = 0; i < threads; ++i) {
+				results.add(executor.submit(new Callable<GreqlQuery>() {
+					@Override
+					public GreqlQuery call() throws Exception {
+						start.await();
+						return cache.getQuery(QUERY);
+					}
+				}));
+			}
+			start.countDown();
+			GreqlQuery q = results.get(0).get();
+			for (Future<GreqlQuery> f : results) {
+				assertSame(q, f.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, cache.getMissCount());
+		assertEquals(threads - 1, cache.getHitCount());
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ * 
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ * 
+ * For bug reports, documentation and further information, visit
+ * 
+ *                         https://github.com/jgralab/jgralab
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ * 
+ * Additional permission under GNU GPL version 3 section 7
+ * 
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.greql;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.greql.evaluator.GreqlEnvironmentAdapter;
+import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizer;
+import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizerInfo;
+
+/**
+ * Checks that declarations with equality constraints, which are evaluated as
+ * hash joins, yield the same results as the nested loop evaluation. The
+ * constraint <code>c or false</code> is equivalent to <code>c</code> but
+ * prevents the hash join.
+ */
+public class HashJoinTest extends GenericTest {
+
+	@Test
+	public void testIntegers() throws Exception {
+		assertSameResult("from x:list(1..300), y:list(1..300) "
+				+ "with x = y * 2 report x, y end", 150);
+		assertSameResult("from x:list(1..300), y:list(1..300) "
+				+ "with y * 3 = x and x % 2 = 0 report x, y end", 50);
+	}
+
+	@Test
+	public void testMixedNumbers() throws Exception {
+		assertSameResult("from x:list(1..300), y:list(1..300) "
+				+ "with y = 2.0 * x report x, y end", 150);
+		assertSameResult("from x:list(1..300), y:list(1..300) "
+				+ "with toLong(y) = x + 1 report x, y end", 299);
+		assertSameResult("from x:list(1..300), y:list(1..300) "
+				+ "with y = x / 2 report x, y end", 299);
+	}
+
+	@Test
+	public void testThreeVariables() throws Exception {
+		assertSameResult("from x:list(1..100), y:list(1..100), "
+				+ "z:list(1..100) with x = z and y = x + 1 report x, y, z end",
+				99);
+		assertSameResult("from x:list(1..100), y:list(1..100), "
+				+ "z:list(1..100) with x = y + z report x, y, z end", 4950);
+	}
+
+	@Test
+	public void testVertices() throws Exception {
+		assertSameResult("from a, b:V{junctions.Crossroad} "
+				+ "with id(a) = id(b) + 1 report a, b end", -1);
+		assertSameResult("from a:V{localities.Locality}, "
+				+ "b:V{localities.County} with a.name = b.name "
+				+ "reportSet a, b end", -1);
+		assertSameResult("from a, b:V{junctions.Plaza} "
+				+ "with a.name = b.name report a, b end", -1);
+		assertSameResult("from a:V{junctions.Crossroad}, "
+				+ "b:V{junctions.Crossroad} with a = b reportSet a end",
+				crossroadCount);
+	}
+
+	@Test
+	public void testQuantifiedExpressions() throws Exception {
+		Graph graph = createTestGraph();
+		assertEquals(true, GreqlQuery.createQuery(
+				"forall x, y:list(1..100), x = y @ x - y = 0").evaluate(
+				graph));
+		assertEquals(false, GreqlQuery.createQuery(
+				"exists x, y:list(1..100), x = y + 100 @ true").evaluate(
+				graph));
+	}
+
+	/**
+	 * Evaluates <code>query</code> with and without optimizer and compares the
+	 * results to those of the nested loop evaluation. As the optimizer may
+	 * reorder the declared variables, the optimized results are compared
+	 * regardless of their order.
+	 * 
+	 * @param expectedSize
+	 *            the expected number of results, or -1 if unknown
+	 */
+	private void assertSameResult(String query, int expectedSize)
+			throws Exception {
+		Graph graph = createTestGraph();
+		String nestedLoopQuery = query.replaceFirst(" with (.*) report",
+				" with ($1) or false report");
+		Object expected = GreqlQuery.createQuery(nestedLoopQuery, null)
+				.evaluate(graph, new GreqlEnvironmentAdapter());
+		if (expectedSize >= 0) {
+			assertEquals(expectedSize, ((Collection<?>) expected).size());
+		}
+		Object result = GreqlQuery.createQuery(query, null).evaluate(graph,
+				new GreqlEnvironmentAdapter());
+		assertEquals(query, expected.toString(), result.toString());
+		result = GreqlQuery.createQuery(query,
+				new DefaultOptimizer(new DefaultOptimizerInfo())).evaluate(
+				graph, new GreqlEnvironmentAdapter());
+		assertEquals(query, new HashSet<Object>((Collection<?>) expected),
+				new HashSet<Object>((Collection<?>) result));
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ * 
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ * 
+ * For bug reports, documentation and further information, visit
+ * 
+ *                         https://github.com/jgralab/jgralab
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ * 
+ * Additional permission under GNU GPL version 3 section 7
+ * 
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.greql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.greql.evaluator.GreqlEnvironmentAdapter;
+import de.uni_koblenz.jgralab.greql.evaluator.GreqlEvaluatorImpl;
+import de.uni_koblenz.jgralab.greql.evaluator.GreqlQueryImpl;
+import de.uni_koblenz.jgralab.greql.evaluator.vertexeval.ComprehensionEvaluator;
+import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizer;
+import de.uni_koblenz.jgralab.greql.optimizer.DefaultOptimizerInfo;
+import de.uni_koblenz.jgralab.greql.schema.Comprehension;
+
+/**
+ * Evaluates comprehensions the optimizer marked as parallelizable by several
+ * threads, which must yield the same results as the sequential evaluation.
+ */
+public class ParallelComprehensionTest extends GenericTest {
+
+	private static final String[] QUERIES = {
+			"from v:V{junctions.Crossroad} with degree(v) > 1 reportSet v end",
+			"from v:V{junctions.Crossroad}, w:V{junctions.Airport} "
+					+ "with v --> w report v, w end",
+			"from v:V{junctions.Crossroad} report id(v) as \"id\", "
+					+ "degree(v) as \"degree\" end",
+			"from v:V{junctions.Crossroad} reportMap degree(v) -> v end",
+			"from v:V{junctions.Crossroad} reportSet v, v -->{connections.Street}* end",
+			"from v:V{junctions.Crossroad} with exists w:V{junctions.Airport} "
+					+ "@ v --> w reportSet v end",
+			"from v:V{junctions.Crossroad} reportSet "
+					+ "from e:edgesConnected(v) reportSet e end end",
+			"import junctions.*; on vertexTypeSubgraph{Crossroad}(): "
+					+ "from v:V{} reportSet degree(v) end",
+			"from x:list(1..2000) with x % 7 = 3 report x * x end" };
+
+	private static final int THREADS = 4;
+
+	private int oldThreads;
+
+	private int oldMinPartSize;
+
+	@Before
+	public void setUpParallelism() {
+		oldThreads = GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS;
+		oldMinPartSize = GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_MIN_PART_SIZE;
+		GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_MIN_PART_SIZE = 8;
+	}
+
+	@After
+	public void tearDownParallelism() {
+		GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS = oldThreads;
+		GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_MIN_PART_SIZE = oldMinPartSize;
+	}
+
+	@Test
+	public void testParallelEvaluation() throws Exception {
+		Graph graph = createTestGraph();
+		for (String q : QUERIES) {
+			GreqlQuery query = GreqlQuery.createQuery(q,
+					new DefaultOptimizer(new DefaultOptimizerInfo()));
+			assertTrue(q, isParallelizable(query));
+			GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS = 1;
+			Object expected = query.evaluate(graph,
+					new GreqlEnvironmentAdapter());
+			GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS = THREADS;
+			Object result = query.evaluate(graph,
+					new GreqlEnvironmentAdapter());
+			assertEquals(q, expected, result);
+			// same order for lists and tables
+			assertEquals(q, expected.toString(), result.toString());
+		}
+	}
+
+	@Test
+	public void testChangingThreadCount() throws Exception {
+		final Graph graph = createTestGraph();
+		final GreqlQuery query = GreqlQuery.createQuery(QUERIES[8],
+				new DefaultOptimizer(new DefaultOptimizerInfo()));
+		GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS = 1;
+		final Object expected = query.evaluate(graph,
+				new GreqlEnvironmentAdapter());
+		GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS = THREADS;
+		final Throwable[] failure = new Throwable[1];
+		Thread evaluating = new Thread() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < 200; i++) {
+						assertEquals(expected, query.evaluate(graph,
+								new GreqlEnvironmentAdapter()));
+					}
+				} catch (Throwable t) {
+					failure[0] = t;
+				}
+			}
+		};
+		evaluating.start();
+		// evaluations which still use the previous executor must not fail
+		for (int i = 0; evaluating.isAlive(); i++) {
+			GreqlEvaluatorImpl.PARALLEL_COMPREHENSION_THREADS = 2 + (i % 3);
+			Thread.sleep(1);
+		}
+		evaluating.join();
+		if (failure[0] != null) {
+			throw new AssertionError(failure[0]);
+		}
+	}
+
+	@Test
+	public void testSideEffects() throws Exception {
+		GreqlQuery query = GreqlQuery.createQuery(
+				"from x:list(1..100) report log(\"x\", x) end",
+				new DefaultOptimizer(new DefaultOptimizerInfo()));
+		assertFalse(isParallelizable(query));
+		query = GreqlQuery.createQuery(
+				"from x:list(1..100) reportSetN 10: x end",
+				new DefaultOptimizer(new DefaultOptimizerInfo()));
+		assertFalse(isParallelizable(query));
+	}
+
+	@Test
+	public void testUnoptimized() throws Exception {
+		GreqlQuery query = GreqlQuery.createQuery(
+				"from x:list(1..100) report x end", null);
+		assertFalse(isParallelizable(query));
+	}
+
+	private boolean isParallelizable(GreqlQuery query) {
+		GreqlQueryImpl q = (GreqlQueryImpl) query;
+		Comprehension comp = q.getQueryGraph().getFirstComprehension();
+		return ((ComprehensionEvaluator<?>) q.getVertexEvaluator(comp))
+				.isParallelizable();
+	}
+}
@@ -8,13 +8,17 @@ import de.uni_koblenz.jgralabtest.greql.exception.ExceptionTest;
 import de.uni_koblenz.jgralabtest.greql.funlib.RunFunlibTests;
 import de.uni_koblenz.jgralabtest.greql.optimizer.OptimizerTest;
 import de.uni_koblenz.jgralabtest.greql.parallel.ParallelTest;
+import de.uni_koblenz.jgralabtest.greql.types.VertexStateMarkerTest;
 import de.uni_koblenz.jgralabtest.greql.types.TypeCollectionTest;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ TypeCollectionTest.class, ExceptionTest.class,
+@Suite.SuiteClasses({ TypeCollectionTest.class, VertexStateMarkerTest.class,
+		ExceptionTest.class,
 		RunFunlibTests.class, RunVertexEvaluatorTests.class,
 		OptimizerTest.class, ThisLiteralTest.class,
-		GreqlQueryFunctionTest.class, ParallelTest.class })
+		GreqlQueryFunctionTest.class, ParallelTest.class,
+		GreqlQueryCacheTest.class, ConcurrentEvaluationTest.class,
+		ParallelComprehensionTest.class, HashJoinTest.class })
 public class RunGreqlTests {
 
 }
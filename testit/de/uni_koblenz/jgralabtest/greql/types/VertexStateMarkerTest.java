@@ -0,0 +1,124 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+
+package de.uni_koblenz.jgralabtest.greql.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.greql.types.pathsearch.VertexStateMarker;
+import de.uni_koblenz.jgralab.greql.types.pathsearch.VertexStateQueue;
+
+public class VertexStateMarkerTest {
+
+	@Test
+	public void testQueue() {
+		VertexStateQueue queue = new VertexStateQueue();
+		assertFalse(queue.hasNext());
+		int next = 0;
+		int expected = 0;
+		Random rand = new Random(17);
+		// interleave puts and takes so that the ring buffer wraps around and
+		// grows while not empty
+		for (int round = 0; round < 50; round++) {
+			int puts = rand.nextInt(400);
+			for (int i = 0; i < puts; i++) {
+				queue.put(next, next % 7);
+				next++;
+			}
+			int takes = rand.nextInt(400);
+			for (int i = 0; i < takes && queue.hasNext(); i++) {
+				assertEquals(expected, queue.currentVertexId);
+				assertEquals(expected % 7, queue.currentStateNumber);
+				expected++;
+			}
+		}
+		while (queue.hasNext()) {
+			assertEquals(expected, queue.currentVertexId);
+			assertEquals(expected % 7, queue.currentStateNumber);
+			expected++;
+		}
+		assertEquals(next, expected);
+		assertTrue(queue.isEmpty());
+		queue.put(3, 1);
+		queue.clear();
+		assertFalse(queue.hasNext());
+	}
+
+	@Test
+	public void testMarker() {
+		VertexStateMarker marker = new VertexStateMarker();
+		marker.ensureCapacity(3, 100);
+		BitSet[] expected = { new BitSet(), new BitSet(), new BitSet() };
+		Random rand = new Random(42);
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 200; i++) {
+				int v = 1 + rand.nextInt(100);
+				int s = rand.nextInt(3);
+				assertEquals(!expected[s].get(v), marker.mark(v, s));
+				expected[s].set(v);
+			}
+			for (int s = 0; s < 3; s++) {
+				for (int v = 1; v <= 100; v++) {
+					assertEquals(expected[s].get(v), marker.isMarked(v, s));
+				}
+			}
+			marker.clear();
+			for (int s = 0; s < 3; s++) {
+				expected[s].clear();
+				for (int v = 1; v <= 100; v++) {
+					assertFalse(marker.isMarked(v, s));
+				}
+			}
+		}
+
+		// growing keeps existing marks
+		assertTrue(marker.mark(70, 2));
+		marker.ensureCapacity(5, 100000);
+		assertTrue(marker.isMarked(70, 2));
+		assertTrue(marker.mark(100000, 4));
+		assertFalse(marker.mark(100000, 4));
+		assertFalse(marker.isMarked(100000, 3));
+		marker.clear();
+		assertFalse(marker.isMarked(70, 2));
+		assertFalse(marker.isMarked(100000, 4));
+	}
+}
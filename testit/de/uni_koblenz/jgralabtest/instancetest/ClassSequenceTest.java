@@ -0,0 +1,297 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.graphmarker.SubGraphMarker;
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.vertextest.VertexTestSchema;
+
+/**
+ * Checks that typed traversal via {@link Graph#vertices(VertexClass)} and
+ * {@link Graph#edges(EdgeClass)} yields the same elements in the same order as
+ * filtering vSeq and eSeq, while the per-class sequences are maintained under
+ * random modifications.
+ */
+public class ClassSequenceTest {
+
+	private static final int STEPS = 400;
+
+	private final Random rand = new Random(4711);
+
+	@Test
+	public void testStandardGraph() {
+		randomModifications(VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD));
+	}
+
+	@Test
+	public void testGenericGraph() {
+		randomModifications(VertexTestSchema.instance().createGraph(
+				ImplementationType.GENERIC));
+	}
+
+	@Test
+	public void testTraversalContext() {
+		Graph g = VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD);
+		for (int i = 0; i < 50; ++i) {
+			createVertex(g);
+		}
+		for (int i = 0; i < 100; ++i) {
+			createEdge(g);
+		}
+		SubGraphMarker sub = new SubGraphMarker(g);
+		for (Vertex v : g.vertices()) {
+			if (rand.nextBoolean()) {
+				sub.mark(v);
+			}
+		}
+		for (Edge e : g.edges()) {
+			if (sub.isMarked(e.getAlpha()) && sub.isMarked(e.getOmega())
+					&& rand.nextBoolean()) {
+				sub.mark(e);
+			}
+		}
+		g.setTraversalContext(sub);
+		try {
+			checkClassSequences(g);
+		} finally {
+			g.setTraversalContext(null);
+		}
+		checkClassSequences(g);
+	}
+
+	@Test
+	public void testGreqlTypedSets() {
+		Graph g = VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD);
+		for (int i = 0; i < 50; ++i) {
+			createVertex(g);
+		}
+		for (int i = 0; i < 100; ++i) {
+			createEdge(g);
+		}
+		VertexClass sub = g.getGraphClass().getVertexClass("SubNode");
+		EdgeClass link = g.getGraphClass().getEdgeClass("Link");
+		assertEquals(filter(g.vertices(), sub),
+				ClassSequenceTest.<Vertex> evaluate("V{SubNode}", g));
+		assertEquals(filter(g.edges(), link),
+				ClassSequenceTest.<Edge> evaluate("E{Link}", g));
+		List<Vertex> exact = new ArrayList<Vertex>();
+		for (Vertex v : g.vertices()) {
+			if (v.getAttributedElementClass() == sub) {
+				exact.add(v);
+			}
+		}
+		assertEquals(exact, ClassSequenceTest.<Vertex> evaluate("V{SubNode!}", g));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> evaluate(String query, Graph g) {
+		return new ArrayList<T>((Collection<T>) GreqlQuery.createQuery(query)
+				.evaluate(g));
+	}
+
+	private void randomModifications(Graph g) {
+		Comparator<Vertex> vComp = new Comparator<Vertex>() {
+			@Override
+			public int compare(Vertex v1, Vertex v2) {
+				return v2.getId() - v1.getId();
+			}
+		};
+		Comparator<Edge> eComp = new Comparator<Edge>() {
+			@Override
+			public int compare(Edge e1, Edge e2) {
+				return e2.getId() - e1.getId();
+			}
+		};
+		for (int i = 0; i < STEPS; ++i) {
+			switch (rand.nextInt(8)) {
+			case 0:
+			case 1:
+				createVertex(g);
+				break;
+			case 2:
+			case 3:
+				createEdge(g);
+				break;
+			case 4:
+				if (g.getVCount() > 0) {
+					randomVertex(g).delete();
+				}
+				break;
+			case 5:
+				if (g.getECount() > 0) {
+					randomEdge(g).delete();
+				}
+				break;
+			case 6:
+				if (g.getVCount() > 1) {
+					Vertex v = randomVertex(g);
+					Vertex w = randomVertex(g);
+					if (v != w) {
+						if (rand.nextBoolean()) {
+							v.putBefore(w);
+						} else {
+							v.putAfter(w);
+						}
+					}
+				}
+				break;
+			default:
+				if (g.getECount() > 1) {
+					Edge e = randomEdge(g);
+					Edge f = randomEdge(g);
+					if (e != f) {
+						if (rand.nextBoolean()) {
+							e.putBeforeEdge(f);
+						} else {
+							e.putAfterEdge(f);
+						}
+					}
+				}
+			}
+			if ((i % 100) == 99) {
+				g.sortVertices(vComp);
+				g.sortEdges(eComp);
+			}
+			checkClassSequences(g);
+		}
+		while (g.getFirstVertex() != null) {
+			g.getFirstVertex().delete();
+		}
+		checkClassSequences(g);
+		for (VertexClass vc : g.getGraphClass().getVertexClasses()) {
+			assertNull(g.getFirstVertex(vc));
+		}
+	}
+
+	private void createVertex(Graph g) {
+		List<VertexClass> classes = new ArrayList<VertexClass>();
+		for (VertexClass vc : g.getGraphClass().getVertexClasses()) {
+			if (!vc.isAbstract() && !vc.isDefaultGraphElementClass()) {
+				classes.add(vc);
+			}
+		}
+		g.createVertex(classes.get(rand.nextInt(classes.size())));
+	}
+
+	private void createEdge(Graph g) {
+		List<EdgeClass> classes = new ArrayList<EdgeClass>();
+		for (EdgeClass ec : g.getGraphClass().getEdgeClasses()) {
+			if (!ec.isAbstract() && !ec.isDefaultGraphElementClass()) {
+				classes.add(ec);
+			}
+		}
+		EdgeClass ec = classes.get(rand.nextInt(classes.size()));
+		List<Vertex> alphas = new ArrayList<Vertex>();
+		List<Vertex> omegas = new ArrayList<Vertex>();
+		for (Vertex v : g.vertices()) {
+			if (v.getAttributedElementClass().isValidFromFor(ec)) {
+				alphas.add(v);
+			}
+			if (v.getAttributedElementClass().isValidToFor(ec)) {
+				omegas.add(v);
+			}
+		}
+		if (!alphas.isEmpty() && !omegas.isEmpty()) {
+			g.createEdge(ec, alphas.get(rand.nextInt(alphas.size())),
+					omegas.get(rand.nextInt(omegas.size())));
+		}
+	}
+
+	private Vertex randomVertex(Graph g) {
+		List<Vertex> vertices = filter(g.vertices(), null);
+		return vertices.get(rand.nextInt(vertices.size()));
+	}
+
+	private Edge randomEdge(Graph g) {
+		List<Edge> edges = filter(g.edges(), null);
+		return edges.get(rand.nextInt(edges.size()));
+	}
+
+	private static <T extends Vertex> List<Vertex> filter(
+			Iterable<T> vertices, VertexClass vc) {
+		List<Vertex> result = new ArrayList<Vertex>();
+		for (Vertex v : vertices) {
+			if ((vc == null) || v.isInstanceOf(vc)) {
+				result.add(v);
+			}
+		}
+		return result;
+	}
+
+	private static <T extends Edge> List<Edge> filter(Iterable<T> edges,
+			EdgeClass ec) {
+		List<Edge> result = new ArrayList<Edge>();
+		for (Edge e : edges) {
+			if ((ec == null) || e.isInstanceOf(ec)) {
+				result.add(e);
+			}
+		}
+		return result;
+	}
+
+	private static void checkClassSequences(Graph g) {
+		for (VertexClass vc : g.getGraphClass().getVertexClasses()) {
+			assertEquals(vc.getQualifiedName(), filter(g.vertices(), vc),
+					filter(g.vertices(vc), null));
+		}
+		for (EdgeClass ec : g.getGraphClass().getEdgeClasses()) {
+			List<Edge> expected = filter(g.edges(), ec);
+			assertEquals(ec.getQualifiedName(), expected,
+					filter(g.edges(ec), null));
+			assertEquals(expected.isEmpty() ? null : expected.get(0),
+					g.getFirstEdge(ec));
+		}
+	}
+}
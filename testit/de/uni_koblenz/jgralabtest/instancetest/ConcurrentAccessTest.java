@@ -0,0 +1,279 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.vertextest.VertexTestSchema;
+
+/**
+ * Checks that readers holding the read lock see a consistent graph while
+ * another thread modifies it in concurrent access mode.
+ */
+public class ConcurrentAccessTest {
+
+	private static final int VERTICES = 200;
+
+	private static final int WRITES = 2000;
+
+	private static final int READERS = 3;
+
+	private Graph g;
+	private VertexClass a;
+	private EdgeClass i;
+
+	@Before
+	public void setUp() {
+		g = VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD);
+		a = g.getGraphClass().getVertexClass("A");
+		i = g.getGraphClass().getEdgeClass("I");
+		Random rand = new Random(42);
+		for (int n = 0; n < VERTICES; ++n) {
+			g.createVertex(a);
+		}
+		for (int n = 0; n < 2 * VERTICES; ++n) {
+			g.createEdge(i, randomVertex(rand), randomVertex(rand));
+		}
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		assertFalse(g.isConcurrentAccess());
+		assertTrue(g.getReadLock().tryLock());
+		g.getReadLock().unlock();
+		assertTrue(g.getWriteLock().tryLock());
+		g.getWriteLock().unlock();
+
+		g.setConcurrentAccess(true);
+		assertTrue(g.isConcurrentAccess());
+		g.setConcurrentAccess(false);
+		assertFalse(g.isConcurrentAccess());
+	}
+
+	@Test
+	public void testWriterBlocksReaders() throws InterruptedException {
+		g.setConcurrentAccess(true);
+		final boolean[] acquired = new boolean[1];
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				acquired[0] = g.getReadLock().tryLock();
+				if (acquired[0]) {
+					g.getReadLock().unlock();
+				}
+			}
+		};
+		Lock w = g.getWriteLock();
+		w.lock();
+		try {
+			// the write lock is reentrant, modifications inside a batch
+			// don't block
+			g.createVertex(a).delete();
+			reader.start();
+			reader.join();
+		} finally {
+			w.unlock();
+		}
+		assertFalse(acquired[0]);
+	}
+
+	@Test
+	public void testConcurrentReadersAndWriter() throws InterruptedException {
+		g.setConcurrentAccess(true);
+		final List<Throwable> errors = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		final boolean[] done = new boolean[1];
+		List<Thread> readers = new ArrayList<Thread>();
+		for (int n = 0; n < READERS; ++n) {
+			final boolean greql = n == 0;
+			readers.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						while (!done[0] && errors.isEmpty()) {
+							if (greql) {
+								// evaluation takes the read lock itself
+								assertEquals(VERTICES, ((Number) GreqlQuery
+										.createQuery("count(V{A})")
+										.evaluate(g)).intValue());
+							} else {
+								Lock r = g.getReadLock();
+								r.lock();
+								try {
+									checkConsistency();
+								} finally {
+									r.unlock();
+								}
+							}
+							Thread.yield();
+						}
+					} catch (Throwable t) {
+						errors.add(t);
+					}
+				}
+			});
+		}
+		for (Thread t : readers) {
+			t.start();
+		}
+		try {
+			modify(new Random(17));
+		} finally {
+			done[0] = true;
+			for (Thread t : readers) {
+				t.join();
+			}
+		}
+		if (!errors.isEmpty()) {
+			throw new AssertionError(errors.get(0));
+		}
+		checkConsistency();
+	}
+
+	/**
+	 * Modifies the graph, keeping the number of vertices constant after each
+	 * operation or batch.
+	 */
+	private void modify(Random rand) {
+		Comparator<Edge> byId = new Comparator<Edge>() {
+			@Override
+			public int compare(Edge e1, Edge e2) {
+				return e1.getId() - e2.getId();
+			}
+		};
+		for (int n = 0; n < WRITES; ++n) {
+			switch (n % 4) {
+			case 0:
+				// batch, the vertex count is unchanged when it is completed
+				Lock w = g.getWriteLock();
+				w.lock();
+				try {
+					Vertex v = g.createVertex(a);
+					g.createEdge(i, v, randomVertex(rand));
+					g.createEdge(i, randomVertex(rand), v);
+					Vertex d = randomVertex(rand);
+					while (d == v) {
+						d = randomVertex(rand);
+					}
+					d.delete();
+				} finally {
+					w.unlock();
+				}
+				break;
+			case 1:
+				g.createEdge(i, randomVertex(rand), randomVertex(rand));
+				Edge e = g.getEdge(1 + rand.nextInt(2 * g.getECount() + 1));
+				if (e != null) {
+					e.setOmega(randomVertex(rand));
+					e.delete();
+				}
+				break;
+			case 2:
+				Vertex a = randomVertex(rand);
+				Vertex b = randomVertex(rand);
+				if (a != b) {
+					a.putAfter(b);
+				}
+				Edge first = g.getFirstEdge();
+				Edge last = g.getLastEdge();
+				if (first != last) {
+					first.putAfterEdge(last);
+				}
+				break;
+			default:
+				randomVertex(rand).sortIncidences(byId);
+				if (rand.nextInt(50) == 0) {
+					g.sortEdges(byId);
+				}
+			}
+		}
+	}
+
+	private void checkConsistency() {
+		int vCount = 0;
+		int degrees = 0;
+		for (Vertex v : g.vertices()) {
+			++vCount;
+			assertTrue(v.isValid());
+			int degree = 0;
+			for (Edge e : v.incidences()) {
+				assertTrue(e.isValid());
+				assertEquals(v, e.getThis());
+				++degree;
+			}
+			assertEquals(v.getDegree(), degree);
+			degrees += degree;
+		}
+		assertEquals(VERTICES, vCount);
+		assertEquals(g.getVCount(), vCount);
+		int eCount = 0;
+		for (Edge e : g.edges()) {
+			++eCount;
+			assertTrue(e.getAlpha().isValid());
+			assertTrue(e.getOmega().isValid());
+		}
+		assertEquals(g.getECount(), eCount);
+		assertEquals(2 * eCount, degrees);
+	}
+
+	private Vertex randomVertex(Random rand) {
+		// vertex ids are reused, and there are at most VERTICES + 1 vertices
+		Vertex v = null;
+		while (v == null) {
+			v = g.getVertex(1 + rand.nextInt(VERTICES + 1));
+		}
+		return v;
+	}
+}
@@ -0,0 +1,304 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.ElementSpliterator;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.TraversalContext;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.vertextest.VertexTestSchema;
+
+public class ElementSpliteratorTest {
+
+	private static final int VERTICES = 10000;
+
+	private Graph g;
+	private VertexClass a;
+	private VertexClass c;
+	private EdgeClass i;
+	private Vertex hub;
+
+	@Before
+	public void setUp() {
+		g = VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD);
+		a = g.getGraphClass().getVertexClass("A");
+		c = g.getGraphClass().getVertexClass("C");
+		i = g.getGraphClass().getEdgeClass("I");
+		hub = g.createVertex(a);
+		for (int n = 1; n < VERTICES; ++n) {
+			Vertex v = g.createVertex(n % 3 == 0 ? c : a);
+			g.createEdge(i, hub, v);
+			if (n % 2 == 0) {
+				g.createEdge(i, v, hub);
+			}
+		}
+		for (int n = 7; n < VERTICES; n += 7) {
+			g.getVertex(n).delete();
+		}
+	}
+
+	private static Set<Vertex> set(Iterable<Vertex> it) {
+		Set<Vertex> result = new HashSet<Vertex>();
+		for (Vertex v : it) {
+			result.add(v);
+		}
+		return result;
+	}
+
+	private static <E> Set<E> drain(ElementSpliterator<? extends E> s) {
+		Set<E> result = new HashSet<E>();
+		while (s.hasNext()) {
+			assertTrue(result.add(s.next()));
+		}
+		return result;
+	}
+
+	@Test
+	public void testSequential() {
+		assertEquals(set(g.vertices()), drain(g.vertexSpliterator(null)));
+		assertEquals(set(g.vertices(c)), drain(g.vertexSpliterator(c)));
+		Set<Edge> edges = new HashSet<Edge>();
+		for (Edge e : g.edges()) {
+			edges.add(e);
+		}
+		assertEquals(edges, drain(g.edgeSpliterator(i)));
+	}
+
+	@Test
+	public void testIdOrder() {
+		ElementSpliterator<Vertex> s = g.vertexSpliterator(a);
+		int last = 0;
+		while (s.hasNext()) {
+			int id = s.next().getId();
+			assertTrue(id > last);
+			last = id;
+		}
+	}
+
+	@Test
+	public void testSplit() {
+		ElementSpliterator<Vertex> s = g.vertexSpliterator(null);
+		ElementSpliterator<Vertex> prefix = s.trySplit();
+		assertNotNull(prefix);
+		Set<Vertex> first = drain(prefix);
+		Set<Vertex> second = drain(s);
+		assertFalse(first.isEmpty());
+		assertFalse(second.isEmpty());
+		int total = first.size() + second.size();
+		first.addAll(second);
+		assertEquals(total, first.size());
+		assertEquals(g.getVCount(), total);
+
+		// small ranges are not split
+		s = g.vertexSpliterator(null);
+		while (s.estimateSize() > 1) {
+			ElementSpliterator<Vertex> p = s.trySplit();
+			if (p == null) {
+				break;
+			}
+		}
+		assertNull(s.trySplit());
+	}
+
+	@Test
+	public void testParallel() {
+		final AtomicInteger count = new AtomicInteger();
+		final AtomicInteger degrees = new AtomicInteger();
+		g.vertexSpliterator(null).forEachParallel(
+				new ElementSpliterator.Action<Vertex>() {
+					@Override
+					public void apply(Vertex v) {
+						count.incrementAndGet();
+						degrees.addAndGet(v.getDegree());
+					}
+				}, 4);
+		assertEquals(g.getVCount(), count.get());
+		assertEquals(2 * g.getECount(), degrees.get());
+
+		final List<Edge> edges = Collections
+				.synchronizedList(new ArrayList<Edge>());
+		g.edgeSpliterator(null).forEachParallel(
+				new ElementSpliterator.Action<Edge>() {
+					@Override
+					public void apply(Edge e) {
+						edges.add(e);
+					}
+				}, 4);
+		assertEquals(g.getECount(), edges.size());
+		assertEquals(g.getECount(), new HashSet<Edge>(edges).size());
+	}
+
+	@Test
+	public void testTraversalContext() {
+		g.setTraversalContext(new TraversalContext() {
+			@Override
+			public boolean containsVertex(Vertex v) {
+				return v.getId() % 2 == 1;
+			}
+
+			@Override
+			public boolean containsEdge(Edge e) {
+				return containsVertex(e.getAlpha())
+						&& containsVertex(e.getOmega());
+			}
+		});
+		try {
+			Set<Vertex> expected = set(g.vertices());
+			ElementSpliterator<Vertex> s = g.vertexSpliterator(null);
+			final Set<Vertex> visited = Collections
+					.synchronizedSet(new HashSet<Vertex>());
+			s.forEachParallel(new ElementSpliterator.Action<Vertex>() {
+				@Override
+				public void apply(Vertex v) {
+					visited.add(v);
+				}
+			}, 4);
+			assertEquals(expected, visited);
+
+			int inContext = 0;
+			for (Edge e : hub.incidences(EdgeDirection.OUT)) {
+				assertTrue(e.getOmega().getId() % 2 == 1);
+				++inContext;
+			}
+			assertEquals(inContext,
+					drain(hub.incidenceSpliterator(null, EdgeDirection.OUT))
+							.size());
+		} finally {
+			g.setTraversalContext(null);
+		}
+	}
+
+	@Test
+	public void testIncidences() {
+		final AtomicInteger out = new AtomicInteger();
+		hub.incidenceSpliterator(i, EdgeDirection.OUT).forEachParallel(
+				new ElementSpliterator.Action<Edge>() {
+					@Override
+					public void apply(Edge e) {
+						assertTrue(e.isNormal());
+						out.incrementAndGet();
+					}
+				}, 4);
+		assertEquals(hub.getDegree(EdgeDirection.OUT), out.get());
+
+		List<Edge> expected = new ArrayList<Edge>();
+		for (Edge e : hub.incidences()) {
+			expected.add(e);
+		}
+		List<Edge> actual = new ArrayList<Edge>();
+		ElementSpliterator<Edge> s = hub.incidenceSpliterator(null,
+				EdgeDirection.INOUT);
+		ElementSpliterator<Edge> prefix = s.trySplit();
+		while (prefix.hasNext()) {
+			actual.add(prefix.next());
+		}
+		while (s.hasNext()) {
+			actual.add(s.next());
+		}
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testExceptionInAction() {
+		try {
+			g.vertexSpliterator(null).forEachParallel(
+					new ElementSpliterator.Action<Vertex>() {
+						@Override
+						public void apply(Vertex v) {
+							if (v.getId() == VERTICES - 1) {
+								throw new IllegalStateException("boom");
+							}
+						}
+					}, 4);
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertEquals("boom", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testLockingAction() {
+		g.setConcurrentAccess(true);
+		try {
+			g.vertexSpliterator(null).forEachParallel(
+					new ElementSpliterator.Action<Vertex>() {
+						@Override
+						public void apply(Vertex v) {
+							// would deadlock as soon as a writer is waiting
+							g.getReadLock().lock();
+							g.getReadLock().unlock();
+						}
+					}, 4);
+			fail("Expected AssertionError");
+		} catch (AssertionError e) {
+			// tests run with assertions enabled
+			assertTrue(e.getMessage().contains("forEachParallel"));
+		} finally {
+			g.setConcurrentAccess(false);
+		}
+	}
+
+	@Test(expected = ConcurrentModificationException.class)
+	public void testConcurrentModification() {
+		ElementSpliterator<Vertex> s = g.vertexSpliterator(null);
+		s.next();
+		g.createVertex(a);
+		s.next();
+	}
+}
@@ -252,4 +252,27 @@ public class FreeIndexListTest {
 		checkFreeIndexList(list, 3, 7, 16, 2, -1, 3, -1, 2, -1);
 	}
 
+	@Test
+	public void testGetFragmentation() {
+		FreeIndexList list = new FreeIndexList(10);
+		assertEquals(0, list.getGapCount());
+		assertEquals(0.0, list.getFragmentation(), 0.0);
+		for (int i = 0; i < 6; i++) {
+			list.allocateIndex();
+		}
+		// trailing free indices are no gaps
+		assertEquals(0, list.getGapCount());
+		assertEquals(0.0, list.getFragmentation(), 0.0);
+
+		list.freeIndex(2);
+		list.freeIndex(3);
+		list.freeIndex(5);
+		assertEquals(3, list.getGapCount());
+		assertEquals(0.5, list.getFragmentation(), 0.0);
+
+		list.freeIndex(6);
+		assertEquals(2, list.getGapCount());
+		assertEquals(2.0 / 4.0, list.getFragmentation(), 0.0);
+	}
+
 }
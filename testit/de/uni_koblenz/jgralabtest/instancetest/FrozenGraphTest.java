@@ -0,0 +1,368 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.TraversalContext;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.algolib.algorithms.search.BreadthFirstSearch;
+import de.uni_koblenz.jgralab.graphmarker.SubGraphMarker;
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.impl.csr.CsrGraphImpl;
+import de.uni_koblenz.jgralab.schema.Attribute;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.defaultvaluetestschema.DefaultValueTestGraph;
+import de.uni_koblenz.jgralabtest.schemas.defaultvaluetestschema.DefaultValueTestSchema;
+import de.uni_koblenz.jgralabtest.schemas.defaultvaluetestschema.TestVertex;
+
+public class FrozenGraphTest {
+
+	private static final String TESTGRAPH = "./testit/testgraphs/greqltestgraph.tg";
+
+	private static Graph graph;
+	private static Graph frozen;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		graph = GraphIO.loadGraphFromFile(TESTGRAPH,
+				ImplementationType.STANDARD, null);
+		frozen = graph.freeze();
+	}
+
+	private static String saveToString(Graph g) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		g.save(out);
+		return out.toString("UTF-8");
+	}
+
+	private static List<Integer> incidenceIds(Vertex v, EdgeDirection dir) {
+		List<Integer> result = new ArrayList<Integer>();
+		for (Edge e : v.incidences(dir)) {
+			result.add(e.getId());
+		}
+		return result;
+	}
+
+	@Test
+	public void testFreeze() {
+		assertTrue(frozen instanceof CsrGraphImpl);
+		assertSame(frozen, frozen.freeze());
+		assertEquals(graph.getId(), frozen.getId());
+		assertEquals(graph.getVCount(), frozen.getVCount());
+		assertEquals(graph.getECount(), frozen.getECount());
+		assertEquals(graph.getGraphClass(), frozen.getGraphClass());
+	}
+
+	@Test
+	public void testSaveFrozenGraph() throws Exception {
+		assertEquals(saveToString(graph), saveToString(frozen));
+	}
+
+	@Test
+	public void testSaveFrozenGenericGraph() throws Exception {
+		Graph generic = GraphIO.loadGraphFromFile(TESTGRAPH,
+				ImplementationType.GENERIC, null);
+		assertEquals(saveToString(generic), saveToString(generic.freeze()));
+	}
+
+	@Test
+	public void testSaveFrozenGraphWithAllDomains() throws Exception {
+		DefaultValueTestGraph g = DefaultValueTestSchema.instance()
+				.createDefaultValueTestGraph(ImplementationType.STANDARD);
+		TestVertex v1 = g.createTestVertex();
+		TestVertex v2 = g.createTestSubVertex();
+		g.createTestEdge(v1, v2);
+		g.createTestEdge(v2, v2);
+		v1.set_intVertex(-17);
+		v2.set_longVertex(Long.MAX_VALUE);
+		v2.set_boolVertex(false);
+		v1.set_doubleVertex(Math.PI);
+		Graph f = g.freeze();
+		assertEquals(saveToString(g), saveToString(f));
+		assertEquals(-17, f.getVertex(v1.getId()).getAttribute("intVertex"));
+		assertEquals(Long.MAX_VALUE,
+				f.getVertex(v2.getId()).getAttribute("longVertex"));
+		assertEquals(Math.PI,
+				f.getVertex(v1.getId()).getAttribute("doubleVertex"));
+		assertEquals(Boolean.FALSE,
+				f.getVertex(v2.getId()).getAttribute("boolVertex"));
+	}
+
+	@Test
+	public void testStructure() {
+		Iterator<Vertex> fv = frozen.vertices().iterator();
+		for (Vertex v : graph.vertices()) {
+			Vertex w = fv.next();
+			assertEquals(v.getId(), w.getId());
+			assertSame(w, frozen.getVertex(v.getId()));
+			assertEquals(v.getAttributedElementClass(),
+					w.getAttributedElementClass());
+			assertEquals(v.getDegree(), w.getDegree());
+			for (EdgeDirection dir : EdgeDirection.values()) {
+				assertEquals(incidenceIds(v, dir), incidenceIds(w, dir));
+			}
+			Edge last = w.getLastIncidence();
+			assertEquals(v.getLastIncidence() == null ? null : v
+					.getLastIncidence().getId(), last == null ? null : last
+					.getId());
+			if (last != null) {
+				assertNull(last.getNextIncidence());
+				assertSame(w, last.getThis());
+			}
+		}
+		assertFalse(fv.hasNext());
+
+		Iterator<Edge> fe = frozen.edges().iterator();
+		for (Edge e : graph.edges()) {
+			Edge f = fe.next();
+			assertEquals(e.getId(), f.getId());
+			assertSame(f, frozen.getEdge(e.getId()));
+			assertSame(f.getReversedEdge(), frozen.getEdge(-e.getId()));
+			assertSame(f, f.getReversedEdge().getNormalEdge());
+			assertEquals(e.getAttributedElementClass(),
+					f.getAttributedElementClass());
+			assertEquals(e.getAlpha().getId(), f.getAlpha().getId());
+			assertEquals(e.getOmega().getId(), f.getOmega().getId());
+			assertSame(f.getAlpha(), f.getReversedEdge().getThat());
+			assertSame(f.getOmega(), f.getReversedEdge().getThis());
+			assertTrue(frozen.containsEdge(f));
+			assertTrue(frozen.containsEdge(f.getReversedEdge()));
+			assertFalse(frozen.containsEdge(e));
+		}
+		assertFalse(fe.hasNext());
+		assertNull(frozen.getVertex(((InternalGraph) frozen)
+				.getMaxVCount() + 1));
+		assertNull(frozen.getEdge(((InternalGraph) frozen)
+				.getMaxECount() + 1));
+	}
+
+	@Test
+	public void testFlyweightsReclaimed() throws InterruptedException {
+		Graph f = graph.freeze();
+		int vId = f.getLastVertex().getId();
+		WeakReference<Vertex> ref = new WeakReference<Vertex>(
+				f.getVertex(vId));
+		for (Vertex v : f.vertices()) {
+			v.getDegree();
+		}
+		for (int i = 0; (i < 50) && (ref.get() != null); ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+		Vertex v = f.getVertex(vId);
+		assertEquals(vId, v.getId());
+		assertSame(v, f.getVertex(vId));
+		assertTrue(f.containsVertex(v));
+	}
+
+	@Test
+	public void testAttributes() {
+		for (Vertex v : graph.vertices()) {
+			Vertex w = frozen.getVertex(v.getId());
+			for (Attribute a : v.getAttributedElementClass()
+					.getAttributeList()) {
+				Object value = v.getAttribute(a.getName());
+				assertEquals(value, w.getAttribute(a.getName()));
+				assertEquals(v.isUnsetAttribute(a.getName()),
+						w.isUnsetAttribute(a.getName()));
+			}
+		}
+		for (Edge e : graph.edges()) {
+			Edge f = frozen.getEdge(e.getId());
+			for (Attribute a : e.getAttributedElementClass()
+					.getAttributeList()) {
+				assertEquals(e.getAttribute(a.getName()),
+						f.getAttribute(a.getName()));
+				assertEquals(e.getAttribute(a.getName()), f.getReversedEdge()
+						.getAttribute(a.getName()));
+			}
+		}
+		assertEquals(graph.getAttribute("creationDate"),
+				frozen.getAttribute("creationDate"));
+	}
+
+	@Test
+	public void testTypedNavigation() {
+		VertexClass crossroad = graph.getGraphClass().getVertexClass(
+				"junctions.Crossroad");
+		int count = 0;
+		for (Vertex v : frozen.vertices(crossroad)) {
+			assertTrue(v.isInstanceOf(crossroad));
+			count++;
+		}
+		assertEquals(
+				((Number) GreqlQuery.createQuery(
+						"count(V{junctions.Crossroad})").evaluate(graph))
+						.intValue(), count);
+	}
+
+	@Test
+	public void testGreqlQueries() {
+		String[] queries = {
+				"from t:V{localities.Town} report t.name, t.inhabitants, t.foundingDate end",
+				"from c:V{localities.County} report c.name, c.tags end",
+				"sum(from e:E{connections.Connection} reportSet e.length end)",
+				"from s:E{connections.Street} with s.oneway report s end",
+				"pathSystem(getVertex(19), -->)",
+				"from v:V{junctions.Crossroad} with v -->{connections.Street}+ v report v end",
+				"from l:V{localities.Locality}, c:V{junctions.Crossroad} with l -->{localities.ContainsCrossroad} c report l.name, c end" };
+		for (String query : queries) {
+			assertEquals(query,
+					String.valueOf(GreqlQuery.createQuery(query).evaluate(graph)),
+					String.valueOf(GreqlQuery.createQuery(query).evaluate(frozen)));
+		}
+	}
+
+	@Test
+	public void testBreadthFirstSearch() throws Exception {
+		BreadthFirstSearch bfs1 = new BreadthFirstSearch(graph).undirected();
+		bfs1.execute(graph.getFirstVertex());
+		BreadthFirstSearch bfs2 = new BreadthFirstSearch(frozen).undirected();
+		bfs2.execute(frozen.getFirstVertex());
+		assertEquals(bfs1.getNum(), bfs2.getNum());
+		for (int i = 1; i < bfs1.getNum(); i++) {
+			assertEquals(bfs1.getInternalVertexOrder()[i].getId(), bfs2
+					.getInternalVertexOrder()[i].getId());
+		}
+	}
+
+	@Test
+	public void testTraversalContext() {
+		SubGraphMarker subgraph = new SubGraphMarker(frozen);
+		int marked = 0;
+		for (Vertex v : frozen.vertices()) {
+			if ((v.getId() % 2) == 0) {
+				subgraph.mark(v);
+				marked++;
+			}
+		}
+		TraversalContext old = frozen.setTraversalContext(subgraph);
+		try {
+			assertEquals(marked, frozen.getVCount());
+			for (Vertex v : frozen.vertices()) {
+				assertEquals(0, v.getId() % 2);
+				for (Edge e : v.incidences()) {
+					assertEquals(0, e.getThat().getId() % 2);
+				}
+			}
+		} finally {
+			frozen.setTraversalContext(old);
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testVertexArray() {
+		((InternalGraph) frozen).getVertex();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testEdgeArray() {
+		((InternalGraph) frozen).getEdge();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testCreateVertex() {
+		frozen.createVertex(frozen.getFirstVertex()
+				.getAttributedElementClass());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testDeleteVertex() {
+		frozen.getFirstVertex().delete();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testDeleteEdge() {
+		frozen.getFirstEdge().delete();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSetAttribute() {
+		Vertex v = frozen.getFirstVertex(graph.getGraphClass()
+				.getVertexClass("localities.Town"));
+		assertNotNull(v);
+		v.setAttribute("name", "Koblenz");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testPutVertexAfter() {
+		frozen.getFirstVertex().putAfter(frozen.getLastVertex());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSetAlpha() {
+		Edge e = frozen.getFirstEdge();
+		e.setAlpha(e.getOmega());
+	}
+
+	@Test
+	public void testUnchangedAfterRejectedModification() throws Exception {
+		String before = saveToString(frozen);
+		try {
+			frozen.getFirstVertex().delete();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			frozen.getFirstEdge().getNextEdge().setOmega(
+					frozen.getFirstVertex());
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertEquals(before, saveToString(frozen));
+	}
+}
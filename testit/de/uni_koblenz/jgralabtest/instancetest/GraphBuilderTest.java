@@ -0,0 +1,249 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphBuilder;
+import de.uni_koblenz.jgralab.GraphStructureChangedAdapter;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.vertextest.VertexTestSchema;
+
+/**
+ * Checks that graphs created by a {@link GraphBuilder} are equal to graphs
+ * created element by element.
+ */
+public class GraphBuilderTest {
+
+	private static final int VERTICES = 300;
+
+	private static final int EDGES = 1000;
+
+	@Test
+	public void testStandardGraph() {
+		compareWithIncrementalGraph(ImplementationType.STANDARD, VERTICES,
+				EDGES);
+	}
+
+	@Test
+	public void testGenericGraph() {
+		compareWithIncrementalGraph(ImplementationType.GENERIC, VERTICES,
+				EDGES);
+	}
+
+	@Test
+	public void testExpansion() {
+		compareWithIncrementalGraph(ImplementationType.STANDARD, 1, 1);
+	}
+
+	@Test
+	public void testNoEvents() {
+		GraphBuilder builder = new GraphBuilder(VertexTestSchema.instance(),
+				ImplementationType.STANDARD, null, 10, 10);
+		final List<Object> events = new ArrayList<Object>();
+		builder.getGraph().addGraphStructureChangedListener(
+				new GraphStructureChangedAdapter() {
+					@Override
+					public void vertexAdded(Vertex v) {
+						events.add(v);
+					}
+
+					@Override
+					public void edgeAdded(Edge e) {
+						events.add(e);
+					}
+				});
+		long version = builder.getGraph().getGraphVersion();
+		build(builder, new Random(7), 10, 10);
+		assertEquals(0, events.size());
+		assertEquals(version, builder.getGraph().getGraphVersion());
+	}
+
+	@Test
+	public void testBuildTwice() {
+		GraphBuilder builder = new GraphBuilder(VertexTestSchema.instance(),
+				ImplementationType.STANDARD, null, 10, 10);
+		Graph g = builder.build();
+		assertNotNull(g);
+		assertFalse(((InternalGraph) g).isLoading());
+		try {
+			builder.build();
+			fail("A graph must not be built twice");
+		} catch (GraphException e) {
+			// expected
+		}
+		try {
+			builder.createVertex(g.getGraphClass().getVertexClass("A"));
+			fail("No vertices may be created after building the graph");
+		} catch (GraphException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testForeignVertices() {
+		GraphBuilder builder = new GraphBuilder(VertexTestSchema.instance(),
+				ImplementationType.STANDARD, null, 10, 10);
+		Graph other = VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD);
+		Vertex a = builder.createVertex(other.getGraphClass().getVertexClass(
+				"A"));
+		Vertex b = other.createVertex(other.getGraphClass().getVertexClass(
+				"B"));
+		try {
+			builder.createEdge(other.getGraphClass().getEdgeClass("E"), a, b);
+			fail("Edges must not connect vertices of other graphs");
+		} catch (GraphException e) {
+			// expected
+		}
+	}
+
+	private void compareWithIncrementalGraph(ImplementationType impl,
+			int vCount, int eCount) {
+		GraphBuilder builder = new GraphBuilder(VertexTestSchema.instance(),
+				impl, null, vCount, eCount);
+		Graph built = build(builder, new Random(42), VERTICES, EDGES);
+		Graph expected = VertexTestSchema.instance().createGraph(impl);
+		create(expected, new Random(42), VERTICES, EDGES);
+
+		assertEquals(expected.getVCount(), built.getVCount());
+		assertEquals(expected.getECount(), built.getECount());
+		Iterator<Vertex> vi = built.vertices().iterator();
+		for (Vertex v : expected.vertices()) {
+			Vertex w = vi.next();
+			assertEquals(v.getId(), w.getId());
+			assertEquals(v.getAttributedElementClass(),
+					w.getAttributedElementClass());
+			assertEquals(v.getDegree(), w.getDegree());
+			Iterator<Edge> ii = w.incidences().iterator();
+			for (Edge i : v.incidences()) {
+				Edge j = ii.next();
+				assertEquals(i.getId(), j.getId());
+				assertEquals(i.isNormal(), j.isNormal());
+			}
+			assertFalse(ii.hasNext());
+		}
+		Iterator<Edge> ei = built.edges().iterator();
+		for (Edge e : expected.edges()) {
+			Edge f = ei.next();
+			assertEquals(e.getId(), f.getId());
+			assertEquals(e.getAttributedElementClass(),
+					f.getAttributedElementClass());
+			assertEquals(e.getAlpha().getId(), f.getAlpha().getId());
+			assertEquals(e.getOmega().getId(), f.getOmega().getId());
+		}
+
+		// the built graph can be modified as usual
+		Vertex v = built.getFirstVertex();
+		Edge e = built.createEdge(built.getGraphClass().getEdgeClass("I"),
+				built.createVertex(built.getGraphClass().getVertexClass("A")),
+				built.createVertex(built.getGraphClass().getVertexClass("A")));
+		assertEquals(built.getECount(), e.getId());
+		v.delete();
+		assertEquals(expected.getVCount() + 1, built.getVCount());
+	}
+
+	private static Graph build(GraphBuilder builder, Random rand,
+			int vertices, int edges) {
+		List<Vertex> created = new ArrayList<Vertex>();
+		for (int i = 0; i < vertices; ++i) {
+			created.add(builder.createVertex(randomVertexClass(builder
+					.getGraph(), rand)));
+		}
+		for (int i = 0; i < edges; ++i) {
+			EdgeClass ec = randomEdgeClass(builder.getGraph(), rand);
+			Vertex alpha = created.get(rand.nextInt(created.size()));
+			Vertex omega = created.get(rand.nextInt(created.size()));
+			if (alpha.getAttributedElementClass().isValidFromFor(ec)
+					&& omega.getAttributedElementClass().isValidToFor(ec)) {
+				builder.createEdge(ec, alpha, omega);
+			}
+		}
+		return builder.build();
+	}
+
+	private static void create(Graph g, Random rand, int vertices, int edges) {
+		List<Vertex> created = new ArrayList<Vertex>();
+		for (int i = 0; i < vertices; ++i) {
+			created.add(g.createVertex(randomVertexClass(g, rand)));
+		}
+		for (int i = 0; i < edges; ++i) {
+			EdgeClass ec = randomEdgeClass(g, rand);
+			Vertex alpha = created.get(rand.nextInt(created.size()));
+			Vertex omega = created.get(rand.nextInt(created.size()));
+			if (alpha.getAttributedElementClass().isValidFromFor(ec)
+					&& omega.getAttributedElementClass().isValidToFor(ec)) {
+				g.createEdge(ec, alpha, omega);
+			}
+		}
+	}
+
+	private static VertexClass randomVertexClass(Graph g, Random rand) {
+		List<VertexClass> classes = new ArrayList<VertexClass>();
+		for (VertexClass vc : g.getGraphClass().getVertexClasses()) {
+			if (!vc.isAbstract() && !vc.isDefaultGraphElementClass()) {
+				classes.add(vc);
+			}
+		}
+		return classes.get(rand.nextInt(classes.size()));
+	}
+
+	private static EdgeClass randomEdgeClass(Graph g, Random rand) {
+		List<EdgeClass> classes = new ArrayList<EdgeClass>();
+		for (EdgeClass ec : g.getGraphClass().getEdgeClasses()) {
+			if (!ec.isAbstract() && !ec.isDefaultGraphElementClass()) {
+				classes.add(ec);
+			}
+		}
+		return classes.get(rand.nextInt(classes.size()));
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.impl.GraphFactoryImpl;
+import de.uni_koblenz.jgralabtest.schemas.minimal.Link;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalGraph;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalSchema;
+import de.uni_koblenz.jgralabtest.schemas.minimal.Node;
+import de.uni_koblenz.jgralabtest.schemas.minimal.impl.std.LinkImpl;
+import de.uni_koblenz.jgralabtest.schemas.minimal.impl.std.MinimalGraphFactoryImpl;
+import de.uni_koblenz.jgralabtest.schemas.minimal.impl.std.NodeImpl;
+
+/**
+ * Tests the element creation of generated {@link GraphFactoryImpl}s.
+ */
+public class GraphFactoryTest {
+
+	public static class CustomNodeImpl extends NodeImpl {
+		public CustomNodeImpl(int id, Graph g) {
+			super(id, g);
+		}
+	}
+
+	@Test
+	public void testGeneratedCreation() {
+		MinimalGraph g = MinimalSchema.instance().createMinimalGraph(
+				ImplementationType.STANDARD);
+		Node n1 = g.createNode();
+		Node n2 = g.createNode();
+		Link l = g.createLink(n1, n2);
+		assertSame(NodeImpl.class, n1.getClass());
+		assertSame(LinkImpl.class, l.getClass());
+		assertEquals(2, n2.getId());
+		assertSame(n1, l.getAlpha());
+		assertSame(n2, l.getOmega());
+		assertSame(l, n1.getFirstIncidence());
+	}
+
+	@Test
+	public void testImplementationClassOverridesGeneratedCreation() {
+		MinimalGraphFactoryImpl factory = new MinimalGraphFactoryImpl();
+		factory.setVertexImplementationClass(Node.VC, CustomNodeImpl.class);
+		MinimalGraph g = MinimalSchema.instance().createMinimalGraph(factory);
+		Node n1 = g.createNode();
+		Vertex n2 = g.createVertex(Node.VC);
+		Link l = g.createLink(n1, (Node) n2);
+		assertSame(CustomNodeImpl.class, n1.getClass());
+		assertSame(CustomNodeImpl.class, n2.getClass());
+		assertSame(LinkImpl.class, l.getClass());
+		assertTrue(n1.isValid());
+		assertEquals(1, l.getId());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testImplementationClassAfterGraphCreation() {
+		MinimalGraphFactoryImpl factory = new MinimalGraphFactoryImpl();
+		MinimalSchema.instance().createMinimalGraph(factory);
+		factory.setVertexImplementationClass(Node.VC, CustomNodeImpl.class);
+	}
+}
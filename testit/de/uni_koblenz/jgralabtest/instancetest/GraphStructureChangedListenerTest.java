@@ -34,12 +34,15 @@
  */
 package de.uni_koblenz.jgralabtest.instancetest;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -48,12 +51,16 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
 import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.GraphStructureChangeBatch;
 import de.uni_koblenz.jgralab.GraphStructureChangedAdapter;
 import de.uni_koblenz.jgralab.GraphStructureChangedAdapterWithAutoRemove;
+import de.uni_koblenz.jgralab.GraphStructureChangedBatchListener;
 import de.uni_koblenz.jgralab.GraphStructureChangedListener;
 import de.uni_koblenz.jgralab.GraphStructureChangedListenerWithAutoRemove;
 import de.uni_koblenz.jgralab.ImplementationType;
 import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.graphmarker.IntegerVertexMarker;
 import de.uni_koblenz.jgralab.impl.InternalGraph;
 import de.uni_koblenz.jgralabtest.schemas.minimal.Link;
 import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalGraph;
@@ -281,6 +288,89 @@ public class GraphStructureChangedListenerTest extends InstanceTest {
 
 	}
 
+	private class TestBatchListener extends TestListener implements
+			GraphStructureChangedBatchListener {
+		private final List<GraphStructureChangeBatch> batches = new ArrayList<GraphStructureChangeBatch>();
+
+		@Override
+		protected void trigger() {
+			trigger1 = true;
+		}
+
+		@Override
+		public void structureChanged(GraphStructureChangeBatch batch) {
+			assertTrue(batch.getGraph() == g);
+			batches.add(batch);
+		}
+	}
+
+	@Test
+	public void testBatch() {
+		TestBatchListener batchListener = new TestBatchListener();
+		GraphStructureChangedListener listener = new TestListener();
+		g.addGraphStructureChangedListener(batchListener);
+		g.addGraphStructureChangedListener(listener);
+		IntegerVertexMarker marker = new IntegerVertexMarker(g);
+
+		Node n1 = g.createNode();
+		Node n2 = g.createNode();
+		Node n3 = g.createNode();
+		marker.mark(n1, 1);
+		marker.mark(n2, 2);
+		Link l1 = g.createLink(n1, n2);
+		trigger1 = false;
+		trigger2 = false;
+
+		g.beginBatch();
+		g.beginBatch();
+		g.deleteVertex(n2);
+		g.endBatch();
+		// the deleted ids must not be reused during the batch
+		Node n4 = g.createNode();
+		Link l2 = g.createLink(n3, n4);
+		Link l3 = g.createLink(n4, n4);
+		assertFalse(n4.getId() == 2);
+		assertFalse(l2.getId() == 1);
+		assertFalse(l3.getId() == 1);
+		int n4Id = n4.getId();
+		int l3Id = l3.getId();
+		l3.delete();
+		assertFalse("The batch listener has been notified per element.",
+				trigger1);
+		assertTrue("The normal listener has not been notified.", trigger2);
+		assertEquals(0, batchListener.batches.size());
+		g.endBatch();
+
+		assertEquals(1, batchListener.batches.size());
+		GraphStructureChangeBatch batch = batchListener.batches.get(0);
+		assertArrayEquals(new int[] { n4Id }, batch.getAddedVertexIds());
+		assertArrayEquals(new int[] { 2 }, batch.getDeletedVertexIds());
+		assertArrayEquals(new int[] { l2.getId(), l3Id },
+				batch.getAddedEdgeIds());
+		assertArrayEquals(new int[] { 1, l3Id }, batch.getDeletedEdgeIds());
+		assertFalse(l1.isValid());
+
+		// the marker removed the mark of the deleted vertex
+		assertEquals(1, marker.size());
+		assertEquals(1, marker.getMark(n1));
+
+		// the ids are free again
+		assertEquals(2, g.createNode().getId());
+		assertEquals(1, g.createLink(n1, n3).getId());
+		assertEquals(1, batchListener.batches.size());
+
+		// empty batches are not reported
+		g.beginBatch();
+		g.endBatch();
+		assertEquals(1, batchListener.batches.size());
+		try {
+			g.endBatch();
+			fail("endBatch() without beginBatch() must fail.");
+		} catch (GraphException e) {
+			// expected
+		}
+	}
+
 	@Test
 	public void testAutomaticRemovalOfWeakReferences() {
 		GraphStructureChangedListener[] listenersWithAutoRemove = new GraphStructureChangedListener[LISTENERS];
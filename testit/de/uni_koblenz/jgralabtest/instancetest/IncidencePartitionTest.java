@@ -0,0 +1,337 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.graphmarker.SubGraphMarker;
+import de.uni_koblenz.jgralab.impl.InternalVertex;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.Schema;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.vertextest.VertexTestSchema;
+
+/**
+ * Checks that typed and directed navigation along the incidence lists yields
+ * the same incidences in the same order as filtering the incidence lists,
+ * while the incidence partitions of high-degree vertices are maintained under
+ * random modifications.
+ */
+public class IncidencePartitionTest {
+
+	private static final int VERTICES = 6;
+
+	private static final int STEPS = 600;
+
+	private final Random rand = new Random(42);
+
+	private final Schema schema = VertexTestSchema.instance();
+
+	@Before
+	public void setUp() {
+		schema.setPartitionIncidenceLists(true);
+	}
+
+	@After
+	public void tearDown() {
+		schema.setPartitionIncidenceLists(false);
+	}
+
+	@Test
+	public void testStandardGraph() {
+		randomModifications(VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD));
+	}
+
+	@Test
+	public void testGenericGraph() {
+		randomModifications(VertexTestSchema.instance().createGraph(
+				ImplementationType.GENERIC));
+	}
+
+	@Test
+	public void testTraversalContext() {
+		Graph g = createHubGraph();
+		SubGraphMarker sub = new SubGraphMarker(g);
+		for (Vertex v : g.vertices()) {
+			sub.mark(v);
+		}
+		for (Edge e : g.edges()) {
+			if (rand.nextBoolean()) {
+				sub.mark(e);
+			}
+		}
+		g.setTraversalContext(sub);
+		try {
+			checkIncidences(g);
+		} finally {
+			g.setTraversalContext(null);
+		}
+		checkIncidences(g);
+	}
+
+	@Test
+	public void testDisablePartitions() {
+		Graph g = createHubGraph();
+		checkIncidences(g);
+		InternalVertex hub = (InternalVertex) g.getFirstVertex();
+		assertNotNull(hub.getIncidencePartition());
+		schema.setPartitionIncidenceLists(false);
+		checkIncidences(g);
+		createEdge(g);
+		assertNull(hub.getIncidencePartition());
+		schema.setPartitionIncidenceLists(true);
+		checkIncidences(g);
+		assertNotNull(hub.getIncidencePartition());
+	}
+
+	private Graph createHubGraph() {
+		Graph g = VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD);
+		for (int i = 0; i < VERTICES; ++i) {
+			createVertex(g);
+		}
+		for (int i = 0; i < 200; ++i) {
+			createEdge(g);
+		}
+		return g;
+	}
+
+	private void randomModifications(Graph g) {
+		Comparator<Edge> comp = new Comparator<Edge>() {
+			@Override
+			public int compare(Edge e1, Edge e2) {
+				return e2.getId() - e1.getId();
+			}
+		};
+		for (int i = 0; i < VERTICES; ++i) {
+			createVertex(g);
+		}
+		for (int i = 0; i < STEPS; ++i) {
+			switch (rand.nextInt(7)) {
+			case 0:
+			case 1:
+				createEdge(g);
+				break;
+			case 2:
+				if (g.getECount() > 0) {
+					randomEdge(g).delete();
+				}
+				break;
+			case 3:
+				if (g.getECount() > 0) {
+					Edge e = randomEdge(g);
+					Vertex v = randomVertex(g);
+					if (v.getAttributedElementClass().isValidToFor(
+							e.getAttributedElementClass())) {
+						e.setOmega(v);
+					}
+				}
+				break;
+			case 4:
+				if (g.getECount() > 0) {
+					Edge e = randomEdge(g);
+					if (rand.nextBoolean()) {
+						e = e.getReversedEdge();
+					}
+					List<Edge> incidences = filter(e.getThis().incidences(),
+							null, EdgeDirection.INOUT);
+					Edge f = incidences
+							.get(rand.nextInt(incidences.size()));
+					if (e != f) {
+						if (rand.nextBoolean()) {
+							e.putIncidenceBefore(f);
+						} else {
+							e.putIncidenceAfter(f);
+						}
+					}
+				}
+				break;
+			case 5:
+				if (g.getECount() > 0) {
+					Edge e = randomEdge(g);
+					EdgeClass ec = e.getAttributedElementClass();
+					Vertex alpha = e.getAlpha();
+					Vertex omega = e.getOmega();
+					if (rand.nextBoolean()) {
+						// flips the direction of e's incidences
+						e.delete();
+						if (alpha.getAttributedElementClass().isValidToFor(ec)
+								&& omega.getAttributedElementClass()
+										.isValidFromFor(ec)) {
+							g.createEdge(ec, omega, alpha);
+						}
+					} else if (e.getOmega().getFirstIncidence() != e
+							.getReversedEdge()) {
+						e.getReversedEdge().putIncidenceBefore(
+								e.getOmega().getFirstIncidence());
+					}
+				}
+				break;
+			default:
+				if (rand.nextInt(10) == 0) {
+					randomVertex(g).sortIncidences(comp);
+				} else {
+					createEdge(g);
+				}
+			}
+			checkIncidences(g);
+		}
+		boolean partitioned = false;
+		for (Vertex v : g.vertices()) {
+			partitioned |= ((InternalVertex) v).getIncidencePartition() != null;
+		}
+		assertEquals(true, partitioned);
+		while (g.getFirstEdge() != null) {
+			randomEdge(g).delete();
+			checkIncidences(g);
+		}
+	}
+
+	private void createVertex(Graph g) {
+		List<VertexClass> classes = new ArrayList<VertexClass>();
+		for (VertexClass vc : g.getGraphClass().getVertexClasses()) {
+			if (!vc.isAbstract() && !vc.isDefaultGraphElementClass()) {
+				classes.add(vc);
+			}
+		}
+		g.createVertex(classes.get(rand.nextInt(classes.size())));
+	}
+
+	private void createEdge(Graph g) {
+		List<EdgeClass> classes = new ArrayList<EdgeClass>();
+		for (EdgeClass ec : g.getGraphClass().getEdgeClasses()) {
+			if (!ec.isAbstract() && !ec.isDefaultGraphElementClass()) {
+				classes.add(ec);
+			}
+		}
+		EdgeClass ec = classes.get(rand.nextInt(classes.size()));
+		List<Vertex> alphas = new ArrayList<Vertex>();
+		List<Vertex> omegas = new ArrayList<Vertex>();
+		for (Vertex v : g.vertices()) {
+			if (v.getAttributedElementClass().isValidFromFor(ec)) {
+				alphas.add(v);
+			}
+			if (v.getAttributedElementClass().isValidToFor(ec)) {
+				omegas.add(v);
+			}
+		}
+		if (!alphas.isEmpty() && !omegas.isEmpty()) {
+			g.createEdge(ec, alphas.get(rand.nextInt(alphas.size())),
+					omegas.get(rand.nextInt(omegas.size())));
+		}
+	}
+
+	private Vertex randomVertex(Graph g) {
+		List<Vertex> vertices = new ArrayList<Vertex>();
+		for (Vertex v : g.vertices()) {
+			vertices.add(v);
+		}
+		return vertices.get(rand.nextInt(vertices.size()));
+	}
+
+	private Edge randomEdge(Graph g) {
+		List<Edge> edges = new ArrayList<Edge>();
+		for (Edge e : g.edges()) {
+			edges.add(e);
+		}
+		return edges.get(rand.nextInt(edges.size()));
+	}
+
+	private static List<Edge> filter(Iterable<Edge> incidences, EdgeClass ec,
+			EdgeDirection dir) {
+		List<Edge> result = new ArrayList<Edge>();
+		for (Edge e : incidences) {
+			if (((ec == null) || e.isInstanceOf(ec))
+					&& ((dir == EdgeDirection.INOUT) || (e.isNormal() == (dir == EdgeDirection.OUT)))) {
+				result.add(e);
+			}
+		}
+		return result;
+	}
+
+	private static void checkIncidences(Graph g) {
+		EdgeDirection[] dirs = { EdgeDirection.OUT, EdgeDirection.IN,
+				EdgeDirection.INOUT };
+		for (Vertex v : g.vertices()) {
+			for (EdgeDirection dir : dirs) {
+				List<Edge> expected = filter(v.incidences(), null, dir);
+				List<Edge> actual = new ArrayList<Edge>();
+				for (Edge e = v.getFirstIncidence(dir); e != null; e = e
+						.getNextIncidence(dir)) {
+					actual.add(e);
+				}
+				assertEquals(dir.toString(), expected, actual);
+				for (EdgeClass ec : g.getGraphClass().getEdgeClasses()) {
+					String msg = ec.getQualifiedName() + " " + dir;
+					expected = filter(v.incidences(), ec, dir);
+					actual.clear();
+					for (Edge e = v.getFirstIncidence(ec, dir); e != null; e = e
+							.getNextIncidence(ec, dir)) {
+						actual.add(e);
+					}
+					assertEquals(msg, expected, actual);
+					List<Edge> exact = new ArrayList<Edge>();
+					for (Edge e : expected) {
+						if (e.getAttributedElementClass() == ec) {
+							exact.add(e);
+						}
+					}
+					if (!exact.isEmpty()) {
+						assertEquals(msg, exact.size() > 1 ? exact.get(1)
+								: null,
+								exact.get(0).getNextIncidence(ec, dir, true));
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,351 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.GraphIO;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphIOException;
+import de.uni_koblenz.jgralab.impl.InternalGraph;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalSchema;
+
+/**
+ * Checks that graphs which create reversed edges lazily behave like graphs
+ * which create them along with their edges, in particular for loops, whose
+ * incidences are both contained in the same incidence list.
+ */
+public class LazyReversedEdgeTest {
+
+	private static final int VERTICES = 5;
+
+	private static final int STEPS = 1000;
+
+	private final Random rand = new Random(42);
+
+	private final MinimalSchema schema = MinimalSchema.instance();
+
+	@Before
+	public void setUp() {
+		schema.setCreateReversedEdgesLazily(false);
+	}
+
+	@After
+	public void tearDown() {
+		schema.setCreateReversedEdgesLazily(false);
+	}
+
+	private Graph createGraph(ImplementationType implType, boolean lazy) {
+		schema.setCreateReversedEdgesLazily(lazy);
+		try {
+			return schema.createGraph(implType, "LazyReversedEdgeTest", 100,
+					100);
+		} finally {
+			schema.setCreateReversedEdgesLazily(false);
+		}
+	}
+
+	private static String toTg(Graph g) throws GraphIOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GraphIO.saveGraphToStream(g, out, null);
+		return out.toString();
+	}
+
+	@Test
+	public void testIdentity() {
+		Graph g = createGraph(ImplementationType.STANDARD, true);
+		VertexClass node = schema.getGraphClass().getVertexClass("Node");
+		EdgeClass link = schema.getGraphClass().getEdgeClass("Link");
+		Vertex a = g.createVertex(node);
+		Vertex b = g.createVertex(node);
+		Edge e = g.createEdge(link, a, b);
+		Edge l = g.createEdge(link, b, b);
+
+		Edge r = g.getEdge(-e.getId());
+		assertSame(r, e.getReversedEdge());
+		assertSame(r, g.getEdge(-e.getId()));
+		assertSame(e, r.getReversedEdge());
+		assertSame(e, r.getNormalEdge());
+		assertFalse(r.isNormal());
+		assertEquals(-e.getId(), r.getId());
+		assertSame(a, r.getThat());
+		assertSame(b, r.getThis());
+		assertSame(r, b.getFirstIncidence());
+		assertSame(l.getReversedEdge(), b.getLastIncidence());
+		assertTrue(r.isBeforeIncidence(b.getLastIncidence()));
+		assertTrue(r.compareTo(e) > 0);
+		assertTrue(e.compareTo(r) < 0);
+
+		int id = e.getId();
+		l.delete();
+		e.delete();
+		assertNull(g.getEdge(-id));
+		assertNull(b.getFirstIncidence());
+	}
+
+	@Test
+	public void testReclaimed() throws InterruptedException {
+		Graph g = createGraph(ImplementationType.STANDARD, true);
+		VertexClass node = schema.getGraphClass().getVertexClass("Node");
+		EdgeClass link = schema.getGraphClass().getEdgeClass("Link");
+		Vertex a = g.createVertex(node);
+		Vertex b = g.createVertex(node);
+		Edge e = g.createEdge(link, a, b);
+		WeakReference<Edge> ref = new WeakReference<Edge>(e.getReversedEdge());
+		for (int i = 0; (i < 50) && (ref.get() != null); ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+		assertSame(e, b.getFirstIncidence().getNormalEdge());
+	}
+
+	@Test
+	public void testIdReuseAndRenumbering() {
+		Graph g = createGraph(ImplementationType.STANDARD, true);
+		VertexClass node = schema.getGraphClass().getVertexClass("Node");
+		EdgeClass link = schema.getGraphClass().getEdgeClass("Link");
+		Vertex a = g.createVertex(node);
+		Vertex b = g.createVertex(node);
+		Edge e1 = g.createEdge(link, a, b);
+		Edge e2 = g.createEdge(link, a, b);
+		Edge e3 = g.createEdge(link, a, b);
+		Edge r1 = e1.getReversedEdge();
+		Edge r3 = e3.getReversedEdge();
+		int id = e1.getId();
+		e1.delete();
+		Edge e4 = g.createEdge(link, b, a);
+		assertEquals(id, e4.getId());
+		assertNotSame(r1, e4.getReversedEdge());
+		assertSame(e4, e4.getReversedEdge().getNormalEdge());
+
+		e2.delete();
+		((InternalGraph) g).defragment();
+		assertSame(r3, e3.getReversedEdge());
+		assertSame(r3, g.getEdge(-e3.getId()));
+		checkIncidences(g);
+	}
+
+	@Test
+	public void testLoops() throws GraphIOException {
+		Graph[] graphs = { createGraph(ImplementationType.STANDARD, false),
+				createGraph(ImplementationType.STANDARD, true) };
+		VertexClass node = schema.getGraphClass().getVertexClass("Node");
+		EdgeClass link = schema.getGraphClass().getEdgeClass("Link");
+		for (Graph g : graphs) {
+			Vertex a = g.createVertex(node);
+			Vertex b = g.createVertex(node);
+			g.createEdge(link, a, b);
+			Edge e = g.createEdge(link, a, b);
+			g.createEdge(link, a, b);
+			// both incidences of e end up in the incidence list of b
+			e.setAlpha(b);
+			assertSame(e, b.getLastIncidence());
+			assertSame(e.getReversedEdge(), b.getFirstIncidence()
+					.getNextIncidence());
+			e.setOmega(a);
+			assertSame(e.getReversedEdge(), a.getLastIncidence());
+			e.setAlpha(a);
+			assertSame(e, a.getLastIncidence());
+			assertSame(e.getReversedEdge(), a.getLastIncidence()
+					.getPrevIncidence());
+			e.setOmega(b);
+			e.setAlpha(b);
+		}
+		assertEquals(toTg(graphs[0]), toTg(graphs[1]));
+	}
+
+	@Test
+	public void testStandardGraph() throws GraphIOException {
+		randomModifications(ImplementationType.STANDARD);
+	}
+
+	@Test
+	public void testGenericGraph() throws GraphIOException {
+		randomModifications(ImplementationType.GENERIC);
+	}
+
+	@Test
+	public void testLoad() throws GraphIOException {
+		Graph g = createGraph(ImplementationType.STANDARD, false);
+		modify(new Graph[] { g }, STEPS);
+		String tg = toTg(g);
+		schema.setCreateReversedEdgesLazily(true);
+		Graph h = GraphIO.loadGraphFromStream(
+				new ByteArrayInputStream(tg.getBytes()), null, schema, null,
+				ImplementationType.STANDARD, null);
+		schema.setCreateReversedEdgesLazily(false);
+		assertEquals(tg, toTg(h));
+		checkIncidences(h);
+	}
+
+	/**
+	 * Applies the same random modifications to a graph with and a graph
+	 * without lazily created reversed edges, which must have the same
+	 * incidence lists afterwards.
+	 */
+	private void randomModifications(ImplementationType implType)
+			throws GraphIOException {
+		Graph[] graphs = { createGraph(implType, false),
+				createGraph(implType, true) };
+		for (int i = 0; i < STEPS; i += 50) {
+			modify(graphs, 50);
+			assertEquals(toTg(graphs[0]), toTg(graphs[1]));
+			checkIncidences(graphs[1]);
+		}
+		while (graphs[0].getECount() > 0) {
+			int e = randomEdgeId(graphs[0]);
+			for (Graph g : graphs) {
+				g.getEdge(e).delete();
+			}
+			checkIncidences(graphs[1]);
+		}
+		assertEquals(toTg(graphs[0]), toTg(graphs[1]));
+	}
+
+	private void modify(Graph[] graphs, int steps) {
+		VertexClass node = schema.getGraphClass().getVertexClass("Node");
+		EdgeClass link = schema.getGraphClass().getEdgeClass("Link");
+		Comparator<Edge> comp = new Comparator<Edge>() {
+			@Override
+			public int compare(Edge e1, Edge e2) {
+				return e2.getId() - e1.getId();
+			}
+		};
+		Graph ref = graphs[0];
+		for (int i = 0; i < steps; ++i) {
+			if (ref.getVCount() < VERTICES) {
+				for (Graph g : graphs) {
+					g.createVertex(node);
+				}
+				continue;
+			}
+			int a = randomVertexId(ref);
+			int b = randomVertexId(ref);
+			int e = ref.getECount() > 0 ? randomEdgeId(ref) : 0;
+			int f = ref.getECount() > 0 ? randomEdgeId(ref) : 0;
+			int op = e == 0 ? 0 : rand.nextInt(8);
+			boolean deleteVertex = rand.nextInt(20) == 0;
+			if ((op == 6) && (ref.getEdge(e).getThis() != ref.getEdge(f)
+					.getThis())) {
+				op = 0;
+			}
+			for (Graph g : graphs) {
+				switch (op) {
+				case 0:
+				case 1:
+					g.createEdge(link, g.getVertex(a), g.getVertex(b));
+					break;
+				case 2:
+					g.getEdge(e).delete();
+					break;
+				case 3:
+					g.getEdge(e).setAlpha(g.getVertex(b));
+					break;
+				case 4:
+					g.getEdge(e).setOmega(g.getVertex(b));
+					break;
+				case 5:
+					// loops of both kinds
+					g.getEdge(e).setAlpha(g.getEdge(e).getOmega());
+					break;
+				case 6:
+					if (e != f) {
+						g.getEdge(e).putIncidenceBefore(g.getEdge(f));
+					}
+					break;
+				default:
+					if (deleteVertex) {
+						g.getVertex(a).delete();
+					} else {
+						g.getVertex(a).sortIncidences(comp);
+					}
+				}
+			}
+		}
+	}
+
+	private int randomVertexId(Graph g) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Vertex v : g.vertices()) {
+			ids.add(v.getId());
+		}
+		return ids.get(rand.nextInt(ids.size()));
+	}
+
+	private int randomEdgeId(Graph g) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Edge e : g.edges()) {
+			ids.add(rand.nextBoolean() ? e.getId() : -e.getId());
+		}
+		return ids.get(rand.nextInt(ids.size()));
+	}
+
+	private static void checkIncidences(Graph g) {
+		for (Vertex v : g.vertices()) {
+			Edge prev = null;
+			for (Edge i = v.getFirstIncidence(); i != null; i = i
+					.getNextIncidence()) {
+				assertSame(v, i.getThis());
+				assertSame(i, g.getEdge(i.getId()));
+				assertSame(prev, i.getPrevIncidence());
+				prev = i;
+			}
+			assertSame(prev, v.getLastIncidence());
+		}
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pcollections.POrderedSet;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.EdgeDirection;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.PathElement;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.impl.PathNavigator;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.vertextest.VertexTestSchema;
+
+public class PathNavigatorTest {
+
+	private static final int LAYER = 6;
+
+	private Graph g;
+	private VertexClass a;
+	private VertexClass c;
+	private EdgeClass i;
+
+	@Before
+	public void setUp() {
+		g = VertexTestSchema.instance().createGraph(
+				ImplementationType.STANDARD);
+		a = g.getGraphClass().getVertexClass("A");
+		c = g.getGraphClass().getVertexClass("C");
+		i = g.getGraphClass().getEdgeClass("I");
+	}
+
+	/**
+	 * The breadth first traversal of all paths without de-duplication, as
+	 * implemented before.
+	 */
+	private static List<Vertex> allPaths(Vertex start,
+			PathElement... pathElements) {
+		List<Vertex> result = new ArrayList<Vertex>();
+		Queue<Vertex> q = new LinkedList<Vertex>();
+		q.add(start);
+		for (int n = 0; n < pathElements.length; n++) {
+			PathElement t = pathElements[n];
+			q.add(null);
+			Vertex vx = q.poll();
+			while (vx != null) {
+				for (Edge e : vx.incidences(t.edgeClass, t.edgeDirection)) {
+					if (!t.strictType
+							|| (t.edgeClass == e.getAttributedElementClass())) {
+						if (n == (pathElements.length - 1)) {
+							if (!result.contains(e.getThat())) {
+								result.add(e.getThat());
+							}
+						} else {
+							q.add(e.getThat());
+						}
+					}
+				}
+				vx = q.poll();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates <code>layers</code> layers of {@link #LAYER} vertices where
+	 * each vertex is connected with all vertices of the next layer, and
+	 * returns the first vertex.
+	 */
+	private Vertex createLayers(int layers) {
+		Vertex[] prev = null;
+		for (int l = 0; l < layers; ++l) {
+			Vertex[] layer = new Vertex[LAYER];
+			for (int n = 0; n < LAYER; ++n) {
+				layer[n] = g.createVertex((n % 2 == 0) ? a : c);
+				if (prev != null) {
+					for (Vertex p : prev) {
+						g.createEdge(i, p, layer[n]);
+					}
+				}
+			}
+			prev = layer;
+		}
+		return g.getFirstVertex();
+	}
+
+	private static List<Vertex> list(POrderedSet<? extends Vertex> set) {
+		return new ArrayList<Vertex>(set);
+	}
+
+	@Test
+	public void testSameResultAsAllPaths() {
+		Vertex start = createLayers(6);
+		PathElement out = new PathElement(i, EdgeDirection.OUT);
+		PathElement in = new PathElement(i, EdgeDirection.IN);
+		PathElement any = new PathElement(i, EdgeDirection.INOUT);
+		PathElement[][] paths = { { out }, { out, out }, { out, out, out },
+				{ out, out, out, out, out }, { out, in }, { out, any, out },
+				{ any, any, any, any } };
+		for (PathElement[] path : paths) {
+			assertEquals(allPaths(start, path),
+					list(start.reachableVertices(Vertex.class, path)));
+		}
+		assertEquals(LAYER,
+				start.reachableVertices(Vertex.class, out, out, out, out, out)
+						.size());
+		assertEquals(0, start.reachableVertices(Vertex.class, in).size());
+		assertEquals(0, start.reachableVertices(Vertex.class).size());
+	}
+
+	@Test
+	public void testReturnTypeAndStrictType() {
+		Vertex start = createLayers(3);
+		PathElement out = new PathElement(i, EdgeDirection.OUT);
+		POrderedSet<? extends Vertex> cs = start.reachableVertices(
+				c.getSchemaClass().asSubclass(Vertex.class), out, out);
+		assertEquals(LAYER / 2, cs.size());
+		for (Vertex v : cs) {
+			assertTrue(v.isInstanceOf(c));
+		}
+
+		VertexClass b = g.getGraphClass().getVertexClass("B");
+		EdgeClass e = g.getGraphClass().getEdgeClass("E");
+		EdgeClass h = g.getGraphClass().getEdgeClass("H");
+		Vertex x = g.createVertex(a);
+		Vertex y = g.createVertex(b);
+		Vertex z = g.createVertex(b);
+		g.createEdge(e, x, y);
+		g.createEdge(h, x, z);
+		assertEquals(2,
+				x.reachableVertices(Vertex.class,
+						new PathElement(e, EdgeDirection.OUT)).size());
+		assertEquals(
+				1,
+				x.reachableVertices(Vertex.class,
+						new PathElement(e, EdgeDirection.OUT, true)).size());
+	}
+
+	@Test
+	public void testAdjacences() {
+		Vertex start = createLayers(2);
+		Vertex last = g.getLastVertex();
+		g.createEdge(i, start, last);
+		List<? extends Vertex> adj = start.adjacences("v");
+		assertEquals(LAYER + 1, adj.size());
+		assertEquals(last, adj.get(LAYER));
+		assertEquals(last, adj.get(LAYER - 1));
+		assertEquals(LAYER,
+				start.reachableVertices(Vertex.class,
+						new PathElement(i, EdgeDirection.OUT)).size());
+	}
+
+	@Test
+	public void testParallel() {
+		Random rand = new Random(42);
+		Vertex hub = g.createVertex(a);
+		int count = 3 * PathNavigator.PARALLEL_THRESHOLD / 2;
+		Vertex[] vs = new Vertex[count];
+		for (int n = 0; n < count; ++n) {
+			vs[n] = g.createVertex((n % 3 == 0) ? c : a);
+			g.createEdge(i, hub, vs[n]);
+		}
+		for (int n = 0; n < 3 * count; ++n) {
+			g.createEdge(i, vs[rand.nextInt(count)], vs[rand.nextInt(count)]);
+		}
+		PathElement out = new PathElement(i, EdgeDirection.OUT);
+		PathElement any = new PathElement(i, EdgeDirection.INOUT);
+		PathElement[][] paths = { { out, out }, { out, any, out },
+				{ out, out, any } };
+		for (PathElement[] path : paths) {
+			POrderedSet<Vertex> seq = PathNavigator.reachableVertices(hub,
+					Vertex.class, path);
+			POrderedSet<Vertex> par = PathNavigator.reachableVertices(hub,
+					Vertex.class, 4, path);
+			assertTrue(seq.size() > 0);
+			assertEquals(list(seq), list(par));
+		}
+	}
+}
@@ -69,7 +69,12 @@ import de.uni_koblenz.jgralabtest.instancetest.internal.RunInternalTests;
 		GraphStructureChangedListenerTest.class, DefaultValueTest.class,
 		RunGraphMarkerTests.class, TraversalContextTest.class,
 		TraversalContextMultipleThreadsTest.class, RunInternalTests.class,
-		FreeIndexListTest.class })
+		FreeIndexListTest.class, FrozenGraphTest.class,
+		ClassSequenceTest.class, IncidencePartitionTest.class,
+		GraphBuilderTest.class, ConcurrentAccessTest.class,
+		SnapshotTest.class, ElementSpliteratorTest.class,
+		PathNavigatorTest.class, GraphFactoryTest.class,
+		LazyReversedEdgeTest.class })
 public class RunInstanceTests {
 
 	@BeforeClass
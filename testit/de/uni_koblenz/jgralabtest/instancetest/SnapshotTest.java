@@ -0,0 +1,245 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.instancetest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.Graph;
+import de.uni_koblenz.jgralab.ImplementationType;
+import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.exception.GraphException;
+import de.uni_koblenz.jgralab.greql.GreqlQuery;
+import de.uni_koblenz.jgralab.schema.EdgeClass;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralabtest.schemas.vertextest.VertexTestSchema;
+
+/**
+ * Tests for {@link Graph#snapshot()}.
+ */
+public class SnapshotTest {
+
+	private static Graph createGraph(ImplementationType impl, int vertices) {
+		Graph g = VertexTestSchema.instance().createGraph(impl);
+		VertexClass sn = g.getGraphClass().getVertexClass("DoubleSubNode");
+		EdgeClass link = g.getGraphClass().getEdgeClass("Link");
+		Vertex prev = null;
+		for (int i = 0; i < vertices; ++i) {
+			Vertex v = g.createVertex(sn);
+			v.setAttribute("number", i);
+			if (prev != null) {
+				g.createEdge(link, prev, v);
+			}
+			prev = v;
+		}
+		g.setConcurrentAccess(true);
+		return g;
+	}
+
+	@Test
+	public void testSharedUntilModified() {
+		Graph g = createGraph(ImplementationType.STANDARD, 10);
+		Graph s1 = g.snapshot();
+		assertSame(s1, g.snapshot());
+		assertSame(s1, s1.snapshot());
+		assertEquals(g.getGraphVersion(), s1.getGraphVersion());
+
+		Vertex v = g.getFirstVertex();
+		v.delete();
+		Graph s2 = g.snapshot();
+		assertNotSame(s1, s2);
+		assertEquals(10, s1.getVCount());
+		assertEquals(9, s1.getECount());
+		assertEquals(9, s2.getVCount());
+		assertEquals(8, s2.getECount());
+		assertEquals(g.getGraphVersion(), s2.getGraphVersion());
+	}
+
+	@Test(expected = GraphException.class)
+	public void testRequiresConcurrentAccess() {
+		Graph g = createGraph(ImplementationType.STANDARD, 10);
+		g.setConcurrentAccess(false);
+		g.snapshot();
+	}
+
+	@Test
+	public void testAttributeChangeStandard() {
+		checkAttributeChange(createGraph(ImplementationType.STANDARD, 3));
+	}
+
+	@Test
+	public void testAttributeChangeGeneric() {
+		checkAttributeChange(createGraph(ImplementationType.GENERIC, 3));
+	}
+
+	private void checkAttributeChange(Graph g) {
+		Graph s1 = g.snapshot();
+		g.getFirstVertex().setAttribute("number", 42);
+		Graph s2 = g.snapshot();
+		assertNotSame(s1, s2);
+		assertEquals(Integer.valueOf(0),
+				s1.getFirstVertex().getAttribute("number"));
+		assertEquals(Integer.valueOf(42),
+				s2.getFirstVertex().getAttribute("number"));
+	}
+
+	@Test
+	public void testAttributeChangeLockedStandard()
+			throws InterruptedException {
+		checkAttributeChangeLocked(createGraph(ImplementationType.STANDARD, 3));
+	}
+
+	@Test
+	public void testAttributeChangeLockedGeneric() throws InterruptedException {
+		checkAttributeChangeLocked(createGraph(ImplementationType.GENERIC, 3));
+	}
+
+	private void checkAttributeChangeLocked(Graph g)
+			throws InterruptedException {
+		final Vertex v = g.getFirstVertex();
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				v.setAttribute("number", 42);
+			}
+		};
+		Lock r = g.getReadLock();
+		r.lock();
+		try {
+			writer.start();
+			writer.join(100);
+			// the setter waits for the write lock like snapshot() readers
+			assertTrue(writer.isAlive());
+			assertEquals(Integer.valueOf(0), v.getAttribute("number"));
+		} finally {
+			r.unlock();
+		}
+		writer.join();
+		assertEquals(Integer.valueOf(42), v.getAttribute("number"));
+	}
+
+	@Test
+	public void testIterationDuringModification() {
+		Graph g = createGraph(ImplementationType.STANDARD, 100);
+		Graph s = g.snapshot();
+		VertexClass sn = g.getGraphClass().getVertexClass("DoubleSubNode");
+		int count = 0;
+		for (Vertex v : s.vertices()) {
+			// modifications of the graph don't affect the snapshot
+			g.getVertex(v.getId()).delete();
+			g.createVertex(sn);
+			for (Edge e : v.incidences()) {
+				assertSame(v, e.getThis());
+			}
+			++count;
+		}
+		assertEquals(100, count);
+		assertEquals(100, g.getVCount());
+		assertEquals(0, g.getECount());
+	}
+
+	@Test
+	public void testReclaimed() throws InterruptedException {
+		Graph g = createGraph(ImplementationType.STANDARD, 10);
+		WeakReference<Graph> ref = new WeakReference<Graph>(g.snapshot());
+		g.getFirstVertex().delete();
+		assertNotSame(ref.get(), g.snapshot());
+		for (int i = 0; (i < 50) && (ref.get() != null); ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+	}
+
+	@Test
+	public void testQueriesDuringModification() throws InterruptedException {
+		final Graph g = createGraph(ImplementationType.STANDARD, 100);
+		final List<Throwable> errors = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		final boolean[] done = new boolean[1];
+		Thread reader = new Thread() {
+			@Override
+			public void run() {
+				try {
+					while (!done[0]) {
+						Graph s = g.snapshot();
+						assertEquals(s.getVCount(), ((Number) GreqlQuery
+								.createQuery("count(V)").evaluate(s))
+								.intValue());
+						assertEquals(s.getECount(), ((Number) GreqlQuery
+								.createQuery("count(E)").evaluate(s))
+								.intValue());
+					}
+				} catch (Throwable t) {
+					errors.add(t);
+				}
+			}
+		};
+		reader.start();
+		try {
+			VertexClass sn = g.getGraphClass().getVertexClass("DoubleSubNode");
+			EdgeClass link = g.getGraphClass().getEdgeClass("Link");
+			for (int i = 0; (i < 2000) && errors.isEmpty(); ++i) {
+				Vertex v = g.createVertex(sn);
+				g.createEdge(link, g.getFirstVertex(), v);
+				if (i % 3 == 0) {
+					g.getFirstVertex().delete();
+				}
+				if (i % 100 == 0) {
+					Thread.yield();
+				}
+			}
+		} finally {
+			done[0] = true;
+			reader.join();
+		}
+		if (!errors.isEmpty()) {
+			throw new AssertionError(errors.get(0));
+		}
+		assertTrue(g.snapshot().getVCount() == g.getVCount());
+	}
+}
@@ -62,6 +62,7 @@ import de.uni_koblenz.jgralab.ImplementationType;
 import de.uni_koblenz.jgralab.JGraLab;
 import de.uni_koblenz.jgralab.Vertex;
 import de.uni_koblenz.jgralab.exception.NoSuchAttributeException;
+import de.uni_koblenz.jgralab.graphmarker.SubGraphMarker;
 import de.uni_koblenz.jgralab.schema.EdgeClass;
 import de.uni_koblenz.jgralab.schema.GraphClass;
 import de.uni_koblenz.jgralab.schema.Schema;
@@ -1267,6 +1268,112 @@ public class VertexTest extends InstanceTest {
 		assertEquals(expectedLinkBack, forNode.getDegree(ecs[2], direction));
 	}
 
+	/**
+	 * Enables the per-EdgeClass degree counters of the schema and checks that
+	 * the degrees stay consistent with the incidence lists when edges are
+	 * created, moved with setAlpha()/setOmega() and deleted, and when the
+	 * counters are switched off and on again.
+	 */
+	@Test
+	public void getDegreeTestEdgeClassEdgeDirectionCounters() {
+		Schema schema = g.getSchema();
+		schema.setMaintainEdgeClassDegrees(true);
+		try {
+			Vertex[] nodes = new Vertex[3];
+			nodes[0] = g.createSubNode();
+			nodes[1] = g.createDoubleSubNode();
+			nodes[2] = g.createSuperNode();
+			for (int i = 0; i < ITERATIONS; i++) {
+				int start = rand.nextInt(2);
+				int end = rand.nextInt(2) + 1;
+				switch (rand.nextInt(3)) {
+				case 0:
+					g.createLink((AbstractSuperNode) nodes[start],
+							(SuperNode) nodes[end]);
+					break;
+				case 1:
+					g.createLinkBack((SuperNode) nodes[end],
+							(AbstractSuperNode) nodes[start]);
+					break;
+				default:
+					g.createSubLink((DoubleSubNode) nodes[1],
+							(SuperNode) nodes[end]);
+				}
+				checkDegreeCounters(nodes);
+			}
+			for (Edge e : g.edges()) {
+				if (e instanceof LinkBack) {
+					e.setAlpha(nodes[1 + rand.nextInt(2)]);
+				} else {
+					e.setOmega(nodes[1 + rand.nextInt(2)]);
+				}
+				checkDegreeCounters(nodes);
+			}
+			schema.setMaintainEdgeClassDegrees(false);
+			g.getFirstEdge().delete();
+			checkDegreeCounters(nodes);
+			schema.setMaintainEdgeClassDegrees(true);
+			while (g.getFirstEdge() != null) {
+				g.getFirstEdge().delete();
+				checkDegreeCounters(nodes);
+			}
+		} finally {
+			schema.setMaintainEdgeClassDegrees(false);
+		}
+	}
+
+	/**
+	 * Checks that degrees respect the traversal context although they are
+	 * maintained as counters.
+	 */
+	@Test
+	public void getDegreeTestTraversalContext() {
+		SuperNode supern = g.createSuperNode();
+		SubNode subn = g.createSubNode();
+		Link l = g.createLink(subn, supern);
+		g.createLink(subn, supern);
+		g.createLinkBack(supern, subn);
+		SubGraphMarker sub = new SubGraphMarker(g);
+		sub.mark(l);
+		g.setTraversalContext(sub);
+		try {
+			assertEquals(1, subn.getDegree());
+			assertEquals(1, subn.getDegree(EdgeDirection.OUT));
+			assertEquals(0, subn.getDegree(EdgeDirection.IN));
+			assertEquals(1, supern.getDegree(EdgeDirection.IN));
+			assertEquals(1, supern.getDegree(getEdgeClasses()[0]));
+			assertEquals(0, supern.getDegree(getEdgeClasses()[2]));
+		} finally {
+			g.setTraversalContext(null);
+		}
+		assertEquals(3, subn.getDegree());
+		assertEquals(2, subn.getDegree(EdgeDirection.OUT));
+		assertEquals(1, subn.getDegree(EdgeDirection.IN));
+		assertEquals(2, supern.getDegree(EdgeDirection.IN));
+	}
+
+	private void checkDegreeCounters(Vertex[] nodes) {
+		EdgeClass[] ecs = getEdgeClasses();
+		for (Vertex v : nodes) {
+			for (EdgeDirection dir : EdgeDirection.values()) {
+				int count = 0;
+				for (@SuppressWarnings("unused")
+				Edge e : v.incidences(dir)) {
+					++count;
+				}
+				assertEquals(count, v.getDegree(dir));
+				for (EdgeClass ec : ecs) {
+					count = 0;
+					for (@SuppressWarnings("unused")
+					Edge e : v.incidences(ec, dir)) {
+						++count;
+					}
+					assertEquals(count, v.getDegree(ec, dir));
+				}
+			}
+		}
+	}
+
 	// tests of the method getDegree(Class<? extends Edge> ec, EdgeDirection
 	// orientation)
 
@@ -51,8 +51,11 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
 import de.uni_koblenz.jgralab.Edge;
+import de.uni_koblenz.jgralab.GraphStructureChangedAdapter;
 import de.uni_koblenz.jgralab.ImplementationType;
 import de.uni_koblenz.jgralab.Vertex;
+import de.uni_koblenz.jgralab.graphmarker.BitSetEdgeMarker;
+import de.uni_koblenz.jgralab.graphmarker.IntegerVertexMarker;
 import de.uni_koblenz.jgralab.impl.InternalGraph;
 import de.uni_koblenz.jgralabtest.instancetest.InstanceTest;
 import de.uni_koblenz.jgralabtest.schemas.minimal.MinimalGraph;
@@ -240,6 +243,92 @@ public class GraphBaseTest extends InstanceTest {
 		}
 	}
 
+	@Test
+	public void testIncrementalDefragment() {
+		MinimalGraph g = createMinimalGraph();
+		InternalGraph ig = (InternalGraph) g;
+		for (int i = 0; i < 20; i++) {
+			g.createNode();
+		}
+		for (int i = 1; i <= 20; i++) {
+			g.createLink((Node) g.getVertex(i),
+					(Node) g.getVertex((i % 20) + 1));
+		}
+		IntegerVertexMarker vm = new IntegerVertexMarker(g);
+		BitSetEdgeMarker em = new BitSetEdgeMarker(g);
+		for (Vertex v : g.vertices()) {
+			vm.mark(v, v.getId() * 10);
+		}
+		for (Edge e : g.edges()) {
+			if (e.getId() % 2 == 0) {
+				em.mark(e);
+			}
+		}
+		final int[] renumbered = new int[2];
+		GraphStructureChangedAdapter l = new GraphStructureChangedAdapter() {
+			@Override
+			public void verticesRenumbered(int[] oldIds, int[] newIds) {
+				assertEquals(oldIds.length, newIds.length);
+				renumbered[0] += oldIds.length;
+			}
+
+			@Override
+			public void edgesRenumbered(int[] oldIds, int[] newIds) {
+				assertEquals(oldIds.length, newIds.length);
+				renumbered[1] += oldIds.length;
+			}
+		};
+		g.addGraphStructureChangedListener(l);
+
+		// deleting vertex 3 deletes the edges 2 and 3
+		for (int i = 3; i <= 15; i += 3) {
+			g.getVertex(i).delete();
+		}
+		assertTrue(ig.getFreeVertexList().getFragmentation() > 0.0);
+		assertTrue(ig.getFreeEdgeList().getFragmentation() > 0.0);
+		HashSet<Integer> vertexMarks = new HashSet<Integer>();
+		for (Vertex v : g.vertices()) {
+			vertexMarks.add(vm.getMark(v));
+		}
+		HashSet<Edge> markedEdges = new HashSet<Edge>();
+		for (Edge e : em.getMarkedElements()) {
+			markedEdges.add(e);
+		}
+
+		assertEquals(3, ig.defragment(3));
+		assertEquals(3, renumbered[0]);
+		assertEquals(0, renumbered[1]);
+		int moves = 3;
+		int m;
+		while ((m = ig.defragment(3)) > 0) {
+			assertTrue(m <= 3);
+			moves += m;
+		}
+		assertEquals(moves, renumbered[0] + renumbered[1]);
+		assertFalse(ig.getFreeVertexList().isFragmented());
+		assertFalse(ig.getFreeEdgeList().isFragmented());
+		assertEquals(0.0, ig.getFreeEdgeList().getFragmentation(), 0.0);
+
+		// ids are dense now, and the marks moved along with the elements
+		for (int i = 1; i <= g.getVCount(); i++) {
+			assertNotNull(g.getVertex(i));
+		}
+		for (int i = 1; i <= g.getECount(); i++) {
+			assertNotNull(g.getEdge(i));
+		}
+		HashSet<Integer> movedVertexMarks = new HashSet<Integer>();
+		for (Vertex v : g.vertices()) {
+			movedVertexMarks.add(vm.getMark(v));
+		}
+		assertEquals(vertexMarks, movedVertexMarks);
+		HashSet<Edge> movedMarkedEdges = new HashSet<Edge>();
+		for (Edge e : em.getMarkedElements()) {
+			movedMarkedEdges.add(e);
+		}
+		assertEquals(markedEdges, movedMarkedEdges);
+		g.removeGraphStructureChangedListener(l);
+	}
+
 	// TODO continue here
 	@Test
 	public void testGetEdgeListVersion() throws Exception {
@@ -0,0 +1,252 @@
+/*
+ * JGraLab - The Java Graph Laboratory
+ *
+ * Copyright (C) 2006-2013 Institute for Software Technology
+ *                         University of Koblenz-Landau, Germany
+ *                         ist@uni-koblenz.de
+ *
+ * For bug reports, documentation and further information, visit
+ *
+ *                         https://github.com/jgralab/jgralab
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ * Additional permission under GNU GPL version 3 section 7
+ *
+ * If you modify this Program, or any covered work, by linking or combining
+ * it with Eclipse (or a modified version of that program or an Eclipse
+ * plugin), containing parts covered by the terms of the Eclipse Public
+ * License (EPL), the licensors of this Program grant you additional
+ * permission to convey the resulting work.  Corresponding Source for a
+ * non-source form of such a combination shall include the source code for
+ * the parts of JGraLab used as well as that of the covered work.
+ */
+package de.uni_koblenz.jgralabtest.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.uni_koblenz.jgralab.schema.GraphClass;
+import de.uni_koblenz.jgralab.schema.Schema;
+import de.uni_koblenz.jgralab.schema.VertexClass;
+import de.uni_koblenz.jgralab.schema.codegenerator.CodeGeneratorConfiguration;
+import de.uni_koblenz.jgralab.schema.impl.SchemaImpl;
+import de.uni_koblenz.jgralab.schema.impl.compilation.SchemaClassCache;
+import de.uni_koblenz.jgralab.schema.impl.compilation.SchemaClassManager;
+import de.uni_koblenz.jgralab.utilities.schemacache.SchemaCacheWarmUp;
+
+public class SchemaClassCacheTest {
+	private static final String PACKAGE = "de.uni_koblenz.jgralabtest.schemas.cachetest";
+	private static final File CACHE = new File("testit/testdata/schemacache");
+
+	private static String oldDirectory;
+	private static int schemaCount;
+
+	@BeforeClass
+	public static void setUp() {
+		CACHE.mkdirs();
+		for (File f : CACHE.listFiles()) {
+			f.delete();
+		}
+		// the cache only uses directories other users can't write to
+		CACHE.setWritable(false, false);
+		CACHE.setWritable(true, true);
+		oldDirectory = System.setProperty(
+				SchemaClassCache.CACHE_DIRECTORY_PROPERTY, CACHE.getPath());
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		if (oldDirectory == null) {
+			System.clearProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY);
+		} else {
+			System.setProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY,
+					oldDirectory);
+		}
+	}
+
+	private static Schema createSchema(String name, boolean withSize) {
+		Schema s = new SchemaImpl(name, PACKAGE);
+		GraphClass gc = s.createGraphClass("CacheGraph");
+		VertexClass vc = gc.createVertexClass("Node");
+		vc.createAttribute("name", s.getStringDomain());
+		if (withSize) {
+			vc.createAttribute("size", s.getIntegerDomain());
+		}
+		s.finish();
+		return s;
+	}
+
+	private static String uniqueName() {
+		return "CacheTestSchema" + (++schemaCount);
+	}
+
+	private static void assertLoadable(Schema s) throws ClassNotFoundException {
+		String implName = PACKAGE + ".impl.std.CacheGraphImpl";
+		Class<?> c = Class.forName(implName, true,
+				SchemaClassManager.instance(s.getQualifiedName()));
+		assertEquals(implName, c.getName());
+	}
+
+	@Test
+	public void testKey() {
+		String key = SchemaClassCache.key(createSchema("KeySchema", false),
+				CodeGeneratorConfiguration.MINIMAL);
+		assertNotNull(key);
+		assertEquals(key, SchemaClassCache.key(
+				createSchema("KeySchema", false),
+				CodeGeneratorConfiguration.MINIMAL));
+		assertFalse(key.equals(SchemaClassCache.key(
+				createSchema("KeySchema", true),
+				CodeGeneratorConfiguration.MINIMAL)));
+		assertFalse(key.equals(SchemaClassCache.key(
+				createSchema("KeySchema", false),
+				CodeGeneratorConfiguration.NORMAL)));
+	}
+
+	@Test
+	public void testDisabled() {
+		System.setProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY,
+				SchemaClassCache.DISABLED);
+		try {
+			assertNull(SchemaClassCache.getDirectory());
+			assertNull(SchemaClassCache.key(createSchema("KeySchema", false),
+					CodeGeneratorConfiguration.MINIMAL));
+		} finally {
+			System.setProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY,
+					CACHE.getPath());
+		}
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		System.clearProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY);
+		try {
+			assertNull(SchemaClassCache.getDirectory());
+			assertNull(SchemaClassCache.key(createSchema("KeySchema", false),
+					CodeGeneratorConfiguration.MINIMAL));
+		} finally {
+			System.setProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY,
+					CACHE.getPath());
+		}
+	}
+
+	@Test
+	public void testCreatesPrivateDirectory() {
+		File dir = new File(CACHE, "private");
+		dir.delete();
+		System.setProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY,
+				dir.getPath());
+		try {
+			Schema s = createSchema(uniqueName(), false);
+			String key = SchemaClassCache.key(s,
+					CodeGeneratorConfiguration.MINIMAL);
+			s.compile(CodeGeneratorConfiguration.MINIMAL);
+			assertTrue(SchemaClassCache.contains(key));
+		} finally {
+			System.setProperty(SchemaClassCache.CACHE_DIRECTORY_PROPERTY,
+					CACHE.getPath());
+			for (File f : dir.listFiles()) {
+				f.delete();
+			}
+			dir.delete();
+		}
+	}
+
+	@Test
+	public void testSharedDirectoryIgnored() throws ClassNotFoundException {
+		Schema s = createSchema(uniqueName(), false);
+		String key = SchemaClassCache.key(s,
+				CodeGeneratorConfiguration.MINIMAL);
+		s.compile(CodeGeneratorConfiguration.MINIMAL);
+		assertNotNull(SchemaClassCache.load(key));
+		if (File.separatorChar != '/') {
+			return;
+		}
+		// an entry in a directory other users may write to could have been
+		// planted by them
+		assertTrue(CACHE.setWritable(true, false));
+		try {
+			assertFalse(SchemaClassCache.contains(key));
+			assertNull(SchemaClassCache.load(key));
+			Schema t = createSchema(uniqueName(), false);
+			t.compile(CodeGeneratorConfiguration.MINIMAL);
+			assertFalse(new File(CACHE, SchemaClassCache.key(t,
+					CodeGeneratorConfiguration.MINIMAL) + ".jar").exists());
+			assertLoadable(t);
+		} finally {
+			CACHE.setWritable(false, false);
+			CACHE.setWritable(true, true);
+		}
+		assertNotNull(SchemaClassCache.load(key));
+	}
+
+	@Test
+	public void testCompileStoresClasses() throws ClassNotFoundException {
+		Schema s = createSchema(uniqueName(), true);
+		String key = SchemaClassCache.key(s,
+				CodeGeneratorConfiguration.MINIMAL);
+		assertFalse(SchemaClassCache.contains(key));
+		s.compile(CodeGeneratorConfiguration.MINIMAL);
+		assertTrue(SchemaClassCache.contains(key));
+
+		Map<String, byte[]> classes = SchemaClassCache.load(key);
+		assertNotNull(classes);
+		byte[] graphImpl = classes.get(PACKAGE + ".impl.std.CacheGraphImpl");
+		assertNotNull(graphImpl);
+		assertTrue(graphImpl.length > 0);
+		assertTrue(classes.containsKey(PACKAGE + "." + s.getName()));
+
+		assertLoadable(s);
+	}
+
+	@Test
+	public void testWarmUp() {
+		Schema s = createSchema(uniqueName(), false);
+		assertTrue(SchemaCacheWarmUp.warmUp(s));
+		assertFalse(SchemaCacheWarmUp.warmUp(createSchema(s.getName(), false)));
+	}
+
+	@Test
+	public void testCorruptEntry() throws IOException,
+			ClassNotFoundException {
+		Schema s = createSchema(uniqueName(), false);
+		String key = SchemaClassCache.key(s,
+				CodeGeneratorConfiguration.MINIMAL);
+		FileOutputStream out = new FileOutputStream(new File(CACHE, key
+				+ ".jar"));
+		try {
+			out.write("no jar".getBytes());
+		} finally {
+			out.close();
+		}
+		assertNull(SchemaClassCache.load(key));
+		// the corrupt entry is replaced
+		s.compile(CodeGeneratorConfiguration.MINIMAL);
+		assertNotNull(SchemaClassCache.load(key));
+		assertLoadable(s);
+	}
+}